@@ -0,0 +1,86 @@
+package ezdb.comparator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A comparator that compares bytes as unsigned values, which is the order that
+ * memcmp and the built-in bytewise comparators of LevelDB, RocksDB and LMDB
+ * use.
+ * 
+ * Range tables that use this comparator for both the hash and the range key
+ * store their keys in the {@link ezdb.util.OrderedKeyFormat}, which allows the
+ * backends to sort keys natively without calling back into Java. Use it
+ * together with order-preserving serdes (e.g.
+ * {@link ezdb.serde.OrderedLongSerde}) to get the natural order of the keys.
+ */
+public class BytewiseComparator implements RegionComparator {
+	public static final BytewiseComparator get = new BytewiseComparator();
+
+	@Override
+	public int compare(final ByteBuffer bytes1, final ByteBuffer bytes2) {
+		return compare(bytes1, bytes1.position(), bytes1.limit(), bytes2, bytes2.position(), bytes2.limit());
+	}
+
+	@Override
+	public int compareRegions(final ByteBuffer bytes1, final int from1, final int to1, final ByteBuffer bytes2,
+			final int from2, final int to2) {
+		return compare(bytes1, from1, to1, bytes2, from2, to2);
+	}
+
+	public static int compare(final ByteBuffer bytes1, final int from1, final int to1, final ByteBuffer bytes2,
+			final int from2, final int to2) {
+		return compareWords(bytes1, from1, to1, bytes2, from2, to2, 0L);
+	}
+
+	/**
+	 * Compares eight bytes at a time as unsigned big-endian longs, the remainder
+	 * byte by byte.
+	 * 
+	 * @param signBits Flips the sign bit of every byte before comparing, so
+	 *                 0x8080808080808080L compares signed bytes and 0 unsigned
+	 *                 ones.
+	 */
+	static int compareWords(final ByteBuffer bytes1, final int from1, final int to1, final ByteBuffer bytes2,
+			final int from2, final int to2, final long signBits) {
+		final int length1 = to1 - from1;
+		final int length2 = to2 - from2;
+		final int minLength = Math.min(length1, length2);
+		int i = 0;
+		for (; i + Long.BYTES <= minLength; i += Long.BYTES) {
+			final long word1 = getLongBigEndian(bytes1, from1 + i);
+			final long word2 = getLongBigEndian(bytes2, from2 + i);
+			if (word1 != word2) {
+				return Long.compareUnsigned(word1 ^ signBits, word2 ^ signBits);
+			}
+		}
+		final int signBit = (int) signBits & 0xFF;
+		for (; i < minLength; i++) {
+			final int cmp = Integer.compare((bytes1.get(from1 + i) & 0xFF) ^ signBit,
+					(bytes2.get(from2 + i) & 0xFF) ^ signBit);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return Integer.compare(length1, length2);
+	}
+
+	static long getLongBigEndian(final ByteBuffer bytes, final int index) {
+		final long value = bytes.getLong(index);
+		if (bytes.order() == ByteOrder.BIG_ENDIAN) {
+			return value;
+		} else {
+			return Long.reverseBytes(value);
+		}
+	}
+
+	static int getIntBigEndian(final ByteBuffer bytes, final int index) {
+		final int value = bytes.getInt(index);
+		if (bytes.order() == ByteOrder.BIG_ENDIAN) {
+			return value;
+		} else {
+			return Integer.reverseBytes(value);
+		}
+	}
+
+}
@@ -1,20 +1,24 @@
 package ezdb.comparator;
 
 import java.nio.ByteBuffer;
-import java.util.Comparator;
 
 /**
- * A comparator that compares bytes using lexicographical ordering.
+ * A comparator that compares bytes using lexicographical ordering. The bytes
+ * are compared as signed values, which is the order of
+ * {@link ByteBuffer#compareTo(ByteBuffer)}.
  * 
  * @author criccomini
  * 
  */
-public class LexicographicalComparator implements Comparator<ByteBuffer> {
+public class LexicographicalComparator implements RegionComparator {
 	public static final LexicographicalComparator get = new LexicographicalComparator();
 
+	private static final long SIGN_BITS = 0x8080808080808080L;
+
 	@Override
-	public int compare(final ByteBuffer bytes1, final ByteBuffer bytes2) {
-		return bytes1.compareTo(bytes2);
+	public int compareRegions(final ByteBuffer bytes1, final int from1, final int to1, final ByteBuffer bytes2,
+			final int from2, final int to2) {
+		return BytewiseComparator.compareWords(bytes1, from1, to1, bytes2, from2, to2, SIGN_BITS);
 	}
 
 }
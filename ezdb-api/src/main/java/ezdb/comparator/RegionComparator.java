@@ -0,0 +1,26 @@
+package ezdb.comparator;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+/**
+ * A comparator that compares regions of buffers in place. Compound keys are
+ * compared through this without slicing their hash and range keys into new
+ * buffers, see {@link ezdb.util.Util#compareKeys(Comparator, Comparator, ByteBuffer, ByteBuffer)}.
+ */
+public interface RegionComparator extends Comparator<ByteBuffer> {
+
+	/**
+	 * Compares the bytes from the inclusive start to the exclusive end index of
+	 * both buffers, ignoring their positions and limits. Multi-byte values are
+	 * read in big-endian order regardless of the order of the buffers, like a
+	 * slice of them would.
+	 */
+	int compareRegions(ByteBuffer bytes1, int from1, int to1, ByteBuffer bytes2, int from2, int to2);
+
+	@Override
+	default int compare(final ByteBuffer bytes1, final ByteBuffer bytes2) {
+		return compareRegions(bytes1, bytes1.position(), bytes1.limit(), bytes2, bytes2.position(), bytes2.limit());
+	}
+
+}
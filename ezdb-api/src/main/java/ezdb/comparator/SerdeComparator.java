@@ -1,16 +1,52 @@
 package ezdb.comparator;
 
 import java.nio.ByteBuffer;
-import java.util.Comparator;
 
+import ezdb.serde.CalendarSerde;
+import ezdb.serde.DateSerde;
+import ezdb.serde.IntegerSerde;
+import ezdb.serde.LongSerde;
 import ezdb.serde.Serde;
+import ezdb.serde.StringSerde;
+import ezdb.util.Util;
 
-public class SerdeComparator<O> implements Comparator<ByteBuffer> {
+/**
+ * Compares keys by deserializing them into comparable objects. For the serdes
+ * returned by {@link #serializedComparatorOf(Serde)} the bytes are compared
+ * directly in the same order instead, unless a subclass customizes the
+ * comparison.
+ */
+public class SerdeComparator<O> implements RegionComparator {
 
 	private final Serde<O> serde;
+	private final RegionComparator serializedComparator;
 
 	public SerdeComparator(final Serde<O> serde) {
 		this.serde = serde;
+		if (getClass() == SerdeComparator.class) {
+			this.serializedComparator = serializedComparatorOf(serde);
+		} else {
+			this.serializedComparator = null;
+		}
+	}
+
+	/**
+	 * @return a comparator that orders the serialized keys of the serde like
+	 *         their objects without deserializing them, or null if the serde is
+	 *         not known
+	 */
+	public static RegionComparator serializedComparatorOf(final Serde<?> serde) {
+		// subclasses of the serdes might write a different format
+		final Class<?> type = serde.getClass();
+		if (type == LongSerde.class || type == DateSerde.class || type == CalendarSerde.class) {
+			return SerializedLongComparator.get;
+		} else if (type == IntegerSerde.class) {
+			return SerializedIntegerComparator.get;
+		} else if (type == StringSerde.class) {
+			return SerializedStringComparator.get;
+		} else {
+			return null;
+		}
 	}
 
 	@Override
@@ -27,11 +63,23 @@ public class SerdeComparator<O> implements Comparator<ByteBuffer> {
 			// fix buffer underflow
 			return 1;
 		}
+		if (serializedComparator != null) {
+			return serializedComparator.compare(o1, o2);
+		}
 		final Comparable<Object> co1 = toComparable(serde.fromBuffer(o1));
 		final Comparable<Object> co2 = toComparable(serde.fromBuffer(o2));
 		return innerCompare(co1, co2);
 	}
 
+	@Override
+	public int compareRegions(final ByteBuffer bytes1, final int from1, final int to1, final ByteBuffer bytes2,
+			final int from2, final int to2) {
+		if (serializedComparator != null) {
+			return serializedComparator.compareRegions(bytes1, from1, to1, bytes2, from2, to2);
+		}
+		return compare(Util.slice(bytes1, from1, to1 - from1), Util.slice(bytes2, from2, to2 - from2));
+	}
+
 	/**
 	 * Override this to customize the comparation itself. E.g. inversing it.
 	 */
@@ -0,0 +1,26 @@
+package ezdb.comparator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compares keys written by the {@link ezdb.serde.IntegerSerde} as signed
+ * integers without deserializing them.
+ * 
+ * Empty keys are ordered first like the {@link SerdeComparator} does.
+ */
+public class SerializedIntegerComparator implements RegionComparator {
+	public static final SerializedIntegerComparator get = new SerializedIntegerComparator();
+
+	@Override
+	public int compareRegions(final ByteBuffer bytes1, final int from1, final int to1, final ByteBuffer bytes2,
+			final int from2, final int to2) {
+		final boolean empty1 = from1 == to1;
+		final boolean empty2 = from2 == to2;
+		if (empty1 || empty2) {
+			return Boolean.compare(!empty1, !empty2);
+		}
+		return Integer.compare(BytewiseComparator.getIntBigEndian(bytes1, from1),
+				BytewiseComparator.getIntBigEndian(bytes2, from2));
+	}
+
+}
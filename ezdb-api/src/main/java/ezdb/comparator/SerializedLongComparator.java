@@ -0,0 +1,29 @@
+package ezdb.comparator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compares keys written by the {@link ezdb.serde.LongSerde} as signed longs
+ * without deserializing them. The {@link ezdb.serde.DateSerde} and
+ * {@link ezdb.serde.CalendarSerde} write the same format, so their keys are
+ * ordered by time with this comparator too.
+ * 
+ * Empty keys, which these serdes write for null, are ordered first like the
+ * {@link SerdeComparator} does.
+ */
+public class SerializedLongComparator implements RegionComparator {
+	public static final SerializedLongComparator get = new SerializedLongComparator();
+
+	@Override
+	public int compareRegions(final ByteBuffer bytes1, final int from1, final int to1, final ByteBuffer bytes2,
+			final int from2, final int to2) {
+		final boolean empty1 = from1 == to1;
+		final boolean empty2 = from2 == to2;
+		if (empty1 || empty2) {
+			return Boolean.compare(!empty1, !empty2);
+		}
+		return Long.compare(BytewiseComparator.getLongBigEndian(bytes1, from1),
+				BytewiseComparator.getLongBigEndian(bytes2, from2));
+	}
+
+}
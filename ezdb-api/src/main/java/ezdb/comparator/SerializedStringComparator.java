@@ -0,0 +1,124 @@
+package ezdb.comparator;
+
+import java.nio.ByteBuffer;
+
+import ezdb.serde.StringSerde;
+import ezdb.util.Util;
+
+/**
+ * Compares keys written by the {@link StringSerde} in the order of
+ * {@link String#compareTo(String)} without deserializing them. The bytes are
+ * compared up to the first difference, only the characters there get decoded.
+ * 
+ * UTF-8 bytes sort by code point, which only differs from the UTF-16 order of
+ * strings where a supplementary character meets one of U+E000 to U+FFFF. Those
+ * are mapped to their surrogates, so tables keep the order the
+ * {@link SerdeComparator} gave them before. Malformed keys are deserialized
+ * and compared like the serde reads them.
+ * 
+ * Empty keys are ordered first like the {@link SerdeComparator} does.
+ */
+public class SerializedStringComparator implements RegionComparator {
+	public static final SerializedStringComparator get = new SerializedStringComparator();
+
+	private static final int MALFORMED = -1;
+
+	@Override
+	public int compareRegions(final ByteBuffer bytes1, final int from1, final int to1, final ByteBuffer bytes2,
+			final int from2, final int to2) {
+		final boolean empty1 = from1 == to1;
+		final boolean empty2 = from2 == to2;
+		if (empty1 || empty2) {
+			return Boolean.compare(!empty1, !empty2);
+		}
+		final int length1 = to1 - from1;
+		final int length2 = to2 - from2;
+		final int minLength = Math.min(length1, length2);
+		int i = 0;
+		while (i < minLength && bytes1.get(from1 + i) == bytes2.get(from2 + i)) {
+			i++;
+		}
+		if (i < minLength) {
+			// both keys share the bytes before the difference, so they also share
+			// the start of the character it is in
+			while (i > 0 && isContinuation(bytes1.get(from1 + i))) {
+				i--;
+			}
+		}
+		final int codePoint1 = decode(bytes1, from1 + i, from1 + length1);
+		final int codePoint2 = decode(bytes2, from2 + i, from2 + length2);
+		// equal characters before the difference mean that a continuation byte
+		// without a lead byte was skipped there
+		if (codePoint1 == MALFORMED || codePoint2 == MALFORMED
+				|| (codePoint1 == codePoint2 && codePoint1 != Integer.MIN_VALUE)) {
+			return StringSerde.get.fromBuffer(Util.slice(bytes1, from1, length1))
+					.compareTo(StringSerde.get.fromBuffer(Util.slice(bytes2, from2, length2)));
+		}
+		return Integer.compare(toUtf16Order(codePoint1), toUtf16Order(codePoint2));
+	}
+
+	private static boolean isContinuation(final byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+
+	/**
+	 * @return the code point starting at the index, {@link Integer#MIN_VALUE} at
+	 *         the end of the key so that a prefix is ordered first, or
+	 *         {@link #MALFORMED}
+	 */
+	private static int decode(final ByteBuffer bytes, final int index, final int end) {
+		if (index == end) {
+			return Integer.MIN_VALUE;
+		}
+		final int b0 = bytes.get(index) & 0xFF;
+		final int length;
+		final int min;
+		int codePoint;
+		if (b0 < 0x80) {
+			return b0;
+		} else if (b0 >= 0xC2 && b0 <= 0xDF) {
+			length = 2;
+			min = 0x80;
+			codePoint = b0 & 0x1F;
+		} else if (b0 >= 0xE0 && b0 <= 0xEF) {
+			length = 3;
+			min = 0x800;
+			codePoint = b0 & 0x0F;
+		} else if (b0 >= 0xF0 && b0 <= 0xF4) {
+			length = 4;
+			min = 0x10000;
+			codePoint = b0 & 0x07;
+		} else {
+			return MALFORMED;
+		}
+		if (end - index < length) {
+			return MALFORMED;
+		}
+		for (int i = 1; i < length; i++) {
+			final byte b = bytes.get(index + i);
+			if (!isContinuation(b)) {
+				return MALFORMED;
+			}
+			codePoint = (codePoint << 6) | (b & 0x3F);
+		}
+		if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+				|| (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+			return MALFORMED;
+		}
+		return codePoint;
+	}
+
+	/**
+	 * Orders supplementary characters between U+D7FF and U+E000, where their high
+	 * surrogates are, while keeping them in code point order among themselves.
+	 */
+	private static int toUtf16Order(final int codePoint) {
+		if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+			return Character.MIN_SURROGATE + codePoint - Character.MIN_SUPPLEMENTARY_CODE_POINT;
+		} else if (codePoint > Character.MAX_SURROGATE) {
+			return codePoint + Character.MAX_CODE_POINT;
+		}
+		return codePoint;
+	}
+
+}
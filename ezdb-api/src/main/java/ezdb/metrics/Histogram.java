@@ -0,0 +1,66 @@
+package ezdb.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of non-negative values with power of two buckets. It
+ * never allocates while recording, percentiles are the upper bound of the
+ * bucket they fall into, thus accurate within a factor of two.
+ */
+public class Histogram {
+
+	private static final int BUCKETS = 64;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	public void record(final long value) {
+		final long positive = Math.max(0, value);
+		buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(positive));
+		sum.add(positive);
+		max.accumulate(positive);
+	}
+
+	public HistogramSnapshot snapshot() {
+		final long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		final long maxValue = max.get();
+		final double mean = total == 0 ? 0 : (double) sum.sum() / total;
+		return new HistogramSnapshot(total, mean, percentile(counts, total, 0.5, maxValue),
+				percentile(counts, total, 0.99, maxValue), percentile(counts, total, 0.999, maxValue), maxValue);
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		sum.reset();
+		max.reset();
+	}
+
+	private static long percentile(final long[] counts, final long total, final double quantile,
+			final long maxValue) {
+		if (total == 0) {
+			return 0;
+		}
+		final long rank = (long) Math.ceil(total * quantile);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				// bucket i holds the values of bit length i, bucket 0 only holds 0
+				final long upperBound = (1L << i) - 1;
+				return Math.min(upperBound, maxValue);
+			}
+		}
+		return maxValue;
+	}
+
+}
@@ -0,0 +1,50 @@
+package ezdb.metrics;
+
+import java.io.IOException;
+
+import ezdb.table.Batch;
+
+/**
+ * Times the flushes of a batch, the buffered puts and deletes are not timed.
+ */
+public class InstrumentedBatch<H, V> implements Batch<H, V> {
+
+	private final Batch<H, V> delegate;
+	private final TableMetrics metrics;
+
+	public InstrumentedBatch(final Batch<H, V> delegate, final TableMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void put(final H hashKey, final V value) {
+		delegate.put(hashKey, value);
+	}
+
+	@Override
+	public void delete(final H hashKey) {
+		delegate.delete(hashKey);
+	}
+
+	@Override
+	public void flush() {
+		final long start = System.nanoTime();
+		try {
+			delegate.flush();
+		} finally {
+			metrics.record(TableOperation.BATCH_FLUSH, start);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		final long start = System.nanoTime();
+		try {
+			delegate.close();
+		} finally {
+			metrics.record(TableOperation.BATCH_CLOSE, start);
+		}
+	}
+
+}
@@ -0,0 +1,26 @@
+package ezdb.metrics;
+
+import java.util.Comparator;
+
+/**
+ * Counts the calls to and the time spent in a key comparator.
+ */
+public class InstrumentedComparator<S> implements Comparator<S> {
+
+	private final Comparator<S> delegate;
+	private final TableMetrics metrics;
+
+	public InstrumentedComparator(final Comparator<S> delegate, final TableMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public int compare(final S o1, final S o2) {
+		final long start = System.nanoTime();
+		final int comparison = delegate.compare(o1, o2);
+		metrics.compared(start);
+		return comparison;
+	}
+
+}
@@ -0,0 +1,163 @@
+package ezdb.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import ezdb.Db;
+import ezdb.DbException;
+import ezdb.comparator.BytewiseComparator;
+import ezdb.comparator.RegionComparator;
+import ezdb.serde.Serde;
+import ezdb.table.Table;
+import ezdb.table.range.RangeTable;
+
+/**
+ * Wraps another db so that every table, batch and iterator it hands out records
+ * its latencies, rows scanned, bytes (de-)serialized and key comparisons into a
+ * {@link TableMetrics} per table name. The metrics are published as MBeans named
+ * <code>ezdb:type=Table,db=&lt;dbName&gt;,name=&lt;tableName&gt;</code>.
+ *
+ * The {@link BytewiseComparator} is never wrapped, since backends detect it to
+ * compare keys natively. Tables created without explicit comparators only count
+ * comparisons if the backend calls back into its own java comparator, which is
+ * not visible here.
+ */
+public class InstrumentedDb<S> implements Db<S> {
+
+	private final Db<S> delegate;
+	private final String dbName;
+	private final MBeanServer mbeanServer;
+	private final ConcurrentMap<String, TableMetrics> metrics = new ConcurrentHashMap<String, TableMetrics>();
+
+	public InstrumentedDb(final Db<S> delegate, final String dbName) {
+		this(delegate, dbName, ManagementFactory.getPlatformMBeanServer());
+	}
+
+	/**
+	 * @param mbeanServer The server to publish the metrics to, or null to not
+	 *                    publish them over JMX.
+	 */
+	public InstrumentedDb(final Db<S> delegate, final String dbName, final MBeanServer mbeanServer) {
+		this.delegate = delegate;
+		this.dbName = dbName;
+		this.mbeanServer = mbeanServer;
+	}
+
+	/**
+	 * @return the metrics of the table, or null if it was not requested through
+	 *         this db yet
+	 */
+	public TableMetrics getMetrics(final String tableName) {
+		return metrics.get(tableName);
+	}
+
+	@Override
+	public <H, V> Table<H, V> getTable(final String tableName, final Serde<H> hashKeySerde,
+			final Serde<V> valueSerde) {
+		final TableMetrics tableMetrics = metricsFor(tableName);
+		return new InstrumentedTable<H, V>(delegate.getTable(tableName, instrument(hashKeySerde, tableMetrics),
+				instrument(valueSerde, tableMetrics)), tableMetrics);
+	}
+
+	@Override
+	public <H, V> Table<H, V> getTable(final String tableName, final Serde<H> hashKeySerde, final Serde<V> valueSerde,
+			final Comparator<S> hashKeyComparator) {
+		final TableMetrics tableMetrics = metricsFor(tableName);
+		return new InstrumentedTable<H, V>(
+				delegate.getTable(tableName, instrument(hashKeySerde, tableMetrics),
+						instrument(valueSerde, tableMetrics), instrument(hashKeyComparator, tableMetrics)),
+				tableMetrics);
+	}
+
+	@Override
+	public <H, R, V> RangeTable<H, R, V> getRangeTable(final String tableName, final Serde<H> hashKeySerde,
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+		final TableMetrics tableMetrics = metricsFor(tableName);
+		return new InstrumentedRangeTable<H, R, V>(
+				delegate.getRangeTable(tableName, instrument(hashKeySerde, tableMetrics),
+						instrument(rangeKeySerde, tableMetrics), instrument(valueSerde, tableMetrics)),
+				tableMetrics);
+	}
+
+	@Override
+	public <H, R, V> RangeTable<H, R, V> getRangeTable(final String tableName, final Serde<H> hashKeySerde,
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<S> hashKeyComparator,
+			final Comparator<S> rangeKeyComparator) {
+		final TableMetrics tableMetrics = metricsFor(tableName);
+		return new InstrumentedRangeTable<H, R, V>(delegate.getRangeTable(tableName,
+				instrument(hashKeySerde, tableMetrics), instrument(rangeKeySerde, tableMetrics),
+				instrument(valueSerde, tableMetrics), instrument(hashKeyComparator, tableMetrics),
+				instrument(rangeKeyComparator, tableMetrics)), tableMetrics);
+	}
+
+	@Override
+	public void deleteTable(final String tableName) {
+		delegate.deleteTable(tableName);
+		if (metrics.remove(tableName) != null && mbeanServer != null) {
+			try {
+				final ObjectName objectName = objectName(tableName);
+				if (mbeanServer.isRegistered(objectName)) {
+					mbeanServer.unregisterMBean(objectName);
+				}
+			} catch (final JMException e) {
+				throw new DbException(e);
+			}
+		}
+	}
+
+	private TableMetrics metricsFor(final String tableName) {
+		TableMetrics tableMetrics = metrics.get(tableName);
+		if (tableMetrics == null) {
+			final TableMetrics newMetrics = new TableMetrics();
+			tableMetrics = metrics.putIfAbsent(tableName, newMetrics);
+			if (tableMetrics == null) {
+				tableMetrics = newMetrics;
+				register(tableName, tableMetrics);
+			}
+		}
+		return tableMetrics;
+	}
+
+	private void register(final String tableName, final TableMetrics tableMetrics) {
+		if (mbeanServer == null) {
+			return;
+		}
+		try {
+			final ObjectName objectName = objectName(tableName);
+			if (mbeanServer.isRegistered(objectName)) {
+				// e.g. left over from another instance for the same db name
+				mbeanServer.unregisterMBean(objectName);
+			}
+			mbeanServer.registerMBean(tableMetrics, objectName);
+		} catch (final JMException e) {
+			throw new DbException(e);
+		}
+	}
+
+	private ObjectName objectName(final String tableName) throws JMException {
+		return new ObjectName("ezdb:type=Table,db=" + ObjectName.quote(dbName) + ",name=" + ObjectName.quote(tableName));
+	}
+
+	private static <O> Serde<O> instrument(final Serde<O> serde, final TableMetrics tableMetrics) {
+		return new InstrumentedSerde<O>(serde, tableMetrics);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <S> Comparator<S> instrument(final Comparator<S> comparator, final TableMetrics tableMetrics) {
+		if (comparator == null || comparator instanceof BytewiseComparator) {
+			return comparator;
+		}
+		if (comparator instanceof RegionComparator) {
+			// keeps the in place comparison of compound keys
+			return (Comparator<S>) new InstrumentedRegionComparator((RegionComparator) comparator, tableMetrics);
+		}
+		return new InstrumentedComparator<S>(comparator, tableMetrics);
+	}
+
+}
@@ -0,0 +1,24 @@
+package ezdb.metrics;
+
+import ezdb.table.range.RangeBatch;
+
+public class InstrumentedRangeBatch<H, R, V> extends InstrumentedBatch<H, V> implements RangeBatch<H, R, V> {
+
+	private final RangeBatch<H, R, V> delegate;
+
+	public InstrumentedRangeBatch(final RangeBatch<H, R, V> delegate, final TableMetrics metrics) {
+		super(delegate, metrics);
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void put(final H hashKey, final R rangeKey, final V value) {
+		delegate.put(hashKey, rangeKey, value);
+	}
+
+	@Override
+	public void delete(final H hashKey, final R rangeKey) {
+		delegate.delete(hashKey, rangeKey);
+	}
+
+}
@@ -0,0 +1,356 @@
+package ezdb.metrics;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.stream.Stream;
+
+import ezdb.serde.Serde;
+import ezdb.table.Batch;
+import ezdb.table.RangeTableRow;
+import ezdb.table.range.RangeBatch;
+import ezdb.table.range.RangeCursor;
+import ezdb.table.range.RangeTable;
+import ezdb.table.range.RangeTableRowView;
+import ezdb.util.TableIterator;
+
+/**
+ * Records the latency of each operation of a hash/range table. Iterators are
+ * timed until they are opened, the rows they return are counted until they are
+ * closed or exhausted.
+ */
+public class InstrumentedRangeTable<H, R, V> implements RangeTable<H, R, V> {
+
+	private final RangeTable<H, R, V> delegate;
+	private final TableMetrics metrics;
+
+	public InstrumentedRangeTable(final RangeTable<H, R, V> delegate, final TableMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	public TableMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> range() {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<RangeTableRow<H, R, V>>(delegate.range(), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> rangeReverse() {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<RangeTableRow<H, R, V>>(delegate.rangeReverse(), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public void put(final H hashKey, final V value) {
+		final long start = System.nanoTime();
+		try {
+			delegate.put(hashKey, value);
+		} finally {
+			metrics.record(TableOperation.PUT, start);
+		}
+	}
+
+	@Override
+	public void put(final H hashKey, final R rangeKey, final V value) {
+		final long start = System.nanoTime();
+		try {
+			delegate.put(hashKey, rangeKey, value);
+		} finally {
+			metrics.record(TableOperation.PUT, start);
+		}
+	}
+
+	@Override
+	public V get(final H hashKey) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.get(hashKey);
+		} finally {
+			metrics.record(TableOperation.GET, start);
+		}
+	}
+
+	@Override
+	public V get(final H hashKey, final R rangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.get(hashKey, rangeKey);
+		} finally {
+			metrics.record(TableOperation.GET, start);
+		}
+	}
+
+	@Override
+	public List<V> getAll(final Collection<H> hashKeys) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.getAll(hashKeys);
+		} finally {
+			metrics.record(TableOperation.MULTI_GET, start);
+		}
+	}
+
+	@Override
+	public List<V> multiGet(final List<? extends Entry<H, R>> keys) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.multiGet(keys);
+		} finally {
+			metrics.record(TableOperation.MULTI_GET, start);
+		}
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> getLatest(final H hashKey) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.getLatest(hashKey);
+		} finally {
+			metrics.record(TableOperation.GET_LATEST, start);
+		}
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> getLatest(final H hashKey, final R rangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.getLatest(hashKey, rangeKey);
+		} finally {
+			metrics.record(TableOperation.GET_LATEST, start);
+		}
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> getNext(final H hashKey, final R rangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.getNext(hashKey, rangeKey);
+		} finally {
+			metrics.record(TableOperation.GET_NEXT, start);
+		}
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> getPrev(final H hashKey, final R rangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.getPrev(hashKey, rangeKey);
+		} finally {
+			metrics.record(TableOperation.GET_PREV, start);
+		}
+	}
+
+	@Override
+	public Serde<H> getHashKeySerde() {
+		return delegate.getHashKeySerde();
+	}
+
+	@Override
+	public Serde<R> getRangeKeySerde() {
+		return delegate.getRangeKeySerde();
+	}
+
+	@Override
+	public Serde<V> getValueSerde() {
+		return delegate.getValueSerde();
+	}
+
+	@Override
+	public TableIterator<RangeTableRowView<H, R, V>> rangeView(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<RangeTableRowView<H, R, V>>(
+					delegate.rangeView(hashKey, fromRangeKey, toRangeKey), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public TableIterator<Entry<H, R>> rangeKeys(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<Entry<H, R>>(
+					delegate.rangeKeys(hashKey, fromRangeKey, toRangeKey), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public TableIterator<V> rangeValues(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<V>(delegate.rangeValues(hashKey, fromRangeKey, toRangeKey), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> range(final H hashKey) {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<RangeTableRow<H, R, V>>(delegate.range(hashKey), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> range(final H hashKey, final R fromRangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<RangeTableRow<H, R, V>>(
+					delegate.range(hashKey, fromRangeKey), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> range(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<RangeTableRow<H, R, V>>(
+					delegate.range(hashKey, fromRangeKey, toRangeKey), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> rangeReverse(final H hashKey) {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<RangeTableRow<H, R, V>>(delegate.rangeReverse(hashKey), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> rangeReverse(final H hashKey, final R fromRangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<RangeTableRow<H, R, V>>(
+					delegate.rangeReverse(hashKey, fromRangeKey), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> rangeReverse(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<RangeTableRow<H, R, V>>(
+					delegate.rangeReverse(hashKey, fromRangeKey, toRangeKey), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public void delete(final H hashKey) {
+		final long start = System.nanoTime();
+		try {
+			delegate.delete(hashKey);
+		} finally {
+			metrics.record(TableOperation.DELETE, start);
+		}
+	}
+
+	@Override
+	public void delete(final H hashKey, final R rangeKey) {
+		final long start = System.nanoTime();
+		try {
+			delegate.delete(hashKey, rangeKey);
+		} finally {
+			metrics.record(TableOperation.DELETE, start);
+		}
+	}
+
+	@Override
+	public void deleteRange(final H hashKey) {
+		final long start = System.nanoTime();
+		try {
+			delegate.deleteRange(hashKey);
+		} finally {
+			metrics.record(TableOperation.DELETE_RANGE, start);
+		}
+	}
+
+	@Override
+	public void deleteRange(final H hashKey, final R fromRangeKey) {
+		final long start = System.nanoTime();
+		try {
+			delegate.deleteRange(hashKey, fromRangeKey);
+		} finally {
+			metrics.record(TableOperation.DELETE_RANGE, start);
+		}
+	}
+
+	@Override
+	public void deleteRange(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		final long start = System.nanoTime();
+		try {
+			delegate.deleteRange(hashKey, fromRangeKey, toRangeKey);
+		} finally {
+			metrics.record(TableOperation.DELETE_RANGE, start);
+		}
+	}
+
+	@Override
+	public void bulkLoad(final Iterator<? extends RangeTableRow<H, R, V>> rows) {
+		final long start = System.nanoTime();
+		try {
+			delegate.bulkLoad(rows);
+		} finally {
+			metrics.record(TableOperation.BULK_LOAD, start);
+		}
+	}
+
+	@Override
+	public Stream<RangeTableRow<H, R, V>> stream() {
+		// keeps the split points of the backend, the streamed rows are not counted
+		return delegate.stream();
+	}
+
+	@Override
+	public RangeCursor<H, R, V> newRangeCursor() {
+		return delegate.newRangeCursor();
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	@Override
+	public Batch<H, V> newBatch() {
+		return new InstrumentedBatch<H, V>(delegate.newBatch(), metrics);
+	}
+
+	@Override
+	public RangeBatch<H, R, V> newRangeBatch() {
+		return new InstrumentedRangeBatch<H, R, V>(delegate.newRangeBatch(), metrics);
+	}
+
+}
@@ -0,0 +1,31 @@
+package ezdb.metrics;
+
+import java.nio.ByteBuffer;
+
+import ezdb.comparator.RegionComparator;
+
+/**
+ * Counts the calls to and the time spent in a region comparator, so compound
+ * keys are still compared in place when the table is instrumented.
+ */
+public class InstrumentedRegionComparator extends InstrumentedComparator<ByteBuffer> implements RegionComparator {
+
+	private final RegionComparator delegate;
+	private final TableMetrics metrics;
+
+	public InstrumentedRegionComparator(final RegionComparator delegate, final TableMetrics metrics) {
+		super(delegate, metrics);
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public int compareRegions(final ByteBuffer bytes1, final int from1, final int to1, final ByteBuffer bytes2,
+			final int from2, final int to2) {
+		final long start = System.nanoTime();
+		final int comparison = delegate.compareRegions(bytes1, from1, to1, bytes2, from2, to2);
+		metrics.compared(start);
+		return comparison;
+	}
+
+}
@@ -0,0 +1,82 @@
+package ezdb.metrics;
+
+import java.nio.ByteBuffer;
+
+import ezdb.serde.Serde;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Counts the bytes and the time spent serializing and deserializing with
+ * another serde.
+ */
+public class InstrumentedSerde<O> implements Serde<O> {
+
+	private final Serde<O> delegate;
+	private final TableMetrics metrics;
+
+	public InstrumentedSerde(final Serde<O> delegate, final TableMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public O fromBuffer(final ByteBuf buffer) {
+		final long start = System.nanoTime();
+		final int bytes = buffer.readableBytes();
+		final O obj = delegate.fromBuffer(buffer);
+		metrics.deserialized(bytes, start);
+		return obj;
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final O obj) {
+		final long start = System.nanoTime();
+		final int writerIndex = buffer.writerIndex();
+		delegate.toBuffer(buffer, obj);
+		metrics.serialized(buffer.writerIndex() - writerIndex, start);
+	}
+
+	@Override
+	public O fromBuffer(final ByteBuffer buffer) {
+		final long start = System.nanoTime();
+		final int bytes = buffer.remaining();
+		final O obj = delegate.fromBuffer(buffer);
+		metrics.deserialized(bytes, start);
+		return obj;
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final O obj) {
+		final long start = System.nanoTime();
+		final int position = buffer.position();
+		delegate.toBuffer(buffer, obj);
+		// serdes flip the buffer after writing
+		metrics.serialized(buffer.limit() - position, start);
+	}
+
+	@Override
+	public O fromBytes(final byte[] bytes) {
+		final long start = System.nanoTime();
+		final O obj = delegate.fromBytes(bytes);
+		metrics.deserialized(bytes.length, start);
+		return obj;
+	}
+
+	@Override
+	public byte[] toBytes(final O obj) {
+		final long start = System.nanoTime();
+		final byte[] bytes = delegate.toBytes(obj);
+		metrics.serialized(bytes.length, start);
+		return bytes;
+	}
+
+	@Override
+	public <T> T unwrap(final Class<T> type) {
+		final T unwrapped = Serde.super.unwrap(type);
+		if (unwrapped != null) {
+			return unwrapped;
+		}
+		return delegate.unwrap(type);
+	}
+
+}
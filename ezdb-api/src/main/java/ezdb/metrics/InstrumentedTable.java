@@ -0,0 +1,88 @@
+package ezdb.metrics;
+
+import java.util.Collection;
+import java.util.List;
+
+import ezdb.table.Batch;
+import ezdb.table.Table;
+import ezdb.table.TableRow;
+import ezdb.util.TableIterator;
+
+/**
+ * Records the latency of each operation of a simple key/value table.
+ */
+public class InstrumentedTable<H, V> implements Table<H, V> {
+
+	private final Table<H, V> delegate;
+	private final TableMetrics metrics;
+
+	public InstrumentedTable(final Table<H, V> delegate, final TableMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	public TableMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public TableIterator<? extends TableRow<H, V>> range() {
+		final long start = System.nanoTime();
+		try {
+			return new InstrumentedTableIterator<TableRow<H, V>>(delegate.range(), metrics);
+		} finally {
+			metrics.record(TableOperation.RANGE, start);
+		}
+	}
+
+	@Override
+	public void put(final H hashKey, final V value) {
+		final long start = System.nanoTime();
+		try {
+			delegate.put(hashKey, value);
+		} finally {
+			metrics.record(TableOperation.PUT, start);
+		}
+	}
+
+	@Override
+	public V get(final H hashKey) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.get(hashKey);
+		} finally {
+			metrics.record(TableOperation.GET, start);
+		}
+	}
+
+	@Override
+	public List<V> getAll(final Collection<H> hashKeys) {
+		final long start = System.nanoTime();
+		try {
+			return delegate.getAll(hashKeys);
+		} finally {
+			metrics.record(TableOperation.MULTI_GET, start);
+		}
+	}
+
+	@Override
+	public void delete(final H hashKey) {
+		final long start = System.nanoTime();
+		try {
+			delegate.delete(hashKey);
+		} finally {
+			metrics.record(TableOperation.DELETE, start);
+		}
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	@Override
+	public Batch<H, V> newBatch() {
+		return new InstrumentedBatch<H, V>(delegate.newBatch(), metrics);
+	}
+
+}
@@ -0,0 +1,60 @@
+package ezdb.metrics;
+
+import ezdb.util.TableIterator;
+
+/**
+ * Counts the rows returned by an iterator and tracks it as open until it is
+ * closed or exhausted.
+ */
+public class InstrumentedTableIterator<E> implements TableIterator<E> {
+
+	private final TableIterator<? extends E> delegate;
+	private final TableMetrics metrics;
+	private long rows;
+	private boolean closed;
+
+	public InstrumentedTableIterator(final TableIterator<? extends E> delegate, final TableMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+		metrics.iteratorOpened();
+	}
+
+	@Override
+	public boolean hasNext() {
+		final boolean hasNext = delegate.hasNext();
+		if (!hasNext) {
+			// many callers never close an exhausted iterator
+			closed();
+		}
+		return hasNext;
+	}
+
+	@Override
+	public E next() {
+		final E next = delegate.next();
+		rows++;
+		return next;
+	}
+
+	@Override
+	public void remove() {
+		delegate.remove();
+	}
+
+	@Override
+	public void close() {
+		try {
+			delegate.close();
+		} finally {
+			closed();
+		}
+	}
+
+	private void closed() {
+		if (!closed) {
+			closed = true;
+			metrics.iteratorClosed(rows);
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+package ezdb.metrics;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of one table, filled by the instrumented table, its batches,
+ * iterators, serdes and comparators.
+ */
+public class TableMetrics implements TableMetricsMXBean {
+
+	private final EnumMap<TableOperation, Histogram> latencies = new EnumMap<TableOperation, Histogram>(
+			TableOperation.class);
+	private final Histogram rowsPerIterator = new Histogram();
+	private final LongAdder rowsScanned = new LongAdder();
+	private final LongAdder openIterators = new LongAdder();
+	private final LongAdder bytesSerialized = new LongAdder();
+	private final LongAdder serializeNanos = new LongAdder();
+	private final LongAdder bytesDeserialized = new LongAdder();
+	private final LongAdder deserializeNanos = new LongAdder();
+	private final LongAdder comparisons = new LongAdder();
+	private final LongAdder compareNanos = new LongAdder();
+
+	public TableMetrics() {
+		for (final TableOperation operation : TableOperation.values()) {
+			latencies.put(operation, new Histogram());
+		}
+	}
+
+	/**
+	 * @param startNanos The {@link System#nanoTime()} when the operation started.
+	 */
+	public void record(final TableOperation operation, final long startNanos) {
+		latencies.get(operation).record(System.nanoTime() - startNanos);
+	}
+
+	public Histogram getLatency(final TableOperation operation) {
+		return latencies.get(operation);
+	}
+
+	void iteratorOpened() {
+		openIterators.increment();
+	}
+
+	void iteratorClosed(final long rows) {
+		openIterators.decrement();
+		rowsScanned.add(rows);
+		rowsPerIterator.record(rows);
+	}
+
+	void serialized(final long bytes, final long startNanos) {
+		serializeNanos.add(System.nanoTime() - startNanos);
+		bytesSerialized.add(bytes);
+	}
+
+	void deserialized(final long bytes, final long startNanos) {
+		deserializeNanos.add(System.nanoTime() - startNanos);
+		bytesDeserialized.add(bytes);
+	}
+
+	void compared(final long startNanos) {
+		compareNanos.add(System.nanoTime() - startNanos);
+		comparisons.increment();
+	}
+
+	@Override
+	public Map<String, HistogramSnapshot> getLatencies() {
+		final Map<String, HistogramSnapshot> snapshots = new LinkedHashMap<String, HistogramSnapshot>();
+		for (final Map.Entry<TableOperation, Histogram> latency : latencies.entrySet()) {
+			final HistogramSnapshot snapshot = latency.getValue().snapshot();
+			if (snapshot.getCount() > 0) {
+				snapshots.put(latency.getKey().name(), snapshot);
+			}
+		}
+		return snapshots;
+	}
+
+	@Override
+	public HistogramSnapshot getRowsPerIterator() {
+		return rowsPerIterator.snapshot();
+	}
+
+	@Override
+	public long getRowsScanned() {
+		return rowsScanned.sum();
+	}
+
+	@Override
+	public long getOpenIterators() {
+		return openIterators.sum();
+	}
+
+	@Override
+	public long getBytesSerialized() {
+		return bytesSerialized.sum();
+	}
+
+	@Override
+	public long getSerializeNanos() {
+		return serializeNanos.sum();
+	}
+
+	@Override
+	public long getBytesDeserialized() {
+		return bytesDeserialized.sum();
+	}
+
+	@Override
+	public long getDeserializeNanos() {
+		return deserializeNanos.sum();
+	}
+
+	@Override
+	public long getComparisons() {
+		return comparisons.sum();
+	}
+
+	@Override
+	public long getCompareNanos() {
+		return compareNanos.sum();
+	}
+
+	/**
+	 * Clears all counters except the number of open iterators, which still
+	 * reflects the iterators that are open right now.
+	 */
+	@Override
+	public void reset() {
+		for (final Histogram latency : latencies.values()) {
+			latency.reset();
+		}
+		rowsPerIterator.reset();
+		rowsScanned.reset();
+		bytesSerialized.reset();
+		serializeNanos.reset();
+		bytesDeserialized.reset();
+		deserializeNanos.reset();
+		comparisons.reset();
+		compareNanos.reset();
+	}
+
+}
@@ -0,0 +1,40 @@
+package ezdb.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link TableMetrics}. Latencies are in nanoseconds, bytes are
+ * the serialized sizes as written and read by the serdes.
+ */
+public interface TableMetricsMXBean {
+
+	/**
+	 * @return the latency histogram per {@link TableOperation} that was used
+	 */
+	Map<String, HistogramSnapshot> getLatencies();
+
+	HistogramSnapshot getRowsPerIterator();
+
+	long getRowsScanned();
+
+	long getOpenIterators();
+
+	long getBytesSerialized();
+
+	long getSerializeNanos();
+
+	long getBytesDeserialized();
+
+	long getDeserializeNanos();
+
+	/**
+	 * @return the number of calls to the key comparators, comparators that the
+	 *         backend replaces with a native bytewise comparison are not counted
+	 */
+	long getComparisons();
+
+	long getCompareNanos();
+
+	void reset();
+
+}
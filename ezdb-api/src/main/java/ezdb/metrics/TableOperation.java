@@ -0,0 +1,22 @@
+package ezdb.metrics;
+
+/**
+ * The table operations that get their own latency histogram.
+ */
+public enum TableOperation {
+	GET,
+	MULTI_GET,
+	GET_LATEST,
+	GET_NEXT,
+	GET_PREV,
+	PUT,
+	DELETE,
+	DELETE_RANGE,
+	BULK_LOAD,
+	/**
+	 * Opening an iterator, the rows it returns are counted separately.
+	 */
+	RANGE,
+	BATCH_FLUSH,
+	BATCH_CLOSE;
+}
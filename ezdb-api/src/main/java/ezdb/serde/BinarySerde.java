@@ -0,0 +1,588 @@
+package ezdb.serde;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ezdb.DbException;
+import ezdb.util.EncoderContext;
+import ezdb.util.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * A compact binary replacement for the {@link SerializingSerde}. Common JDK
+ * types are written with a one byte tag, registered classes with a numeric id
+ * followed by their fields, so no class descriptors end up in the values.
+ * Values are written directly into the target buffer, {@link #toBytes(Object)}
+ * goes through the buffers of the {@link EncoderContext}.
+ *
+ * Registered classes need a no-arg constructor, their non-static non-transient
+ * fields are written in the order of their names. Shared or cyclic references
+ * are not preserved. Other {@link Serializable} objects are embedded with java
+ * serialization.
+ *
+ * The format starts with a version byte that differs from the first byte of
+ * java serialization, thus the {@link #migrating()} instance can still read
+ * values written by the {@link SerializingSerde} while writing the new format.
+ *
+ * @param <E> The type of the values.
+ */
+public class BinarySerde<E> implements Serde<E> {
+
+	private static final byte VERSION = 1;
+	/**
+	 * First byte of java serialization streams.
+	 */
+	private static final byte JAVA_SERIALIZATION_MAGIC = (byte) 0xAC;
+
+	private static final byte NULL = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = 2;
+	private static final byte BYTE = 3;
+	private static final byte SHORT = 4;
+	private static final byte INT = 5;
+	private static final byte LONG = 6;
+	private static final byte FLOAT = 7;
+	private static final byte DOUBLE = 8;
+	private static final byte CHAR = 9;
+	private static final byte STRING = 10;
+	private static final byte DATE = 11;
+	private static final byte BYTE_ARRAY = 12;
+	private static final byte INT_ARRAY = 13;
+	private static final byte LONG_ARRAY = 14;
+	private static final byte DOUBLE_ARRAY = 15;
+	private static final byte OBJECT_ARRAY = 16;
+	private static final byte ARRAY_LIST = 17;
+	private static final byte HASH_MAP = 18;
+	private static final byte REGISTERED = 19;
+	private static final byte JAVA = 20;
+
+	@SuppressWarnings("rawtypes")
+	private static final BinarySerde INSTANCE = new BinarySerde(false);
+	@SuppressWarnings("rawtypes")
+	private static final BinarySerde MIGRATING_INSTANCE = new BinarySerde(true);
+
+	private final boolean readJavaSerialization;
+	private final Map<Class<?>, Registration> registrationByType = new ConcurrentHashMap<Class<?>, Registration>();
+	private volatile Registration[] registrationById = new Registration[0];
+
+	public BinarySerde() {
+		this(false);
+	}
+
+	/**
+	 * @param readJavaSerialization Whether values written by the
+	 *                              {@link SerializingSerde} can be read.
+	 */
+	public BinarySerde(final boolean readJavaSerialization) {
+		this.readJavaSerialization = readJavaSerialization;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T> BinarySerde<T> get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return the shared instance that also reads values of the
+	 *         {@link SerializingSerde}, to switch an existing table over
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> BinarySerde<T> migrating() {
+		return MIGRATING_INSTANCE;
+	}
+
+	/**
+	 * Registers a class to be written by its fields. This has to happen before
+	 * the serde is used and the ids of stored values must not change.
+	 */
+	public synchronized BinarySerde<E> register(final int id, final Class<?> type) {
+		if (this == INSTANCE || this == MIGRATING_INSTANCE) {
+			throw new IllegalStateException("Create a new " + BinarySerde.class.getSimpleName()
+					+ " instance to register classes instead of modifying the shared one");
+		}
+		if (id < 0) {
+			throw new IllegalArgumentException("id should not be negative: " + id);
+		}
+		if (registrationByType.containsKey(type)) {
+			throw new IllegalArgumentException(type.getName() + " is already registered");
+		}
+		Registration[] byId = registrationById;
+		if (id < byId.length && byId[id] != null) {
+			throw new IllegalArgumentException("id " + id + " is already used by " + byId[id].type.getName());
+		}
+		final Registration registration = new Registration(id, type);
+		if (id >= byId.length) {
+			byId = Arrays.copyOf(byId, id + 1);
+		} else {
+			byId = byId.clone();
+		}
+		byId[id] = registration;
+		registrationByType.put(type, registration);
+		registrationById = byId;
+		return this;
+	}
+
+	@Override
+	public E fromBuffer(final ByteBuf buffer) {
+		final byte version = buffer.getByte(buffer.readerIndex());
+		if (version == JAVA_SERIALIZATION_MAGIC) {
+			if (!readJavaSerialization) {
+				throw new DbException("Value was written by " + SerializingSerde.class.getSimpleName() + ", use "
+						+ BinarySerde.class.getSimpleName() + ".migrating() to read it");
+			}
+			return SerializingSerde.<E>get().fromBuffer(buffer);
+		}
+		if (version != VERSION) {
+			throw new DbException("Unknown format version: " + version);
+		}
+		buffer.skipBytes(1);
+		return readValue(buffer);
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final E obj) {
+		buffer.writeByte(VERSION);
+		writeValue(buffer, obj);
+	}
+
+	@Override
+	public E fromBuffer(final ByteBuffer buffer) {
+		final E value = fromBuffer(Unpooled.wrappedBuffer(buffer.duplicate()));
+		// same buffer state as the default implementation leaves behind
+		Util.position(buffer, buffer.limit());
+		buffer.flip();
+		return value;
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final E obj) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.value();
+			toBuffer(buf, obj);
+			buffer.put(EncoderContext.nioBuffer(buf));
+			buffer.flip();
+		} finally {
+			context.release();
+		}
+	}
+
+	@Override
+	public E fromBytes(final byte[] bytes) {
+		return fromBuffer(Unpooled.wrappedBuffer(bytes));
+	}
+
+	@Override
+	public byte[] toBytes(final E obj) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.value();
+			toBuffer(buf, obj);
+			return EncoderContext.toBytes(buf);
+		} finally {
+			context.release();
+		}
+	}
+
+	private void writeValue(final ByteBuf buffer, final Object obj) {
+		if (obj == null) {
+			buffer.writeByte(NULL);
+			return;
+		}
+		final Class<?> type = obj.getClass();
+		if (type == String.class) {
+			buffer.writeByte(STRING);
+			writeString(buffer, (String) obj);
+		} else if (type == Long.class) {
+			buffer.writeByte(LONG);
+			writeVarLong(buffer, (Long) obj);
+		} else if (type == Integer.class) {
+			buffer.writeByte(INT);
+			writeVarLong(buffer, (Integer) obj);
+		} else if (type == Double.class) {
+			buffer.writeByte(DOUBLE);
+			buffer.writeDouble((Double) obj);
+		} else if (type == Boolean.class) {
+			buffer.writeByte((Boolean) obj ? TRUE : FALSE);
+		} else if (type == Date.class) {
+			buffer.writeByte(DATE);
+			writeVarLong(buffer, ((Date) obj).getTime());
+		} else if (type == Float.class) {
+			buffer.writeByte(FLOAT);
+			buffer.writeFloat((Float) obj);
+		} else if (type == Short.class) {
+			buffer.writeByte(SHORT);
+			buffer.writeShort((Short) obj);
+		} else if (type == Byte.class) {
+			buffer.writeByte(BYTE);
+			buffer.writeByte((Byte) obj);
+		} else if (type == Character.class) {
+			buffer.writeByte(CHAR);
+			buffer.writeChar((Character) obj);
+		} else if (type == byte[].class) {
+			final byte[] array = (byte[]) obj;
+			buffer.writeByte(BYTE_ARRAY);
+			writeVarInt(buffer, array.length);
+			buffer.writeBytes(array);
+		} else if (type == int[].class) {
+			final int[] array = (int[]) obj;
+			buffer.writeByte(INT_ARRAY);
+			writeVarInt(buffer, array.length);
+			for (int i = 0; i < array.length; i++) {
+				buffer.writeInt(array[i]);
+			}
+		} else if (type == long[].class) {
+			final long[] array = (long[]) obj;
+			buffer.writeByte(LONG_ARRAY);
+			writeVarInt(buffer, array.length);
+			for (int i = 0; i < array.length; i++) {
+				buffer.writeLong(array[i]);
+			}
+		} else if (type == double[].class) {
+			final double[] array = (double[]) obj;
+			buffer.writeByte(DOUBLE_ARRAY);
+			writeVarInt(buffer, array.length);
+			for (int i = 0; i < array.length; i++) {
+				buffer.writeDouble(array[i]);
+			}
+		} else if (type == Object[].class) {
+			final Object[] array = (Object[]) obj;
+			buffer.writeByte(OBJECT_ARRAY);
+			writeVarInt(buffer, array.length);
+			for (int i = 0; i < array.length; i++) {
+				writeValue(buffer, array[i]);
+			}
+		} else if (type == ArrayList.class) {
+			final List<?> list = (List<?>) obj;
+			buffer.writeByte(ARRAY_LIST);
+			writeVarInt(buffer, list.size());
+			for (int i = 0; i < list.size(); i++) {
+				writeValue(buffer, list.get(i));
+			}
+		} else if (type == HashMap.class) {
+			final Map<?, ?> map = (Map<?, ?>) obj;
+			buffer.writeByte(HASH_MAP);
+			writeVarInt(buffer, map.size());
+			for (final Entry<?, ?> entry : map.entrySet()) {
+				writeValue(buffer, entry.getKey());
+				writeValue(buffer, entry.getValue());
+			}
+		} else {
+			final Registration registration = registrationByType.get(type);
+			if (registration != null) {
+				buffer.writeByte(REGISTERED);
+				writeVarInt(buffer, registration.id);
+				registration.write(this, buffer, obj);
+			} else if (obj instanceof Serializable) {
+				final byte[] bytes = SerializingSerde.get().toBytes(obj);
+				buffer.writeByte(JAVA);
+				writeVarInt(buffer, bytes.length);
+				buffer.writeBytes(bytes);
+			} else {
+				throw new DbException(type.getName() + " is neither registered nor "
+						+ Serializable.class.getSimpleName());
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T readValue(final ByteBuf buffer) {
+		final byte tag = buffer.readByte();
+		switch (tag) {
+		case NULL:
+			return null;
+		case TRUE:
+			return (T) Boolean.TRUE;
+		case FALSE:
+			return (T) Boolean.FALSE;
+		case BYTE:
+			return (T) Byte.valueOf(buffer.readByte());
+		case SHORT:
+			return (T) Short.valueOf(buffer.readShort());
+		case INT:
+			return (T) Integer.valueOf((int) readVarLong(buffer));
+		case LONG:
+			return (T) Long.valueOf(readVarLong(buffer));
+		case FLOAT:
+			return (T) Float.valueOf(buffer.readFloat());
+		case DOUBLE:
+			return (T) Double.valueOf(buffer.readDouble());
+		case CHAR:
+			return (T) Character.valueOf(buffer.readChar());
+		case STRING:
+			return (T) readString(buffer);
+		case DATE:
+			return (T) new Date(readVarLong(buffer));
+		case BYTE_ARRAY: {
+			final byte[] array = new byte[readVarInt(buffer)];
+			buffer.readBytes(array);
+			return (T) array;
+		}
+		case INT_ARRAY: {
+			final int[] array = new int[readVarInt(buffer)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = buffer.readInt();
+			}
+			return (T) array;
+		}
+		case LONG_ARRAY: {
+			final long[] array = new long[readVarInt(buffer)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = buffer.readLong();
+			}
+			return (T) array;
+		}
+		case DOUBLE_ARRAY: {
+			final double[] array = new double[readVarInt(buffer)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = buffer.readDouble();
+			}
+			return (T) array;
+		}
+		case OBJECT_ARRAY: {
+			final Object[] array = new Object[readVarInt(buffer)];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = readValue(buffer);
+			}
+			return (T) array;
+		}
+		case ARRAY_LIST: {
+			final int size = readVarInt(buffer);
+			final List<Object> list = new ArrayList<Object>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(readValue(buffer));
+			}
+			return (T) list;
+		}
+		case HASH_MAP: {
+			final int size = readVarInt(buffer);
+			final Map<Object, Object> map = new HashMap<Object, Object>(Math.max(16, (int) (size / 0.75f) + 1));
+			for (int i = 0; i < size; i++) {
+				final Object key = readValue(buffer);
+				map.put(key, readValue(buffer));
+			}
+			return (T) map;
+		}
+		case REGISTERED: {
+			final int id = readVarInt(buffer);
+			final Registration[] byId = registrationById;
+			if (id >= byId.length || byId[id] == null) {
+				throw new DbException("No class registered for id " + id);
+			}
+			return (T) byId[id].read(this, buffer);
+		}
+		case JAVA: {
+			final int length = readVarInt(buffer);
+			final T value = SerializingSerde.<T>get().fromBuffer(buffer.readSlice(length));
+			return value;
+		}
+		default:
+			throw new DbException("Unknown tag: " + tag);
+		}
+	}
+
+	/**
+	 * Reserves the length for the worst case of three bytes per char and writes
+	 * the actual length padded to the reserved size afterwards, so the string is
+	 * encoded directly into the buffer.
+	 */
+	private static void writeString(final ByteBuf buffer, final String value) {
+		final int lengthIndex = buffer.writerIndex();
+		final int lengthLength = varIntLength(value.length() * 3);
+		buffer.writerIndex(lengthIndex + lengthLength);
+		StringSerde.get.toBuffer(buffer, value);
+		int length = buffer.writerIndex() - lengthIndex - lengthLength;
+		for (int i = 0; i < lengthLength; i++) {
+			int b = length & 0x7F;
+			length >>>= 7;
+			if (i < lengthLength - 1) {
+				b |= 0x80;
+			}
+			buffer.setByte(lengthIndex + i, b);
+		}
+	}
+
+	private static String readString(final ByteBuf buffer) {
+		final int length = readVarInt(buffer);
+		final String value = buffer.toString(buffer.readerIndex(), length, StandardCharsets.UTF_8);
+		buffer.skipBytes(length);
+		return value;
+	}
+
+	private static int varIntLength(final int value) {
+		int length = 1;
+		int remaining = value >>> 7;
+		while (remaining != 0) {
+			length++;
+			remaining >>>= 7;
+		}
+		return length;
+	}
+
+	private static void writeVarInt(final ByteBuf buffer, final int value) {
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			buffer.writeByte((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		buffer.writeByte(remaining);
+	}
+
+	private static int readVarInt(final ByteBuf buffer) {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.readByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	/**
+	 * Zig-zag encoded, so small negative numbers stay short.
+	 */
+	private static void writeVarLong(final ByteBuf buffer, final long value) {
+		long remaining = (value << 1) ^ (value >> 63);
+		while ((remaining & ~0x7FL) != 0) {
+			buffer.writeByte((int) (remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		buffer.writeByte((int) remaining);
+	}
+
+	private static long readVarLong(final ByteBuf buffer) {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static final class Registration {
+		private final int id;
+		private final Class<?> type;
+		private final Constructor<?> constructor;
+		private final Field[] fields;
+		private final Object[] enumConstants;
+
+		private Registration(final int id, final Class<?> type) {
+			this.id = id;
+			this.type = type;
+			if (type.isEnum()) {
+				this.enumConstants = type.getEnumConstants();
+				this.constructor = null;
+				this.fields = null;
+				return;
+			}
+			this.enumConstants = null;
+			try {
+				this.constructor = type.getDeclaredConstructor();
+				this.constructor.setAccessible(true);
+			} catch (final NoSuchMethodException e) {
+				throw new IllegalArgumentException(type.getName() + " needs a no-arg constructor", e);
+			}
+			final List<Field> fields = new ArrayList<Field>();
+			for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+				for (final Field field : c.getDeclaredFields()) {
+					final int modifiers = field.getModifiers();
+					if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+						field.setAccessible(true);
+						fields.add(field);
+					}
+				}
+			}
+			fields.sort(Comparator.comparing(Field::getName).thenComparing(f -> f.getDeclaringClass().getName()));
+			this.fields = fields.toArray(new Field[fields.size()]);
+		}
+
+		private void write(final BinarySerde<?> serde, final ByteBuf buffer, final Object obj) {
+			if (enumConstants != null) {
+				writeVarInt(buffer, ((Enum<?>) obj).ordinal());
+				return;
+			}
+			try {
+				for (int i = 0; i < fields.length; i++) {
+					final Field field = fields[i];
+					final Class<?> fieldType = field.getType();
+					if (fieldType == long.class) {
+						writeVarLong(buffer, field.getLong(obj));
+					} else if (fieldType == int.class) {
+						writeVarLong(buffer, field.getInt(obj));
+					} else if (fieldType == double.class) {
+						buffer.writeDouble(field.getDouble(obj));
+					} else if (fieldType == boolean.class) {
+						buffer.writeBoolean(field.getBoolean(obj));
+					} else if (fieldType == float.class) {
+						buffer.writeFloat(field.getFloat(obj));
+					} else if (fieldType == short.class) {
+						buffer.writeShort(field.getShort(obj));
+					} else if (fieldType == byte.class) {
+						buffer.writeByte(field.getByte(obj));
+					} else if (fieldType == char.class) {
+						buffer.writeChar(field.getChar(obj));
+					} else {
+						serde.writeValue(buffer, field.get(obj));
+					}
+				}
+			} catch (final IllegalAccessException e) {
+				throw new DbException(e);
+			}
+		}
+
+		private Object read(final BinarySerde<?> serde, final ByteBuf buffer) {
+			if (enumConstants != null) {
+				return enumConstants[readVarInt(buffer)];
+			}
+			try {
+				final Object obj = constructor.newInstance();
+				for (int i = 0; i < fields.length; i++) {
+					final Field field = fields[i];
+					final Class<?> fieldType = field.getType();
+					if (fieldType == long.class) {
+						field.setLong(obj, readVarLong(buffer));
+					} else if (fieldType == int.class) {
+						field.setInt(obj, (int) readVarLong(buffer));
+					} else if (fieldType == double.class) {
+						field.setDouble(obj, buffer.readDouble());
+					} else if (fieldType == boolean.class) {
+						field.setBoolean(obj, buffer.readBoolean());
+					} else if (fieldType == float.class) {
+						field.setFloat(obj, buffer.readFloat());
+					} else if (fieldType == short.class) {
+						field.setShort(obj, buffer.readShort());
+					} else if (fieldType == byte.class) {
+						field.setByte(obj, buffer.readByte());
+					} else if (fieldType == char.class) {
+						field.setChar(obj, buffer.readChar());
+					} else {
+						field.set(obj, serde.readValue(buffer));
+					}
+				}
+				return obj;
+			} catch (final ReflectiveOperationException e) {
+				throw new DbException(e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Passes the raw bytes through as a {@link ByteBuffer}. Views share the memory
+ * of the backend, e.g. the memory map of LMDB, while the buffers returned by
+ * {@link #fromBuffer(ByteBuffer)} are heap copies.
+ *
+ * Only the remaining bytes of a buffer are written, its position is not
+ * changed.
+ */
+public class ByteBufferSerde implements ViewSerde<ByteBuffer> {
+	public static final ByteBufferSerde get = new ByteBufferSerde();
+
+	@Override
+	public ByteBuffer view(final ByteBuffer buffer) {
+		return buffer.slice();
+	}
+
+	@Override
+	public ByteBuffer copy(final ByteBuffer view) {
+		final ByteBuffer copy = ByteBuffer.allocate(view.remaining());
+		copy.put(view.duplicate());
+		copy.flip();
+		return copy;
+	}
+
+	@Override
+	public ByteBuffer fromBuffer(final ByteBuf buffer) {
+		final ByteBuffer copy = ByteBuffer.allocate(buffer.readableBytes());
+		buffer.readBytes(copy);
+		copy.flip();
+		return copy;
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final ByteBuffer obj) {
+		buffer.writeBytes(obj.duplicate());
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final ByteBuffer obj) {
+		buffer.put(obj.duplicate());
+		buffer.flip();
+	}
+
+	@Override
+	public ByteBuffer fromBytes(final byte[] bytes) {
+		return ByteBuffer.wrap(bytes);
+	}
+
+	@Override
+	public byte[] toBytes(final ByteBuffer obj) {
+		final byte[] bytes = new byte[obj.remaining()];
+		obj.duplicate().get(bytes);
+		return bytes;
+	}
+}
@@ -0,0 +1,371 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ezdb.DbException;
+import ezdb.table.Table;
+import ezdb.util.EncoderContext;
+import ezdb.util.Lz4Block;
+import ezdb.util.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * A wrapper serde that compresses the bytes of another serde with LZ4 once they
+ * reach a threshold. The format is:
+ *
+ * <pre>
+ * [1 byte type: 0 raw, 1 LZ4, 2 LZ4 with dictionary]
+ * [varint dictionary id, only for type 2]
+ * [varint uncompressed length, not for type 0]
+ * [object bytes, compressed unless type 0]
+ * </pre>
+ *
+ * Values below the threshold or that do not shrink are stored raw, so small
+ * values only pay for the type byte. This is meant for backends that do not
+ * compress pages themselves, e.g. LMDB or the heap map.
+ *
+ * Small values compress poorly on their own. A dictionary trained from typical
+ * values with {@link #train(Iterable, int)} gives them common byte sequences to
+ * refer to. Dictionaries are kept in a side table so values written with an
+ * older dictionary can still be read after training a new one.
+ *
+ * @param <O> The type of object that we wish to compress.
+ */
+public class CompressingSerde<O> implements Serde<O> {
+
+	public static final int DEFAULT_THRESHOLD = 64;
+
+	private static final byte RAW = 0;
+	private static final byte LZ4 = 1;
+	private static final byte LZ4_DICTIONARY = 2;
+
+	/**
+	 * Scratch arrays that grew beyond this for a large value are not kept.
+	 */
+	private static final int MAX_SCRATCH_LENGTH = 256 * 1024;
+
+	private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	private final Serde<O> objectSerde;
+	private final int threshold;
+	private final Table<Integer, byte[]> dictionaries;
+	private final Map<Integer, byte[]> loadedDictionaries = new ConcurrentHashMap<Integer, byte[]>();
+	private volatile Dictionary dictionary;
+
+	public CompressingSerde(final Serde<O> objectSerde) {
+		this(objectSerde, DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * @param threshold Values with fewer serialized bytes are stored raw.
+	 */
+	public CompressingSerde(final Serde<O> objectSerde, final int threshold) {
+		this(objectSerde, threshold, null);
+	}
+
+	/**
+	 * @param dictionaries A table with {@link IntegerSerde} keys and
+	 *                     {@link ByteSerde} values that holds the trained
+	 *                     dictionaries. The newest one is used to compress.
+	 */
+	public CompressingSerde(final Serde<O> objectSerde, final int threshold,
+			final Table<Integer, byte[]> dictionaries) {
+		this.objectSerde = objectSerde;
+		this.threshold = threshold;
+		this.dictionaries = dictionaries;
+		if (dictionaries != null) {
+			int id = 0;
+			byte[] bytes;
+			while ((bytes = dictionaries.get(id + 1)) != null) {
+				id++;
+				loadedDictionaries.put(id, bytes);
+				dictionary = new Dictionary(id, bytes);
+			}
+		}
+	}
+
+	/**
+	 * Builds a dictionary from the serialized samples, stores it under the next
+	 * id and compresses all following values with it. Samples that matter most
+	 * should come last, they end up closest to the values.
+	 *
+	 * @param maxLength The size limit of the dictionary, LZ4 can not reach back
+	 *                  further than {@link Lz4Block#MAX_DICTIONARY_LENGTH}.
+	 * @return the id of the new dictionary
+	 */
+	public synchronized int train(final Iterable<? extends O> samples, final int maxLength) {
+		if (dictionaries == null) {
+			throw new IllegalStateException("No table to store dictionaries in");
+		}
+		final List<byte[]> distinct = new ArrayList<byte[]>();
+		final Set<ByteBuffer> seen = new HashSet<ByteBuffer>();
+		for (final O sample : samples) {
+			final byte[] bytes = objectSerde.toBytes(sample);
+			if (seen.add(ByteBuffer.wrap(bytes))) {
+				distinct.add(bytes);
+			}
+		}
+		final int limit = Math.min(maxLength, Lz4Block.MAX_DICTIONARY_LENGTH);
+		int length = 0;
+		int first = distinct.size();
+		while (first > 0 && length + distinct.get(first - 1).length <= limit) {
+			first--;
+			length += distinct.get(first).length;
+		}
+		final byte[] bytes = new byte[length];
+		int offset = 0;
+		for (int i = first; i < distinct.size(); i++) {
+			final byte[] sample = distinct.get(i);
+			System.arraycopy(sample, 0, bytes, offset, sample.length);
+			offset += sample.length;
+		}
+		final Dictionary current = dictionary;
+		final int id = current == null ? 1 : current.id + 1;
+		dictionaries.put(id, bytes);
+		loadedDictionaries.put(id, bytes);
+		dictionary = new Dictionary(id, bytes);
+		return id;
+	}
+
+	/**
+	 * @return the id of the dictionary new values are compressed with, 0 for none
+	 */
+	public int getDictionaryId() {
+		final Dictionary current = dictionary;
+		return current == null ? 0 : current.id;
+	}
+
+	@Override
+	public O fromBuffer(final ByteBuf buffer) {
+		final byte type = buffer.readByte();
+		if (type == RAW) {
+			return objectSerde.fromBuffer(buffer);
+		}
+		final byte[] dictionaryBytes = dictionaryOf(type, buffer);
+		final int length = readVarInt(buffer);
+		final int compressed = buffer.readableBytes();
+		final byte[] bytes = new byte[length];
+		if (buffer.hasArray()) {
+			Lz4Block.decompress(buffer.array(), buffer.arrayOffset() + buffer.readerIndex(), compressed,
+					dictionaryBytes, bytes, 0, length);
+		} else {
+			final byte[] in = SCRATCH.get().compressed(compressed);
+			buffer.getBytes(buffer.readerIndex(), in, 0, compressed);
+			Lz4Block.decompress(in, 0, compressed, dictionaryBytes, bytes, 0, length);
+		}
+		buffer.skipBytes(compressed);
+		return objectSerde.fromBytes(bytes);
+	}
+
+	@Override
+	public O fromBuffer(final ByteBuffer buffer) {
+		final int positionBefore = buffer.position();
+		final byte type = buffer.get(positionBefore);
+		if (type == RAW) {
+			Util.position(buffer, positionBefore + 1);
+			return objectSerde.fromBuffer(buffer);
+		}
+		final ByteBuf wrapped = Unpooled.wrappedBuffer(buffer.duplicate());
+		final O obj = fromBuffer(wrapped);
+		// same buffer state as the default implementation leaves behind
+		Util.position(buffer, buffer.limit());
+		buffer.flip();
+		return obj;
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final O obj) {
+		final int start = buffer.writerIndex();
+		buffer.writeByte(RAW);
+		objectSerde.toBuffer(buffer, obj);
+		final int length = buffer.writerIndex() - start - 1;
+		if (length < threshold) {
+			return;
+		}
+		final Dictionary current = dictionary;
+		final Scratch scratch = SCRATCH.get();
+		final byte[] in = scratch.input(current, length);
+		final int historyLength = current == null ? 0 : current.bytes.length;
+		buffer.getBytes(start + 1, in, historyLength, length);
+		final byte[] out = scratch.output(Lz4Block.maxCompressedLength(length));
+		final int compressed = Lz4Block.compress(in, 0, historyLength, length, out, 0, scratch.hashTable);
+		int header = 1 + varIntLength(length);
+		if (current != null) {
+			header += varIntLength(current.id);
+		}
+		if (header + compressed >= length + 1) {
+			// incompressible, keep it raw
+			return;
+		}
+		buffer.writerIndex(start);
+		if (current == null) {
+			buffer.writeByte(LZ4);
+		} else {
+			buffer.writeByte(LZ4_DICTIONARY);
+			writeVarInt(buffer, current.id);
+		}
+		writeVarInt(buffer, length);
+		buffer.writeBytes(out, 0, compressed);
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final O obj) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.value();
+			toBuffer(buf, obj);
+			buffer.put(EncoderContext.nioBuffer(buf));
+			buffer.flip();
+		} finally {
+			context.release();
+		}
+	}
+
+	@Override
+	public O fromBytes(final byte[] bytes) {
+		return fromBuffer(ByteBuffer.wrap(bytes));
+	}
+
+	@Override
+	public byte[] toBytes(final O obj) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.value();
+			toBuffer(buf, obj);
+			return EncoderContext.toBytes(buf);
+		} finally {
+			context.release();
+		}
+	}
+
+	private byte[] dictionaryOf(final byte type, final ByteBuf buffer) {
+		if (type == LZ4) {
+			return null;
+		}
+		if (type != LZ4_DICTIONARY) {
+			throw new DbException("Unknown compression type: " + type);
+		}
+		final int id = readVarInt(buffer);
+		byte[] bytes = loadedDictionaries.get(id);
+		if (bytes == null && dictionaries != null) {
+			bytes = dictionaries.get(id);
+			if (bytes != null) {
+				loadedDictionaries.put(id, bytes);
+			}
+		}
+		if (bytes == null) {
+			throw new DbException("Missing compression dictionary: " + id);
+		}
+		return bytes;
+	}
+
+	private static int varIntLength(final int value) {
+		int length = 1;
+		int remaining = value >>> 7;
+		while (remaining != 0) {
+			length++;
+			remaining >>>= 7;
+		}
+		return length;
+	}
+
+	private static void writeVarInt(final ByteBuf buffer, final int value) {
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			buffer.writeByte((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		buffer.writeByte(remaining);
+	}
+
+	private static int readVarInt(final ByteBuf buffer) {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.readByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	private static final class Dictionary {
+		private final int id;
+		private final byte[] bytes;
+
+		private Dictionary(final int id, final byte[] bytes) {
+			this.id = id;
+			this.bytes = bytes;
+		}
+	}
+
+	/**
+	 * Arrays of the current thread for compressing, the input keeps the last
+	 * dictionary in front so it is not copied for every value.
+	 */
+	private static final class Scratch {
+		private final int[] hashTable = new int[Lz4Block.HASH_TABLE_SIZE];
+		private byte[] input = new byte[0];
+		private byte[] inputDictionary;
+		private byte[] output = new byte[0];
+		private byte[] compressed = new byte[0];
+
+		private byte[] input(final Dictionary dictionary, final int length) {
+			final byte[] history = dictionary == null ? null : dictionary.bytes;
+			final int historyLength = history == null ? 0 : history.length;
+			final int required = historyLength + length;
+			if (required > MAX_SCRATCH_LENGTH) {
+				final byte[] large = new byte[required];
+				if (history != null) {
+					System.arraycopy(history, 0, large, 0, historyLength);
+				}
+				return large;
+			}
+			if (input.length < required) {
+				input = new byte[Math.min(MAX_SCRATCH_LENGTH, Math.max(required, input.length * 2))];
+				inputDictionary = null;
+			}
+			if (inputDictionary != history) {
+				if (history != null) {
+					System.arraycopy(history, 0, input, 0, historyLength);
+				}
+				inputDictionary = history;
+			}
+			return input;
+		}
+
+		private byte[] output(final int length) {
+			if (length > MAX_SCRATCH_LENGTH) {
+				return new byte[length];
+			}
+			if (output.length < length) {
+				output = new byte[Math.min(MAX_SCRATCH_LENGTH, Math.max(length, output.length * 2))];
+			}
+			return output;
+		}
+
+		private byte[] compressed(final int length) {
+			if (length > MAX_SCRATCH_LENGTH) {
+				return new byte[length];
+			}
+			if (compressed.length < length) {
+				compressed = new byte[Math.min(MAX_SCRATCH_LENGTH, Math.max(length, compressed.length * 2))];
+			}
+			return compressed;
+		}
+	}
+
+}
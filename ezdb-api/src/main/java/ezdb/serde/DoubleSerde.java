@@ -0,0 +1,61 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+
+import io.netty.buffer.ByteBuf;
+
+public class DoubleSerde implements Serde<Double> {
+	public static final DoubleSerde get = new DoubleSerde();
+	private static final byte[] EMPTY_BYTES = new byte[0];
+
+	@Override
+	public Double fromBuffer(final ByteBuf buffer) {
+		if (buffer == null || buffer.readableBytes() == 0) {
+			return null;
+		}
+		return Double.longBitsToDouble(buffer.readLong());
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final Double obj) {
+		if (obj == null) {
+			return;
+		}
+		buffer.writeLong(Double.doubleToRawLongBits(obj));
+	}
+
+	@Override
+	public Double fromBuffer(final ByteBuffer buffer) {
+		if (buffer == null || buffer.remaining() == 0) {
+			return null;
+		}
+		return Double.longBitsToDouble(buffer.getLong(buffer.position()));
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final Double obj) {
+		if (obj == null) {
+			return;
+		}
+		buffer.putLong(buffer.position(), Double.doubleToRawLongBits(obj));
+	}
+
+	@Override
+	public Double fromBytes(final byte[] bytes) {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return Double.longBitsToDouble(buffer.getLong());
+	}
+
+	@Override
+	public byte[] toBytes(final Double obj) {
+		if (obj == null) {
+			return EMPTY_BYTES;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate(8);
+		buffer.putLong(Double.doubleToRawLongBits(obj));
+		return buffer.array();
+	}
+}
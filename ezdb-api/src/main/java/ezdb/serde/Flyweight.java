@@ -0,0 +1,109 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+
+import ezdb.util.Util;
+
+/**
+ * Base class of struct views that read their fields at fixed offsets straight
+ * from a buffer instead of decoding them into fields. Subclasses define the
+ * layout through typed accessors, e.g.
+ *
+ * <pre>
+ * public class Quote extends Flyweight {
+ * 	public long getTime() {
+ * 		return getLong(0);
+ * 	}
+ *
+ * 	public double getPrice() {
+ * 		return getDouble(8);
+ * 	}
+ * }
+ * </pre>
+ *
+ * A flyweight can be re-pointed at another buffer with
+ * {@link #wrap(ByteBuffer)}, so a scan can reuse one instance for all rows.
+ * Offsets are relative to the position of the buffer at the time it was
+ * wrapped and values are read in big-endian order like the other serdes write
+ * them. Views of scanned rows wrap read-only buffers, their setters throw a
+ * {@link java.nio.ReadOnlyBufferException}.
+ */
+public abstract class Flyweight {
+
+	private ByteBuffer buffer;
+	private int offset;
+	private int length;
+
+	/**
+	 * Points this flyweight at the remaining bytes of the buffer without copying
+	 * them.
+	 */
+	public void wrap(final ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.offset = buffer.position();
+		this.length = buffer.remaining();
+	}
+
+	/**
+	 * @return the wrapped bytes as a new buffer that shares the memory
+	 */
+	public ByteBuffer buffer() {
+		final ByteBuffer duplicate = buffer.duplicate();
+		duplicate.limit(offset + length);
+		Util.position(duplicate, offset);
+		return duplicate;
+	}
+
+	public int length() {
+		return length;
+	}
+
+	protected byte getByte(final int index) {
+		return buffer.get(offset + index);
+	}
+
+	protected short getShort(final int index) {
+		return buffer.getShort(offset + index);
+	}
+
+	protected int getInt(final int index) {
+		return buffer.getInt(offset + index);
+	}
+
+	protected long getLong(final int index) {
+		return buffer.getLong(offset + index);
+	}
+
+	protected float getFloat(final int index) {
+		return buffer.getFloat(offset + index);
+	}
+
+	protected double getDouble(final int index) {
+		return buffer.getDouble(offset + index);
+	}
+
+	protected void putByte(final int index, final byte value) {
+		buffer.put(offset + index, value);
+	}
+
+	protected void putShort(final int index, final short value) {
+		buffer.putShort(offset + index, value);
+	}
+
+	protected void putInt(final int index, final int value) {
+		buffer.putInt(offset + index, value);
+	}
+
+	protected void putLong(final int index, final long value) {
+		buffer.putLong(offset + index, value);
+	}
+
+	protected void putFloat(final int index, final float value) {
+		buffer.putFloat(offset + index, value);
+	}
+
+	protected void putDouble(final int index, final double value) {
+		buffer.putDouble(offset + index, value);
+	}
+
+}
@@ -0,0 +1,81 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Stores the bytes of a {@link Flyweight} as they are. Views wrap the buffer of
+ * the backend, so reading a field of a scanned row only touches its bytes. As a
+ * {@link HolderDecoder} one flyweight can be re-pointed at every row of a scan.
+ *
+ * @param <F> The type of the flyweight.
+ */
+public class FlyweightSerde<F extends Flyweight> implements ViewSerde<F>, HolderDecoder<F> {
+
+	private final Supplier<F> factory;
+
+	/**
+	 * @param factory Creates flyweights that are not wrapped yet.
+	 */
+	public FlyweightSerde(final Supplier<F> factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * @return a flyweight on a new heap buffer of the given length, to fill
+	 *         through its setters before it gets stored
+	 */
+	public F allocate(final int length) {
+		return wrap(ByteBuffer.allocate(length));
+	}
+
+	private F wrap(final ByteBuffer buffer) {
+		final F flyweight = factory.get();
+		flyweight.wrap(buffer);
+		return flyweight;
+	}
+
+	@Override
+	public F view(final ByteBuffer buffer) {
+		return wrap(buffer);
+	}
+
+	@Override
+	public void decode(final ByteBuffer buffer, final F holder) {
+		holder.wrap(buffer);
+	}
+
+	@Override
+	public F copy(final F view) {
+		return wrap(ByteBufferSerde.get.copy(view.buffer()));
+	}
+
+	@Override
+	public F fromBuffer(final ByteBuf buffer) {
+		return wrap(ByteBufferSerde.get.fromBuffer(buffer));
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final F obj) {
+		buffer.writeBytes(obj.buffer());
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final F obj) {
+		buffer.put(obj.buffer());
+		buffer.flip();
+	}
+
+	@Override
+	public F fromBytes(final byte[] bytes) {
+		return wrap(ByteBuffer.wrap(bytes));
+	}
+
+	@Override
+	public byte[] toBytes(final F obj) {
+		return ByteBufferSerde.get.toBytes(obj.buffer());
+	}
+
+}
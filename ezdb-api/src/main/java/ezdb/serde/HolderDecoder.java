@@ -0,0 +1,16 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes bytes into an object that is supplied by the caller, so that scans
+ * can reuse one holder instead of allocating a new object per row.
+ * 
+ * @param <O> The type of the holder.
+ */
+@FunctionalInterface
+public interface HolderDecoder<O> {
+
+	void decode(ByteBuffer buffer, O holder);
+
+}
@@ -0,0 +1,87 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+import java.util.Calendar;
+import java.util.Date;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Serializes calendars by their epoch millis using the {@link OrderedLongSerde},
+ * so that the unsigned byte order of the serialized values matches the
+ * chronological order.
+ */
+public class OrderedCalendarSerde implements Serde<Calendar> {
+
+	public static final OrderedCalendarSerde get = new OrderedCalendarSerde();
+
+	@Override
+	public Calendar fromBuffer(final ByteBuffer buffer) {
+		final Date date = OrderedDateSerde.get.fromBuffer(buffer);
+		if (date == null) {
+			return null;
+		} else {
+			final Calendar cal = Calendar.getInstance();
+			cal.setTime(date);
+			return cal;
+		}
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final Calendar obj) {
+		Date date;
+		if (obj == null) {
+			date = null;
+		} else {
+			date = obj.getTime();
+		}
+		OrderedDateSerde.get.toBuffer(buffer, date);
+	}
+
+	@Override
+	public Calendar fromBuffer(final ByteBuf buffer) {
+		final Date date = OrderedDateSerde.get.fromBuffer(buffer);
+		if (date == null) {
+			return null;
+		} else {
+			final Calendar cal = Calendar.getInstance();
+			cal.setTime(date);
+			return cal;
+		}
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final Calendar obj) {
+		Date date;
+		if (obj == null) {
+			date = null;
+		} else {
+			date = obj.getTime();
+		}
+		OrderedDateSerde.get.toBuffer(buffer, date);
+	}
+
+	@Override
+	public Calendar fromBytes(final byte[] bytes) {
+		final Date date = OrderedDateSerde.get.fromBytes(bytes);
+		if (date == null) {
+			return null;
+		} else {
+			final Calendar cal = Calendar.getInstance();
+			cal.setTime(date);
+			return cal;
+		}
+	}
+
+	@Override
+	public byte[] toBytes(final Calendar obj) {
+		Date date;
+		if (obj == null) {
+			date = null;
+		} else {
+			date = obj.getTime();
+		}
+		return OrderedDateSerde.get.toBytes(date);
+	}
+
+}
@@ -0,0 +1,80 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Serializes dates by their epoch millis using the {@link OrderedLongSerde},
+ * so that the unsigned byte order of the serialized values matches the
+ * chronological order.
+ */
+public class OrderedDateSerde implements Serde<Date> {
+
+	public static final OrderedDateSerde get = new OrderedDateSerde();
+
+	@Override
+	public Date fromBuffer(final ByteBuffer buffer) {
+		final Long time = OrderedLongSerde.get.fromBuffer(buffer);
+		if (time == null) {
+			return null;
+		} else {
+			return new Date(time);
+		}
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final Date obj) {
+		final Long time;
+		if (obj == null) {
+			time = null;
+		} else {
+			time = obj.getTime();
+		}
+		OrderedLongSerde.get.toBuffer(buffer, time);
+	}
+
+	@Override
+	public Date fromBuffer(final ByteBuf buffer) {
+		final Long time = OrderedLongSerde.get.fromBuffer(buffer);
+		if (time == null) {
+			return null;
+		} else {
+			return new Date(time);
+		}
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final Date obj) {
+		final Long time;
+		if (obj == null) {
+			time = null;
+		} else {
+			time = obj.getTime();
+		}
+		OrderedLongSerde.get.toBuffer(buffer, time);
+	}
+
+	@Override
+	public Date fromBytes(final byte[] bytes) {
+		final Long time = OrderedLongSerde.get.fromBytes(bytes);
+		if (time == null) {
+			return null;
+		} else {
+			return new Date(time);
+		}
+	}
+
+	@Override
+	public byte[] toBytes(final Date obj) {
+		final Long time;
+		if (obj == null) {
+			time = null;
+		} else {
+			time = obj.getTime();
+		}
+		return OrderedLongSerde.get.toBytes(time);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Serializes integers big endian with a flipped sign bit, so that the unsigned
+ * byte order of the serialized values matches the numeric order (negative
+ * values sort before positive ones).
+ */
+public class OrderedIntegerSerde implements Serde<Integer> {
+	public static final OrderedIntegerSerde get = new OrderedIntegerSerde();
+	private static final byte[] EMPTY_BYTES = new byte[0];
+
+	public static int encode(final int value) {
+		return value ^ Integer.MIN_VALUE;
+	}
+
+	public static int decode(final int value) {
+		return value ^ Integer.MIN_VALUE;
+	}
+
+	@Override
+	public Integer fromBuffer(final ByteBuf buffer) {
+		if (buffer == null || buffer.readableBytes() == 0) {
+			return null;
+		}
+		return decode(buffer.readInt());
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final Integer obj) {
+		if (obj == null) {
+			return;
+		}
+		buffer.writeInt(encode(obj));
+	}
+
+	@Override
+	public Integer fromBuffer(final ByteBuffer buffer) {
+		if (buffer == null || buffer.remaining() == 0) {
+			return null;
+		}
+		return decode(buffer.getInt(buffer.position()));
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final Integer obj) {
+		if (obj == null) {
+			return;
+		}
+		buffer.putInt(buffer.position(), encode(obj));
+	}
+
+	@Override
+	public Integer fromBytes(final byte[] bytes) {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return decode(buffer.getInt());
+	}
+
+	@Override
+	public byte[] toBytes(final Integer obj) {
+		if (obj == null) {
+			return EMPTY_BYTES;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate(4);
+		buffer.putInt(encode(obj));
+		return buffer.array();
+	}
+}
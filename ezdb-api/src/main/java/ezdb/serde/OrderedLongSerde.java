@@ -0,0 +1,74 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Serializes longs big endian with a flipped sign bit, so that the unsigned
+ * byte order of the serialized values matches the numeric order (negative
+ * values sort before positive ones).
+ */
+public class OrderedLongSerde implements Serde<Long> {
+	public static final OrderedLongSerde get = new OrderedLongSerde();
+	private static final byte[] EMPTY_BYTES = new byte[0];
+
+	public static long encode(final long value) {
+		return value ^ Long.MIN_VALUE;
+	}
+
+	public static long decode(final long value) {
+		return value ^ Long.MIN_VALUE;
+	}
+
+	@Override
+	public Long fromBuffer(final ByteBuf buffer) {
+		if (buffer == null || buffer.readableBytes() == 0) {
+			return null;
+		}
+		return decode(buffer.readLong());
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final Long obj) {
+		if (obj == null) {
+			return;
+		}
+		buffer.writeLong(encode(obj));
+	}
+
+	@Override
+	public Long fromBuffer(final ByteBuffer buffer) {
+		if (buffer == null || buffer.remaining() == 0) {
+			return null;
+		}
+		return decode(buffer.getLong(buffer.position()));
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final Long obj) {
+		if (obj == null) {
+			return;
+		}
+		buffer.putLong(buffer.position(), encode(obj));
+	}
+
+	@Override
+	public Long fromBytes(final byte[] bytes) {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return decode(buffer.getLong());
+	}
+
+	@Override
+	public byte[] toBytes(final Long obj) {
+		if (obj == null) {
+			return EMPTY_BYTES;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate(8);
+		buffer.putLong(encode(obj));
+		return buffer.array();
+	}
+}
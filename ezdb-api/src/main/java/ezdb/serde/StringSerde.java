@@ -1,69 +1,254 @@
 package ezdb.serde;
 
-import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
-import ezdb.DbException;
+import ezdb.util.Util;
 import io.netty.buffer.ByteBuf;
 
+/**
+ * Serializes strings as UTF-8. The unsigned byte order of UTF-8 matches the
+ * code point order of the strings, thus this serde is already order-preserving
+ * when used with the {@link ezdb.comparator.BytewiseComparator}.
+ *
+ * Strings are encoded directly into the array of heap buffers and decoded from
+ * it without intermediate arrays, direct buffers go through a reused array of
+ * the current thread. The bytes are the same as those of
+ * {@link String#getBytes}, including a '?' for unpaired surrogates.
+ *
+ * An instance with an intern cache returns the same string instance for
+ * repeated short values instead of decoding them again, which suits hash keys
+ * that are read over and over.
+ */
 public class StringSerde implements Serde<String> {
 	public static final StringSerde get = new StringSerde();
 
+	/**
+	 * Longer strings are rarely repeated keys and are not interned.
+	 */
+	private static final int MAX_INTERN_LENGTH = 64;
+	private static final int MAX_SCRATCH_LENGTH = 1024;
+
+	private static final ThreadLocal<byte[]> SCRATCH = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[MAX_SCRATCH_LENGTH];
+		}
+	};
+
+	private final InternEntry[] internCache;
+
+	public StringSerde() {
+		this.internCache = null;
+	}
+
+	/**
+	 * @param internCacheSize The number of strings that are remembered, rounded
+	 *                        up to a power of two. Colliding strings replace each
+	 *                        other.
+	 */
+	public StringSerde(final int internCacheSize) {
+		if (internCacheSize <= 0) {
+			throw new IllegalArgumentException("internCacheSize should be positive: " + internCacheSize);
+		}
+		final int size = Integer.highestOneBit(internCacheSize - 1) << 1;
+		this.internCache = new InternEntry[Math.max(1, size)];
+	}
+
 	@Override
 	public String fromBuffer(final ByteBuf buffer) {
-		try {
-			final byte[] bytes = ByteSerde.get.fromBuffer(buffer);
-			return new String(bytes, "UTF-8");
-		} catch (final UnsupportedEncodingException e) {
-			throw new DbException(e);
+		final int index = buffer.readerIndex();
+		final int length = buffer.readableBytes();
+		buffer.skipBytes(length);
+		if (internCache != null && length <= MAX_INTERN_LENGTH) {
+			int hash = 1;
+			for (int i = index; i < index + length; i++) {
+				hash = 31 * hash + buffer.getByte(i);
+			}
+			final int slot = slot(hash);
+			final InternEntry entry = internCache[slot];
+			if (entry != null && entry.hash == hash && entry.bytes.length == length) {
+				boolean equal = true;
+				for (int i = 0; i < length; i++) {
+					if (entry.bytes[i] != buffer.getByte(index + i)) {
+						equal = false;
+						break;
+					}
+				}
+				if (equal) {
+					return entry.string;
+				}
+			}
+			final byte[] bytes = new byte[length];
+			buffer.getBytes(index, bytes);
+			return intern(slot, hash, bytes);
 		}
+		return buffer.toString(index, length, StandardCharsets.UTF_8);
 	}
 
 	@Override
 	public void toBuffer(final ByteBuf buffer, final String obj) {
-		try {
-			final byte[] bytes = obj.getBytes("UTF-8");
-			ByteSerde.get.toBuffer(buffer, bytes);
-		} catch (final UnsupportedEncodingException e) {
-			throw new DbException(e);
+		final int maxLength = obj.length() * 3;
+		if (buffer.hasArray()) {
+			buffer.ensureWritable(maxLength);
+			final int offset = buffer.arrayOffset() + buffer.writerIndex();
+			final int end = encode(obj, buffer.array(), offset);
+			buffer.writerIndex(buffer.writerIndex() + end - offset);
+		} else if (maxLength <= MAX_SCRATCH_LENGTH) {
+			final byte[] scratch = SCRATCH.get();
+			buffer.writeBytes(scratch, 0, encode(obj, scratch, 0));
+		} else {
+			buffer.writeBytes(toBytes(obj));
 		}
 	}
 
 	@Override
 	public String fromBuffer(final ByteBuffer buffer) {
-		try {
-			final byte[] bytes = ByteSerde.get.fromBuffer(buffer);
-			return new String(bytes, "UTF-8");
-		} catch (final UnsupportedEncodingException e) {
-			throw new DbException(e);
+		final int position = buffer.position();
+		final int length = buffer.remaining();
+		final String string;
+		if (internCache != null && length <= MAX_INTERN_LENGTH) {
+			string = fromInternCache(buffer, position, length);
+		} else if (buffer.hasArray()) {
+			string = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+		} else if (length <= MAX_SCRATCH_LENGTH) {
+			final byte[] scratch = SCRATCH.get();
+			for (int i = 0; i < length; i++) {
+				scratch[i] = buffer.get(position + i);
+			}
+			string = new String(scratch, 0, length, StandardCharsets.UTF_8);
+		} else {
+			final byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			string = new String(bytes, StandardCharsets.UTF_8);
+		}
+		// same buffer state as the ByteSerde leaves behind
+		Util.position(buffer, position + length);
+		buffer.flip();
+		return string;
+	}
+
+	private String fromInternCache(final ByteBuffer buffer, final int position, final int length) {
+		int hash = 1;
+		for (int i = position; i < position + length; i++) {
+			hash = 31 * hash + buffer.get(i);
 		}
+		final int slot = slot(hash);
+		final InternEntry entry = internCache[slot];
+		if (entry != null && entry.hash == hash && entry.bytes.length == length) {
+			boolean equal = true;
+			for (int i = 0; i < length; i++) {
+				if (entry.bytes[i] != buffer.get(position + i)) {
+					equal = false;
+					break;
+				}
+			}
+			if (equal) {
+				return entry.string;
+			}
+		}
+		final byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(position + i);
+		}
+		return intern(slot, hash, bytes);
 	}
 
 	@Override
 	public void toBuffer(final ByteBuffer buffer, final String obj) {
-		try {
-			final byte[] bytes = obj.getBytes("UTF-8");
-			ByteSerde.get.toBuffer(buffer, bytes);
-		} catch (final UnsupportedEncodingException e) {
-			throw new DbException(e);
+		final int maxLength = obj.length() * 3;
+		if (buffer.hasArray() && buffer.remaining() >= maxLength) {
+			final int offset = buffer.arrayOffset() + buffer.position();
+			final int end = encode(obj, buffer.array(), offset);
+			Util.position(buffer, buffer.position() + end - offset);
+		} else if (maxLength <= MAX_SCRATCH_LENGTH) {
+			final byte[] scratch = SCRATCH.get();
+			buffer.put(scratch, 0, encode(obj, scratch, 0));
+		} else {
+			buffer.put(toBytes(obj));
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Writes the same bytes as {@link String#getBytes} with UTF-8, the array needs
+	 * room for three bytes per char.
+	 *
+	 * @return the index after the last written byte
+	 */
+	private static int encode(final String obj, final byte[] bytes, final int offset) {
+		int index = offset;
+		final int length = obj.length();
+		for (int i = 0; i < length; i++) {
+			final char c = obj.charAt(i);
+			if (c < 0x80) {
+				bytes[index++] = (byte) c;
+			} else if (c < 0x800) {
+				bytes[index++] = (byte) (0xC0 | c >> 6);
+				bytes[index++] = (byte) (0x80 | c & 0x3F);
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(obj.charAt(i + 1))) {
+					final int codePoint = Character.toCodePoint(c, obj.charAt(++i));
+					bytes[index++] = (byte) (0xF0 | codePoint >> 18);
+					bytes[index++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+					bytes[index++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+					bytes[index++] = (byte) (0x80 | codePoint & 0x3F);
+				} else {
+					// unpaired surrogate
+					bytes[index++] = '?';
+				}
+			} else {
+				bytes[index++] = (byte) (0xE0 | c >> 12);
+				bytes[index++] = (byte) (0x80 | c >> 6 & 0x3F);
+				bytes[index++] = (byte) (0x80 | c & 0x3F);
+			}
 		}
+		return index;
 	}
 
 	@Override
 	public String fromBytes(final byte[] bytes) {
-		try {
-			return new String(bytes, "UTF-8");
-		} catch (final UnsupportedEncodingException e) {
-			throw new DbException(e);
+		if (internCache != null && bytes.length <= MAX_INTERN_LENGTH) {
+			int hash = 1;
+			for (int i = 0; i < bytes.length; i++) {
+				hash = 31 * hash + bytes[i];
+			}
+			final int slot = slot(hash);
+			final InternEntry entry = internCache[slot];
+			if (entry != null && entry.hash == hash && Arrays.equals(entry.bytes, bytes)) {
+				return entry.string;
+			}
+			return intern(slot, hash, bytes.clone());
 		}
+		return new String(bytes, StandardCharsets.UTF_8);
 	}
 
 	@Override
 	public byte[] toBytes(final String obj) {
-		try {
-			return obj.getBytes("UTF-8");
-		} catch (final UnsupportedEncodingException e) {
-			throw new DbException(e);
+		return obj.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private int slot(final int hash) {
+		return (hash ^ hash >>> 16) & (internCache.length - 1);
+	}
+
+	private String intern(final int slot, final int hash, final byte[] bytes) {
+		final String string = new String(bytes, StandardCharsets.UTF_8);
+		// entries are immutable, a racing thread at worst replaces a fresh entry
+		internCache[slot] = new InternEntry(hash, bytes, string);
+		return string;
+	}
+
+	private static final class InternEntry {
+		private final int hash;
+		private final byte[] bytes;
+		private final String string;
+
+		private InternEntry(final int hash, final byte[] bytes, final String string) {
+			this.hash = hash;
+			this.bytes = bytes;
+			this.string = string;
 		}
 	}
 }
@@ -0,0 +1,559 @@
+package ezdb.serde;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ezdb.DbException;
+import ezdb.util.EncoderContext;
+import ezdb.util.Util;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Writes the fields of a value class in a fixed layout:
+ *
+ * <pre>
+ * [primitive fields at fixed offsets]
+ * [end offset of each variable length field as 4 byte int]
+ * [variable length fields one after another]
+ * </pre>
+ *
+ * Primitive fields are copied without any tags or lengths. Strings and
+ * primitive arrays are stored in the tail, the end offsets allow to locate any
+ * of them without reading the others, a null value has the sign bit of its end
+ * offset set. A null object is stored as an empty value.
+ *
+ * The layout is computed once when the serde is created, each field gets a
+ * codec for its type so no type checks happen per value. Single fields can be
+ * read from a buffer through {@link #field(String)} without creating the
+ * object.
+ *
+ * The layout depends on the order of the fields, thus it has to stay the same
+ * for stored values. By default it is the order of the field names, an
+ * explicit schema lists them in the order to store.
+ *
+ * @param <O> The type of the values.
+ */
+public class StructSerde<O> implements Serde<O> {
+
+	private final Constructor<O> constructor;
+	private final FieldCodec[] codecs;
+	private final Map<String, StructField> fieldsByName = new LinkedHashMap<String, StructField>();
+	private final int fixedLength;
+
+	private StructSerde(final Class<O> type, final List<Field> fields) {
+		try {
+			this.constructor = type.getDeclaredConstructor();
+			this.constructor.setAccessible(true);
+		} catch (final NoSuchMethodException e) {
+			throw new IllegalArgumentException(type.getName() + " needs a no-arg constructor", e);
+		}
+		final List<FieldCodec> primitives = new ArrayList<FieldCodec>();
+		final List<FieldCodec> variables = new ArrayList<FieldCodec>();
+		for (final Field field : fields) {
+			field.setAccessible(true);
+			final FieldCodec codec = newCodec(field);
+			if (codec.size > 0) {
+				primitives.add(codec);
+			} else {
+				variables.add(codec);
+			}
+		}
+		// larger fields first keeps them aligned within the value
+		primitives.sort(Comparator.comparingInt((final FieldCodec c) -> c.size).reversed());
+		int offset = 0;
+		for (final FieldCodec codec : primitives) {
+			codec.offset = offset;
+			offset += codec.size;
+		}
+		for (int i = 0; i < variables.size(); i++) {
+			final FieldCodec codec = variables.get(i);
+			codec.offset = offset;
+			codec.previousEndOffset = i == 0 ? -1 : variables.get(i - 1).offset;
+			offset += Integer.BYTES;
+		}
+		this.fixedLength = offset;
+		final List<FieldCodec> codecs = new ArrayList<FieldCodec>(primitives);
+		codecs.addAll(variables);
+		this.codecs = codecs.toArray(new FieldCodec[codecs.size()]);
+		for (final Field field : fields) {
+			for (final FieldCodec codec : this.codecs) {
+				if (codec.field == field) {
+					fieldsByName.put(field.getName(), new StructField(codec, fixedLength));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stores all non-static non-transient fields of the class and its super
+	 * classes in the order of their names.
+	 */
+	public static <T> StructSerde<T> of(final Class<T> type) {
+		final List<Field> fields = new ArrayList<Field>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (final Field field : c.getDeclaredFields()) {
+				final int modifiers = field.getModifiers();
+				if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+					fields.add(field);
+				}
+			}
+		}
+		fields.sort(Comparator.comparing(Field::getName));
+		return new StructSerde<T>(type, fields);
+	}
+
+	/**
+	 * Stores only the given fields in the given order, other fields keep their
+	 * default values when reading.
+	 */
+	public static <T> StructSerde<T> of(final Class<T> type, final String... fieldNames) {
+		final List<Field> fields = new ArrayList<Field>();
+		for (final String fieldName : fieldNames) {
+			fields.add(findField(type, fieldName));
+		}
+		return new StructSerde<T>(type, fields);
+	}
+
+	private static Field findField(final Class<?> type, final String fieldName) {
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			try {
+				return c.getDeclaredField(fieldName);
+			} catch (final NoSuchFieldException e) {
+				// continue with the super class
+			}
+		}
+		throw new IllegalArgumentException(type.getName() + " has no field " + fieldName);
+	}
+
+	/**
+	 * @return the accessor to read the field directly from stored values
+	 */
+	public StructField field(final String name) {
+		final StructField field = fieldsByName.get(name);
+		if (field == null) {
+			throw new IllegalArgumentException("Field is not stored: " + name);
+		}
+		return field;
+	}
+
+	/**
+	 * @return the length of a value without variable length fields
+	 */
+	public int getFixedLength() {
+		return fixedLength;
+	}
+
+	@Override
+	public O fromBuffer(final ByteBuffer buffer) {
+		if (!buffer.hasRemaining()) {
+			return null;
+		}
+		final int base = buffer.position();
+		try {
+			final O obj = constructor.newInstance();
+			for (int i = 0; i < codecs.length; i++) {
+				codecs[i].read(buffer, base, fixedLength, obj);
+			}
+			// same buffer state as the default implementation leaves behind
+			Util.position(buffer, buffer.limit());
+			buffer.flip();
+			return obj;
+		} catch (final ReflectiveOperationException e) {
+			throw new DbException(e);
+		}
+	}
+
+	@Override
+	public O fromBuffer(final ByteBuf buffer) {
+		final O obj = fromBuffer(buffer.nioBuffer());
+		buffer.skipBytes(buffer.readableBytes());
+		return obj;
+	}
+
+	@Override
+	public void toBuffer(final ByteBuf buffer, final O obj) {
+		if (obj == null) {
+			return;
+		}
+		final int base = buffer.writerIndex();
+		buffer.ensureWritable(fixedLength);
+		buffer.writerIndex(base + fixedLength);
+		try {
+			for (int i = 0; i < codecs.length; i++) {
+				codecs[i].write(buffer, base, obj);
+			}
+		} catch (final IllegalAccessException e) {
+			throw new DbException(e);
+		}
+	}
+
+	@Override
+	public void toBuffer(final ByteBuffer buffer, final O obj) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.value();
+			toBuffer(buf, obj);
+			buffer.put(EncoderContext.nioBuffer(buf));
+			buffer.flip();
+		} finally {
+			context.release();
+		}
+	}
+
+	@Override
+	public O fromBytes(final byte[] bytes) {
+		return fromBuffer(ByteBuffer.wrap(bytes));
+	}
+
+	@Override
+	public byte[] toBytes(final O obj) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.value();
+			toBuffer(buf, obj);
+			return EncoderContext.toBytes(buf);
+		} finally {
+			context.release();
+		}
+	}
+
+	/**
+	 * Reads one stored field of a value without creating the object. The buffer
+	 * is expected at the start of the value and its position is not changed.
+	 */
+	public static final class StructField {
+		private final FieldCodec codec;
+		private final int fixedLength;
+
+		private StructField(final FieldCodec codec, final int fixedLength) {
+			this.codec = codec;
+			this.fixedLength = fixedLength;
+		}
+
+		public String getName() {
+			return codec.field.getName();
+		}
+
+		public Class<?> getType() {
+			return codec.field.getType();
+		}
+
+		public long getLong(final ByteBuffer buffer) {
+			return buffer.getLong(buffer.position() + codec.offset);
+		}
+
+		public int getInt(final ByteBuffer buffer) {
+			return buffer.getInt(buffer.position() + codec.offset);
+		}
+
+		public double getDouble(final ByteBuffer buffer) {
+			return buffer.getDouble(buffer.position() + codec.offset);
+		}
+
+		public float getFloat(final ByteBuffer buffer) {
+			return buffer.getFloat(buffer.position() + codec.offset);
+		}
+
+		public short getShort(final ByteBuffer buffer) {
+			return buffer.getShort(buffer.position() + codec.offset);
+		}
+
+		public char getChar(final ByteBuffer buffer) {
+			return buffer.getChar(buffer.position() + codec.offset);
+		}
+
+		public byte getByte(final ByteBuffer buffer) {
+			return buffer.get(buffer.position() + codec.offset);
+		}
+
+		public boolean getBoolean(final ByteBuffer buffer) {
+			return buffer.get(buffer.position() + codec.offset) != 0;
+		}
+
+		/**
+		 * @return the field value, boxed for primitive fields
+		 */
+		public Object get(final ByteBuffer buffer) {
+			return codec.get(buffer, buffer.position(), fixedLength);
+		}
+	}
+
+	private static FieldCodec newCodec(final Field field) {
+		final Class<?> type = field.getType();
+		if (type == long.class) {
+			return new FieldCodec(field, Long.BYTES) {
+				@Override
+				void write(final ByteBuf buffer, final int base, final Object obj) throws IllegalAccessException {
+					buffer.setLong(base + offset, field.getLong(obj));
+				}
+
+				@Override
+				void read(final ByteBuffer buffer, final int base, final int fixedLength, final Object obj)
+						throws IllegalAccessException {
+					field.setLong(obj, buffer.getLong(base + offset));
+				}
+
+				@Override
+				Object get(final ByteBuffer buffer, final int base, final int fixedLength) {
+					return buffer.getLong(base + offset);
+				}
+			};
+		} else if (type == double.class) {
+			return new FieldCodec(field, Double.BYTES) {
+				@Override
+				void write(final ByteBuf buffer, final int base, final Object obj) throws IllegalAccessException {
+					buffer.setDouble(base + offset, field.getDouble(obj));
+				}
+
+				@Override
+				void read(final ByteBuffer buffer, final int base, final int fixedLength, final Object obj)
+						throws IllegalAccessException {
+					field.setDouble(obj, buffer.getDouble(base + offset));
+				}
+
+				@Override
+				Object get(final ByteBuffer buffer, final int base, final int fixedLength) {
+					return buffer.getDouble(base + offset);
+				}
+			};
+		} else if (type == int.class) {
+			return new FieldCodec(field, Integer.BYTES) {
+				@Override
+				void write(final ByteBuf buffer, final int base, final Object obj) throws IllegalAccessException {
+					buffer.setInt(base + offset, field.getInt(obj));
+				}
+
+				@Override
+				void read(final ByteBuffer buffer, final int base, final int fixedLength, final Object obj)
+						throws IllegalAccessException {
+					field.setInt(obj, buffer.getInt(base + offset));
+				}
+
+				@Override
+				Object get(final ByteBuffer buffer, final int base, final int fixedLength) {
+					return buffer.getInt(base + offset);
+				}
+			};
+		} else if (type == float.class) {
+			return new FieldCodec(field, Float.BYTES) {
+				@Override
+				void write(final ByteBuf buffer, final int base, final Object obj) throws IllegalAccessException {
+					buffer.setFloat(base + offset, field.getFloat(obj));
+				}
+
+				@Override
+				void read(final ByteBuffer buffer, final int base, final int fixedLength, final Object obj)
+						throws IllegalAccessException {
+					field.setFloat(obj, buffer.getFloat(base + offset));
+				}
+
+				@Override
+				Object get(final ByteBuffer buffer, final int base, final int fixedLength) {
+					return buffer.getFloat(base + offset);
+				}
+			};
+		} else if (type == short.class) {
+			return new FieldCodec(field, Short.BYTES) {
+				@Override
+				void write(final ByteBuf buffer, final int base, final Object obj) throws IllegalAccessException {
+					buffer.setShort(base + offset, field.getShort(obj));
+				}
+
+				@Override
+				void read(final ByteBuffer buffer, final int base, final int fixedLength, final Object obj)
+						throws IllegalAccessException {
+					field.setShort(obj, buffer.getShort(base + offset));
+				}
+
+				@Override
+				Object get(final ByteBuffer buffer, final int base, final int fixedLength) {
+					return buffer.getShort(base + offset);
+				}
+			};
+		} else if (type == char.class) {
+			return new FieldCodec(field, Character.BYTES) {
+				@Override
+				void write(final ByteBuf buffer, final int base, final Object obj) throws IllegalAccessException {
+					buffer.setChar(base + offset, field.getChar(obj));
+				}
+
+				@Override
+				void read(final ByteBuffer buffer, final int base, final int fixedLength, final Object obj)
+						throws IllegalAccessException {
+					field.setChar(obj, buffer.getChar(base + offset));
+				}
+
+				@Override
+				Object get(final ByteBuffer buffer, final int base, final int fixedLength) {
+					return buffer.getChar(base + offset);
+				}
+			};
+		} else if (type == byte.class) {
+			return new FieldCodec(field, Byte.BYTES) {
+				@Override
+				void write(final ByteBuf buffer, final int base, final Object obj) throws IllegalAccessException {
+					buffer.setByte(base + offset, field.getByte(obj));
+				}
+
+				@Override
+				void read(final ByteBuffer buffer, final int base, final int fixedLength, final Object obj)
+						throws IllegalAccessException {
+					field.setByte(obj, buffer.get(base + offset));
+				}
+
+				@Override
+				Object get(final ByteBuffer buffer, final int base, final int fixedLength) {
+					return buffer.get(base + offset);
+				}
+			};
+		} else if (type == boolean.class) {
+			return new FieldCodec(field, Byte.BYTES) {
+				@Override
+				void write(final ByteBuf buffer, final int base, final Object obj) throws IllegalAccessException {
+					buffer.setBoolean(base + offset, field.getBoolean(obj));
+				}
+
+				@Override
+				void read(final ByteBuffer buffer, final int base, final int fixedLength, final Object obj)
+						throws IllegalAccessException {
+					field.setBoolean(obj, buffer.get(base + offset) != 0);
+				}
+
+				@Override
+				Object get(final ByteBuffer buffer, final int base, final int fixedLength) {
+					return buffer.get(base + offset) != 0;
+				}
+			};
+		} else if (type == String.class || type == byte[].class || type == int[].class || type == long[].class
+				|| type == double[].class) {
+			return new VariableFieldCodec(field);
+		} else {
+			throw new IllegalArgumentException("Field " + field.getName() + " has type " + type.getName()
+					+ ", only primitives, strings and primitive arrays are supported, use the "
+					+ BinarySerde.class.getSimpleName() + " instead");
+		}
+	}
+
+	private abstract static class FieldCodec {
+		protected final Field field;
+		/**
+		 * Zero for fields in the variable length tail.
+		 */
+		protected final int size;
+		protected int offset;
+		/**
+		 * Offset of the end offset of the preceding variable length field, -1 for
+		 * the first one.
+		 */
+		protected int previousEndOffset;
+
+		private FieldCodec(final Field field, final int size) {
+			this.field = field;
+			this.size = size;
+		}
+
+		abstract void write(ByteBuf buffer, int base, Object obj) throws IllegalAccessException;
+
+		abstract void read(ByteBuffer buffer, int base, int fixedLength, Object obj) throws IllegalAccessException;
+
+		abstract Object get(ByteBuffer buffer, int base, int fixedLength);
+	}
+
+	private static final class VariableFieldCodec extends FieldCodec {
+		private static final int NULL_FLAG = Integer.MIN_VALUE;
+
+		private final Class<?> type;
+
+		private VariableFieldCodec(final Field field) {
+			super(field, 0);
+			this.type = field.getType();
+		}
+
+		@Override
+		void write(final ByteBuf buffer, final int base, final Object obj) throws IllegalAccessException {
+			final Object value = field.get(obj);
+			if (value == null) {
+				buffer.setInt(base + offset, (buffer.writerIndex() - base) | NULL_FLAG);
+				return;
+			}
+			if (type == String.class) {
+				StringSerde.get.toBuffer(buffer, (String) value);
+			} else if (type == byte[].class) {
+				buffer.writeBytes((byte[]) value);
+			} else if (type == int[].class) {
+				final int[] array = (int[]) value;
+				for (int i = 0; i < array.length; i++) {
+					buffer.writeInt(array[i]);
+				}
+			} else if (type == long[].class) {
+				final long[] array = (long[]) value;
+				for (int i = 0; i < array.length; i++) {
+					buffer.writeLong(array[i]);
+				}
+			} else {
+				final double[] array = (double[]) value;
+				for (int i = 0; i < array.length; i++) {
+					buffer.writeDouble(array[i]);
+				}
+			}
+			buffer.setInt(base + offset, buffer.writerIndex() - base);
+		}
+
+		@Override
+		void read(final ByteBuffer buffer, final int base, final int fixedLength, final Object obj)
+				throws IllegalAccessException {
+			field.set(obj, get(buffer, base, fixedLength));
+		}
+
+		@Override
+		Object get(final ByteBuffer buffer, final int base, final int fixedLength) {
+			final int end = buffer.getInt(base + offset);
+			if ((end & NULL_FLAG) != 0) {
+				return null;
+			}
+			final int start;
+			if (previousEndOffset < 0) {
+				start = fixedLength;
+			} else {
+				start = buffer.getInt(base + previousEndOffset) & ~NULL_FLAG;
+			}
+			final int length = end - start;
+			final int from = base + start;
+			if (type == String.class) {
+				return StringSerde.get.fromBuffer(Util.slice(buffer, from, length));
+			} else if (type == byte[].class) {
+				final byte[] array = new byte[length];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = buffer.get(from + i);
+				}
+				return array;
+			} else if (type == int[].class) {
+				final int[] array = new int[length / Integer.BYTES];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = buffer.getInt(from + i * Integer.BYTES);
+				}
+				return array;
+			} else if (type == long[].class) {
+				final long[] array = new long[length / Long.BYTES];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = buffer.getLong(from + i * Long.BYTES);
+				}
+				return array;
+			} else {
+				final double[] array = new double[length / Double.BYTES];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = buffer.getDouble(from + i * Double.BYTES);
+				}
+				return array;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package ezdb.serde;
+
+import java.nio.ByteBuffer;
+
+import ezdb.util.Util;
+
+/**
+ * A serde that can decode objects which read directly from the buffer they
+ * were decoded from instead of copying its bytes. For backends like LMDB the
+ * buffers of a scan point into the memory map, so such views cost no copy at
+ * all. A view is only valid as long as its buffer, which for scans ends when
+ * the iterator moves on or is closed, see
+ * {@link ezdb.table.range.RangeTableRowView}.
+ *
+ * The regular {@link #fromBuffer(ByteBuffer)} still returns objects that stay
+ * valid on their own.
+ *
+ * @param <O> The type of the view.
+ */
+public interface ViewSerde<O> extends Serde<O> {
+
+	/**
+	 * @return an object that reads the remaining bytes of the buffer without
+	 *         copying them, the position of the buffer is not changed
+	 */
+	O view(ByteBuffer buffer);
+
+	/**
+	 * @return an object with the same content as the view that does not depend
+	 *         on the buffer of the view anymore
+	 */
+	O copy(O view);
+
+	@Override
+	default O fromBuffer(final ByteBuffer buffer) {
+		final O copy = copy(view(buffer));
+		// same buffer state as the default implementation leaves behind
+		Util.position(buffer, buffer.limit());
+		buffer.flip();
+		return copy;
+	}
+
+}
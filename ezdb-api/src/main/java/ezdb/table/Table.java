@@ -1,5 +1,9 @@
 package ezdb.table;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import ezdb.util.TableIterator;
 
 /**
@@ -31,6 +35,22 @@ public interface Table<H, V> {
 	 */
 	public V get(H hashKey);
 
+	/**
+	 * Get the values for multiple keys at once. Implementations should override
+	 * this when the backend can look up many keys cheaper than one by one.
+	 * 
+	 * @param hashKeys The unique keys associated with the values.
+	 * @return The values in iteration order of the keys, containing null for
+	 *         each key that does not match an item.
+	 */
+	default List<V> getAll(final Collection<H> hashKeys) {
+		final List<V> values = new ArrayList<V>(hashKeys.size());
+		for (final H hashKey : hashKeys) {
+			values.add(get(hashKey));
+		}
+		return values;
+	}
+
 	/**
 	 * Delete a value for a given key. If no value exists for a given key, this
 	 * should be a no op.
@@ -0,0 +1,391 @@
+package ezdb.table.range;
+
+import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import ezdb.DbException;
+import ezdb.table.RangeTableRow;
+import ezdb.util.TableIterator;
+
+/**
+ * Runs the blocking calls of a range table on an executor and hands back
+ * {@link CompletableFuture}s, so event loop threads never wait for the backend.
+ *
+ * Gets that arrive while the previous lookups are still running are coalesced
+ * into one {@link RangeTable#multiGet(List)}, of which up to a configurable
+ * number run at the same time since readers do not block each other in the
+ * backends. Puts and deletes are coalesced into one {@link RangeBatch} at a
+ * time, in the order they were submitted. A failing batch fails the futures of
+ * all writes in it.
+ *
+ * By default a virtual thread per task is used when the JDK provides them,
+ * otherwise a cached pool of daemon threads. That executor is shut down with
+ * this table, an executor passed in is not.
+ *
+ * @param <H> The type of the hash key for this key/value table.
+ * @param <R> The type of the range key for this key/value table.
+ * @param <V> The type of the value for this key/value table.
+ */
+public class AsyncRangeTable<H, R, V> {
+
+	/**
+	 * The maximum number of gets or writes coalesced into one backend call.
+	 */
+	public static final int MAX_COALESCED = 1024;
+	/**
+	 * The default maximum number of coalesced gets running at the same time.
+	 */
+	public static final int DEFAULT_MAX_CONCURRENT_GETS = Runtime.getRuntime().availableProcessors();
+
+	private final RangeTable<H, R, V> delegate;
+	private final Executor executor;
+	private final boolean ownsExecutor;
+	private final int maxConcurrentGets;
+
+	private final Queue<PendingGet> pendingGets = new ConcurrentLinkedQueue<PendingGet>();
+	private final AtomicInteger getsScheduled = new AtomicInteger();
+	private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<PendingWrite>();
+	private final AtomicBoolean writesScheduled = new AtomicBoolean();
+
+	public AsyncRangeTable(final RangeTable<H, R, V> delegate) {
+		this(delegate, newDefaultExecutor(), true, DEFAULT_MAX_CONCURRENT_GETS);
+	}
+
+	/**
+	 * @param executor The executor to run the blocking calls on, it stays open
+	 *                 when this table is closed.
+	 */
+	public AsyncRangeTable(final RangeTable<H, R, V> delegate, final Executor executor) {
+		this(delegate, executor, false, DEFAULT_MAX_CONCURRENT_GETS);
+	}
+
+	/**
+	 * @param executor          The executor to run the blocking calls on, it
+	 *                          stays open when this table is closed.
+	 * @param maxConcurrentGets The maximum number of coalesced gets running at
+	 *                          the same time, 1 coalesces the most.
+	 */
+	public AsyncRangeTable(final RangeTable<H, R, V> delegate, final Executor executor,
+			final int maxConcurrentGets) {
+		this(delegate, executor, false, maxConcurrentGets);
+	}
+
+	private AsyncRangeTable(final RangeTable<H, R, V> delegate, final Executor executor,
+			final boolean ownsExecutor, final int maxConcurrentGets) {
+		if (maxConcurrentGets < 1) {
+			throw new IllegalArgumentException("maxConcurrentGets must be positive: " + maxConcurrentGets);
+		}
+		this.delegate = delegate;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.maxConcurrentGets = maxConcurrentGets;
+	}
+
+	public RangeTable<H, R, V> getDelegate() {
+		return delegate;
+	}
+
+	public CompletableFuture<V> getAsync(final H hashKey) {
+		return getAsync(hashKey, null);
+	}
+
+	public CompletableFuture<V> getAsync(final H hashKey, final R rangeKey) {
+		final PendingGet get = new PendingGet(new SimpleImmutableEntry<H, R>(hashKey, rangeKey));
+		pendingGets.add(get);
+		scheduleGets();
+		return get.future;
+	}
+
+	public CompletableFuture<RangeTableRow<H, R, V>> getLatestAsync(final H hashKey) {
+		return getLatestAsync(hashKey, null);
+	}
+
+	public CompletableFuture<RangeTableRow<H, R, V>> getLatestAsync(final H hashKey, final R rangeKey) {
+		return supplyAsync(() -> copy(delegate.getLatest(hashKey, rangeKey)));
+	}
+
+	public CompletableFuture<RangeTableRow<H, R, V>> getNextAsync(final H hashKey, final R rangeKey) {
+		return supplyAsync(() -> copy(delegate.getNext(hashKey, rangeKey)));
+	}
+
+	public CompletableFuture<RangeTableRow<H, R, V>> getPrevAsync(final H hashKey, final R rangeKey) {
+		return supplyAsync(() -> copy(delegate.getPrev(hashKey, rangeKey)));
+	}
+
+	public CompletableFuture<Void> putAsync(final H hashKey, final V value) {
+		return putAsync(hashKey, null, value);
+	}
+
+	public CompletableFuture<Void> putAsync(final H hashKey, final R rangeKey, final V value) {
+		return write(new PendingWrite(hashKey, rangeKey, value, false));
+	}
+
+	public CompletableFuture<Void> deleteAsync(final H hashKey) {
+		return deleteAsync(hashKey, null);
+	}
+
+	public CompletableFuture<Void> deleteAsync(final H hashKey, final R rangeKey) {
+		return write(new PendingWrite(hashKey, rangeKey, null, true));
+	}
+
+	/**
+	 * Same as {@link #rangeAsync(Object, Object, Object)} with unbounded range
+	 * keys.
+	 */
+	public CompletableFuture<List<RangeTableRow<H, R, V>>> rangeAsync(final H hashKey) {
+		return rangeAsync(hashKey, null, null);
+	}
+
+	/**
+	 * Same as {@link #rangeAsync(Object, Object, Object)} without an end.
+	 */
+	public CompletableFuture<List<RangeTableRow<H, R, V>>> rangeAsync(final H hashKey, final R fromRangeKey) {
+		return rangeAsync(hashKey, fromRangeKey, null);
+	}
+
+	/**
+	 * Scans the rows like {@link RangeTable#range(Object, Object, Object)} and
+	 * completes with all of them, so the range should fit into memory.
+	 */
+	public CompletableFuture<List<RangeTableRow<H, R, V>>> rangeAsync(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		return supplyAsync(() -> {
+			final List<RangeTableRow<H, R, V>> rows = new ArrayList<RangeTableRow<H, R, V>>();
+			final TableIterator<RangeTableRow<H, R, V>> range;
+			if (fromRangeKey == null && toRangeKey == null) {
+				range = delegate.range(hashKey);
+			} else if (toRangeKey == null) {
+				range = delegate.range(hashKey, fromRangeKey);
+			} else {
+				range = delegate.range(hashKey, fromRangeKey, toRangeKey);
+			}
+			try {
+				while (range.hasNext()) {
+					rows.add(copy(range.next()));
+				}
+			} finally {
+				range.close();
+			}
+			return rows;
+		});
+	}
+
+	/**
+	 * Shuts down the default executor after the calls submitted so far have
+	 * finished and closes the table. With an executor passed in the caller has
+	 * to wait for its futures before closing.
+	 */
+	public void close() {
+		try {
+			if (ownsExecutor) {
+				final ExecutorService service = (ExecutorService) executor;
+				service.shutdown();
+				while (!service.awaitTermination(1, TimeUnit.SECONDS)) {
+					// keep waiting, closing the backend under a running call is fatal for some
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			delegate.close();
+		}
+	}
+
+	private CompletableFuture<Void> write(final PendingWrite write) {
+		pendingWrites.add(write);
+		if (writesScheduled.compareAndSet(false, true)) {
+			submit(this::drainWrites, () -> writesScheduled.set(false));
+		}
+		return write.future;
+	}
+
+	/**
+	 * Starts another drain unless the maximum is running already, a running one
+	 * picks up the queued gets when it finishes.
+	 */
+	private void scheduleGets() {
+		while (true) {
+			final int scheduled = getsScheduled.get();
+			if (scheduled >= maxConcurrentGets) {
+				return;
+			}
+			if (getsScheduled.compareAndSet(scheduled, scheduled + 1)) {
+				submit(this::drainGets, getsScheduled::decrementAndGet);
+				return;
+			}
+		}
+	}
+
+	private <T> CompletableFuture<T> supplyAsync(final Supplier<T> supplier) {
+		final CompletableFuture<T> future = new CompletableFuture<T>();
+		try {
+			executor.execute(() -> {
+				try {
+					future.complete(supplier.get());
+				} catch (final Throwable t) {
+					future.completeExceptionally(t);
+				}
+			});
+		} catch (final Throwable t) {
+			future.completeExceptionally(t);
+		}
+		return future;
+	}
+
+	private void submit(final Runnable drain, final Runnable unschedule) {
+		try {
+			executor.execute(drain);
+		} catch (final Throwable t) {
+			unschedule.run();
+			// e.g. rejected after close, fail what is queued instead of hanging
+			failPending(t);
+		}
+	}
+
+	private void failPending(final Throwable t) {
+		PendingGet get;
+		while ((get = pendingGets.poll()) != null) {
+			get.future.completeExceptionally(t);
+		}
+		PendingWrite write;
+		while ((write = pendingWrites.poll()) != null) {
+			write.future.completeExceptionally(t);
+		}
+	}
+
+	private void drainGets() {
+		final List<PendingGet> gets = new ArrayList<PendingGet>();
+		PendingGet get;
+		while (gets.size() < MAX_COALESCED && (get = pendingGets.poll()) != null) {
+			gets.add(get);
+		}
+		try {
+			if (!gets.isEmpty()) {
+				final List<Entry<H, R>> keys = new ArrayList<Entry<H, R>>(gets.size());
+				for (int i = 0; i < gets.size(); i++) {
+					keys.add(gets.get(i).key);
+				}
+				final List<V> values = delegate.multiGet(keys);
+				for (int i = 0; i < gets.size(); i++) {
+					gets.get(i).future.complete(values.get(i));
+				}
+			}
+		} catch (final Throwable t) {
+			for (int i = 0; i < gets.size(); i++) {
+				gets.get(i).future.completeExceptionally(t);
+			}
+		} finally {
+			getsScheduled.decrementAndGet();
+			// gets queued while the maximum was still running would otherwise be stranded
+			if (!pendingGets.isEmpty()) {
+				scheduleGets();
+			}
+		}
+	}
+
+	private void drainWrites() {
+		final List<PendingWrite> writes = new ArrayList<PendingWrite>();
+		PendingWrite write;
+		while (writes.size() < MAX_COALESCED && (write = pendingWrites.poll()) != null) {
+			writes.add(write);
+		}
+		try {
+			if (!writes.isEmpty()) {
+				final RangeBatch<H, R, V> batch = delegate.newRangeBatch();
+				try {
+					for (int i = 0; i < writes.size(); i++) {
+						final PendingWrite w = writes.get(i);
+						if (w.delete) {
+							batch.delete(w.hashKey, w.rangeKey);
+						} else {
+							batch.put(w.hashKey, w.rangeKey, w.value);
+						}
+					}
+					batch.flush();
+				} finally {
+					try {
+						batch.close();
+					} catch (final IOException e) {
+						throw new DbException(e);
+					}
+				}
+				for (int i = 0; i < writes.size(); i++) {
+					writes.get(i).future.complete(null);
+				}
+			}
+		} catch (final Throwable t) {
+			for (int i = 0; i < writes.size(); i++) {
+				writes.get(i).future.completeExceptionally(t);
+			}
+		} finally {
+			writesScheduled.set(false);
+			if (!pendingWrites.isEmpty() && writesScheduled.compareAndSet(false, true)) {
+				submit(this::drainWrites, () -> writesScheduled.set(false));
+			}
+		}
+	}
+
+	/**
+	 * Detaches the row from backend buffers, since it is handed to another
+	 * thread.
+	 */
+	private RangeTableRow<H, R, V> copy(final RangeTableRow<H, R, V> row) {
+		if (row == null) {
+			return null;
+		}
+		return new RawRangeTableRow<H, R, V>(row.getHashKey(), row.getRangeKey(), row.getValue());
+	}
+
+	/**
+	 * Uses virtual threads through reflection, since this is compiled for java 8.
+	 */
+	private static ExecutorService newDefaultExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			return Executors.newCachedThreadPool(runnable -> {
+				final Thread thread = new Thread(runnable, AsyncRangeTable.class.getSimpleName());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	private final class PendingGet {
+		private final Entry<H, R> key;
+		private final CompletableFuture<V> future = new CompletableFuture<V>();
+
+		private PendingGet(final Entry<H, R> key) {
+			this.key = key;
+		}
+	}
+
+	private final class PendingWrite {
+		private final H hashKey;
+		private final R rangeKey;
+		private final V value;
+		private final boolean delete;
+		private final CompletableFuture<Void> future = new CompletableFuture<Void>();
+
+		private PendingWrite(final H hashKey, final R rangeKey, final V value, final boolean delete) {
+			this.hashKey = hashKey;
+			this.rangeKey = rangeKey;
+			this.value = value;
+			this.delete = delete;
+		}
+	}
+
+}
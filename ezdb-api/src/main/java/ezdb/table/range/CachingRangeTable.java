@@ -0,0 +1,413 @@
+package ezdb.table.range;
+
+import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import ezdb.serde.Serde;
+import ezdb.table.Batch;
+import ezdb.table.RangeTableRow;
+import ezdb.util.FrequencyCache;
+import ezdb.util.TableIterator;
+import ezdb.util.TransformingTableIterator;
+
+/**
+ * A read-through cache in front of any range table. It caches the results of
+ * {@link #get(Object, Object)} per hash/range pair and of
+ * {@link #getLatest(Object)} per hash key, including misses, so repeated reads of
+ * hot rows skip the serdes and the backend entirely.
+ *
+ * Writes through this table, its batches and its iterators invalidate the
+ * affected entries. Writes that bypass this decorator, e.g. through the wrapped
+ * table, are not seen until the entries get evicted.
+ *
+ * @param <H> The type of the hash key for this key/value table.
+ * @param <R> The type of the range key for this key/value table.
+ * @param <V> The type of the value for this key/value table.
+ */
+public class CachingRangeTable<H, R, V> implements RangeTable<H, R, V> {
+
+	/**
+	 * Marks a cached miss since the cache does not hold null values.
+	 */
+	private static final Object NULL = new Object();
+
+	private final RangeTable<H, R, V> delegate;
+	private final FrequencyCache<Entry<H, R>, Object> values;
+	private final FrequencyCache<H, Object> latest;
+
+	/**
+	 * @param delegate    The table to cache reads of.
+	 * @param maximumSize The maximum number of cached values, the same number of
+	 *                    latest rows per hash key is cached in addition.
+	 */
+	public CachingRangeTable(final RangeTable<H, R, V> delegate, final int maximumSize) {
+		this.delegate = delegate;
+		this.values = new FrequencyCache<Entry<H, R>, Object>(maximumSize);
+		this.latest = new FrequencyCache<H, Object>(maximumSize);
+	}
+
+	public RangeTable<H, R, V> getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public V get(final H hashKey) {
+		return get(hashKey, null);
+	}
+
+	@Override
+	public V get(final H hashKey, final R rangeKey) {
+		final Entry<H, R> key = new SimpleImmutableEntry<H, R>(hashKey, rangeKey);
+		final Object cached = values.get(key);
+		if (cached != null) {
+			return unmask(cached);
+		}
+		final long stamp = values.stamp(key);
+		final V value = delegate.get(hashKey, rangeKey);
+		values.put(key, mask(value), stamp);
+		return value;
+	}
+
+	@Override
+	public List<V> getAll(final Collection<H> hashKeys) {
+		final List<Entry<H, R>> keys = new ArrayList<Entry<H, R>>(hashKeys.size());
+		for (final H hashKey : hashKeys) {
+			keys.add(new SimpleImmutableEntry<H, R>(hashKey, null));
+		}
+		return multiGet(keys);
+	}
+
+	@Override
+	public List<V> multiGet(final List<? extends Entry<H, R>> keys) {
+		final List<V> result = new ArrayList<V>(keys.size());
+		// only the misses are fetched from the backend, still in one batch
+		final List<Entry<H, R>> missingKeys = new ArrayList<Entry<H, R>>();
+		final List<Integer> missingIndexes = new ArrayList<Integer>();
+		final List<Long> missingStamps = new ArrayList<Long>();
+		for (int i = 0; i < keys.size(); i++) {
+			final Entry<H, R> key = new SimpleImmutableEntry<H, R>(keys.get(i));
+			final Object cached = values.get(key);
+			if (cached != null) {
+				result.add(unmask(cached));
+			} else {
+				result.add(null);
+				missingKeys.add(key);
+				missingIndexes.add(i);
+				missingStamps.add(values.stamp(key));
+			}
+		}
+		if (!missingKeys.isEmpty()) {
+			final List<V> loaded = delegate.multiGet(missingKeys);
+			for (int i = 0; i < missingKeys.size(); i++) {
+				final V value = loaded.get(i);
+				result.set(missingIndexes.get(i), value);
+				values.put(missingKeys.get(i), mask(value), missingStamps.get(i));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> getLatest(final H hashKey) {
+		final Object cached = latest.get(hashKey);
+		if (cached != null) {
+			return unmask(cached);
+		}
+		final long stamp = latest.stamp(hashKey);
+		final RangeTableRow<H, R, V> row = delegate.getLatest(hashKey);
+		if (row == null) {
+			latest.put(hashKey, NULL, stamp);
+			return null;
+		}
+		// detached from any backend buffers since the row outlives this call
+		final RangeTableRow<H, R, V> copy = new RawRangeTableRow<H, R, V>(row.getHashKey(), row.getRangeKey(),
+				row.getValue());
+		latest.put(hashKey, copy, stamp);
+		return copy;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> getLatest(final H hashKey, final R rangeKey) {
+		return delegate.getLatest(hashKey, rangeKey);
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> getNext(final H hashKey, final R rangeKey) {
+		return delegate.getNext(hashKey, rangeKey);
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> getPrev(final H hashKey, final R rangeKey) {
+		return delegate.getPrev(hashKey, rangeKey);
+	}
+
+	@Override
+	public void put(final H hashKey, final V value) {
+		put(hashKey, null, value);
+	}
+
+	@Override
+	public void put(final H hashKey, final R rangeKey, final V value) {
+		delegate.put(hashKey, rangeKey, value);
+		invalidate(hashKey, rangeKey);
+	}
+
+	@Override
+	public void delete(final H hashKey) {
+		delete(hashKey, null);
+	}
+
+	@Override
+	public void delete(final H hashKey, final R rangeKey) {
+		delegate.delete(hashKey, rangeKey);
+		invalidate(hashKey, rangeKey);
+	}
+
+	@Override
+	public void deleteRange(final H hashKey) {
+		delegate.deleteRange(hashKey);
+		invalidateRange(hashKey);
+	}
+
+	@Override
+	public void deleteRange(final H hashKey, final R fromRangeKey) {
+		delegate.deleteRange(hashKey, fromRangeKey);
+		invalidateRange(hashKey);
+	}
+
+	@Override
+	public void deleteRange(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		delegate.deleteRange(hashKey, fromRangeKey, toRangeKey);
+		invalidateRange(hashKey);
+	}
+
+	@Override
+	public void bulkLoad(final Iterator<? extends RangeTableRow<H, R, V>> rows) {
+		try {
+			delegate.bulkLoad(rows);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public Batch<H, V> newBatch() {
+		return newRangeBatch();
+	}
+
+	@Override
+	public RangeBatch<H, R, V> newRangeBatch() {
+		return new CachingRangeBatch(delegate.newRangeBatch());
+	}
+
+	@Override
+	public RangeCursor<H, R, V> newRangeCursor() {
+		return delegate.newRangeCursor();
+	}
+
+	@Override
+	public Stream<RangeTableRow<H, R, V>> stream() {
+		// keeps the split points of the backend, rows streamed are never cached
+		return delegate.stream();
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> range() {
+		return invalidating(delegate.range());
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> range(final H hashKey) {
+		return invalidating(delegate.range(hashKey));
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> range(final H hashKey, final R fromRangeKey) {
+		return invalidating(delegate.range(hashKey, fromRangeKey));
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> range(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return invalidating(delegate.range(hashKey, fromRangeKey, toRangeKey));
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> rangeReverse() {
+		return invalidating(delegate.rangeReverse());
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> rangeReverse(final H hashKey) {
+		return invalidating(delegate.rangeReverse(hashKey));
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> rangeReverse(final H hashKey, final R fromRangeKey) {
+		return invalidating(delegate.rangeReverse(hashKey, fromRangeKey));
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, R, V>> rangeReverse(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		return invalidating(delegate.rangeReverse(hashKey, fromRangeKey, toRangeKey));
+	}
+
+	@Override
+	public Serde<H> getHashKeySerde() {
+		return delegate.getHashKeySerde();
+	}
+
+	@Override
+	public Serde<R> getRangeKeySerde() {
+		return delegate.getRangeKeySerde();
+	}
+
+	@Override
+	public Serde<V> getValueSerde() {
+		return delegate.getValueSerde();
+	}
+
+	@Override
+	public TableIterator<RangeTableRowView<H, R, V>> rangeView(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		return invalidating(delegate.rangeView(hashKey, fromRangeKey, toRangeKey));
+	}
+
+	@Override
+	public TableIterator<Entry<H, R>> rangeKeys(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return invalidating(delegate.rangeKeys(hashKey, fromRangeKey, toRangeKey));
+	}
+
+	@Override
+	public TableIterator<V> rangeValues(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return invalidating(delegate.rangeValues(hashKey, fromRangeKey, toRangeKey));
+	}
+
+	@Override
+	public void close() {
+		try {
+			delegate.close();
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	/**
+	 * Drops all cached entries, e.g. after the wrapped table was modified directly.
+	 */
+	public void invalidateAll() {
+		values.invalidateAll();
+		latest.invalidateAll();
+	}
+
+	private void invalidate(final H hashKey, final R rangeKey) {
+		values.invalidate(new SimpleImmutableEntry<H, R>(hashKey, rangeKey));
+		latest.invalidate(hashKey);
+	}
+
+	private void invalidateRange(final H hashKey) {
+		values.invalidateIf(key -> Objects.equals(key.getKey(), hashKey));
+		latest.invalidate(hashKey);
+	}
+
+	/**
+	 * Iterators can remove rows without telling which, thus a removal drops the
+	 * whole cache.
+	 */
+	private <E> TableIterator<E> invalidating(final TableIterator<E> iterator) {
+		return new TransformingTableIterator<E, E>(iterator, row -> row) {
+			@Override
+			public void remove() {
+				try {
+					super.remove();
+				} finally {
+					invalidateAll();
+				}
+			}
+		};
+	}
+
+	private static Object mask(final Object value) {
+		if (value == null) {
+			return NULL;
+		}
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T unmask(final Object cached) {
+		if (cached == NULL) {
+			return null;
+		}
+		return (T) cached;
+	}
+
+	/**
+	 * Collects the written keys and invalidates them once the batch reaches the
+	 * backend.
+	 */
+	private final class CachingRangeBatch implements RangeBatch<H, R, V> {
+		private final RangeBatch<H, R, V> batch;
+		private final List<Entry<H, R>> pending = new ArrayList<Entry<H, R>>();
+
+		private CachingRangeBatch(final RangeBatch<H, R, V> batch) {
+			this.batch = batch;
+		}
+
+		@Override
+		public void put(final H hashKey, final V value) {
+			put(hashKey, null, value);
+		}
+
+		@Override
+		public void put(final H hashKey, final R rangeKey, final V value) {
+			batch.put(hashKey, rangeKey, value);
+			pending.add(new SimpleImmutableEntry<H, R>(hashKey, rangeKey));
+		}
+
+		@Override
+		public void delete(final H hashKey) {
+			delete(hashKey, null);
+		}
+
+		@Override
+		public void delete(final H hashKey, final R rangeKey) {
+			batch.delete(hashKey, rangeKey);
+			pending.add(new SimpleImmutableEntry<H, R>(hashKey, rangeKey));
+		}
+
+		@Override
+		public void flush() {
+			try {
+				batch.flush();
+			} finally {
+				invalidatePending();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				batch.close();
+			} finally {
+				invalidatePending();
+			}
+		}
+
+		private void invalidatePending() {
+			for (int i = 0; i < pending.size(); i++) {
+				final Entry<H, R> key = pending.get(i);
+				invalidate(key.getKey(), key.getValue());
+			}
+			pending.clear();
+		}
+	}
+
+}
@@ -0,0 +1,567 @@
+package ezdb.table.range;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import ezdb.DbException;
+import ezdb.serde.DoubleSerde;
+import ezdb.serde.LongSerde;
+import ezdb.serde.Serde;
+import ezdb.table.Batch;
+import ezdb.table.RangeTableRow;
+import ezdb.util.TableIterator;
+
+/**
+ * A time series of doubles per hash key that is stored in chunks of up to
+ * chunkSize consecutive points instead of one row per point. Each chunk is a row
+ * of the wrapped table keyed by the time of its first point and holds the
+ * points in the compressed form of {@link SeriesChunk}, so the per row key
+ * overhead of the backend is paid once per chunk.
+ *
+ * The wrapped table has to order its range keys numerically, e.g. with
+ * {@link ezdb.serde.OrderedLongSerde} and the
+ * {@link ezdb.comparator.BytewiseComparator}, and stores the chunks with
+ * {@link ezdb.serde.ByteSerde}. Lookups and scans only decode the chunks that
+ * cover the requested times. Writes decode and rewrite the affected chunk, thus
+ * writes of the same hash key must not run concurrently and large loads should
+ * go through {@link #newRangeBatch()} or {@link #bulkLoad(Iterator)}, which
+ * rewrite every chunk once.
+ *
+ * Every row needs a range key, rows of only a hash key are not supported.
+ *
+ * @param <H> The type of the hash key for this key/value table.
+ */
+public class ChunkedSeriesTable<H> implements RangeTable<H, Long, Double> {
+
+	public static final int DEFAULT_CHUNK_SIZE = 256;
+
+	/**
+	 * Marks a pending delete among the pending values of a batch.
+	 */
+	private static final Object DELETED = new Object();
+
+	private final RangeTable<H, Long, byte[]> chunks;
+	private final int chunkSize;
+
+	public ChunkedSeriesTable(final RangeTable<H, Long, byte[]> chunks) {
+		this(chunks, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param chunks    The table that stores the encoded chunks.
+	 * @param chunkSize The maximum number of points per chunk. Larger chunks
+	 *                  compress better, smaller ones are quicker to decode for a
+	 *                  single lookup.
+	 */
+	public ChunkedSeriesTable(final RangeTable<H, Long, byte[]> chunks, final int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize should be positive: " + chunkSize);
+		}
+		this.chunks = chunks;
+		this.chunkSize = chunkSize;
+	}
+
+	public RangeTable<H, Long, byte[]> getDelegate() {
+		return chunks;
+	}
+
+	@Override
+	public Serde<H> getHashKeySerde() {
+		return chunks.getHashKeySerde();
+	}
+
+	/**
+	 * Points are handed out like rows, so their views use the plain serdes
+	 * instead of the chunk encoding.
+	 */
+	@Override
+	public Serde<Long> getRangeKeySerde() {
+		return LongSerde.get;
+	}
+
+	@Override
+	public Serde<Double> getValueSerde() {
+		return DoubleSerde.get;
+	}
+
+	@Override
+	public Double get(final H hashKey) {
+		throw newMissingRangeKeyException();
+	}
+
+	@Override
+	public Double get(final H hashKey, final Long rangeKey) {
+		requireRangeKey(rangeKey);
+		final RangeTableRow<H, Long, byte[]> chunkRow = chunks.getPrev(hashKey, rangeKey);
+		if (chunkRow == null) {
+			return null;
+		}
+		final SeriesChunk chunk = SeriesChunk.decode(chunkRow.getValue());
+		final int index = chunk.indexOfPrev(rangeKey);
+		if (index < 0 || chunk.getTime(index) != rangeKey) {
+			return null;
+		}
+		return chunk.getValue(index);
+	}
+
+	@Override
+	public RangeTableRow<H, Long, Double> getLatest(final H hashKey) {
+		return getLatest(hashKey, null);
+	}
+
+	@Override
+	public RangeTableRow<H, Long, Double> getLatest(final H hashKey, final Long rangeKey) {
+		final RangeTableRow<H, Long, Double> prev = getPrev(hashKey, rangeKey);
+		if (prev != null) {
+			return prev;
+		}
+		return getNext(hashKey, rangeKey);
+	}
+
+	@Override
+	public RangeTableRow<H, Long, Double> getNext(final H hashKey, final Long rangeKey) {
+		if (rangeKey != null) {
+			final RangeTableRow<H, Long, byte[]> chunkRow = chunks.getPrev(hashKey, rangeKey);
+			if (chunkRow != null) {
+				final SeriesChunk chunk = SeriesChunk.decode(chunkRow.getValue());
+				final int index = chunk.indexOfNext(rangeKey);
+				if (index < chunk.size()) {
+					return newRow(chunkRow.getHashKey(), chunk, index);
+				}
+			}
+		}
+		// the first point of the following chunk
+		final RangeTableRow<H, Long, byte[]> chunkRow = chunks.getNext(hashKey, rangeKey);
+		if (chunkRow == null) {
+			return null;
+		}
+		return newRow(chunkRow.getHashKey(), SeriesChunk.decode(chunkRow.getValue()), 0);
+	}
+
+	@Override
+	public RangeTableRow<H, Long, Double> getPrev(final H hashKey, final Long rangeKey) {
+		final RangeTableRow<H, Long, byte[]> chunkRow = chunks.getPrev(hashKey, rangeKey);
+		if (chunkRow == null) {
+			return null;
+		}
+		final SeriesChunk chunk = SeriesChunk.decode(chunkRow.getValue());
+		final int index;
+		if (rangeKey == null) {
+			index = chunk.size() - 1;
+		} else {
+			index = chunk.indexOfPrev(rangeKey);
+		}
+		return newRow(chunkRow.getHashKey(), chunk, index);
+	}
+
+	@Override
+	public void put(final H hashKey, final Double value) {
+		throw newMissingRangeKeyException();
+	}
+
+	@Override
+	public void put(final H hashKey, final Long rangeKey, final Double value) {
+		requireRangeKey(rangeKey);
+		final RangeBatch<H, Long, Double> batch = newRangeBatch();
+		try {
+			batch.put(hashKey, rangeKey, value);
+			batch.flush();
+		} finally {
+			closeQuietly(batch);
+		}
+	}
+
+	@Override
+	public void delete(final H hashKey) {
+		throw newMissingRangeKeyException();
+	}
+
+	@Override
+	public void delete(final H hashKey, final Long rangeKey) {
+		requireRangeKey(rangeKey);
+		final RangeBatch<H, Long, Double> batch = newRangeBatch();
+		try {
+			batch.delete(hashKey, rangeKey);
+			batch.flush();
+		} finally {
+			closeQuietly(batch);
+		}
+	}
+
+	@Override
+	public void deleteRange(final H hashKey) {
+		chunks.deleteRange(hashKey);
+	}
+
+	@Override
+	public void deleteRange(final H hashKey, final Long fromRangeKey) {
+		deleteRange(hashKey, fromRangeKey, null);
+	}
+
+	@Override
+	public void deleteRange(final H hashKey, final Long fromRangeKey, final Long toRangeKey) {
+		final List<RangeTableRow<H, Long, byte[]>> affected = new ArrayList<RangeTableRow<H, Long, byte[]>>();
+		final TableIterator<RangeTableRow<H, Long, byte[]>> range = chunksFrom(hashKey, fromRangeKey);
+		try {
+			while (range.hasNext()) {
+				final RangeTableRow<H, Long, byte[]> chunkRow = range.next();
+				if (toRangeKey != null && chunkRow.getRangeKey() > toRangeKey) {
+					break;
+				}
+				affected.add(new RawRangeTableRow<H, Long, byte[]>(chunkRow.getHashKey(), chunkRow.getRangeKey(),
+						chunkRow.getValue()));
+			}
+		} finally {
+			range.close();
+		}
+		final RangeBatch<H, Long, byte[]> batch = chunks.newRangeBatch();
+		try {
+			for (int i = 0; i < affected.size(); i++) {
+				final RangeTableRow<H, Long, byte[]> chunkRow = affected.get(i);
+				final SeriesChunk chunk = SeriesChunk.decode(chunkRow.getValue());
+				final int from = fromRangeKey == null ? 0 : chunk.indexOfNext(fromRangeKey);
+				final int to = toRangeKey == null ? chunk.size() : chunk.indexOfPrev(toRangeKey) + 1;
+				if (from < to) {
+					chunk.removeRange(from, to);
+					write(batch, hashKey, chunkRow.getRangeKey(), chunk);
+				}
+			}
+			batch.flush();
+		} finally {
+			closeQuietly(batch);
+		}
+	}
+
+	@Override
+	public Batch<H, Double> newBatch() {
+		return newRangeBatch();
+	}
+
+	@Override
+	public RangeBatch<H, Long, Double> newRangeBatch() {
+		return new SeriesBatch();
+	}
+
+	/**
+	 * Merges the points of each hash key into its chunks as soon as the next hash
+	 * key starts, so only the points of one hash key are held in memory.
+	 */
+	@Override
+	public void bulkLoad(final Iterator<? extends RangeTableRow<H, Long, Double>> rows) {
+		final SeriesBatch batch = new SeriesBatch();
+		try {
+			H hashKey = null;
+			while (rows.hasNext()) {
+				final RangeTableRow<H, Long, Double> row = rows.next();
+				if (!batch.pending.isEmpty() && !Objects.equals(hashKey, row.getHashKey())) {
+					batch.flush();
+				}
+				hashKey = row.getHashKey();
+				batch.put(hashKey, row.getRangeKey(), row.getValue());
+			}
+			batch.flush();
+		} finally {
+			closeQuietly(batch);
+		}
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, Long, Double>> range() {
+		return new PointIterator(chunks.range(), null, null, false);
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, Long, Double>> range(final H hashKey) {
+		return range(hashKey, null, null);
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, Long, Double>> range(final H hashKey, final Long fromRangeKey) {
+		return range(hashKey, fromRangeKey, null);
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, Long, Double>> range(final H hashKey, final Long fromRangeKey,
+			final Long toRangeKey) {
+		return new PointIterator(chunksFrom(hashKey, fromRangeKey), fromRangeKey, toRangeKey, false);
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, Long, Double>> rangeReverse() {
+		return new PointIterator(chunks.rangeReverse(), null, null, true);
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, Long, Double>> rangeReverse(final H hashKey) {
+		return rangeReverse(hashKey, null, null);
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, Long, Double>> rangeReverse(final H hashKey, final Long fromRangeKey) {
+		return rangeReverse(hashKey, fromRangeKey, null);
+	}
+
+	@Override
+	public TableIterator<RangeTableRow<H, Long, Double>> rangeReverse(final H hashKey, final Long fromRangeKey,
+			final Long toRangeKey) {
+		final TableIterator<RangeTableRow<H, Long, byte[]>> range;
+		if (fromRangeKey == null) {
+			range = chunks.rangeReverse(hashKey);
+		} else {
+			// every chunk that starts before the key may contain points before it
+			range = chunks.rangeReverse(hashKey, fromRangeKey);
+		}
+		return new PointIterator(range, fromRangeKey, toRangeKey, true);
+	}
+
+	@Override
+	public void close() {
+		chunks.close();
+	}
+
+	/**
+	 * @return the chunks from the one that contains the key onwards
+	 */
+	private TableIterator<RangeTableRow<H, Long, byte[]>> chunksFrom(final H hashKey, final Long rangeKey) {
+		if (rangeKey == null) {
+			return chunks.range(hashKey);
+		}
+		final RangeTableRow<H, Long, byte[]> chunkRow = chunks.getPrev(hashKey, rangeKey);
+		if (chunkRow == null) {
+			return chunks.range(hashKey, rangeKey);
+		}
+		return chunks.range(hashKey, chunkRow.getRangeKey());
+	}
+
+	/**
+	 * Applies the pending changes of a hash key in ascending order. Each round
+	 * takes the chunk that the first change falls into together with all changes
+	 * before the following chunk, so every chunk is decoded and written once. The
+	 * writes only become visible with the batch, which is fine since later rounds
+	 * only read chunks from the following one onwards.
+	 */
+	private void merge(final RangeBatch<H, Long, byte[]> batch, final H hashKey,
+			final NavigableMap<Long, Object> changes) {
+		while (!changes.isEmpty()) {
+			final long first = changes.firstKey();
+			RangeTableRow<H, Long, byte[]> chunkRow = chunks.getPrev(hashKey, first);
+			if (chunkRow == null) {
+				// points before the first chunk extend it
+				chunkRow = chunks.getNext(hashKey, first);
+			}
+			final SeriesChunk chunk;
+			final Long start;
+			final NavigableMap<Long, Object> region;
+			if (chunkRow == null) {
+				chunk = new SeriesChunk();
+				start = null;
+				region = changes;
+			} else {
+				chunk = SeriesChunk.decode(chunkRow.getValue());
+				start = chunkRow.getRangeKey();
+				final RangeTableRow<H, Long, byte[]> following = start == Long.MAX_VALUE ? null
+						: chunks.getNext(hashKey, start + 1);
+				if (following == null) {
+					region = changes;
+				} else {
+					region = changes.headMap(following.getRangeKey(), false);
+				}
+			}
+			for (final Entry<Long, Object> change : region.entrySet()) {
+				if (change.getValue() == DELETED) {
+					chunk.remove(change.getKey());
+				} else {
+					chunk.put(change.getKey(), (Double) change.getValue());
+				}
+			}
+			region.clear();
+			write(batch, hashKey, start, chunk);
+		}
+	}
+
+	/**
+	 * Stores the points in place of the chunk that started at the given key,
+	 * split into new chunks when there are more than chunkSize of them.
+	 */
+	private void write(final RangeBatch<H, Long, byte[]> batch, final H hashKey, final Long start,
+			final SeriesChunk chunk) {
+		if (start != null && (chunk.size() == 0 || chunk.getTime(0) != start)) {
+			batch.delete(hashKey, start);
+		}
+		for (int from = 0; from < chunk.size(); from += chunkSize) {
+			final int to = Math.min(chunk.size(), from + chunkSize);
+			batch.put(hashKey, chunk.getTime(from), chunk.encode(from, to));
+		}
+	}
+
+	private RangeTableRow<H, Long, Double> newRow(final H hashKey, final SeriesChunk chunk, final int index) {
+		return new RawRangeTableRow<H, Long, Double>(hashKey, chunk.getTime(index), chunk.getValue(index));
+	}
+
+	private static void requireRangeKey(final Long rangeKey) {
+		if (rangeKey == null) {
+			throw newMissingRangeKeyException();
+		}
+	}
+
+	private static UnsupportedOperationException newMissingRangeKeyException() {
+		return new UnsupportedOperationException("Rows without a range key are not supported by chunked series");
+	}
+
+	private static void closeQuietly(final Batch<?, ?> batch) {
+		try {
+			batch.close();
+		} catch (final IOException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/**
+	 * Walks the points of the given chunks, skipping those before the from key and
+	 * stopping at the first one beyond the to key in the direction of the scan.
+	 */
+	private final class PointIterator implements TableIterator<RangeTableRow<H, Long, Double>> {
+		private final TableIterator<RangeTableRow<H, Long, byte[]>> range;
+		private final Long fromRangeKey;
+		private final Long toRangeKey;
+		private final boolean reverse;
+		private H hashKey;
+		private SeriesChunk chunk;
+		private int index;
+		private boolean closed;
+
+		private PointIterator(final TableIterator<RangeTableRow<H, Long, byte[]>> range, final Long fromRangeKey,
+				final Long toRangeKey, final boolean reverse) {
+			this.range = range;
+			this.fromRangeKey = fromRangeKey;
+			this.toRangeKey = toRangeKey;
+			this.reverse = reverse;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!closed) {
+				if (chunk != null && index >= 0 && index < chunk.size()) {
+					final long time = chunk.getTime(index);
+					if (toRangeKey != null && (reverse ? time < toRangeKey : time > toRangeKey)) {
+						close();
+						return false;
+					}
+					return true;
+				}
+				if (!range.hasNext()) {
+					close();
+					return false;
+				}
+				final RangeTableRow<H, Long, byte[]> chunkRow = range.next();
+				hashKey = chunkRow.getHashKey();
+				chunk = SeriesChunk.decode(chunkRow.getValue());
+				if (fromRangeKey == null) {
+					index = reverse ? chunk.size() - 1 : 0;
+				} else {
+					index = reverse ? chunk.indexOfPrev(fromRangeKey) : chunk.indexOfNext(fromRangeKey);
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public RangeTableRow<H, Long, Double> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final RangeTableRow<H, Long, Double> row = newRow(hashKey, chunk, index);
+			if (reverse) {
+				index--;
+			} else {
+				index++;
+			}
+			return row;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Points are removed through the table");
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				range.close();
+			}
+		}
+	}
+
+	/**
+	 * Collects the changes sorted per hash key and merges them into the chunks on
+	 * flush, so a chunk is rewritten once per flush instead of once per point.
+	 * Hash keys need a proper equals and hashCode.
+	 */
+	private final class SeriesBatch implements RangeBatch<H, Long, Double> {
+		private final Map<H, NavigableMap<Long, Object>> pending = new LinkedHashMap<H, NavigableMap<Long, Object>>();
+
+		@Override
+		public void put(final H hashKey, final Double value) {
+			throw newMissingRangeKeyException();
+		}
+
+		@Override
+		public void put(final H hashKey, final Long rangeKey, final Double value) {
+			requireRangeKey(rangeKey);
+			changesOf(hashKey).put(rangeKey, Objects.requireNonNull(value, "value"));
+		}
+
+		@Override
+		public void delete(final H hashKey) {
+			throw newMissingRangeKeyException();
+		}
+
+		@Override
+		public void delete(final H hashKey, final Long rangeKey) {
+			requireRangeKey(rangeKey);
+			changesOf(hashKey).put(rangeKey, DELETED);
+		}
+
+		private NavigableMap<Long, Object> changesOf(final H hashKey) {
+			NavigableMap<Long, Object> changes = pending.get(hashKey);
+			if (changes == null) {
+				changes = new TreeMap<Long, Object>();
+				pending.put(hashKey, changes);
+			}
+			return changes;
+		}
+
+		@Override
+		public void flush() {
+			if (pending.isEmpty()) {
+				return;
+			}
+			final RangeBatch<H, Long, byte[]> batch = chunks.newRangeBatch();
+			try {
+				for (final Entry<H, NavigableMap<Long, Object>> entry : pending.entrySet()) {
+					merge(batch, entry.getKey(), entry.getValue());
+				}
+				batch.flush();
+			} finally {
+				pending.clear();
+				closeQuietly(batch);
+			}
+		}
+
+		@Override
+		public void close() {
+			pending.clear();
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package ezdb.table.range;
+
+import java.util.Objects;
+
+import ezdb.table.RangeTableRow;
+import ezdb.util.TableIterator;
+
+/**
+ * A cursor for tables without a native implementation. Every move opens a new
+ * iterator on the table, thus this is only a fallback.
+ */
+public class DefaultRangeCursor<H, R, V> implements RangeCursor<H, R, V> {
+
+	private final RangeTable<H, R, V> table;
+	private H hashKey;
+	private RangeTableRow<H, R, V> current;
+
+	public DefaultRangeCursor(final RangeTable<H, R, V> table) {
+		this.table = table;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seek(final H hashKey, final R rangeKey) {
+		this.hashKey = hashKey;
+		this.current = table.getNext(hashKey, rangeKey);
+		return current;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey) {
+		this.hashKey = hashKey;
+		this.current = table.getPrev(hashKey, rangeKey);
+		return current;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> next() {
+		if (current == null) {
+			return null;
+		}
+		current = skipCurrent(table.range(hashKey, current.getRangeKey()));
+		return current;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> prev() {
+		if (current == null) {
+			return null;
+		}
+		current = skipCurrent(table.rangeReverse(hashKey, current.getRangeKey()));
+		return current;
+	}
+
+	private RangeTableRow<H, R, V> skipCurrent(final TableIterator<RangeTableRow<H, R, V>> range) {
+		try {
+			while (range.hasNext()) {
+				final RangeTableRow<H, R, V> next = range.next();
+				if (!Objects.equals(next.getRangeKey(), current.getRangeKey())) {
+					return next;
+				}
+			}
+			return null;
+		} finally {
+			range.close();
+		}
+	}
+
+	@Override
+	public void close() {
+		current = null;
+	}
+
+}
@@ -0,0 +1,36 @@
+package ezdb.table.range;
+
+import java.io.Closeable;
+
+/**
+ * The primitive counterpart of {@link RangeCursor} for a
+ * {@link LongDoubleRangeTable}. All moves return whether the cursor is
+ * positioned on a row within the hash key of the last seek, only then the
+ * getters may be called.
+ */
+public interface LongDoubleRangeCursor extends Closeable {
+
+	/**
+	 * Positions the cursor on the first row of the hash key with a range key that
+	 * is &gt;= rangeKey.
+	 */
+	boolean seek(long hashKey, long rangeKey);
+
+	/**
+	 * Positions the cursor on the last row of the hash key with a range key that
+	 * is &lt;= rangeKey.
+	 */
+	boolean seekForPrev(long hashKey, long rangeKey);
+
+	boolean next();
+
+	boolean prev();
+
+	long getRangeKey();
+
+	double getValue();
+
+	@Override
+	void close();
+
+}
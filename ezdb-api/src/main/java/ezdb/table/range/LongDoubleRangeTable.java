@@ -0,0 +1,52 @@
+package ezdb.table.range;
+
+import java.io.Closeable;
+
+/**
+ * A range table with long hash keys, long range keys and double values that are
+ * read and written without boxing and without intermediate buffers.
+ * 
+ * The rows are stored like those of a
+ * <code>RangeTable&lt;Long, Long, Double&gt;</code> with
+ * {@link ezdb.serde.OrderedLongSerde} for both keys, {@link ezdb.serde.DoubleSerde}
+ * for the values and the {@link ezdb.comparator.BytewiseComparator} for both
+ * keys, thus the same table can be opened that way for all operations that are
+ * not covered here. Rows without a range key must not be stored.
+ */
+public interface LongDoubleRangeTable extends Closeable {
+
+	void put(long hashKey, long rangeKey, double value);
+
+	/**
+	 * @return the value, or NaN if no row matches the hash/range pair
+	 */
+	double get(long hashKey, long rangeKey);
+
+	/**
+	 * Like {@link RangeTable#getLatest(Object, Object)}, the value of the last row
+	 * with a range key &lt;= rangeKey, or else of the first row after it.
+	 * 
+	 * @return the value, or NaN if the hash key has no rows
+	 */
+	double getLatestValue(long hashKey, long rangeKey);
+
+	/**
+	 * Same as {@link #getLatestValue(long, long)} for the overall latest value of
+	 * the hash key.
+	 */
+	default double getLatestValue(final long hashKey) {
+		return getLatestValue(hashKey, Long.MAX_VALUE);
+	}
+
+	void delete(long hashKey, long rangeKey);
+
+	/**
+	 * @return a new cursor that is not positioned yet and has to be closed after
+	 *         use
+	 */
+	LongDoubleRangeCursor newCursor();
+
+	@Override
+	void close();
+
+}
@@ -0,0 +1,56 @@
+package ezdb.table.range;
+
+import java.io.Closeable;
+
+/**
+ * A range table with long range keys and long values that are read and written
+ * without boxing and without intermediate buffers. Only the hash key goes
+ * through a serde, which has to be order-preserving, e.g. the
+ * {@link ezdb.serde.StringSerde}.
+ * 
+ * The rows are stored like those of a <code>RangeTable&lt;H, Long, Long&gt;</code>
+ * with {@link ezdb.serde.OrderedLongSerde} for the range keys,
+ * {@link ezdb.serde.LongSerde} for the values and the
+ * {@link ezdb.comparator.BytewiseComparator} for both keys, thus the same table
+ * can be opened that way for all operations that are not covered here. Rows
+ * without a range key must not be stored.
+ * 
+ * @param <H> The type of the hash key for this key/value table.
+ */
+public interface LongRangeTable<H> extends Closeable {
+
+	void put(H hashKey, long rangeKey, long value);
+
+	/**
+	 * @return the value, or missingValue if no row matches the hash/range pair
+	 */
+	long get(H hashKey, long rangeKey, long missingValue);
+
+	/**
+	 * Like {@link RangeTable#getLatest(Object, Object)}, the value of the last row
+	 * with a range key &lt;= rangeKey, or else of the first row after it.
+	 * 
+	 * @return the value, or missingValue if the hash key has no rows
+	 */
+	long getLatestValue(H hashKey, long rangeKey, long missingValue);
+
+	/**
+	 * Same as {@link #getLatestValue(Object, long, long)} for the overall latest
+	 * value of the hash key.
+	 */
+	default long getLatestValue(final H hashKey, final long missingValue) {
+		return getLatestValue(hashKey, Long.MAX_VALUE, missingValue);
+	}
+
+	void delete(H hashKey, long rangeKey);
+
+	/**
+	 * @return a new cursor that is not positioned yet and has to be closed after
+	 *         use
+	 */
+	LongRangeCursor<H> newCursor();
+
+	@Override
+	void close();
+
+}
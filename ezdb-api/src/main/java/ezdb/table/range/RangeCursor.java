@@ -0,0 +1,51 @@
+package ezdb.table.range;
+
+import java.io.Closeable;
+
+import ezdb.table.RangeTableRow;
+
+/**
+ * A cursor that stays open and can be positioned many times, so that repeated
+ * lookups do not have to create a new iterator each. All methods return the
+ * row the cursor is positioned on, or null if there is no such row within the
+ * hash key of the last seek.
+ * 
+ * @param <H> The type of the hash key.
+ * @param <R> The type of the range key.
+ * @param <V> The type of the value.
+ */
+public interface RangeCursor<H, R, V> extends Closeable {
+
+	/**
+	 * Positions the cursor on the first row of the hash key with a range key that
+	 * is &gt;= rangeKey, like {@link RangeTable#getNext(Object, Object)}. If
+	 * rangeKey is null, the cursor is positioned on the first row of the hash key.
+	 */
+	RangeTableRow<H, R, V> seek(H hashKey, R rangeKey);
+
+	/**
+	 * Positions the cursor on the last row of the hash key with a range key that
+	 * is &lt;= rangeKey, like {@link RangeTable#getPrev(Object, Object)}. If
+	 * rangeKey is null, the cursor is positioned on the last row of the hash key.
+	 */
+	RangeTableRow<H, R, V> seekForPrev(H hashKey, R rangeKey);
+
+	/**
+	 * Moves the cursor to the next row. Once this returns null, the cursor has to
+	 * be positioned again with a seek.
+	 */
+	RangeTableRow<H, R, V> next();
+
+	/**
+	 * Moves the cursor to the previous row. Once this returns null, the cursor has
+	 * to be positioned again with a seek.
+	 */
+	RangeTableRow<H, R, V> prev();
+
+	/**
+	 * Close the cursor and release all resources.
+	 */
+	@Override
+	void close();
+
+}
@@ -1,8 +1,27 @@
 package ezdb.table.range;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import ezdb.DbException;
+import ezdb.serde.Serde;
 import ezdb.table.RangeTableRow;
 import ezdb.table.Table;
+import ezdb.util.LengthPrefixedKeyFormat;
+import ezdb.util.PartitionedSpliterator;
 import ezdb.util.TableIterator;
+import ezdb.util.TablePublisher;
+import ezdb.util.TransformingTableIterator;
+import ezdb.util.Util;
 
 /**
  * A hash/range table that supports bucketing rows together by hash key, and
@@ -43,6 +62,25 @@ public interface RangeTable<H, R, V> extends Table<H, V> {
 	 */
 	public V get(H hashKey, R rangeKey);
 
+	/**
+	 * Get the values for multiple hash/range pairs at once. Implementations should
+	 * override this when the backend can look up many keys cheaper than one by
+	 * one.
+	 * 
+	 * @param keys The hash/range pairs, a null range key is allowed just like in
+	 *             {@link #get(Object, Object)}.
+	 * @return The values in the order of the keys, containing null for each
+	 *         hash/range pair that does not match an item.
+	 */
+	default List<V> multiGet(final List<? extends Entry<H, R>> keys) {
+		final List<V> values = new ArrayList<V>(keys.size());
+		for (int i = 0; i < keys.size(); i++) {
+			final Entry<H, R> key = keys.get(i);
+			values.add(get(key.getKey(), key.getValue()));
+		}
+		return values;
+	}
+
 	/**
 	 * Get the latest value for a given hash/range pair. It gets the overall latest.
 	 * 
@@ -88,6 +126,213 @@ public interface RangeTable<H, R, V> extends Table<H, V> {
 	 */
 	public RangeTableRow<H, R, V> getPrev(final H hashKey, final R rangeKey);
 
+	/**
+	 * Opens a cursor that can be positioned many times with a single underlying
+	 * iterator, which is cheaper than calling {@link #getNext(Object, Object)} or
+	 * {@link #getPrev(Object, Object)} in a loop. Implementations should override
+	 * this when the backend supports repositioning its iterators. The cursor has to
+	 * be closed after use.
+	 * 
+	 * @return a new cursor that is not positioned yet
+	 */
+	default RangeCursor<H, R, V> newRangeCursor() {
+		return new DefaultRangeCursor<H, R, V>(this);
+	}
+
+	/**
+	 * Same as {@link #rangeView(Object, Object, Object)} with unbounded range keys.
+	 */
+	default TableIterator<RangeTableRowView<H, R, V>> rangeView(final H hashKey) {
+		return rangeView(hashKey, null, null);
+	}
+
+	/**
+	 * Scans the rows like {@link #range(Object, Object, Object)}, but hands back
+	 * one {@link RangeTableRowView} that is re-pointed at each row instead of
+	 * allocating a new row per entry. The view and its buffers are only valid
+	 * until the iterator is moved on, use {@link RangeTableRowView#copy()} to keep
+	 * a row. Tables that store bytes point the view at their own buffers, by
+	 * default the rows of {@link #range(Object, Object, Object)} are encoded with
+	 * the serdes of the table into new buffers per row. Tables without serdes do
+	 * not support this.
+	 *
+	 * @param hashKey      The hash key of the rows, or null to scan the whole
+	 *                     table.
+	 * @param fromRangeKey The inclusive first range key, or null to start at the
+	 *                     first row of the hash key.
+	 * @param toRangeKey   The inclusive last range key, or null to scan to the
+	 *                     last row of the hash key.
+	 */
+	default TableIterator<RangeTableRowView<H, R, V>> rangeView(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		final Serde<H> hashKeySerde = getHashKeySerde();
+		final Serde<R> rangeKeySerde = getRangeKeySerde();
+		final Serde<V> valueSerde = getValueSerde();
+		if (hashKeySerde == null || rangeKeySerde == null || valueSerde == null) {
+			throw new UnsupportedOperationException("Row views are only supported by tables that have serdes");
+		}
+		final TableIterator<RangeTableRow<H, R, V>> range;
+		if (hashKey == null) {
+			range = range();
+		} else {
+			range = range(hashKey, fromRangeKey, toRangeKey);
+		}
+		final RangeTableRowView<H, R, V> view = new RangeTableRowView<H, R, V>(hashKeySerde, rangeKeySerde,
+				valueSerde, LengthPrefixedKeyFormat.get);
+		return new TransformingTableIterator<RangeTableRow<H, R, V>, RangeTableRowView<H, R, V>>(range, row -> {
+			final V value = row.getValue();
+			final ByteBuffer valueBytes;
+			if (value == null) {
+				valueBytes = null;
+			} else {
+				valueBytes = ByteBuffer.wrap(valueSerde.toBytes(value));
+			}
+			view.reset(Util.combineBuffer(hashKeySerde, rangeKeySerde, row.getHashKey(), row.getRangeKey()),
+					valueBytes);
+			return view;
+		});
+	}
+
+	/**
+	 * @return the serde the hash keys are stored with, or null if the table
+	 *         stores objects
+	 */
+	default Serde<H> getHashKeySerde() {
+		return null;
+	}
+
+	/**
+	 * @return the serde the range keys are stored with, or null if the table
+	 *         stores objects
+	 */
+	default Serde<R> getRangeKeySerde() {
+		return null;
+	}
+
+	/**
+	 * @return the serde the values are stored with, or null if the table stores
+	 *         objects
+	 */
+	default Serde<V> getValueSerde() {
+		return null;
+	}
+
+	/**
+	 * Same as {@link #rangeKeys(Object, Object, Object)} with unbounded range keys.
+	 */
+	default TableIterator<Entry<H, R>> rangeKeys(final H hashKey) {
+		return rangeKeys(hashKey, null, null);
+	}
+
+	/**
+	 * Scans only the keys of the rows, the values are neither fetched nor decoded
+	 * where the backend allows to skip them. The bounds are the same as for
+	 * {@link #rangeView(Object, Object, Object)}.
+	 *
+	 * @return the hash keys paired with the range keys, which can be passed on to
+	 *         {@link #multiGet(List)}
+	 */
+	default TableIterator<Entry<H, R>> rangeKeys(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		final TableIterator<RangeTableRow<H, R, V>> range;
+		if (hashKey == null) {
+			range = range();
+		} else {
+			range = range(hashKey, fromRangeKey, toRangeKey);
+		}
+		return new TransformingTableIterator<RangeTableRow<H, R, V>, Entry<H, R>>(range,
+				row -> new SimpleImmutableEntry<H, R>(row.getHashKey(), row.getRangeKey()));
+	}
+
+	/**
+	 * Same as {@link #rangeValues(Object, Object, Object)} with unbounded range
+	 * keys.
+	 */
+	default TableIterator<V> rangeValues(final H hashKey) {
+		return rangeValues(hashKey, null, null);
+	}
+
+	/**
+	 * Scans only the values of the rows, the keys are only compared against the
+	 * bounds and never decoded. The bounds are the same as for
+	 * {@link #rangeView(Object, Object, Object)}.
+	 */
+	default TableIterator<V> rangeValues(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		final TableIterator<RangeTableRow<H, R, V>> range;
+		if (hashKey == null) {
+			range = range();
+		} else {
+			range = range(hashKey, fromRangeKey, toRangeKey);
+		}
+		return new TransformingTableIterator<RangeTableRow<H, R, V>, V>(range, RangeTableRow::getValue);
+	}
+
+	/**
+	 * A stream over all rows of the table. Backends may split it into key ranges
+	 * that a parallel stream scans concurrently. The stream has to be closed, e.g.
+	 * with try-with-resources, to release the iterators when it is not consumed
+	 * completely.
+	 */
+	default Stream<RangeTableRow<H, R, V>> stream() {
+		return PartitionedSpliterator.stream(Collections.<Void>singletonList(null), part -> range());
+	}
+
+	/**
+	 * A stream over the rows of a hash key, see {@link #range(Object)}.
+	 */
+	default Stream<RangeTableRow<H, R, V>> stream(final H hashKey) {
+		return PartitionedSpliterator.stream(Collections.singletonList(hashKey), this::range);
+	}
+
+	/**
+	 * A stream over a range of rows, see {@link #range(Object, Object, Object)}.
+	 */
+	default Stream<RangeTableRow<H, R, V>> stream(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return PartitionedSpliterator.stream(Collections.singletonList(hashKey),
+				part -> range(part, fromRangeKey, toRangeKey));
+	}
+
+	/**
+	 * A stream over the rows of several hash keys, in the order of the given hash
+	 * keys. A parallel stream scans different hash keys concurrently.
+	 */
+	default Stream<RangeTableRow<H, R, V>> stream(final Collection<? extends H> hashKeys) {
+		return PartitionedSpliterator.stream(new ArrayList<H>(hashKeys), this::range);
+	}
+
+	/**
+	 * Publishes all rows of the table. The iterator is held from the first request
+	 * until the scan completes or the subscription is cancelled.
+	 */
+	default TablePublisher<RangeTableRow<H, R, V>> publisher() {
+		return new TablePublisher<RangeTableRow<H, R, V>>(last -> copyRows(range()), null);
+	}
+
+	/**
+	 * Same as {@link #publisher(Object, Object, Object)} with unbounded range
+	 * keys.
+	 */
+	default TablePublisher<RangeTableRow<H, R, V>> publisher(final H hashKey) {
+		return publisher(hashKey, null, null);
+	}
+
+	/**
+	 * Publishes a range of rows, see {@link #range(Object, Object, Object)}. The
+	 * iterator is released whenever the requested rows were delivered and the scan
+	 * resumes after the last delivered range key on the next request, which
+	 * requires range keys with a proper equals. The rows are detached from backend
+	 * buffers, so subscribers may keep them.
+	 */
+	default TablePublisher<RangeTableRow<H, R, V>> publisher(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		return new TablePublisher<RangeTableRow<H, R, V>>(last -> {
+			if (last == null) {
+				return copyRows(range(hashKey, fromRangeKey, toRangeKey));
+			} else {
+				return copyRows(range(hashKey, last.getRangeKey(), toRangeKey));
+			}
+		}, (a, b) -> Objects.deepEquals(a.getRangeKey(), b.getRangeKey()));
+	}
+
 	/**
 	 * Get all rows with a given hash key.
 	 * 
@@ -228,4 +473,39 @@ public interface RangeTable<H, R, V> extends Table<H, V> {
 	 */
 	public RangeBatch<H, R, V> newRangeBatch();
 
+	/**
+	 * Loads rows that are already sorted ascending by hash key and then range key,
+	 * as the table orders them, without a hash/range pair occurring twice.
+	 * Backends that support it write their storage files directly instead of
+	 * going through the regular write path, which is much faster for large
+	 * backfills. Existing rows with the same hash/range pairs are overwritten.
+	 * 
+	 * @param rows The sorted rows to load.
+	 */
+	default void bulkLoad(final Iterator<? extends RangeTableRow<H, R, V>> rows) {
+		final RangeBatch<H, R, V> batch = newRangeBatch();
+		try {
+			while (rows.hasNext()) {
+				final RangeTableRow<H, R, V> row = rows.next();
+				batch.put(row.getHashKey(), row.getRangeKey(), row.getValue());
+			}
+			batch.flush();
+		} finally {
+			try {
+				batch.close();
+			} catch (final IOException e) {
+				throw new DbException(e);
+			}
+		}
+	}
+
+	/**
+	 * Copies the rows of a scan, so they stay valid after the iterator moved on.
+	 */
+	static <H, R, V> TableIterator<RangeTableRow<H, R, V>> copyRows(
+			final TableIterator<RangeTableRow<H, R, V>> range) {
+		return new TransformingTableIterator<RangeTableRow<H, R, V>, RangeTableRow<H, R, V>>(range,
+				row -> new RawRangeTableRow<H, R, V>(row.getHashKey(), row.getRangeKey(), row.getValue()));
+	}
+
 }
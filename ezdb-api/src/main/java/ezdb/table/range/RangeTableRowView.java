@@ -0,0 +1,206 @@
+package ezdb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+
+import ezdb.serde.HolderDecoder;
+import ezdb.serde.Serde;
+import ezdb.serde.ViewSerde;
+import ezdb.table.RangeTableRow;
+import ezdb.util.KeyFormat;
+
+/**
+ * A mutable row that gets re-pointed at each entry of a scan instead of
+ * allocating a new row per entry. The raw buffers are only valid until the
+ * scan moves on, keys and values are decoded on demand and at most once per
+ * entry. A {@link ViewSerde} for values decodes views on the raw value buffer
+ * that share its lifetime, {@link #copy()} and {@link #copyValue()} detach
+ * them. Views get a read-only buffer, since the memory of the backend, e.g. the
+ * read-only memory map of LMDB, must not be written through them.
+ */
+public class RangeTableRowView<H, R, V> implements RangeTableRow<H, R, V> {
+	private final Serde<H> hashKeySerde;
+	private final Serde<R> rangeKeySerde;
+	private final Serde<V> valueSerde;
+	private final ViewSerde<V> valueViewSerde;
+	private final KeyFormat keyFormat;
+
+	private ByteBuffer key;
+	private ByteBuffer value;
+	private ByteBuffer hashKeyBuffer;
+	private ByteBuffer rangeKeyBuffer;
+	private boolean keySplit;
+	private H hashKey;
+	private boolean hashKeyDecoded;
+	private R rangeKey;
+	private boolean rangeKeyDecoded;
+	private V decodedValue;
+	private boolean valueDecoded;
+
+	@SuppressWarnings("unchecked")
+	public RangeTableRowView(final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
+			final KeyFormat keyFormat) {
+		this.hashKeySerde = hashKeySerde;
+		this.rangeKeySerde = rangeKeySerde;
+		this.valueSerde = valueSerde;
+		if (valueSerde instanceof ViewSerde) {
+			this.valueViewSerde = (ViewSerde<V>) valueSerde;
+		} else {
+			this.valueViewSerde = null;
+		}
+		this.keyFormat = keyFormat;
+	}
+
+	/**
+	 * Points this view at another entry. The value may be null when the scan only
+	 * reads keys.
+	 */
+	public void reset(final ByteBuffer key, final ByteBuffer value) {
+		this.key = key;
+		this.value = value;
+		this.keySplit = false;
+		this.hashKeyBuffer = null;
+		this.rangeKeyBuffer = null;
+		this.hashKeyDecoded = false;
+		this.hashKey = null;
+		this.rangeKeyDecoded = false;
+		this.rangeKey = null;
+		this.valueDecoded = false;
+		this.decodedValue = null;
+	}
+
+	private void splitKey() {
+		if (!keySplit) {
+			hashKeyBuffer = keyFormat.getHashKey(key);
+			rangeKeyBuffer = keyFormat.getRangeKey(key);
+			keySplit = true;
+		}
+	}
+
+	/**
+	 * @return the compound key as stored by the backend
+	 */
+	public ByteBuffer getKeyBuffer() {
+		return key;
+	}
+
+	public ByteBuffer getHashKeyBuffer() {
+		splitKey();
+		return hashKeyBuffer;
+	}
+
+	/**
+	 * @return the range key bytes, or null if the row has no range key
+	 */
+	public ByteBuffer getRangeKeyBuffer() {
+		splitKey();
+		return rangeKeyBuffer;
+	}
+
+	public ByteBuffer getValueBuffer() {
+		return value;
+	}
+
+	@Override
+	public H getHashKey() {
+		if (!hashKeyDecoded) {
+			hashKey = hashKeySerde.fromBuffer(getHashKeyBuffer());
+			hashKeyDecoded = true;
+		}
+		return hashKey;
+	}
+
+	@Override
+	public R getRangeKey() {
+		if (!rangeKeyDecoded) {
+			final ByteBuffer rangeKeyBytes = getRangeKeyBuffer();
+			if (rangeKeyBytes != null) {
+				rangeKey = rangeKeySerde.fromBuffer(rangeKeyBytes);
+			}
+			rangeKeyDecoded = true;
+		}
+		return rangeKey;
+	}
+
+	@Override
+	public V getValue() {
+		if (!valueDecoded) {
+			if (value == null) {
+				decodedValue = null;
+			} else if (valueViewSerde != null) {
+				decodedValue = valueViewSerde.view(value.asReadOnlyBuffer());
+			} else {
+				decodedValue = valueSerde.fromBuffer(value);
+			}
+			valueDecoded = true;
+		}
+		return decodedValue;
+	}
+
+	public <O> O getHashKey(final HolderDecoder<O> decoder, final O holder) {
+		decoder.decode(getHashKeyBuffer(), holder);
+		return holder;
+	}
+
+	/**
+	 * @return the holder, or null if the row has no range key
+	 */
+	public <O> O getRangeKey(final HolderDecoder<O> decoder, final O holder) {
+		final ByteBuffer rangeKeyBytes = getRangeKeyBuffer();
+		if (rangeKeyBytes == null) {
+			return null;
+		}
+		decoder.decode(rangeKeyBytes, holder);
+		return holder;
+	}
+
+	/**
+	 * @return the holder, or null if the value was not read
+	 */
+	public <O> O getValue(final HolderDecoder<O> decoder, final O holder) {
+		if (value == null) {
+			return null;
+		}
+		if (decoder instanceof ViewSerde) {
+			// the holder keeps pointing at the buffer
+			decoder.decode(value.asReadOnlyBuffer(), holder);
+		} else {
+			decoder.decode(value, holder);
+		}
+		return holder;
+	}
+
+	/**
+	 * @return a decoded row that stays valid after the view has moved on
+	 */
+	public RangeTableRow<H, R, V> copy() {
+		return new RawRangeTableRow<H, R, V>(getHashKey(), getRangeKey(), copyValue());
+	}
+
+	/**
+	 * @return the decoded value that stays valid after the view has moved on
+	 */
+	public V copyValue() {
+		final V value = getValue();
+		if (value != null && valueViewSerde != null) {
+			return valueViewSerde.copy(value);
+		}
+		return value;
+	}
+
+	/**
+	 * @return the decoded hash and range key that stay valid after the view has
+	 *         moved on
+	 */
+	public Entry<H, R> copyKey() {
+		return new SimpleImmutableEntry<H, R>(getHashKey(), getRangeKey());
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [hashKey=" + getHashKey() + ", rangeKey=" + getRangeKey() + ", value="
+				+ getValue() + "]";
+	}
+
+}
@@ -0,0 +1,137 @@
+package ezdb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+import ezdb.util.KeyFormat;
+import ezdb.util.TableIterator;
+
+/**
+ * Base class for the backend specific scans that hand back a single
+ * {@link RangeTableRowView}. The backend iterator is only moved on the next
+ * call of {@link #hasNext()}, so the buffers of the view stay valid until then.
+ * The iterator closes itself once it is exhausted.
+ */
+public abstract class RangeTableRowViewIterator<H, R, V> implements TableIterator<RangeTableRowView<H, R, V>> {
+	private final RangeTableRowView<H, R, V> view;
+	private final KeyFormat keyFormat;
+	private final Comparator<ByteBuffer> hashKeyComparator;
+	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final ByteBuffer keyBytesFrom;
+	private final ByteBuffer keyBytesTo;
+	private final boolean fetchValues;
+	private ByteBuffer key;
+	private boolean started;
+	private boolean ready;
+	private boolean closed;
+
+	/**
+	 * @param keyBytesFrom the compound key the scan starts at, only rows of its
+	 *                     hash key are returned. Null scans all hash keys.
+	 * @param keyBytesTo   the inclusive compound key the scan ends at, or null to
+	 *                     scan to the end of the hash key.
+	 * @param fetchValues  false to skip reading the values, the view then only
+	 *                     has keys
+	 */
+	public RangeTableRowViewIterator(final RangeTableRowView<H, R, V> view, final KeyFormat keyFormat,
+			final Comparator<ByteBuffer> hashKeyComparator, final Comparator<ByteBuffer> rangeKeyComparator,
+			final ByteBuffer keyBytesFrom, final ByteBuffer keyBytesTo, final boolean fetchValues) {
+		this.view = view;
+		this.keyFormat = keyFormat;
+		this.hashKeyComparator = hashKeyComparator;
+		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyBytesFrom = keyBytesFrom;
+		this.keyBytesTo = keyBytesTo;
+		this.fetchValues = fetchValues;
+	}
+
+	/**
+	 * Positions the backend iterator on the first row of the scan.
+	 * 
+	 * @return false if there is no such row
+	 */
+	protected abstract boolean first();
+
+	/**
+	 * Moves the backend iterator to the next row.
+	 * 
+	 * @return false if there is no such row
+	 */
+	protected abstract boolean advance();
+
+	protected abstract ByteBuffer currentKey();
+
+	protected abstract ByteBuffer currentValue();
+
+	/**
+	 * Releases the backend iterator.
+	 */
+	protected abstract void release();
+
+	@Override
+	public boolean hasNext() {
+		if (ready) {
+			return true;
+		}
+		if (closed) {
+			return false;
+		}
+		final boolean valid;
+		if (started) {
+			valid = advance();
+		} else {
+			started = true;
+			valid = first();
+		}
+		if (valid) {
+			key = currentKey();
+			if (isInRange(key)) {
+				ready = true;
+				return true;
+			}
+		}
+		close();
+		return false;
+	}
+
+	private boolean isInRange(final ByteBuffer key) {
+		if (keyBytesFrom != null && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, key) != 0) {
+			return false;
+		}
+		if (keyBytesTo != null
+				&& keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo, key) < 0) {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public RangeTableRowView<H, R, V> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		if (fetchValues) {
+			view.reset(key, currentValue());
+		} else {
+			view.reset(key, null);
+		}
+		ready = false;
+		return view;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			ready = false;
+			release();
+		}
+	}
+
+}
@@ -6,9 +6,10 @@ import java.util.function.Supplier;
 
 import ezdb.serde.Serde;
 import ezdb.table.RangeTableRow;
+import ezdb.util.KeyFormat;
 import ezdb.util.LazyRangeKeysGetter;
 import ezdb.util.LazyValueGetter;
-import ezdb.util.Util;
+import ezdb.util.LengthPrefixedKeyFormat;
 import io.netty.buffer.ByteBuf;
 
 public class RawRangeTableRow<H, R, V> implements RangeTableRow<H, R, V> {
@@ -30,29 +31,21 @@ public class RawRangeTableRow<H, R, V> implements RangeTableRow<H, R, V> {
 
 	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBuffer(final ByteBuffer keyBuffer, final ByteBuffer valueBuffer,
 			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+		return valueOfBuffer(keyBuffer, valueBuffer, hashKeySerde, rangeKeySerde, valueSerde,
+				LengthPrefixedKeyFormat.get);
+	}
+
+	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBuffer(final ByteBuffer keyBuffer, final ByteBuffer valueBuffer,
+			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
+			final KeyFormat keyFormat) {
 
 		// extract hashKeyBytes/rangeKeyBytes only if needed
 		final LazyRangeKeysGetter<ByteBuffer, ByteBuffer> hashKeyBytes_rangeKeyBytes = new LazyRangeKeysGetter<ByteBuffer, ByteBuffer>() {
 			@Override
 			protected void initialize() {
 				final ByteBuffer compoundKeyBytes = keyBuffer;
-				int index = 0;
-				final int hashKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuffer hashKeyBytes = Util.slice(compoundKeyBytes, index, hashKeyBytesLength);
-				index += hashKeyBytesLength;
-				final int rangeKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuffer rangeKeyBytes;
-
-				if (rangeKeyBytesLength > 0) {
-					rangeKeyBytes = Util.slice(compoundKeyBytes, index, rangeKeyBytesLength);
-				} else {
-					rangeKeyBytes = null;
-				}
-
-				this.hashKey = hashKeyBytes;
-				this.rangeKey = rangeKeyBytes;
+				this.hashKey = keyFormat.getHashKey(compoundKeyBytes);
+				this.rangeKey = keyFormat.getRangeKey(compoundKeyBytes);
 			}
 		};
 
@@ -88,29 +81,20 @@ public class RawRangeTableRow<H, R, V> implements RangeTableRow<H, R, V> {
 
 	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBuffer(final Entry<ByteBuffer, ByteBuffer> rawRow,
 			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+		return valueOfBuffer(rawRow, hashKeySerde, rangeKeySerde, valueSerde, LengthPrefixedKeyFormat.get);
+	}
+
+	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBuffer(final Entry<ByteBuffer, ByteBuffer> rawRow,
+			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
+			final KeyFormat keyFormat) {
 
 		// extract hashKeyBytes/rangeKeyBytes only if needed
 		final LazyRangeKeysGetter<ByteBuffer, ByteBuffer> hashKeyBytes_rangeKeyBytes = new LazyRangeKeysGetter<ByteBuffer, ByteBuffer>() {
 			@Override
 			protected void initialize() {
 				final ByteBuffer compoundKeyBytes = rawRow.getKey();
-				int index = 0;
-				final int hashKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuffer hashKeyBytes = Util.slice(compoundKeyBytes, index, hashKeyBytesLength);
-				index += hashKeyBytesLength;
-				final int rangeKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuffer rangeKeyBytes;
-
-				if (rangeKeyBytesLength > 0) {
-					rangeKeyBytes = Util.slice(compoundKeyBytes, index, rangeKeyBytesLength);
-				} else {
-					rangeKeyBytes = null;
-				}
-
-				this.hashKey = hashKeyBytes;
-				this.rangeKey = rangeKeyBytes;
+				this.hashKey = keyFormat.getHashKey(compoundKeyBytes);
+				this.rangeKey = keyFormat.getRangeKey(compoundKeyBytes);
 			}
 		};
 
@@ -147,29 +131,21 @@ public class RawRangeTableRow<H, R, V> implements RangeTableRow<H, R, V> {
 
 	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBuf(final ByteBuf keyBuffer, final ByteBuf valueBuffer,
 			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+		return valueOfBuf(keyBuffer, valueBuffer, hashKeySerde, rangeKeySerde, valueSerde,
+				LengthPrefixedKeyFormat.get);
+	}
+
+	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBuf(final ByteBuf keyBuffer, final ByteBuf valueBuffer,
+			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
+			final KeyFormat keyFormat) {
 
 		// extract hashKeyBytes/rangeKeyBytes only if needed
 		final LazyRangeKeysGetter<ByteBuf, ByteBuf> hashKeyBytes_rangeKeyBytes = new LazyRangeKeysGetter<ByteBuf, ByteBuf>() {
 			@Override
 			protected void initialize() {
 				final ByteBuf compoundKeyBytes = keyBuffer;
-				int index = 0;
-				final int hashKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuf hashKeyBytes = compoundKeyBytes.slice(index, hashKeyBytesLength);
-				index += hashKeyBytesLength;
-				final int rangeKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuf rangeKeyBytes;
-
-				if (rangeKeyBytesLength > 0) {
-					rangeKeyBytes = compoundKeyBytes.slice(index, rangeKeyBytesLength);
-				} else {
-					rangeKeyBytes = null;
-				}
-
-				this.hashKey = hashKeyBytes;
-				this.rangeKey = rangeKeyBytes;
+				this.hashKey = keyFormat.getHashKey(compoundKeyBytes);
+				this.rangeKey = keyFormat.getRangeKey(compoundKeyBytes);
 			}
 		};
 
@@ -206,29 +182,20 @@ public class RawRangeTableRow<H, R, V> implements RangeTableRow<H, R, V> {
 
 	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBuf(final Entry<ByteBuf, ByteBuf> rawRow,
 			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+		return valueOfBuf(rawRow, hashKeySerde, rangeKeySerde, valueSerde, LengthPrefixedKeyFormat.get);
+	}
+
+	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBuf(final Entry<ByteBuf, ByteBuf> rawRow,
+			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
+			final KeyFormat keyFormat) {
 
 		// extract hashKeyBytes/rangeKeyBytes only if needed
 		final LazyRangeKeysGetter<ByteBuf, ByteBuf> hashKeyBytes_rangeKeyBytes = new LazyRangeKeysGetter<ByteBuf, ByteBuf>() {
 			@Override
 			protected void initialize() {
 				final ByteBuf compoundKeyBytes = rawRow.getKey();
-				int index = 0;
-				final int hashKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuf hashKeyBytes = compoundKeyBytes.slice(index, hashKeyBytesLength);
-				index += hashKeyBytesLength;
-				final int rangeKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuf rangeKeyBytes;
-
-				if (rangeKeyBytesLength > 0) {
-					rangeKeyBytes = compoundKeyBytes.slice(index, rangeKeyBytesLength);
-				} else {
-					rangeKeyBytes = null;
-				}
-
-				this.hashKey = hashKeyBytes;
-				this.rangeKey = rangeKeyBytes;
+				this.hashKey = keyFormat.getHashKey(compoundKeyBytes);
+				this.rangeKey = keyFormat.getRangeKey(compoundKeyBytes);
 			}
 		};
 
@@ -265,28 +232,21 @@ public class RawRangeTableRow<H, R, V> implements RangeTableRow<H, R, V> {
 
 	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBytes(final byte[] keyBuffer, final byte[] valueBuffer,
 			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+		return valueOfBytes(keyBuffer, valueBuffer, hashKeySerde, rangeKeySerde, valueSerde,
+				LengthPrefixedKeyFormat.get);
+	}
+
+	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBytes(final byte[] keyBuffer, final byte[] valueBuffer,
+			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
+			final KeyFormat keyFormat) {
 
 		// extract hashKeyBytes/rangeKeyBytes only if needed
 		final LazyRangeKeysGetter<ByteBuffer, ByteBuffer> hashKeyBytes_rangeKeyBytes = new LazyRangeKeysGetter<ByteBuffer, ByteBuffer>() {
 			@Override
 			protected void initialize() {
 				final ByteBuffer compoundKeyBytes = ByteBuffer.wrap(keyBuffer);
-				int index = 0;
-				final int hashKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuffer hashKeyBytes = Util.slice(compoundKeyBytes, index, hashKeyBytesLength);
-				index += hashKeyBytesLength;
-				final int rangeKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuffer rangeKeyBytes;
-
-				if (rangeKeyBytesLength > 0) {
-					rangeKeyBytes = Util.slice(compoundKeyBytes, index, rangeKeyBytesLength);
-				} else {
-					rangeKeyBytes = null;
-				}
-				this.hashKey = hashKeyBytes;
-				this.rangeKey = rangeKeyBytes;
+				this.hashKey = keyFormat.getHashKey(compoundKeyBytes);
+				this.rangeKey = keyFormat.getRangeKey(compoundKeyBytes);
 			}
 		};
 
@@ -322,28 +282,20 @@ public class RawRangeTableRow<H, R, V> implements RangeTableRow<H, R, V> {
 
 	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBytes(final Entry<byte[], byte[]> rawRow,
 			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+		return valueOfBytes(rawRow, hashKeySerde, rangeKeySerde, valueSerde, LengthPrefixedKeyFormat.get);
+	}
+
+	public static <H, R, V> RawRangeTableRow<H, R, V> valueOfBytes(final Entry<byte[], byte[]> rawRow,
+			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
+			final KeyFormat keyFormat) {
 
 		// extract hashKeyBytes/rangeKeyBytes only if needed
 		final LazyRangeKeysGetter<ByteBuffer, ByteBuffer> hashKeyBytes_rangeKeyBytes = new LazyRangeKeysGetter<ByteBuffer, ByteBuffer>() {
 			@Override
 			protected void initialize() {
 				final ByteBuffer compoundKeyBytes = ByteBuffer.wrap(rawRow.getKey());
-				int index = 0;
-				final int hashKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuffer hashKeyBytes = Util.slice(compoundKeyBytes, index, hashKeyBytesLength);
-				index += hashKeyBytesLength;
-				final int rangeKeyBytesLength = compoundKeyBytes.getInt(index);
-				index += Integer.BYTES;
-				final ByteBuffer rangeKeyBytes;
-
-				if (rangeKeyBytesLength > 0) {
-					rangeKeyBytes = Util.slice(compoundKeyBytes, index, rangeKeyBytesLength);
-				} else {
-					rangeKeyBytes = null;
-				}
-				this.hashKey = hashKeyBytes;
-				this.rangeKey = rangeKeyBytes;
+				this.hashKey = keyFormat.getHashKey(compoundKeyBytes);
+				this.rangeKey = keyFormat.getRangeKey(compoundKeyBytes);
 			}
 		};
 
@@ -0,0 +1,266 @@
+package ezdb.table.range;
+
+import java.util.Arrays;
+
+/**
+ * The decoded points of one chunk of a {@link ChunkedSeriesTable}, sorted by
+ * time. The encoding follows the Gorilla paper of Facebook:
+ *
+ * <pre>
+ * [32 bit count][64 bit first time][64 bit first value]
+ * per following point:
+ *   delta of delta of the time: '0' | '10' 7 bits | '110' 9 bits | '1110' 12 bits | '1111' 64 bits
+ *   xor with the previous value: '0' equal | '10' bits within the previous window
+ *                               | '11' 5 bits leading zeros, 6 bits length - 1, bits
+ * </pre>
+ *
+ * Regular timestamps thus take one bit and repeated or slowly moving prices a
+ * few bits instead of the 16 bytes of a row plus its key.
+ */
+final class SeriesChunk {
+
+	private long[] times;
+	private double[] values;
+	private int size;
+
+	SeriesChunk() {
+		this(16);
+	}
+
+	private SeriesChunk(final int capacity) {
+		this.times = new long[capacity];
+		this.values = new double[capacity];
+	}
+
+	int size() {
+		return size;
+	}
+
+	long getTime(final int index) {
+		return times[index];
+	}
+
+	double getValue(final int index) {
+		return values[index];
+	}
+
+	/**
+	 * @return the index of the last point at or before the time, -1 if there is
+	 *         none
+	 */
+	int indexOfPrev(final long time) {
+		final int index = Arrays.binarySearch(times, 0, size, time);
+		if (index >= 0) {
+			return index;
+		}
+		return -index - 2;
+	}
+
+	/**
+	 * @return the index of the first point at or after the time, the size if there
+	 *         is none
+	 */
+	int indexOfNext(final long time) {
+		final int index = Arrays.binarySearch(times, 0, size, time);
+		if (index >= 0) {
+			return index;
+		}
+		return -index - 1;
+	}
+
+	void put(final long time, final double value) {
+		final int index = Arrays.binarySearch(times, 0, size, time);
+		if (index >= 0) {
+			values[index] = value;
+			return;
+		}
+		final int insert = -index - 1;
+		if (size == times.length) {
+			times = Arrays.copyOf(times, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		System.arraycopy(times, insert, times, insert + 1, size - insert);
+		System.arraycopy(values, insert, values, insert + 1, size - insert);
+		times[insert] = time;
+		values[insert] = value;
+		size++;
+	}
+
+	void remove(final long time) {
+		final int index = Arrays.binarySearch(times, 0, size, time);
+		if (index >= 0) {
+			removeRange(index, index + 1);
+		}
+	}
+
+	/**
+	 * Removes the points of the indexes from inclusive to exclusive.
+	 */
+	void removeRange(final int from, final int to) {
+		System.arraycopy(times, to, times, from, size - to);
+		System.arraycopy(values, to, values, from, size - to);
+		size -= to - from;
+	}
+
+	/**
+	 * Encodes the points of the indexes from inclusive to exclusive, which must
+	 * not be empty.
+	 */
+	byte[] encode(final int from, final int to) {
+		final BitWriter out = new BitWriter(16 + (to - from) * 2);
+		out.write(to - from, 32);
+		long prevTime = times[from];
+		long prevBits = Double.doubleToRawLongBits(values[from]);
+		out.write(prevTime, 64);
+		out.write(prevBits, 64);
+		long prevDelta = 0;
+		int prevLeading = -1;
+		int prevTrailing = 0;
+		for (int i = from + 1; i < to; i++) {
+			final long delta = times[i] - prevTime;
+			final long deltaOfDelta = delta - prevDelta;
+			if (deltaOfDelta == 0) {
+				out.write(0, 1);
+			} else if (deltaOfDelta >= -64 && deltaOfDelta < 64) {
+				out.write(0b10, 2);
+				out.write(deltaOfDelta, 7);
+			} else if (deltaOfDelta >= -256 && deltaOfDelta < 256) {
+				out.write(0b110, 3);
+				out.write(deltaOfDelta, 9);
+			} else if (deltaOfDelta >= -2048 && deltaOfDelta < 2048) {
+				out.write(0b1110, 4);
+				out.write(deltaOfDelta, 12);
+			} else {
+				out.write(0b1111, 4);
+				out.write(deltaOfDelta, 64);
+			}
+			prevDelta = delta;
+			prevTime = times[i];
+
+			final long bits = Double.doubleToRawLongBits(values[i]);
+			final long xor = bits ^ prevBits;
+			if (xor == 0) {
+				out.write(0, 1);
+			} else {
+				final int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+				final int trailing = Long.numberOfTrailingZeros(xor);
+				if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+					out.write(0b10, 2);
+					out.write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+				} else {
+					final int significant = 64 - leading - trailing;
+					out.write(0b11, 2);
+					out.write(leading, 5);
+					out.write(significant - 1, 6);
+					out.write(xor >>> trailing, significant);
+					prevLeading = leading;
+					prevTrailing = trailing;
+				}
+			}
+			prevBits = bits;
+		}
+		return out.toBytes();
+	}
+
+	static SeriesChunk decode(final byte[] bytes) {
+		final BitReader in = new BitReader(bytes);
+		final int count = (int) in.read(32);
+		final SeriesChunk chunk = new SeriesChunk(Math.max(1, count));
+		long prevTime = in.read(64);
+		long prevBits = in.read(64);
+		chunk.times[0] = prevTime;
+		chunk.values[0] = Double.longBitsToDouble(prevBits);
+		long prevDelta = 0;
+		int prevLeading = 0;
+		int prevTrailing = 0;
+		for (int i = 1; i < count; i++) {
+			final long deltaOfDelta;
+			if (in.read(1) == 0) {
+				deltaOfDelta = 0;
+			} else if (in.read(1) == 0) {
+				deltaOfDelta = in.readSigned(7);
+			} else if (in.read(1) == 0) {
+				deltaOfDelta = in.readSigned(9);
+			} else if (in.read(1) == 0) {
+				deltaOfDelta = in.readSigned(12);
+			} else {
+				deltaOfDelta = in.read(64);
+			}
+			prevDelta += deltaOfDelta;
+			prevTime += prevDelta;
+			chunk.times[i] = prevTime;
+
+			if (in.read(1) != 0) {
+				if (in.read(1) != 0) {
+					prevLeading = (int) in.read(5);
+					final int significant = (int) in.read(6) + 1;
+					prevTrailing = 64 - prevLeading - significant;
+				}
+				prevBits ^= in.read(64 - prevLeading - prevTrailing) << prevTrailing;
+			}
+			chunk.values[i] = Double.longBitsToDouble(prevBits);
+		}
+		chunk.size = count;
+		return chunk;
+	}
+
+	private static final class BitWriter {
+		private byte[] bytes;
+		private int bitLength;
+
+		private BitWriter(final int capacity) {
+			this.bytes = new byte[capacity];
+		}
+
+		/**
+		 * Writes the lowest bits of the value, highest first.
+		 */
+		private void write(final long value, final int bits) {
+			int remaining = bits;
+			while (remaining > 0) {
+				final int index = bitLength >>> 3;
+				if (index == bytes.length) {
+					bytes = Arrays.copyOf(bytes, bytes.length * 2);
+				}
+				final int free = 8 - (bitLength & 7);
+				final int count = Math.min(free, remaining);
+				final int piece = (int) (value >>> (remaining - count)) & ((1 << count) - 1);
+				bytes[index] |= piece << (free - count);
+				bitLength += count;
+				remaining -= count;
+			}
+		}
+
+		private byte[] toBytes() {
+			return Arrays.copyOf(bytes, (bitLength + 7) >>> 3);
+		}
+	}
+
+	private static final class BitReader {
+		private final byte[] bytes;
+		private int bitPosition;
+
+		private BitReader(final byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		private long read(final int bits) {
+			long value = 0;
+			int remaining = bits;
+			while (remaining > 0) {
+				final int available = 8 - (bitPosition & 7);
+				final int count = Math.min(available, remaining);
+				final int piece = (bytes[bitPosition >>> 3] >>> (available - count)) & ((1 << count) - 1);
+				value = value << count | piece;
+				bitPosition += count;
+				remaining -= count;
+			}
+			return value;
+		}
+
+		private long readSigned(final int bits) {
+			return read(bits) << (64 - bits) >> (64 - bits);
+		}
+	}
+
+}
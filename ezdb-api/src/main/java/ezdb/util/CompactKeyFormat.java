@@ -0,0 +1,205 @@
+package ezdb.util;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import ezdb.comparator.RegionComparator;
+import ezdb.serde.Serde;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A compact compound key format: [header][hashKey][rangeKey]
+ *
+ * The header is the hash key length shifted left by one as an unsigned varint,
+ * so hash keys of up to 63 bytes take a single byte instead of the four of the
+ * {@link LengthPrefixedKeyFormat}. The range key runs until the end of the key
+ * and needs no length at all. The lowest bit of the header marks the end of a
+ * hash key, such keys have no range key.
+ *
+ * Like the {@link LengthPrefixedKeyFormat} it sorts with any comparators, but
+ * the backends have to install a java comparator. The layout is identified by
+ * {@link #getName()}, which the backends that persist the name of their
+ * comparator (e.g. RocksDB) include in it, so a table cannot be reopened with a
+ * different format by accident.
+ */
+public class CompactKeyFormat implements KeyFormat {
+
+	public static final CompactKeyFormat get = new CompactKeyFormat();
+
+	/**
+	 * Increment this when the layout changes.
+	 */
+	private static final int VERSION = 1;
+	private static final int END_FLAG = 1;
+
+	@Override
+	public <H, R> void combineBuf(final ByteBuf buffer, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
+			final H hashKey, final R rangeKey) {
+		writeHashKey(buffer, hashKeySerde, hashKey, 0);
+		if (rangeKey != null) {
+			rangeKeySerde.toBuffer(buffer, rangeKey);
+		}
+	}
+
+	@Override
+	public <H> void combineBufEnd(final ByteBuf buffer, final Serde<H> hashKeySerde, final H hashKey) {
+		writeHashKey(buffer, hashKeySerde, hashKey, END_FLAG);
+	}
+
+	/**
+	 * Serializes the hash key behind a single byte header, which covers nearly
+	 * all hash keys. Longer ones are moved back to make room for a longer varint.
+	 */
+	private static <H> void writeHashKey(final ByteBuf buffer, final Serde<H> hashKeySerde, final H hashKey,
+			final int flag) {
+		final int headerIndex = buffer.writerIndex();
+		buffer.writeByte(0);
+		if (hashKey != null) {
+			hashKeySerde.toBuffer(buffer, hashKey);
+		}
+		final int hashKeyStart = headerIndex + 1;
+		final int hashKeyLength = buffer.writerIndex() - hashKeyStart;
+		final int header = hashKeyLength << 1 | flag;
+		final int headerLength = varintLength(header);
+		if (headerLength > 1) {
+			final int shift = headerLength - 1;
+			buffer.ensureWritable(shift);
+			buffer.writerIndex(buffer.writerIndex() + shift);
+			for (int read = hashKeyStart + hashKeyLength - 1; read >= hashKeyStart; read--) {
+				buffer.setByte(read + shift, buffer.getByte(read));
+			}
+		}
+		setVarint(buffer, headerIndex, header);
+	}
+
+	private static int varintLength(final int value) {
+		int length = 1;
+		int remaining = value >>> 7;
+		while (remaining != 0) {
+			length++;
+			remaining >>>= 7;
+		}
+		return length;
+	}
+
+	private static void setVarint(final ByteBuf buffer, final int index, final int value) {
+		int i = index;
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			buffer.setByte(i++, (remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		buffer.setByte(i, remaining);
+	}
+
+	/**
+	 * @return the header at the start of the key, its length is
+	 *         {@link #varintLength(int)}
+	 */
+	private static int getHeader(final ByteBuffer compoundKey) {
+		int header = 0;
+		int shift = 0;
+		int i = 0;
+		byte b;
+		do {
+			b = compoundKey.get(i++);
+			header |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return header;
+	}
+
+	private static int getHeader(final ByteBuf compoundKey) {
+		int header = 0;
+		int shift = 0;
+		int i = 0;
+		byte b;
+		do {
+			b = compoundKey.getByte(i++);
+			header |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return header;
+	}
+
+	@Override
+	public ByteBuffer getHashKey(final ByteBuffer compoundKey) {
+		final int header = getHeader(compoundKey);
+		return Util.slice(compoundKey, varintLength(header), header >>> 1);
+	}
+
+	@Override
+	public ByteBuffer getRangeKey(final ByteBuffer compoundKey) {
+		final int header = getHeader(compoundKey);
+		final int rangeKeyStart = varintLength(header) + (header >>> 1);
+		final int rangeKeyLength = compoundKey.limit() - rangeKeyStart;
+		if ((header & END_FLAG) == 0 && rangeKeyLength > 0) {
+			return Util.slice(compoundKey, rangeKeyStart, rangeKeyLength);
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public ByteBuf getHashKey(final ByteBuf compoundKey) {
+		final int header = getHeader(compoundKey);
+		return compoundKey.slice(varintLength(header), header >>> 1);
+	}
+
+	@Override
+	public ByteBuf getRangeKey(final ByteBuf compoundKey) {
+		final int header = getHeader(compoundKey);
+		final int rangeKeyStart = varintLength(header) + (header >>> 1);
+		final int rangeKeyLength = compoundKey.writerIndex() - rangeKeyStart;
+		if ((header & END_FLAG) == 0 && rangeKeyLength > 0) {
+			return compoundKey.slice(rangeKeyStart, rangeKeyLength);
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public int compareKeys(final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final ByteBuffer k1, final ByteBuffer k2) {
+		final int k1Header = getHeader(k1);
+		final int k1HashKeyStart = varintLength(k1Header);
+		final int k1HashKeyEnd = k1HashKeyStart + (k1Header >>> 1);
+		final int k2Header = getHeader(k2);
+		final int k2HashKeyStart = varintLength(k2Header);
+		final int k2HashKeyEnd = k2HashKeyStart + (k2Header >>> 1);
+
+		final int hashComparison = compareRegions(hashKeyComparator, k1, k1HashKeyStart, k1HashKeyEnd, k2,
+				k2HashKeyStart, k2HashKeyEnd);
+
+		if (rangeKeyComparator != null && hashComparison == 0) {
+			final boolean k1End = (k1Header & END_FLAG) != 0;
+			final boolean k2End = (k2Header & END_FLAG) != 0;
+			if (k1End || k2End) {
+				return Boolean.compare(k1End, k2End);
+			}
+			return compareRegions(rangeKeyComparator, k1, k1HashKeyEnd, k1.limit(), k2, k2HashKeyEnd, k2.limit());
+		}
+
+		return hashComparison;
+	}
+
+	private static int compareRegions(final Comparator<ByteBuffer> comparator, final ByteBuffer k1, final int from1,
+			final int to1, final ByteBuffer k2, final int from2, final int to2) {
+		if (comparator instanceof RegionComparator) {
+			return ((RegionComparator) comparator).compareRegions(k1, from1, to1, k2, from2, to2);
+		} else {
+			return comparator.compare(Util.slice(k1, from1, to1 - from1), Util.slice(k2, from2, to2 - from2));
+		}
+	}
+
+	@Override
+	public boolean isBytewise() {
+		return false;
+	}
+
+	@Override
+	public String getName() {
+		return "compact-v" + VERSION;
+	}
+
+}
@@ -0,0 +1,158 @@
+package ezdb.util;
+
+import java.nio.ByteBuffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Buffers of the current thread that keys and values are serialized into and
+ * handed to the backend from, so the write path does not allocate a buffer per
+ * call. Heap buffers suit backends that accept arrays with offsets, direct
+ * buffers those that read native memory.
+ *
+ * A context has to be released once the backend call returned. Acquiring it
+ * again before that, e.g. from a serde that encodes compound keys itself, hands
+ * out a new context that is discarded on release.
+ */
+public final class EncoderContext {
+
+	private static final int INITIAL_CAPACITY = 64;
+	/**
+	 * Buffers that grew beyond this for a large key or value are shrunk on
+	 * release, so idle threads do not hold on to them.
+	 */
+	private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+	private static final ThreadLocal<EncoderContext> CONTEXTS = new ThreadLocal<EncoderContext>() {
+		@Override
+		protected EncoderContext initialValue() {
+			return new EncoderContext(true);
+		}
+	};
+
+	private final boolean shared;
+	private boolean inUse;
+	private ByteBuf key;
+	private ByteBuf value;
+	private ByteBuf directKey;
+	private ByteBuf directValue;
+
+	private EncoderContext(final boolean shared) {
+		this.shared = shared;
+	}
+
+	public static EncoderContext acquire() {
+		final EncoderContext context = CONTEXTS.get();
+		if (context.inUse) {
+			return new EncoderContext(false);
+		}
+		context.inUse = true;
+		return context;
+	}
+
+	/**
+	 * @return the cleared heap buffer for keys
+	 */
+	public ByteBuf key() {
+		key = clear(key, false);
+		return key;
+	}
+
+	/**
+	 * @return the cleared heap buffer for values
+	 */
+	public ByteBuf value() {
+		value = clear(value, false);
+		return value;
+	}
+
+	/**
+	 * @return the cleared direct buffer for keys
+	 */
+	public ByteBuf directKey() {
+		directKey = clear(directKey, true);
+		return directKey;
+	}
+
+	/**
+	 * @return the cleared direct buffer for values
+	 */
+	public ByteBuf directValue() {
+		directValue = clear(directValue, true);
+		return directValue;
+	}
+
+	private static ByteBuf clear(final ByteBuf buffer, final boolean direct) {
+		if (buffer == null) {
+			if (direct) {
+				return Unpooled.directBuffer(INITIAL_CAPACITY);
+			} else {
+				return Unpooled.buffer(INITIAL_CAPACITY);
+			}
+		}
+		return buffer.clear();
+	}
+
+	/**
+	 * @return a view of the readable bytes that is reused by the buffer instead of
+	 *         allocated per call, it is only valid until the buffer is modified
+	 */
+	public static ByteBuffer nioBuffer(final ByteBuf buffer) {
+		return buffer.internalNioBuffer(buffer.readerIndex(), buffer.readableBytes());
+	}
+
+	/**
+	 * @return the position of the first readable byte in the array of a heap
+	 *         buffer, for backends that take an array with offset and length
+	 */
+	public static int arrayOffset(final ByteBuf buffer) {
+		return buffer.arrayOffset() + buffer.readerIndex();
+	}
+
+	/**
+	 * @return the readable bytes as a new array of the exact size
+	 */
+	public static byte[] toBytes(final ByteBuf buffer) {
+		final byte[] bytes = new byte[buffer.readableBytes()];
+		buffer.getBytes(buffer.readerIndex(), bytes);
+		return bytes;
+	}
+
+	/**
+	 * @return the readable bytes as a new heap buffer of the exact size
+	 */
+	public static ByteBuffer toByteBuffer(final ByteBuf buffer) {
+		return ByteBuffer.wrap(toBytes(buffer));
+	}
+
+	public void release() {
+		if (shared) {
+			key = shrink(key);
+			value = shrink(value);
+			directKey = shrink(directKey);
+			directValue = shrink(directValue);
+			inUse = false;
+		} else {
+			free(key);
+			free(value);
+			free(directKey);
+			free(directValue);
+		}
+	}
+
+	private static ByteBuf shrink(final ByteBuf buffer) {
+		if (buffer != null && buffer.capacity() > MAX_RETAINED_CAPACITY) {
+			buffer.release();
+			return null;
+		}
+		return buffer;
+	}
+
+	private static void free(final ByteBuf buffer) {
+		if (buffer != null) {
+			buffer.release();
+		}
+	}
+
+}
@@ -0,0 +1,209 @@
+package ezdb.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A size bounded concurrent cache. Keys are spread over independently locked
+ * segments, each of them is an LRU map guarded by a small count-min sketch of
+ * the access frequencies: a new key only replaces the least recently used one if
+ * it was requested more often, so a scan over cold keys does not flush the hot
+ * ones out of the cache.
+ *
+ * Loads are guarded by stamps: a value loaded after {@link #stamp(Object)} is
+ * only stored if its segment was not invalidated in the meantime, so a load
+ * that raced with a write can not put a stale value into the cache.
+ *
+ * Null keys are supported, null values are not.
+ */
+public class FrequencyCache<K, V> {
+
+	private static final int MAX_SEGMENTS = 16;
+	private static final int MIN_SEGMENT_SIZE = 64;
+
+	private final Segment<K, V>[] segments;
+	private final int segmentMask;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public FrequencyCache(final int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("maximumSize should be positive: " + maximumSize);
+		}
+		int segmentCount = 1;
+		while (segmentCount < MAX_SEGMENTS && segmentCount * 2 * MIN_SEGMENT_SIZE <= maximumSize) {
+			segmentCount <<= 1;
+		}
+		this.segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = new Segment<K, V>(maximumSize / segmentCount);
+		}
+		this.segmentMask = segmentCount - 1;
+	}
+
+	/**
+	 * @return the cached value or null on a miss, either way the access is
+	 *         counted for the key
+	 */
+	public V get(final K key) {
+		final int hash = hash(key);
+		return segmentFor(hash).get(key, hash);
+	}
+
+	/**
+	 * @return the stamp to pass to {@link #put(Object, Object, long)} for a value
+	 *         that is loaded after this call
+	 */
+	public long stamp(final K key) {
+		return segmentFor(hash(key)).generation;
+	}
+
+	/**
+	 * Stores a loaded value unless its segment was invalidated since the stamp was
+	 * taken or the key is accessed less frequently than the one it would evict.
+	 *
+	 * @return true if the value was stored
+	 */
+	public boolean put(final K key, final V value, final long stamp) {
+		Objects.requireNonNull(value, "value");
+		final int hash = hash(key);
+		return segmentFor(hash).put(key, hash, value, stamp);
+	}
+
+	public void invalidate(final K key) {
+		segmentFor(hash(key)).invalidate(key);
+	}
+
+	public void invalidateIf(final Predicate<? super K> predicate) {
+		for (final Segment<K, V> segment : segments) {
+			segment.invalidateIf(predicate);
+		}
+	}
+
+	public void invalidateAll() {
+		invalidateIf(key -> true);
+	}
+
+	public int size() {
+		int size = 0;
+		for (final Segment<K, V> segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	private Segment<K, V> segmentFor(final int hash) {
+		return segments[(hash >>> 16) & segmentMask];
+	}
+
+	private static int hash(final Object key) {
+		// spread the bits since keys often have poor low bits, e.g. small integers
+		final int h = Objects.hashCode(key) * 0x9E3779B9;
+		return h ^ (h >>> 15);
+	}
+
+	private static final class Segment<K, V> {
+		private final int capacity;
+		private final LinkedHashMap<K, V> map;
+		private final FrequencySketch sketch;
+		private volatile long generation;
+
+		Segment(final int capacity) {
+			this.capacity = capacity;
+			this.map = new LinkedHashMap<K, V>(16, 0.75f, true);
+			this.sketch = new FrequencySketch(capacity);
+		}
+
+		synchronized V get(final K key, final int hash) {
+			sketch.increment(hash);
+			return map.get(key);
+		}
+
+		synchronized boolean put(final K key, final int hash, final V value, final long stamp) {
+			if (generation != stamp) {
+				return false;
+			}
+			if (map.size() >= capacity && !map.containsKey(key)) {
+				final Iterator<Map.Entry<K, V>> eldest = map.entrySet().iterator();
+				final K victim = eldest.next().getKey();
+				if (sketch.frequency(hash) <= sketch.frequency(FrequencyCache.hash(victim))) {
+					return false;
+				}
+				eldest.remove();
+			}
+			map.put(key, value);
+			return true;
+		}
+
+		synchronized void invalidate(final K key) {
+			map.remove(key);
+			generation++;
+		}
+
+		synchronized void invalidateIf(final Predicate<? super K> predicate) {
+			map.keySet().removeIf(predicate);
+			generation++;
+		}
+
+		synchronized int size() {
+			return map.size();
+		}
+	}
+
+	/**
+	 * Approximate access counts of the recent past, 4 rows of saturating counters
+	 * that are halved after a sample of accesses so old popularity fades.
+	 */
+	private static final class FrequencySketch {
+		private static final int DEPTH = 4;
+		private static final int MAX_COUNT = 15;
+		private static final int[] SEEDS = { 0x97CB3127, 0xB6A5E5B3, 0x2C5B1F9D, 0x6D2B79F5 };
+
+		private final byte[] counters;
+		private final int widthMask;
+		private final int sampleSize;
+		private int additions;
+
+		FrequencySketch(final int capacity) {
+			int width = 16;
+			while (width < capacity) {
+				width <<= 1;
+			}
+			this.counters = new byte[DEPTH * width];
+			this.widthMask = width - 1;
+			this.sampleSize = 10 * Math.max(capacity, 16);
+		}
+
+		void increment(final int hash) {
+			for (int row = 0; row < DEPTH; row++) {
+				final int index = index(hash, row);
+				if (counters[index] < MAX_COUNT) {
+					counters[index]++;
+				}
+			}
+			if (++additions >= sampleSize) {
+				for (int i = 0; i < counters.length; i++) {
+					counters[i] >>>= 1;
+				}
+				additions >>>= 1;
+			}
+		}
+
+		int frequency(final int hash) {
+			int frequency = MAX_COUNT;
+			for (int row = 0; row < DEPTH; row++) {
+				frequency = Math.min(frequency, counters[index(hash, row)]);
+			}
+			return frequency;
+		}
+
+		private int index(final int hash, final int row) {
+			int h = hash * SEEDS[row];
+			h ^= h >>> 17;
+			return row * (widthMask + 1) + (h & widthMask);
+		}
+	}
+
+}
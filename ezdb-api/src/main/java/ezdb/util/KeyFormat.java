@@ -0,0 +1,169 @@
+package ezdb.util;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import ezdb.comparator.BytewiseComparator;
+import ezdb.serde.Serde;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Defines how the hash key and the range key of a range table are combined
+ * into the single compound key that gets stored by the backend.
+ * 
+ * The format is chosen per table when it is created and has to stay the same
+ * for the lifetime of the persisted data.
+ */
+public interface KeyFormat {
+
+	/**
+	 * Writes the compound key for the given hash/range pair. A null range key
+	 * results in the smallest compound key for the given hash key.
+	 */
+	<H, R> void combineBuf(ByteBuf buffer, Serde<H> hashKeySerde, Serde<R> rangeKeySerde, H hashKey, R rangeKey);
+
+	/**
+	 * Writes a compound key that sorts after all compound keys of the given hash
+	 * key and before those of any larger hash key. Such a key is only used as a
+	 * seek target to find the last range key of a hash key and never stored.
+	 */
+	<H> void combineBufEnd(ByteBuf buffer, Serde<H> hashKeySerde, H hashKey);
+
+	/**
+	 * @return the hash key bytes of the compound key, positioned at zero
+	 */
+	ByteBuffer getHashKey(ByteBuffer compoundKey);
+
+	/**
+	 * @return the range key bytes of the compound key, positioned at zero, or
+	 *         null if no range key is present
+	 */
+	ByteBuffer getRangeKey(ByteBuffer compoundKey);
+
+	/**
+	 * @return the hash key bytes of the compound key
+	 */
+	ByteBuf getHashKey(ByteBuf compoundKey);
+
+	/**
+	 * @return the range key bytes of the compound key, or null if no range key is
+	 *         present
+	 */
+	ByteBuf getRangeKey(ByteBuf compoundKey);
+
+	/**
+	 * Compares two compound keys. When rangeKeyComparator is null, only the hash
+	 * keys are compared.
+	 */
+	int compareKeys(Comparator<ByteBuffer> hashKeyComparator, Comparator<ByteBuffer> rangeKeyComparator,
+			ByteBuffer k1, ByteBuffer k2);
+
+	/**
+	 * @return true if a plain unsigned byte comparison of two compound keys yields
+	 *         the same order as {@link #compareKeys}, thus the backend can use its
+	 *         native bytewise comparator instead of a java callback
+	 */
+	boolean isBytewise();
+
+	/**
+	 * @return the name of the layout, backends that persist the name of their
+	 *         comparator include it for formats other than the
+	 *         {@link LengthPrefixedKeyFormat}
+	 */
+	default String getName() {
+		return getClass().getSimpleName();
+	}
+
+	default <H, R> ByteBuffer combineBuffer(final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
+			final H hashKey, final R rangeKey) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.key();
+			combineBuf(buf, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			return EncoderContext.toByteBuffer(buf);
+		} finally {
+			context.release();
+		}
+	}
+
+	default <H, R> byte[] combineBytes(final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final H hashKey,
+			final R rangeKey) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.key();
+			combineBuf(buf, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			return EncoderContext.toBytes(buf);
+		} finally {
+			context.release();
+		}
+	}
+
+	default <H> ByteBuffer combineBufferEnd(final Serde<H> hashKeySerde, final H hashKey) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.key();
+			combineBufEnd(buf, hashKeySerde, hashKey);
+			return EncoderContext.toByteBuffer(buf);
+		} finally {
+			context.release();
+		}
+	}
+
+	default <H> byte[] combineBytesEnd(final Serde<H> hashKeySerde, final H hashKey) {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.key();
+			combineBufEnd(buf, hashKeySerde, hashKey);
+			return EncoderContext.toBytes(buf);
+		} finally {
+			context.release();
+		}
+	}
+
+	/**
+	 * Tables that compare both hash and range keys with the
+	 * {@link BytewiseComparator} use the {@link OrderedKeyFormat}, all others
+	 * keep using the {@link LengthPrefixedKeyFormat}.
+	 */
+	static KeyFormat valueOf(final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator) {
+		if (hashKeyComparator instanceof BytewiseComparator && rangeKeyComparator instanceof BytewiseComparator) {
+			return OrderedKeyFormat.get;
+		} else {
+			return LengthPrefixedKeyFormat.get;
+		}
+	}
+
+	/**
+	 * @param keyFormat The format requested for a new table, e.g. the
+	 *                  {@link CompactKeyFormat}, or null to choose it by the
+	 *                  comparators.
+	 */
+	static KeyFormat valueOf(final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
+		if (keyFormat == null) {
+			return valueOf(hashKeyComparator, rangeKeyComparator);
+		}
+		if (keyFormat.isBytewise() && !(hashKeyComparator instanceof BytewiseComparator
+				&& rangeKeyComparator instanceof BytewiseComparator)) {
+			throw new IllegalArgumentException(keyFormat.getName() + " requires the "
+					+ BytewiseComparator.class.getSimpleName() + " for hash and range keys");
+		}
+		return keyFormat;
+	}
+
+	/**
+	 * Rejects opening an existing table with another format than it was created
+	 * with, its stored keys would be misread.
+	 * 
+	 * @param existingName The {@link #getName()} of the format the table was
+	 *                     created with.
+	 */
+	static void checkSame(final String tableName, final String existingName, final KeyFormat keyFormat) {
+		if (!existingName.equals(keyFormat.getName())) {
+			throw new IllegalStateException("Table " + tableName + " was created with " + existingName
+					+ " but is opened with " + keyFormat.getName());
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package ezdb.util;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import ezdb.serde.Serde;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * The default compound key format: [hashKeyLength][hashKey][rangeKeyLength][rangeKey]
+ * with 4 byte lengths. Sorting such keys requires a comparator that parses the
+ * lengths, thus the backends have to install a java comparator. A range key
+ * length of {@link Util#END_RANGE_KEY_LENGTH} marks the end of a hash key.
+ */
+public class LengthPrefixedKeyFormat implements KeyFormat {
+
+	public static final LengthPrefixedKeyFormat get = new LengthPrefixedKeyFormat();
+
+	@Override
+	public <H, R> void combineBuf(final ByteBuf buffer, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
+			final H hashKey, final R rangeKey) {
+		Util.combineBuf(buffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+	}
+
+	@Override
+	public <H> void combineBufEnd(final ByteBuf buffer, final Serde<H> hashKeySerde, final H hashKey) {
+		Util.combineBufEnd(buffer, hashKeySerde, hashKey);
+	}
+
+	@Override
+	public <H, R> ByteBuffer combineBuffer(final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
+			final H hashKey, final R rangeKey) {
+		return Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+	}
+
+	@Override
+	public <H, R> byte[] combineBytes(final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final H hashKey,
+			final R rangeKey) {
+		return Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+	}
+
+	@Override
+	public ByteBuffer getHashKey(final ByteBuffer compoundKey) {
+		final int hashKeyLength = compoundKey.getInt(0);
+		return Util.slice(compoundKey, Integer.BYTES, hashKeyLength);
+	}
+
+	@Override
+	public ByteBuffer getRangeKey(final ByteBuffer compoundKey) {
+		int index = 0;
+		final int hashKeyLength = compoundKey.getInt(index);
+		index += Integer.BYTES + hashKeyLength;
+		final int rangeKeyLength = compoundKey.getInt(index);
+		index += Integer.BYTES;
+		if (rangeKeyLength > 0) {
+			return Util.slice(compoundKey, index, rangeKeyLength);
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public ByteBuf getHashKey(final ByteBuf compoundKey) {
+		final int hashKeyLength = compoundKey.getInt(0);
+		return compoundKey.slice(Integer.BYTES, hashKeyLength);
+	}
+
+	@Override
+	public ByteBuf getRangeKey(final ByteBuf compoundKey) {
+		int index = 0;
+		final int hashKeyLength = compoundKey.getInt(index);
+		index += Integer.BYTES + hashKeyLength;
+		final int rangeKeyLength = compoundKey.getInt(index);
+		index += Integer.BYTES;
+		if (rangeKeyLength > 0) {
+			return compoundKey.slice(index, rangeKeyLength);
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public int compareKeys(final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final ByteBuffer k1, final ByteBuffer k2) {
+		return Util.compareKeys(hashKeyComparator, rangeKeyComparator, k1, k2);
+	}
+
+	@Override
+	public boolean isBytewise() {
+		return false;
+	}
+
+}
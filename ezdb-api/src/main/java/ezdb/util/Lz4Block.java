@@ -0,0 +1,199 @@
+package ezdb.util;
+
+import java.util.Arrays;
+
+import ezdb.DbException;
+
+/**
+ * A small compressor for the LZ4 block format, without frame or checksum. It
+ * favours speed over ratio like the reference implementation: one hash probe
+ * per position and no lazy matching.
+ *
+ * A dictionary is passed as history directly in front of the input, so matches
+ * can reach back into it. The decoder needs the same dictionary to resolve
+ * them.
+ */
+public final class Lz4Block {
+
+	private static final int MIN_MATCH = 4;
+	/** The last literals of a block, the reference decoder copies them blindly. */
+	private static final int LAST_LITERALS = 5;
+	/** No match may start within this many bytes of the end of the input. */
+	private static final int MATCH_FIND_LIMIT = 12;
+	private static final int MAX_OFFSET = 65535;
+	private static final int HASH_LOG = 12;
+	public static final int HASH_TABLE_SIZE = 1 << HASH_LOG;
+	/** The longest dictionary that matches can still reach into. */
+	public static final int MAX_DICTIONARY_LENGTH = MAX_OFFSET;
+
+	private Lz4Block() {
+	}
+
+	/**
+	 * @return the size of the output buffer that fits the compressed form of any
+	 *         input of the given length
+	 */
+	public static int maxCompressedLength(final int length) {
+		return length + length / 255 + 16;
+	}
+
+	/**
+	 * Compresses the bytes of the input that follow the history.
+	 *
+	 * @param in        holds the history from historyStart up to offset, followed
+	 *                  by the bytes to compress
+	 * @param hashTable scratch space of {@link #HASH_TABLE_SIZE} entries
+	 * @return the number of bytes written to the output
+	 */
+	public static int compress(final byte[] in, final int historyStart, final int offset, final int length,
+			final byte[] out, final int outOffset, final int[] hashTable) {
+		final int end = offset + length;
+		final int matchLimit = end - LAST_LITERALS;
+		final int findLimit = end - MATCH_FIND_LIMIT;
+		Arrays.fill(hashTable, -1);
+		for (int p = Math.max(historyStart, offset - MAX_OFFSET); p < offset && p + MIN_MATCH <= end; p++) {
+			hashTable[hash(readInt(in, p))] = p;
+		}
+		int anchor = offset;
+		int ip = offset;
+		int op = outOffset;
+		while (ip < findLimit) {
+			final int sequence = readInt(in, ip);
+			final int h = hash(sequence);
+			int ref = hashTable[h];
+			hashTable[h] = ip;
+			if (ref < 0 || ip - ref > MAX_OFFSET || readInt(in, ref) != sequence) {
+				ip++;
+				continue;
+			}
+			while (ip > anchor && ref > historyStart && in[ip - 1] == in[ref - 1]) {
+				ip--;
+				ref--;
+			}
+			int matchLength = MIN_MATCH;
+			while (ip + matchLength < matchLimit && in[ref + matchLength] == in[ip + matchLength]) {
+				matchLength++;
+			}
+			op = writeSequence(in, anchor, ip - anchor, ip - ref, matchLength, out, op);
+			ip += matchLength;
+			anchor = ip;
+		}
+		op = writeLiterals(in, anchor, end - anchor, out, op);
+		return op - outOffset;
+	}
+
+	/**
+	 * Restores exactly the given number of bytes, matches before the start of the
+	 * output are read from the end of the dictionary.
+	 *
+	 * @param dictionary the dictionary used for compression, or null
+	 */
+	public static void decompress(final byte[] in, final int offset, final int length, final byte[] dictionary,
+			final byte[] out, final int outOffset, final int outLength) {
+		final int end = offset + length;
+		final int outEnd = outOffset + outLength;
+		int ip = offset;
+		int op = outOffset;
+		try {
+			while (true) {
+				final int token = in[ip++] & 0xFF;
+				int literals = token >>> 4;
+				if (literals == 15) {
+					int b;
+					do {
+						b = in[ip++] & 0xFF;
+						literals += b;
+					} while (b == 255);
+				}
+				System.arraycopy(in, ip, out, op, literals);
+				ip += literals;
+				op += literals;
+				if (ip >= end) {
+					break;
+				}
+				final int matchOffset = (in[ip++] & 0xFF) | (in[ip++] & 0xFF) << 8;
+				int matchLength = token & 0x0F;
+				if (matchLength == 15) {
+					int b;
+					do {
+						b = in[ip++] & 0xFF;
+						matchLength += b;
+					} while (b == 255);
+				}
+				matchLength += MIN_MATCH;
+				if (matchOffset == 0 || op + matchLength > outEnd) {
+					throw new DbException("Corrupt LZ4 block");
+				}
+				int ref = op - matchOffset;
+				for (final int matchEnd = op + matchLength; op < matchEnd; op++, ref++) {
+					if (ref >= outOffset) {
+						out[op] = out[ref];
+					} else {
+						out[op] = dictionary[dictionary.length - (outOffset - ref)];
+					}
+				}
+			}
+		} catch (final IndexOutOfBoundsException | NullPointerException e) {
+			throw new DbException("Corrupt LZ4 block", e);
+		}
+		if (ip != end || op != outEnd) {
+			throw new DbException("Corrupt LZ4 block");
+		}
+	}
+
+	private static int writeSequence(final byte[] in, final int literalStart, final int literals,
+			final int matchOffset, final int matchLength, final byte[] out, int op) {
+		final int tokenIndex = op++;
+		int token;
+		if (literals >= 15) {
+			token = 15 << 4;
+			op = writeLength(literals - 15, out, op);
+		} else {
+			token = literals << 4;
+		}
+		System.arraycopy(in, literalStart, out, op, literals);
+		op += literals;
+		out[op++] = (byte) matchOffset;
+		out[op++] = (byte) (matchOffset >>> 8);
+		final int extra = matchLength - MIN_MATCH;
+		if (extra >= 15) {
+			token |= 15;
+			op = writeLength(extra - 15, out, op);
+		} else {
+			token |= extra;
+		}
+		out[tokenIndex] = (byte) token;
+		return op;
+	}
+
+	private static int writeLiterals(final byte[] in, final int literalStart, final int literals, final byte[] out,
+			int op) {
+		if (literals >= 15) {
+			out[op++] = (byte) (15 << 4);
+			op = writeLength(literals - 15, out, op);
+		} else {
+			out[op++] = (byte) (literals << 4);
+		}
+		System.arraycopy(in, literalStart, out, op, literals);
+		return op + literals;
+	}
+
+	private static int writeLength(int length, final byte[] out, int op) {
+		while (length >= 255) {
+			out[op++] = (byte) 255;
+			length -= 255;
+		}
+		out[op++] = (byte) length;
+		return op;
+	}
+
+	private static int readInt(final byte[] in, final int index) {
+		return (in[index] & 0xFF) | (in[index + 1] & 0xFF) << 8 | (in[index + 2] & 0xFF) << 16
+				| (in[index + 3] & 0xFF) << 24;
+	}
+
+	private static int hash(final int sequence) {
+		return (sequence * -1640531535) >>> (32 - HASH_LOG);
+	}
+
+}
@@ -0,0 +1,309 @@
+package ezdb.util;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import ezdb.comparator.BytewiseComparator;
+import ezdb.serde.OrderedLongSerde;
+import ezdb.serde.Serde;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * An order-preserving compound key format: [escapedHashKey][0x00 0x01][rangeKey]
+ * 
+ * Every 0x00 byte of the hash key is escaped as 0x00 0xFF and the hash key is
+ * terminated by 0x00 0x01. This makes the encoded hash keys prefix free while
+ * keeping their unsigned byte order, so the range key can be appended as is. A
+ * plain unsigned byte comparison (memcmp) of two compound keys then sorts by
+ * hash key first and by range key second, which allows the backends to use
+ * their native bytewise comparator.
+ * 
+ * The serdes have to produce bytes whose unsigned order matches the desired
+ * order of the keys (see e.g. {@link ezdb.serde.OrderedLongSerde}). An empty
+ * range key is decoded as null, just like in the
+ * {@link LengthPrefixedKeyFormat}.
+ */
+public class OrderedKeyFormat implements KeyFormat {
+
+	public static final OrderedKeyFormat get = new OrderedKeyFormat();
+
+	private static final byte ESCAPE = 0x00;
+	private static final byte ESCAPED_ZERO = (byte) 0xFF;
+	private static final byte TERMINATOR = 0x01;
+	private static final byte END_TERMINATOR = 0x02;
+	private static final int TERMINATOR_LENGTH = 2;
+
+	@Override
+	public <H, R> void combineBuf(final ByteBuf buffer, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
+			final H hashKey, final R rangeKey) {
+		if (hashKey != null) {
+			final int hashKeyStart = buffer.writerIndex();
+			hashKeySerde.toBuffer(buffer, hashKey);
+			escape(buffer, hashKeyStart, buffer.writerIndex());
+		}
+		buffer.writeByte(ESCAPE);
+		buffer.writeByte(TERMINATOR);
+		if (rangeKey != null) {
+			rangeKeySerde.toBuffer(buffer, rangeKey);
+		}
+	}
+
+	/**
+	 * Terminates the hash key with 0x00 0x02, which sorts after every range key
+	 * that follows the regular terminator.
+	 */
+	@Override
+	public <H> void combineBufEnd(final ByteBuf buffer, final Serde<H> hashKeySerde, final H hashKey) {
+		if (hashKey != null) {
+			final int hashKeyStart = buffer.writerIndex();
+			hashKeySerde.toBuffer(buffer, hashKey);
+			escape(buffer, hashKeyStart, buffer.writerIndex());
+		}
+		buffer.writeByte(ESCAPE);
+		buffer.writeByte(END_TERMINATOR);
+	}
+
+	/**
+	 * Writes the escaped and terminated hash key, which is the compound key of a
+	 * null range key, at the position of the buffer without going through a serde.
+	 * Primitive tables use this to encode their keys into reused buffers.
+	 */
+	public static void putHashKey(final ByteBuffer buffer, final byte[] hashKey) {
+		for (int i = 0; i < hashKey.length; i++) {
+			putEscaped(buffer, hashKey[i]);
+		}
+		buffer.put(ESCAPE);
+		buffer.put(TERMINATOR);
+	}
+
+	/**
+	 * Same as {@link #putHashKey(ByteBuffer, byte[])} for a hash key that
+	 * {@link OrderedLongSerde} would serialize.
+	 */
+	public static void putHashKey(final ByteBuffer buffer, final long hashKey) {
+		final long encoded = OrderedLongSerde.encode(hashKey);
+		for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+			putEscaped(buffer, (byte) (encoded >>> shift));
+		}
+		buffer.put(ESCAPE);
+		buffer.put(TERMINATOR);
+	}
+
+	private static void putEscaped(final ByteBuffer buffer, final byte b) {
+		buffer.put(b);
+		if (b == ESCAPE) {
+			buffer.put(ESCAPED_ZERO);
+		}
+	}
+
+	/**
+	 * @return the maximum length of a hash key with the given number of bytes once
+	 *         it is escaped and terminated
+	 */
+	public static int maxHashKeyLength(final int hashKeyLength) {
+		return hashKeyLength * 2 + TERMINATOR_LENGTH;
+	}
+
+	/**
+	 * @param hashKey       A buffer starting with a hash key written by
+	 *                      {@link #putHashKey(ByteBuffer, byte[])}.
+	 * @param hashKeyLength The length of the escaped and terminated hash key.
+	 * @return true if the compound key has the same hash key, since the encoding
+	 *         is prefix free this is a plain prefix comparison
+	 */
+	public static boolean hasHashKey(final ByteBuffer compoundKey, final ByteBuffer hashKey,
+			final int hashKeyLength) {
+		if (compoundKey.limit() < hashKeyLength) {
+			return false;
+		}
+		for (int i = 0; i < hashKeyLength; i++) {
+			if (compoundKey.get(i) != hashKey.get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Escapes the zero bytes in place, shifting the following bytes to the back.
+	 */
+	private static void escape(final ByteBuf buffer, final int start, final int end) {
+		int zeros = 0;
+		for (int i = start; i < end; i++) {
+			if (buffer.getByte(i) == ESCAPE) {
+				zeros++;
+			}
+		}
+		if (zeros == 0) {
+			return;
+		}
+		buffer.ensureWritable(zeros);
+		buffer.writerIndex(end + zeros);
+		int write = end + zeros - 1;
+		for (int read = end - 1; read >= start; read--) {
+			final byte b = buffer.getByte(read);
+			if (b == ESCAPE) {
+				buffer.setByte(write--, ESCAPED_ZERO);
+				buffer.setByte(write--, ESCAPE);
+			} else {
+				buffer.setByte(write--, b);
+			}
+		}
+	}
+
+	/**
+	 * @return the index of the terminator, or -1 if the key is malformed
+	 */
+	private static int indexOfTerminator(final ByteBuffer compoundKey) {
+		final int limit = compoundKey.limit() - 1;
+		for (int i = 0; i < limit; i++) {
+			if (compoundKey.get(i) == ESCAPE) {
+				if (compoundKey.get(i + 1) == TERMINATOR) {
+					return i;
+				}
+				// skip escaped zero
+				i++;
+			}
+		}
+		return -1;
+	}
+
+	private static int indexOfTerminator(final ByteBuf compoundKey) {
+		final int limit = compoundKey.writerIndex() - 1;
+		for (int i = 0; i < limit; i++) {
+			if (compoundKey.getByte(i) == ESCAPE) {
+				if (compoundKey.getByte(i + 1) == TERMINATOR) {
+					return i;
+				}
+				// skip escaped zero
+				i++;
+			}
+		}
+		return -1;
+	}
+
+	private static int checkTerminator(final int terminator) {
+		if (terminator < 0) {
+			throw new IllegalArgumentException("Compound key is missing the hash key terminator");
+		}
+		return terminator;
+	}
+
+	@Override
+	public ByteBuffer getHashKey(final ByteBuffer compoundKey) {
+		final int terminator = checkTerminator(indexOfTerminator(compoundKey));
+		int zeros = 0;
+		for (int i = 0; i < terminator; i++) {
+			if (compoundKey.get(i) == ESCAPE) {
+				zeros++;
+				i++;
+			}
+		}
+		if (zeros == 0) {
+			return Util.slice(compoundKey, 0, terminator);
+		}
+		final ByteBuffer hashKey = ByteBuffer.allocate(terminator - zeros);
+		for (int i = 0; i < terminator; i++) {
+			final byte b = compoundKey.get(i);
+			hashKey.put(b);
+			if (b == ESCAPE) {
+				i++;
+			}
+		}
+		hashKey.clear();
+		return hashKey;
+	}
+
+	@Override
+	public ByteBuffer getRangeKey(final ByteBuffer compoundKey) {
+		final int rangeKeyStart = checkTerminator(indexOfTerminator(compoundKey)) + TERMINATOR_LENGTH;
+		final int rangeKeyLength = compoundKey.limit() - rangeKeyStart;
+		if (rangeKeyLength > 0) {
+			return Util.slice(compoundKey, rangeKeyStart, rangeKeyLength);
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public ByteBuf getHashKey(final ByteBuf compoundKey) {
+		final int terminator = checkTerminator(indexOfTerminator(compoundKey));
+		int zeros = 0;
+		for (int i = 0; i < terminator; i++) {
+			if (compoundKey.getByte(i) == ESCAPE) {
+				zeros++;
+				i++;
+			}
+		}
+		if (zeros == 0) {
+			return compoundKey.slice(0, terminator);
+		}
+		final ByteBuf hashKey = compoundKey.alloc().heapBuffer(terminator - zeros);
+		for (int i = 0; i < terminator; i++) {
+			final byte b = compoundKey.getByte(i);
+			hashKey.writeByte(b);
+			if (b == ESCAPE) {
+				i++;
+			}
+		}
+		return hashKey;
+	}
+
+	@Override
+	public ByteBuf getRangeKey(final ByteBuf compoundKey) {
+		final int rangeKeyStart = checkTerminator(indexOfTerminator(compoundKey)) + TERMINATOR_LENGTH;
+		final int rangeKeyLength = compoundKey.writerIndex() - rangeKeyStart;
+		if (rangeKeyLength > 0) {
+			return compoundKey.slice(rangeKeyStart, rangeKeyLength);
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * The comparators are ignored, since this format is only used when both are a
+	 * {@link BytewiseComparator}.
+	 */
+	@Override
+	public int compareKeys(final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final ByteBuffer k1, final ByteBuffer k2) {
+		if (rangeKeyComparator == null) {
+			return compareHashKeys(k1, k2);
+		} else {
+			return BytewiseComparator.compare(k1, 0, k1.limit(), k2, 0, k2.limit());
+		}
+	}
+
+	/**
+	 * Compares the escaped hash keys including their terminator. Since the
+	 * encoding is prefix free, the first difference decides, and reaching a common
+	 * terminator means the hash keys are equal.
+	 */
+	private static int compareHashKeys(final ByteBuffer k1, final ByteBuffer k2) {
+		final int length = Math.min(k1.limit(), k2.limit());
+		boolean escaped = false;
+		for (int i = 0; i < length; i++) {
+			final byte b1 = k1.get(i);
+			final byte b2 = k2.get(i);
+			if (escaped) {
+				if (b1 != ESCAPED_ZERO && b2 != ESCAPED_ZERO) {
+					// regular or end terminator on both sides
+					return 0;
+				}
+				escaped = false;
+			} else if (b1 == ESCAPE && b2 == ESCAPE) {
+				escaped = true;
+			}
+			if (b1 != b2) {
+				return Integer.compare(b1 & 0xFF, b2 & 0xFF);
+			}
+		}
+		return Integer.compare(k1.limit(), k2.limit());
+	}
+
+	@Override
+	public boolean isBytewise() {
+		return true;
+	}
+
+}
@@ -0,0 +1,120 @@
+package ezdb.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Scans a list of ordered parts, e.g. hash keys or key ranges, with one table
+ * iterator per part. A parallel stream splits off halves of the parts that were
+ * not started yet, so each worker scans whole parts on its own iterator.
+ *
+ * Iterators are closed as soon as their part is exhausted, the ones left open by
+ * a short-circuiting stream are closed together with the stream.
+ */
+public class PartitionedSpliterator<P, E> implements Spliterator<E> {
+
+	private final List<? extends P> parts;
+	private final Function<? super P, ? extends TableIterator<? extends E>> opener;
+	private final Set<TableIterator<? extends E>> openIterators;
+	private int index;
+	private final int end;
+	private TableIterator<? extends E> current;
+
+	public PartitionedSpliterator(final List<? extends P> parts,
+			final Function<? super P, ? extends TableIterator<? extends E>> opener) {
+		this(parts, opener, Collections.newSetFromMap(new ConcurrentHashMap<TableIterator<? extends E>, Boolean>()),
+				0, parts.size(), null);
+	}
+
+	private PartitionedSpliterator(final List<? extends P> parts,
+			final Function<? super P, ? extends TableIterator<? extends E>> opener,
+			final Set<TableIterator<? extends E>> openIterators, final int index, final int end,
+			final TableIterator<? extends E> current) {
+		this.parts = parts;
+		this.opener = opener;
+		this.openIterators = openIterators;
+		this.index = index;
+		this.end = end;
+		this.current = current;
+	}
+
+	/**
+	 * @return a sequential stream over all parts that has to be closed to release
+	 *         iterators of parts that were not fully consumed
+	 */
+	public static <P, E> Stream<E> stream(final List<? extends P> parts,
+			final Function<? super P, ? extends TableIterator<? extends E>> opener) {
+		final PartitionedSpliterator<P, E> spliterator = new PartitionedSpliterator<P, E>(parts, opener);
+		return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super E> action) {
+		while (true) {
+			if (current == null) {
+				if (index >= end) {
+					return false;
+				}
+				current = opener.apply(parts.get(index++));
+				openIterators.add(current);
+			}
+			if (current.hasNext()) {
+				action.accept(current.next());
+				return true;
+			}
+			closeCurrent();
+		}
+	}
+
+	@Override
+	public Spliterator<E> trySplit() {
+		final int remaining = end - index;
+		if (remaining < 2) {
+			return null;
+		}
+		// the prefix is handed off including a part that is in progress, so the
+		// encounter order stays intact
+		final int mid = index + remaining / 2;
+		final PartitionedSpliterator<P, E> prefix = new PartitionedSpliterator<P, E>(parts, opener, openIterators,
+				index, mid, current);
+		index = mid;
+		current = null;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	/**
+	 * Closes all iterators that are still open, including those of spliterators
+	 * that were split off.
+	 */
+	public void close() {
+		for (final TableIterator<? extends E> iterator : openIterators) {
+			iterator.close();
+		}
+		openIterators.clear();
+		current = null;
+	}
+
+	private void closeCurrent() {
+		openIterators.remove(current);
+		current.close();
+		current = null;
+	}
+
+}
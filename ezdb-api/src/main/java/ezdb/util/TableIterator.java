@@ -3,9 +3,7 @@ package ezdb.util;
 import java.io.Closeable;
 import java.util.Iterator;
 
-import ezdb.table.TableRow;
-
-public interface TableIterator<E extends TableRow<?, ?>> extends Iterator<E>, Closeable {
+public interface TableIterator<E> extends Iterator<E>, Closeable {
 	/**
 	 * Close the iterator and release all resources.
 	 */
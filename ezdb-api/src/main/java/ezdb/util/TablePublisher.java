@@ -0,0 +1,234 @@
+package ezdb.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Publishes the elements of a table iterator with backpressure, only reading as
+ * many elements as the subscriber requested. The nested interfaces have the
+ * same methods as the ones of <code>java.util.concurrent.Flow</code>, which is
+ * not available on java 8, so they can be bridged with plain delegation.
+ *
+ * The iterator is opened on the first request and closed as soon as the scan
+ * completes, fails or gets cancelled. A resumable publisher also closes it
+ * whenever the requested elements were delivered, and reopens it after the
+ * last delivered element once more is requested, so a slow subscriber does not
+ * pin backend resources between its requests. Elements written in the meantime
+ * can then show up in the scan.
+ *
+ * Elements are delivered on the thread calling {@link Subscription#request(long)}
+ * or on the executor given by {@link #publishOn(Executor)}, never concurrently.
+ */
+public class TablePublisher<E> {
+
+	public interface Subscriber<E> {
+		void onSubscribe(Subscription subscription);
+
+		void onNext(E item);
+
+		void onError(Throwable throwable);
+
+		void onComplete();
+	}
+
+	public interface Subscription {
+		void request(long n);
+
+		void cancel();
+	}
+
+	private final Function<? super E, ? extends TableIterator<? extends E>> opener;
+	private final BiPredicate<? super E, ? super E> sameKey;
+	private final Executor executor;
+
+	/**
+	 * @param opener  Opens the iterator, given null for the initial scan or the
+	 *                last delivered element when resuming.
+	 * @param sameKey Tells whether two elements have the same key, so the
+	 *                delivered element can be skipped when the resumed scan
+	 *                starts with it. Null if the publisher is not resumable, then
+	 *                the opener is only called once.
+	 */
+	public TablePublisher(final Function<? super E, ? extends TableIterator<? extends E>> opener,
+			final BiPredicate<? super E, ? super E> sameKey) {
+		this(opener, sameKey, null);
+	}
+
+	private TablePublisher(final Function<? super E, ? extends TableIterator<? extends E>> opener,
+			final BiPredicate<? super E, ? super E> sameKey, final Executor executor) {
+		this.opener = opener;
+		this.sameKey = sameKey;
+		this.executor = executor;
+	}
+
+	/**
+	 * @return a publisher that reads and delivers the elements on the given
+	 *         executor instead of the requesting thread, e.g. to keep blocking
+	 *         reads off an event loop
+	 */
+	public TablePublisher<E> publishOn(final Executor executor) {
+		return new TablePublisher<E>(opener, sameKey, executor);
+	}
+
+	public void subscribe(final Subscriber<? super E> subscriber) {
+		subscriber.onSubscribe(new IteratorSubscription(subscriber));
+	}
+
+	private final class IteratorSubscription implements Subscription, Runnable {
+		private final Subscriber<? super E> subscriber;
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile Throwable invalidRequest;
+		// only touched while holding wip
+		private boolean done;
+		private TableIterator<? extends E> iterator;
+		private E last;
+		private E peeked;
+
+		private IteratorSubscription(final Subscriber<? super E> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(final long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("Requested " + n + " elements, expected at least 1");
+			} else {
+				long current;
+				long next;
+				do {
+					current = requested.get();
+					if (current == Long.MAX_VALUE) {
+						break;
+					}
+					next = current + n;
+					if (next < 0) {
+						next = Long.MAX_VALUE;
+					}
+				} while (!requested.compareAndSet(current, next));
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			// the iterator is closed by the draining thread, it is not thread safe
+			schedule();
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			if (executor == null) {
+				run();
+			} else {
+				try {
+					executor.execute(this);
+				} catch (final Throwable t) {
+					done = true;
+					subscriber.onError(t);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			while (true) {
+				drain();
+				missed = wip.addAndGet(-missed);
+				if (missed == 0) {
+					return;
+				}
+			}
+		}
+
+		private void drain() {
+			if (done) {
+				return;
+			}
+			if (cancelled) {
+				terminate();
+				return;
+			}
+			if (invalidRequest != null) {
+				terminate();
+				subscriber.onError(invalidRequest);
+				return;
+			}
+			try {
+				final long demand = requested.get();
+				long emitted = 0;
+				while (emitted < demand) {
+					if (cancelled) {
+						terminate();
+						return;
+					}
+					if (!hasNext()) {
+						terminate();
+						subscriber.onComplete();
+						return;
+					}
+					last = next();
+					emitted++;
+					subscriber.onNext(last);
+				}
+				if (demand != Long.MAX_VALUE && emitted > 0 && requested.addAndGet(-emitted) == 0
+						&& iterator != null) {
+					if (!hasNext()) {
+						terminate();
+						subscriber.onComplete();
+					} else if (sameKey != null) {
+						iterator.close();
+						iterator = null;
+						peeked = null;
+					}
+				}
+			} catch (final Throwable t) {
+				terminate();
+				subscriber.onError(t);
+			}
+		}
+
+		private boolean hasNext() {
+			if (iterator == null) {
+				final E resumeAfter = last;
+				iterator = opener.apply(resumeAfter);
+				if (resumeAfter != null && iterator.hasNext()) {
+					final E first = iterator.next();
+					if (!sameKey.test(first, resumeAfter)) {
+						// the delivered element was deleted meanwhile
+						peeked = first;
+					}
+				}
+			}
+			return peeked != null || iterator.hasNext();
+		}
+
+		private E next() {
+			if (peeked != null) {
+				final E next = peeked;
+				peeked = null;
+				return next;
+			}
+			return iterator.next();
+		}
+
+		private void terminate() {
+			done = true;
+			if (iterator != null) {
+				final TableIterator<? extends E> closing = iterator;
+				iterator = null;
+				peeked = null;
+				closing.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,39 @@
+package ezdb.util;
+
+import java.util.function.Function;
+
+/**
+ * Converts each element of another iterator, e.g. to project rows onto their
+ * keys or values.
+ */
+public class TransformingTableIterator<E, O> implements TableIterator<O> {
+	private final TableIterator<? extends E> delegate;
+	private final Function<? super E, ? extends O> transform;
+
+	public TransformingTableIterator(final TableIterator<? extends E> delegate,
+			final Function<? super E, ? extends O> transform) {
+		this.delegate = delegate;
+		this.transform = transform;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return delegate.hasNext();
+	}
+
+	@Override
+	public O next() {
+		return transform.apply(delegate.next());
+	}
+
+	@Override
+	public void remove() {
+		delegate.remove();
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+}
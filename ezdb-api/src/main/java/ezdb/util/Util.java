@@ -7,14 +7,19 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.Comparator;
 
+import ezdb.comparator.RegionComparator;
 import ezdb.serde.Serde;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufAllocator;
 
 public class Util {
 
 	private static final ISliceInvoker SLICE_INVOKER;
 	public static final byte[] EMPTY_BYTES = new byte[0];
+	/**
+	 * Range key length of the end marker written by
+	 * {@link #combineBufEnd(ByteBuf, Serde, Object)}.
+	 */
+	public static final int END_RANGE_KEY_LENGTH = -1;
 
 	static {
 		SLICE_INVOKER = newSliceInvoker();
@@ -65,6 +70,16 @@ public class Util {
 		combineBuf(buffer, rangeKeySerde, rangeKey);
 	}
 
+	/**
+	 * Writes a compound key that sorts after all range keys of the given hash key
+	 * and before any larger hash key. It is only used as a seek target and never
+	 * stored.
+	 */
+	public static <H> void combineBufEnd(final ByteBuf buffer, final Serde<H> hashKeySerde, final H hashKey) {
+		combineBuf(buffer, hashKeySerde, hashKey);
+		buffer.writeInt(END_RANGE_KEY_LENGTH);
+	}
+
 	public static <V> void combineBuf(final ByteBuf buffer, final Serde<V> serde, final V value) {
 		if (value == null) {
 			buffer.writeInt(0);
@@ -80,14 +95,15 @@ public class Util {
 
 	public static <H, R> ByteBuffer combineBuffer(final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
 			final H hashKey, final R rangeKey) {
-		final ByteBuf buf = ByteBufAllocator.DEFAULT.heapBuffer();
-		combineBuf(buf, hashKeySerde, hashKey);
-		combineBuf(buf, rangeKeySerde, rangeKey);
-
-		final ByteBuffer buffer = toByteBuffer(buf);
-		buf.release(buf.refCnt());
-		buffer.clear();
-		return buffer;
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.key();
+			combineBuf(buf, hashKeySerde, hashKey);
+			combineBuf(buf, rangeKeySerde, rangeKey);
+			return EncoderContext.toByteBuffer(buf);
+		} finally {
+			context.release();
+		}
 	}
 
 	public static ByteBuffer toByteBuffer(final ByteBuf buf) {
@@ -98,13 +114,15 @@ public class Util {
 
 	public static <H, R> byte[] combineBytes(final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final H hashKey,
 			final R rangeKey) {
-		final ByteBuf buf = ByteBufAllocator.DEFAULT.heapBuffer();
-		combineBuf(buf, hashKeySerde, hashKey);
-		combineBuf(buf, rangeKeySerde, rangeKey);
-
-		final byte[] bytes = toByteArray(buf);
-		buf.release(buf.refCnt());
-		return bytes;
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf buf = context.key();
+			combineBuf(buf, hashKeySerde, hashKey);
+			combineBuf(buf, rangeKeySerde, rangeKey);
+			return EncoderContext.toBytes(buf);
+		} finally {
+			context.release();
+		}
 	}
 
 	public static <H, R> byte[] combineBytes(final Serde<H> hashKeySerde, final H hashKey) {
@@ -125,8 +143,19 @@ public class Util {
 		return buffer;
 	}
 
+	/**
+	 * Compares two compound keys in the length prefixed format. When both
+	 * comparators are a {@link RegionComparator}, the hash and range keys are
+	 * compared in place, otherwise they are sliced into new buffers.
+	 */
 	public static int compareKeys(final Comparator<ByteBuffer> hashKeyComparator,
 			final Comparator<ByteBuffer> rangeKeyComparator, final ByteBuffer k1, final ByteBuffer k2) {
+		if (hashKeyComparator instanceof RegionComparator
+				&& (rangeKeyComparator == null || rangeKeyComparator instanceof RegionComparator)) {
+			return compareKeyRegions((RegionComparator) hashKeyComparator, (RegionComparator) rangeKeyComparator, k1,
+					k2);
+		}
+
 		// First hash key
 		int k1Index = 0;
 		final int k1HashKeyLength = k1.getInt(k1Index);
@@ -142,26 +171,79 @@ public class Util {
 		final int hashComparison = hashKeyComparator.compare(k1HashKeyBytes, k2HashKeyBytes);
 
 		if (rangeKeyComparator != null && hashComparison == 0) {
-			// First range key
 			k1Index += k1HashKeyLength;
 			final int k1RangeKeyLength = k1.getInt(k1Index);
 			k1Index += Integer.BYTES;
+			k2Index += k2HashKeyLength;
+			final int k2RangeKeyLength = k2.getInt(k2Index);
+			k2Index += Integer.BYTES;
+			if (k1RangeKeyLength == END_RANGE_KEY_LENGTH || k2RangeKeyLength == END_RANGE_KEY_LENGTH) {
+				return compareEndRangeKeys(k1RangeKeyLength, k2RangeKeyLength);
+			}
+
+			// First range key
 			final ByteBuffer k1RangeKeyBytes = slice(k1, k1Index, k1RangeKeyLength);
 
 			// Second range key
+			final ByteBuffer k2RangeKeyBytes = slice(k2, k2Index, k2RangeKeyLength);
+
+			return rangeKeyComparator.compare(k1RangeKeyBytes, k2RangeKeyBytes);
+		}
+
+		return hashComparison;
+	}
+
+	private static int compareKeyRegions(final RegionComparator hashKeyComparator,
+			final RegionComparator rangeKeyComparator, final ByteBuffer k1, final ByteBuffer k2) {
+		int k1Index = 0;
+		final int k1HashKeyLength = k1.getInt(k1Index);
+		k1Index += Integer.BYTES;
+		int k2Index = 0;
+		final int k2HashKeyLength = k2.getInt(k2Index);
+		k2Index += Integer.BYTES;
+
+		final int hashComparison = hashKeyComparator.compareRegions(k1, k1Index, k1Index + k1HashKeyLength, k2,
+				k2Index, k2Index + k2HashKeyLength);
+
+		if (rangeKeyComparator != null && hashComparison == 0) {
+			k1Index += k1HashKeyLength;
+			final int k1RangeKeyLength = k1.getInt(k1Index);
+			k1Index += Integer.BYTES;
 			k2Index += k2HashKeyLength;
 			final int k2RangeKeyLength = k2.getInt(k2Index);
 			k2Index += Integer.BYTES;
-			final ByteBuffer k2RangeKeyBytes = slice(k2, k2Index, k2RangeKeyLength);
+			if (k1RangeKeyLength == END_RANGE_KEY_LENGTH || k2RangeKeyLength == END_RANGE_KEY_LENGTH) {
+				return compareEndRangeKeys(k1RangeKeyLength, k2RangeKeyLength);
+			}
 
-			return rangeKeyComparator.compare(k1RangeKeyBytes, k2RangeKeyBytes);
+			return rangeKeyComparator.compareRegions(k1, k1Index, k1Index + k1RangeKeyLength, k2, k2Index,
+					k2Index + k2RangeKeyLength);
 		}
 
 		return hashComparison;
 	}
 
+	/**
+	 * The end marker sorts after every range key of the same hash key.
+	 */
+	public static int compareEndRangeKeys(final int k1RangeKeyLength, final int k2RangeKeyLength) {
+		final boolean k1End = k1RangeKeyLength == END_RANGE_KEY_LENGTH;
+		final boolean k2End = k2RangeKeyLength == END_RANGE_KEY_LENGTH;
+		if (k1End == k2End) {
+			return 0;
+		} else if (k1End) {
+			return 1;
+		} else {
+			return -1;
+		}
+	}
+
 	public static int compareKeys(final Comparator<ByteBuffer> hashKeyComparator, final ByteBuffer k1,
 			final ByteBuffer k2) {
+		if (hashKeyComparator instanceof RegionComparator) {
+			return ((RegionComparator) hashKeyComparator).compareRegions(k1, 0, k1.capacity(), k2, 0, k2.capacity());
+		}
+
 		// First hash key
 		final int k1Index = 0;
 		final int k1HashKeyLength = k1.capacity();
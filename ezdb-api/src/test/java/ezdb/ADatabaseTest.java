@@ -0,0 +1,266 @@
+package ezdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import ezdb.comparator.BytewiseComparator;
+import ezdb.comparator.LexicographicalComparator;
+import ezdb.comparator.RegionComparator;
+import ezdb.metrics.InstrumentedDb;
+import ezdb.metrics.InstrumentedRegionComparator;
+import ezdb.metrics.TableMetrics;
+import ezdb.serde.ByteSerde;
+import ezdb.serde.IntegerSerde;
+import ezdb.serde.OrderedLongSerde;
+import ezdb.serde.StringSerde;
+import ezdb.table.RangeTableRow;
+import ezdb.table.range.AsyncRangeTable;
+import ezdb.table.range.ChunkedSeriesTable;
+import ezdb.table.range.RangeTable;
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.TableIterator;
+
+/**
+ * Tests that every implementation has to pass. The tests of an implementation
+ * extend it and provide the database, the tables are deleted by their cleanup.
+ */
+public abstract class ADatabaseTest {
+
+	protected abstract Db<ByteBuffer> getDb();
+
+	@Test
+	public void testRangeView() {
+		final Db<ByteBuffer> ezdb = getDb();
+		ezdb.deleteTable("test-view");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-view", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(0, 1, 1);
+		table.put(1, 0);
+		table.put(1, 2, 2);
+		table.put(1, 4, 3);
+		table.put(2, 1, 4);
+
+		TableIterator<RangeTableRowView<Integer, Integer, Integer>> range = table.rangeView(1);
+		final RangeTableRowView<Integer, Integer, Integer> first = range.next();
+		assertEquals(new Integer(1), first.getHashKey());
+		assertEquals(null, first.getRangeKey());
+		assertEquals(null, first.getRangeKeyBuffer());
+		assertEquals(new Integer(0), first.getValue());
+		final RangeTableRow<Integer, Integer, Integer> copy = first.copy();
+		final RangeTableRowView<Integer, Integer, Integer> second = range.next();
+		assertTrue(first == second);
+		assertEquals(new RawRangeTableRow<Integer, Integer, Integer>(1, null, 0), copy);
+		assertEquals(new RawRangeTableRow<Integer, Integer, Integer>(1, 2, 2), second.copy());
+		final int[] holder = new int[1];
+		assertEquals(2, second.getRangeKey((buffer, h) -> h[0] = buffer.getInt(buffer.position()), holder)[0]);
+		assertEquals(2, second.getValueBuffer().getInt(second.getValueBuffer().position()));
+		assertEquals(new Integer(3), range.next().getValue());
+		assertTrue(!range.hasNext());
+		range.close();
+
+		range = table.rangeView(1, 1, 2);
+		assertEquals(new Integer(2), range.next().getValue());
+		assertTrue(!range.hasNext());
+		range.close();
+
+		range = table.rangeView(1, 3, null);
+		assertEquals(new Integer(4), range.next().getRangeKey());
+		assertTrue(!range.hasNext());
+		range.close();
+
+		final List<Integer> values = new ArrayList<Integer>();
+		range = table.rangeView(null);
+		while (range.hasNext()) {
+			values.add(range.next().getValue());
+		}
+		range.close();
+		assertEquals(Arrays.asList(1, 0, 2, 3, 4), values);
+
+		range = table.rangeView(3);
+		assertTrue(!range.hasNext());
+		range.close();
+		table.close();
+	}
+
+	@Test
+	public void testRangeViewOfRows() {
+		final Db<ByteBuffer> ezdb = getDb();
+		ezdb.deleteTable("test-view-rows");
+		final RangeTable<String, Long, byte[]> chunks = ezdb.getRangeTable("test-view-rows", StringSerde.get,
+				OrderedLongSerde.get, ByteSerde.get, BytewiseComparator.get, BytewiseComparator.get);
+		// the points have no buffers in the backend, their views are encoded from the rows
+		final ChunkedSeriesTable<String> table = new ChunkedSeriesTable<String>(chunks, 4);
+		for (long i = 0; i < 10; i++) {
+			table.put("a", i, i * 1.5);
+		}
+		table.put("b", 0L, -1.0);
+
+		TableIterator<RangeTableRowView<String, Long, Double>> range = table.rangeView("a", 2L, 5L);
+		for (long i = 2; i <= 5; i++) {
+			final RangeTableRowView<String, Long, Double> view = range.next();
+			assertEquals("a", view.getHashKey());
+			assertEquals(Long.valueOf(i), view.getRangeKey());
+			assertEquals(Double.valueOf(i * 1.5), view.getValue());
+			assertEquals(i, view.getRangeKeyBuffer().getLong(view.getRangeKeyBuffer().position()));
+			assertEquals(new RawRangeTableRow<String, Long, Double>("a", i, i * 1.5), view.copy());
+		}
+		assertTrue(!range.hasNext());
+		range.close();
+
+		int count = 0;
+		range = table.rangeView(null);
+		while (range.hasNext()) {
+			range.next();
+			count++;
+		}
+		range.close();
+		assertEquals(11, count);
+		table.close();
+	}
+
+	@Test
+	public void testInstrumentedDb() throws JMException {
+		final InstrumentedDb<ByteBuffer> instrumentedDb = new InstrumentedDb<ByteBuffer>(getDb(), "test");
+		instrumentedDb.deleteTable("test-instrumented");
+		final RangeTable<Integer, Integer, Integer> table = instrumentedDb.getRangeTable("test-instrumented",
+				IntegerSerde.get, IntegerSerde.get, IntegerSerde.get, new LexicographicalComparator(),
+				new LexicographicalComparator());
+		for (int i = 0; i < 10; i++) {
+			table.put(1, i, i);
+		}
+		assertEquals(new Integer(5), table.get(1, 5));
+		final TableIterator<RangeTableRow<Integer, Integer, Integer>> range = table.range(1);
+		int count = 0;
+		while (range.hasNext()) {
+			range.next();
+			count++;
+		}
+		assertEquals(10, count);
+
+		final TableMetrics metrics = instrumentedDb.getMetrics("test-instrumented");
+		assertEquals(10, metrics.getLatencies().get("PUT").getCount());
+		assertEquals(1, metrics.getLatencies().get("GET").getCount());
+		assertEquals(1, metrics.getLatencies().get("RANGE").getCount());
+		assertEquals(10, metrics.getRowsScanned());
+		assertEquals(0, metrics.getOpenIterators());
+		assertTrue(metrics.getBytesSerialized() > 0);
+		assertTrue(metrics.getBytesDeserialized() > 0);
+		assertTrue(metrics.getComparisons() > 0);
+
+		// counts region comparisons too, compound keys are still compared in place
+		final long comparisons = metrics.getComparisons();
+		final RegionComparator comparator = new InstrumentedRegionComparator(new LexicographicalComparator(),
+				metrics);
+		final ByteBuffer bytes = ByteBuffer.wrap(new byte[] { 1, 2, 1, 3 });
+		assertTrue(comparator.compareRegions(bytes, 0, 2, bytes, 2, 4) < 0);
+		assertEquals(comparisons + 1, metrics.getComparisons());
+
+		final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName objectName = new ObjectName(
+				"ezdb:type=Table,db=" + ObjectName.quote("test") + ",name=" + ObjectName.quote("test-instrumented"));
+		assertEquals(10L, mbeanServer.getAttribute(objectName, "RowsScanned"));
+		assertTrue(mbeanServer.getAttribute(objectName, "Latencies") instanceof TabularData);
+		table.close();
+		instrumentedDb.deleteTable("test-instrumented");
+		assertFalse(mbeanServer.isRegistered(objectName));
+	}
+
+	@Test
+	public void testAsyncRangeTable() {
+		final Db<ByteBuffer> ezdb = getDb();
+		ezdb.deleteTable("test-async");
+		final AsyncRangeTable<Integer, Integer, Integer> table = new AsyncRangeTable<Integer, Integer, Integer>(
+				ezdb.getRangeTable("test-async", IntegerSerde.get, IntegerSerde.get, IntegerSerde.get));
+		final List<CompletableFuture<Void>> puts = new ArrayList<CompletableFuture<Void>>();
+		for (int i = 0; i < 100; i++) {
+			puts.add(table.putAsync(1, i, i));
+		}
+		CompletableFuture.allOf(puts.toArray(new CompletableFuture<?>[0])).join();
+
+		final List<CompletableFuture<Integer>> gets = new ArrayList<CompletableFuture<Integer>>();
+		for (int i = 0; i < 100; i++) {
+			gets.add(table.getAsync(1, i));
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(new Integer(i), gets.get(i).join());
+		}
+		assertEquals(null, table.getAsync(2, 0).join());
+		assertEquals(new Integer(99), table.getLatestAsync(1).join().getValue());
+		assertEquals(new Integer(50), table.getLatestAsync(1, 50).join().getValue());
+		assertEquals(10, table.rangeAsync(1, 10, 19).join().size());
+		assertEquals(new Integer(95), table.rangeAsync(1, 95).join().get(0).getRangeKey());
+
+		// writes of one caller are applied in submission order
+		table.putAsync(1, 0, 1000);
+		table.deleteAsync(1, 0).join();
+		assertEquals(null, table.getAsync(1, 0).join());
+		assertEquals(99, table.rangeAsync(1).join().size());
+		table.close();
+	}
+
+	@Test
+	public void testAsyncRangeTableConcurrentGets() throws InterruptedException {
+		final Db<ByteBuffer> ezdb = getDb();
+		ezdb.deleteTable("test-async-concurrent");
+		final RangeTable<Integer, Integer, Integer> delegate = ezdb.getRangeTable("test-async-concurrent",
+				IntegerSerde.get, IntegerSerde.get, IntegerSerde.get);
+		delegate.put(1, 0, 0);
+		delegate.put(1, 1, 1);
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch overlapping = new CountDownLatch(2);
+		@SuppressWarnings("unchecked")
+		final RangeTable<Integer, Integer, Integer> blocking = (RangeTable<Integer, Integer, Integer>) Proxy
+				.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { RangeTable.class },
+						(proxy, method, args) -> {
+							if (method.getName().equals("multiGet")) {
+								entered.countDown();
+								overlapping.countDown();
+								// the first lookup only finishes once the second one runs next to it
+								if (!overlapping.await(10, TimeUnit.SECONDS)) {
+									throw new IllegalStateException("Lookups did not run concurrently");
+								}
+							}
+							try {
+								return method.invoke(delegate, args);
+							} catch (final InvocationTargetException e) {
+								throw e.getTargetException();
+							}
+						});
+		final ExecutorService executor = Executors.newCachedThreadPool();
+		final AsyncRangeTable<Integer, Integer, Integer> table = new AsyncRangeTable<Integer, Integer, Integer>(
+				blocking, executor, 2);
+		try {
+			final CompletableFuture<Integer> first = table.getAsync(1, 0);
+			assertTrue(entered.await(10, TimeUnit.SECONDS));
+			final CompletableFuture<Integer> second = table.getAsync(1, 1);
+			assertEquals(new Integer(0), first.join());
+			assertEquals(new Integer(1), second.join());
+		} finally {
+			table.close();
+			executor.shutdown();
+		}
+	}
+
+}
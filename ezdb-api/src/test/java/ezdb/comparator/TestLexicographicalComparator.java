@@ -0,0 +1,164 @@
+package ezdb.comparator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ezdb.util.Util;
+
+/**
+ * Checks the word wise comparison against {@link ByteBuffer#compareTo}, which
+ * compares signed bytes one by one.
+ */
+public class TestLexicographicalComparator {
+
+	private static final int RANDOM_PAIRS = 20000;
+
+	/**
+	 * Compares slices like the comparators did before the region path.
+	 */
+	private static final Comparator<ByteBuffer> SLICING = new Comparator<ByteBuffer>() {
+		@Override
+		public int compare(final ByteBuffer o1, final ByteBuffer o2) {
+			return o1.compareTo(o2);
+		}
+	};
+
+	private final Random random = new Random(42);
+
+	@Test
+	public void testEdgeCases() {
+		final byte[][] keys = { {}, { 0 }, { -128 }, { 127 }, { -1 }, { 0, 0 }, { 1, -128 }, { -128, 1 },
+				{ 0, 0, 0, 0, 0, 0, 0, 0 }, { 0, 0, 0, 0, 0, 0, 0, -1 }, { -1, 0, 0, 0, 0, 0, 0, 0 },
+				{ 0, 0, 0, 0, 0, 0, 0, 0, 0 }, { 0, 0, 0, 0, 0, 0, 0, 0, -128 }, { 0, 0, 0, 0, 0, 0, 0, 0, 127 },
+				{ 127, 127, 127, 127, 127, 127, 127, 127, 127, 127, 127, 127, 127, 127, 127, 127, 127 },
+				{ -128, -128, -128, -128, -128, -128, -128, -128, -128, -128, -128, -128, -128, -128, -128, -128 } };
+		for (final byte[] key1 : keys) {
+			for (final byte[] key2 : keys) {
+				assertSameOrder(key1, key2);
+			}
+		}
+	}
+
+	@Test
+	public void testRandom() {
+		for (int i = 0; i < RANDOM_PAIRS; i++) {
+			// a shared prefix moves the difference into later words and the remainder
+			final byte[] prefix = randomBytes(random.nextInt(20));
+			final byte[] key1 = concat(prefix, randomBytes(random.nextInt(20)));
+			final byte[] key2 = concat(prefix, randomBytes(random.nextInt(20)));
+			assertSameOrder(key1, key2);
+			assertSameOrder(key1, key1.clone());
+		}
+	}
+
+	@Test
+	public void testCompareKeys() {
+		for (int i = 0; i < RANDOM_PAIRS; i++) {
+			final byte[] hashKey1 = randomBytes(random.nextInt(12));
+			final byte[] hashKey2 = random.nextBoolean() ? hashKey1.clone() : randomBytes(random.nextInt(12));
+			final byte[] rangeKey1 = randomBytes(random.nextInt(12));
+			final byte[] rangeKey2 = random.nextBoolean() ? rangeKey1.clone() : randomBytes(random.nextInt(12));
+			int expected = Integer.signum(ByteBuffer.wrap(hashKey1).compareTo(ByteBuffer.wrap(hashKey2)));
+			if (expected == 0) {
+				expected = Integer.signum(ByteBuffer.wrap(rangeKey1).compareTo(ByteBuffer.wrap(rangeKey2)));
+			}
+			final boolean direct = random.nextBoolean();
+			final ByteBuffer k1 = compoundKey(hashKey1, rangeKey1, direct);
+			final ByteBuffer k2 = compoundKey(hashKey2, rangeKey2, !direct);
+			assertEquals(expected, Integer.signum(
+					Util.compareKeys(LexicographicalComparator.get, LexicographicalComparator.get, k1, k2)));
+			assertEquals(expected, Integer.signum(Util.compareKeys(SLICING, SLICING, k1, k2)));
+
+			// without a range comparator only the hash keys count
+			final int expectedHash = Integer.signum(ByteBuffer.wrap(hashKey1).compareTo(ByteBuffer.wrap(hashKey2)));
+			assertEquals(expectedHash,
+					Integer.signum(Util.compareKeys(LexicographicalComparator.get, null, k1, k2)));
+
+			// the end of a hash key sorts after all of its range keys
+			final ByteBuffer end = compoundKey(hashKey2, null, direct);
+			final int expectedEnd = expectedHash == 0 ? -1 : expectedHash;
+			assertEquals(expectedEnd, Integer.signum(
+					Util.compareKeys(LexicographicalComparator.get, LexicographicalComparator.get, k1, end)));
+			assertEquals(-expectedEnd, Integer.signum(
+					Util.compareKeys(LexicographicalComparator.get, LexicographicalComparator.get, end, k1)));
+			assertEquals(expectedEnd, Integer.signum(Util.compareKeys(SLICING, SLICING, k1, end)));
+		}
+	}
+
+	/**
+	 * Compares whole buffers and regions at unaligned offsets of heap and direct
+	 * buffers in both byte orders.
+	 */
+	private void assertSameOrder(final byte[] key1, final byte[] key2) {
+		final int expected = Integer.signum(ByteBuffer.wrap(key1).compareTo(ByteBuffer.wrap(key2)));
+		final String message = Arrays.toString(key1) + " <> " + Arrays.toString(key2);
+		assertEquals(message, expected,
+				Integer.signum(LexicographicalComparator.get.compare(ByteBuffer.wrap(key1), ByteBuffer.wrap(key2))));
+		for (int offset = 0; offset < Long.BYTES; offset++) {
+			final boolean direct = random.nextBoolean();
+			final ByteOrder order = random.nextBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+			final int offset2 = random.nextInt(Long.BYTES);
+			assertEquals(message, expected,
+					Integer.signum(LexicographicalComparator.get.compareRegions(embed(key1, offset, direct, order),
+							offset, offset + key1.length, embed(key2, offset2, !direct, order), offset2,
+							offset2 + key2.length)));
+		}
+	}
+
+	/**
+	 * @return the bytes surrounded by garbage that the region must not include
+	 */
+	private ByteBuffer embed(final byte[] bytes, final int offset, final boolean direct, final ByteOrder order) {
+		final byte[] padded = randomBytes(offset + bytes.length + Long.BYTES);
+		System.arraycopy(bytes, 0, padded, offset, bytes.length);
+		return toBuffer(padded, direct).order(order);
+	}
+
+	private static ByteBuffer compoundKey(final byte[] hashKey, final byte[] rangeKey, final boolean direct) {
+		final int rangeKeyLength = rangeKey == null ? 0 : rangeKey.length;
+		final ByteBuffer key = ByteBuffer.allocate(Integer.BYTES + hashKey.length + Integer.BYTES + rangeKeyLength);
+		key.putInt(hashKey.length);
+		key.put(hashKey);
+		if (rangeKey == null) {
+			key.putInt(Util.END_RANGE_KEY_LENGTH);
+		} else {
+			key.putInt(rangeKey.length);
+			key.put(rangeKey);
+		}
+		return toBuffer(key.array(), direct);
+	}
+
+	private static ByteBuffer toBuffer(final byte[] bytes, final boolean direct) {
+		if (!direct) {
+			return ByteBuffer.wrap(bytes);
+		}
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		Util.position(buffer, 0);
+		return buffer;
+	}
+
+	private byte[] randomBytes(final int length) {
+		final byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			// mostly the bytes around the sign change, so words often match
+			bytes[i] = (byte) (random.nextBoolean() ? random.nextInt(4) - 2 + (random.nextBoolean() ? 0 : 128)
+					: random.nextInt(256));
+		}
+		return bytes;
+	}
+
+	private static byte[] concat(final byte[] bytes1, final byte[] bytes2) {
+		final byte[] bytes = Arrays.copyOf(bytes1, bytes1.length + bytes2.length);
+		System.arraycopy(bytes2, 0, bytes, bytes1.length, bytes2.length);
+		return bytes;
+	}
+
+}
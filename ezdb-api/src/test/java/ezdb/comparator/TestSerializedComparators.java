@@ -0,0 +1,262 @@
+package ezdb.comparator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import ezdb.serde.CalendarSerde;
+import ezdb.serde.DateSerde;
+import ezdb.serde.DoubleSerde;
+import ezdb.serde.IntegerSerde;
+import ezdb.serde.LongSerde;
+import ezdb.serde.Serde;
+import ezdb.serde.StringSerde;
+
+/**
+ * Checks that the comparators of serialized keys order them like the
+ * deserialized objects.
+ */
+public class TestSerializedComparators {
+
+	private static final int RANDOM_PAIRS = 20000;
+
+	/**
+	 * Characters around the boundaries of the UTF-8 lengths and the surrogates,
+	 * where the UTF-8 order of code points and the UTF-16 order of strings
+	 * differ.
+	 */
+	private static final String[] CHARACTERS = { "\u0000", "a", "b", "\u007F", "\u0080", "\u00E9", "\u07FF",
+			"\u0800", "\u20AC", "\uD7FF", "\uE000", "\uF8FF", "\uFFFD", "\uFFFF",
+			new String(Character.toChars(0x10000)), new String(Character.toChars(0x1F600)),
+			new String(Character.toChars(Character.MAX_CODE_POINT)) };
+
+	/**
+	 * Bytes that start, continue or break UTF-8 sequences.
+	 */
+	private static final byte[] UTF8_BYTES = { 0x00, 0x41, 0x7F, (byte) 0x80, (byte) 0x8F, (byte) 0x90, (byte) 0x9F,
+			(byte) 0xA0, (byte) 0xBF, (byte) 0xC0, (byte) 0xC2, (byte) 0xC3, (byte) 0xDF, (byte) 0xE0, (byte) 0xE2,
+			(byte) 0xED, (byte) 0xEF, (byte) 0xF0, (byte) 0xF4, (byte) 0xF5, (byte) 0xFF };
+
+	private final Random random = new Random(42);
+
+	@Test
+	public void testLong() {
+		final List<Long> values = new ArrayList<Long>(Arrays.asList(Long.MIN_VALUE, Long.MIN_VALUE + 1, -256L,
+				-255L, -1L, 0L, 1L, 255L, 256L, Long.MAX_VALUE - 1, Long.MAX_VALUE));
+		for (int i = 0; i < 100; i++) {
+			values.add(random.nextLong());
+			values.add((long) random.nextInt());
+		}
+		for (final Long value1 : values) {
+			for (final Long value2 : values) {
+				assertSameOrder(SerializedLongComparator.get, LongSerde.get, value1, value2);
+			}
+		}
+		for (int i = 0; i < RANDOM_PAIRS; i++) {
+			assertSameOrder(SerializedLongComparator.get, LongSerde.get, random.nextLong(), random.nextLong());
+		}
+	}
+
+	@Test
+	public void testInteger() {
+		final List<Integer> values = new ArrayList<Integer>(Arrays.asList(Integer.MIN_VALUE, Integer.MIN_VALUE + 1,
+				-256, -255, -1, 0, 1, 255, 256, Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+		for (int i = 0; i < 100; i++) {
+			values.add(random.nextInt());
+			values.add(random.nextInt(512) - 256);
+		}
+		for (final Integer value1 : values) {
+			for (final Integer value2 : values) {
+				assertSameOrder(SerializedIntegerComparator.get, IntegerSerde.get, value1, value2);
+			}
+		}
+		for (int i = 0; i < RANDOM_PAIRS; i++) {
+			assertSameOrder(SerializedIntegerComparator.get, IntegerSerde.get, random.nextInt(), random.nextInt());
+		}
+	}
+
+	@Test
+	public void testString() {
+		for (final String character1 : CHARACTERS) {
+			for (final String character2 : CHARACTERS) {
+				assertSameOrder(SerializedStringComparator.get, StringSerde.get, character1, character2);
+				assertSameOrder(SerializedStringComparator.get, StringSerde.get, "x" + character1,
+						"x" + character2 + "y");
+				assertSameOrder(SerializedStringComparator.get, StringSerde.get, character1 + character2,
+						character1);
+			}
+		}
+		// a supplementary character sorts before U+E000 to U+FFFF in java
+		assertEquals(-1, Integer.signum(compare(SerializedStringComparator.get,
+				StringSerde.get.toBytes(new String(Character.toChars(0x1F600))), StringSerde.get.toBytes("\uE000"))));
+		for (int i = 0; i < RANDOM_PAIRS; i++) {
+			final String prefix = randomString();
+			assertSameOrder(SerializedStringComparator.get, StringSerde.get, prefix + randomString(),
+					prefix + randomString());
+		}
+	}
+
+	@Test
+	public void testMalformedString() {
+		// a lead byte without its continuation and a lone continuation byte
+		assertSameOrder(SerializedStringComparator.get, StringSerde.get, new byte[] { (byte) 0xC3, 0x41 },
+				new byte[] { (byte) 0xC3, (byte) 0xA9 });
+		// an overlong encoding of 'A' and an encoded surrogate
+		assertSameOrder(SerializedStringComparator.get, StringSerde.get, new byte[] { (byte) 0xC1, (byte) 0x81 },
+				new byte[] { 0x41 });
+		assertSameOrder(SerializedStringComparator.get, StringSerde.get,
+				new byte[] { (byte) 0xED, (byte) 0xA0, (byte) 0x80 }, new byte[] { (byte) 0xEE, (byte) 0x80 });
+		for (int i = 0; i < RANDOM_PAIRS; i++) {
+			final byte[] prefix = randomUtf8Bytes();
+			assertSameOrder(SerializedStringComparator.get, StringSerde.get, concat(prefix, randomUtf8Bytes()),
+					concat(prefix, randomUtf8Bytes()));
+		}
+	}
+
+	@Test
+	public void testEmptyFirst() {
+		final byte[] empty = new byte[0];
+		assertEquals(0, compare(SerializedLongComparator.get, empty, empty));
+		assertEquals(-1, Integer.signum(
+				compare(SerializedLongComparator.get, empty, LongSerde.get.toBytes(Long.MIN_VALUE))));
+		assertEquals(1, Integer.signum(
+				compare(SerializedIntegerComparator.get, IntegerSerde.get.toBytes(Integer.MIN_VALUE), empty)));
+		assertEquals(-1, Integer.signum(compare(SerializedStringComparator.get, empty, new byte[] { 0 })));
+		assertEquals(-1, Integer.signum(compare(SerializedStringComparator.get, empty, new byte[] { (byte) 0xFF })));
+	}
+
+	@Test
+	public void testSerializedComparatorOf() {
+		assertSame(SerializedLongComparator.get, SerdeComparator.serializedComparatorOf(LongSerde.get));
+		assertSame(SerializedLongComparator.get, SerdeComparator.serializedComparatorOf(DateSerde.get));
+		assertSame(SerializedLongComparator.get, SerdeComparator.serializedComparatorOf(CalendarSerde.get));
+		assertSame(SerializedIntegerComparator.get, SerdeComparator.serializedComparatorOf(IntegerSerde.get));
+		assertSame(SerializedStringComparator.get, SerdeComparator.serializedComparatorOf(StringSerde.get));
+		assertNull(SerdeComparator.serializedComparatorOf(DoubleSerde.get));
+		// subclasses of the serdes might write another format
+		assertNull(SerdeComparator.serializedComparatorOf(new LongSerde() {
+		}));
+		assertNull(SerdeComparator.serializedComparatorOf(new DateSerde() {
+		}));
+	}
+
+	@Test
+	public void testDateAndCalendar() {
+		final List<Date> dates = new ArrayList<Date>(Arrays.asList(new Date(Long.MIN_VALUE), new Date(-1), new Date(0),
+				new Date(1), new Date(Long.MAX_VALUE)));
+		for (int i = 0; i < 100; i++) {
+			dates.add(new Date(random.nextLong()));
+		}
+		final SerdeComparator<Date> dateComparator = new SerdeComparator<Date>(DateSerde.get);
+		// the fallback deserializes the dates
+		final SerdeComparator<Date> dateFallback = new SerdeComparator<Date>(new DateSerde() {
+		});
+		for (final Date date1 : dates) {
+			for (final Date date2 : dates) {
+				assertSameOrder(dateComparator, DateSerde.get, date1, date2);
+				assertSameOrder(dateFallback, DateSerde.get, date1, date2);
+			}
+		}
+
+		final SerdeComparator<Calendar> calendarComparator = new SerdeComparator<Calendar>(CalendarSerde.get);
+		final SerdeComparator<Calendar> calendarFallback = new SerdeComparator<Calendar>(CalendarSerde.get) {
+		};
+		for (int i = 0; i < 1000; i++) {
+			final Calendar calendar1 = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+			calendar1.setTimeInMillis(random.nextLong() / 1000);
+			final Calendar calendar2 = new GregorianCalendar(TimeZone.getTimeZone("Europe/Berlin"));
+			calendar2.setTimeInMillis(random.nextBoolean() ? calendar1.getTimeInMillis() : random.nextLong() / 1000);
+			assertSameOrder(calendarComparator, CalendarSerde.get, calendar1, calendar2);
+			assertSameOrder(calendarFallback, CalendarSerde.get, calendar1, calendar2);
+		}
+	}
+
+	private <O extends Comparable<? super O>> void assertSameOrder(final RegionComparator comparator,
+			final Serde<O> serde, final O value1, final O value2) {
+		assertSameOrder(comparator, serde, serde.toBytes(value1), serde.toBytes(value2));
+	}
+
+	/**
+	 * Compares the bytes as whole buffers and as regions of heap and direct
+	 * buffers at random offsets against the deserialized objects.
+	 */
+	private <O extends Comparable<? super O>> void assertSameOrder(final RegionComparator comparator,
+			final Serde<O> serde, final byte[] bytes1, final byte[] bytes2) {
+		final O value1 = serde.fromBytes(bytes1);
+		final O value2 = serde.fromBytes(bytes2);
+		final int expected;
+		if (bytes1.length == 0 || bytes2.length == 0) {
+			// the serdes read empty keys as null, which are ordered first
+			expected = Boolean.compare(bytes1.length > 0, bytes2.length > 0);
+		} else {
+			expected = Integer.signum(value1.compareTo(value2));
+		}
+		final String message = value1 + " <> " + value2 + ": " + Arrays.toString(bytes1) + " <> "
+				+ Arrays.toString(bytes2);
+		assertEquals(message, expected, Integer.signum(compare(comparator, bytes1, bytes2)));
+		final int offset1 = random.nextInt(9);
+		final int offset2 = random.nextInt(9);
+		final boolean direct = random.nextBoolean();
+		assertEquals(message, expected,
+				Integer.signum(comparator.compareRegions(embed(bytes1, offset1, direct), offset1,
+						offset1 + bytes1.length, embed(bytes2, offset2, !direct), offset2, offset2 + bytes2.length)));
+	}
+
+	private static int compare(final RegionComparator comparator, final byte[] bytes1, final byte[] bytes2) {
+		return comparator.compare(ByteBuffer.wrap(bytes1), ByteBuffer.wrap(bytes2));
+	}
+
+	/**
+	 * @return the bytes surrounded by garbage that the region must not include
+	 */
+	private ByteBuffer embed(final byte[] bytes, final int offset, final boolean direct) {
+		final byte[] padded = new byte[offset + bytes.length + 8];
+		random.nextBytes(padded);
+		System.arraycopy(bytes, 0, padded, offset, bytes.length);
+		final ByteBuffer buffer;
+		if (direct) {
+			buffer = ByteBuffer.allocateDirect(padded.length);
+			buffer.put(padded);
+			buffer.clear();
+		} else {
+			buffer = ByteBuffer.wrap(padded);
+		}
+		return buffer;
+	}
+
+	private String randomString() {
+		final StringBuilder sb = new StringBuilder();
+		final int length = random.nextInt(4);
+		for (int i = 0; i < length; i++) {
+			sb.append(CHARACTERS[random.nextInt(CHARACTERS.length)]);
+		}
+		return sb.toString();
+	}
+
+	private byte[] randomUtf8Bytes() {
+		final byte[] bytes = new byte[random.nextInt(5)];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = UTF8_BYTES[random.nextInt(UTF8_BYTES.length)];
+		}
+		return bytes;
+	}
+
+	private static byte[] concat(final byte[] bytes1, final byte[] bytes2) {
+		final byte[] bytes = Arrays.copyOf(bytes1, bytes1.length + bytes2.length);
+		System.arraycopy(bytes2, 0, bytes, bytes1.length, bytes2.length);
+		return bytes;
+	}
+
+}
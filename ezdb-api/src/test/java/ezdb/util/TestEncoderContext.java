@@ -0,0 +1,210 @@
+package ezdb.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import ezdb.serde.Serde;
+import ezdb.serde.StringSerde;
+import io.netty.buffer.ByteBuf;
+
+public class TestEncoderContext {
+
+	/**
+	 * Encodes through a context of its own like the serdes that write compound
+	 * values do.
+	 */
+	private static final Serde<String> NESTED_SERDE = new Serde<String>() {
+		@Override
+		public String fromBytes(final byte[] bytes) {
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public byte[] toBytes(final String obj) {
+			final EncoderContext context = EncoderContext.acquire();
+			try {
+				final ByteBuf buf = context.key();
+				buf.writeBytes(obj.getBytes(StandardCharsets.UTF_8));
+				return EncoderContext.toBytes(buf);
+			} finally {
+				context.release();
+			}
+		}
+	};
+
+	@Test
+	public void testNestedAcquire() {
+		final EncoderContext outer = EncoderContext.acquire();
+		final ByteBuf outerKey;
+		try {
+			outerKey = outer.key();
+			outerKey.writeInt(42);
+			final EncoderContext inner = EncoderContext.acquire();
+			assertNotSame(outer, inner);
+			final ByteBuf innerKey = inner.key();
+			assertNotSame(outerKey, innerKey);
+			innerKey.writeLong(-1L);
+			inner.release();
+			// the buffers of a nested context are freed, the outer ones kept as written
+			assertEquals(0, innerKey.refCnt());
+			assertEquals(4, outerKey.readableBytes());
+			assertEquals(42, outerKey.getInt(0));
+		} finally {
+			outer.release();
+		}
+		final EncoderContext again = EncoderContext.acquire();
+		try {
+			assertSame(outer, again);
+			assertSame(outerKey, again.key());
+			assertEquals(0, again.key().readableBytes());
+		} finally {
+			again.release();
+		}
+	}
+
+	@Test
+	public void testNestedSerde() {
+		// the compound key is encoded into the key buffer while the serde of the range
+		// key encodes into a key buffer as well
+		final byte[] expected = Util.combineBytes(StringSerde.get, StringSerde.get, "hash", "range");
+		assertArrayEquals(expected, Util.combineBytes(StringSerde.get, NESTED_SERDE, "hash", "range"));
+		assertArrayEquals(expected, Util.combineBytes(NESTED_SERDE, NESTED_SERDE, "hash", "range"));
+		assertEquals(ByteBuffer.wrap(expected),
+				Util.combineBuffer(NESTED_SERDE, NESTED_SERDE, "hash", "range"));
+	}
+
+	@Test
+	public void testLargeThenSmall() {
+		EncoderContext context = EncoderContext.acquire();
+		final ByteBuf large;
+		try {
+			large = context.value();
+			large.writeBytes(new byte[1024 * 1024]);
+			assertTrue(large.capacity() >= 1024 * 1024);
+		} finally {
+			context.release();
+		}
+		// a buffer grown for a large value is not retained
+		assertEquals(0, large.refCnt());
+
+		context = EncoderContext.acquire();
+		final ByteBuf small;
+		try {
+			small = context.value();
+			assertNotSame(large, small);
+			assertTrue(small.capacity() < 1024 * 1024);
+			small.writeBytes(new byte[100]);
+		} finally {
+			context.release();
+		}
+		context = EncoderContext.acquire();
+		try {
+			// small buffers are reused
+			assertSame(small, context.value());
+			assertEquals(1, small.refCnt());
+		} finally {
+			context.release();
+		}
+	}
+
+	@Test
+	public void testThreads() throws Exception {
+		final int threads = 8;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CountDownLatch started = new CountDownLatch(threads);
+		final Set<EncoderContext> contexts = Collections
+				.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<EncoderContext, Boolean>()));
+		try {
+			final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int t = 0; t < threads; t++) {
+				final String hashKey = "thread" + t;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						started.countDown();
+						started.await();
+						for (int i = 0; i < 10000; i++) {
+							final String rangeKey = String.valueOf(i);
+							final EncoderContext context = EncoderContext.acquire();
+							try {
+								contexts.add(context);
+								final ByteBuf buf = context.key();
+								Util.combineBuf(buf, StringSerde.get, NESTED_SERDE, hashKey, rangeKey);
+								assertArrayEquals(
+										Util.combineBytes(StringSerde.get, StringSerde.get, hashKey, rangeKey),
+										EncoderContext.toBytes(buf));
+							} finally {
+								context.release();
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (final Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		// each thread reuses a context of its own
+		assertEquals(threads, contexts.size());
+	}
+
+	@Test
+	public void testDirectAndHeap() {
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf key = context.key();
+			final ByteBuf value = context.value();
+			assertFalse(key.isDirect());
+			assertFalse(value.isDirect());
+			assertTrue(key.hasArray());
+			assertNotSame(key, value);
+			final ByteBuf directKey = context.directKey();
+			final ByteBuf directValue = context.directValue();
+			assertTrue(directKey.isDirect());
+			assertTrue(directValue.isDirect());
+			assertNotSame(directKey, directValue);
+
+			key.writeInt(1);
+			key.writeInt(2);
+			key.readInt();
+			assertEquals(key.arrayOffset() + 4, EncoderContext.arrayOffset(key));
+			assertEquals(2, key.array()[EncoderContext.arrayOffset(key) + 3]);
+			final ByteBuffer heap = EncoderContext.nioBuffer(key);
+			assertFalse(heap.isDirect());
+			assertEquals(4, heap.remaining());
+			assertEquals(2, heap.getInt(heap.position()));
+
+			directKey.writeLong(3L);
+			final ByteBuffer direct = EncoderContext.nioBuffer(directKey);
+			assertTrue(direct.isDirect());
+			assertEquals(8, direct.remaining());
+			assertEquals(3L, direct.getLong(direct.position()));
+			assertEquals(ByteBuffer.wrap(EncoderContext.toBytes(directKey)), EncoderContext.toByteBuffer(directKey));
+		} finally {
+			context.release();
+		}
+	}
+
+}
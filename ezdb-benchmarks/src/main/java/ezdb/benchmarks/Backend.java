@@ -0,0 +1,105 @@
+package ezdb.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import ezdb.Db;
+import ezdb.DbException;
+import ezdb.leveldb.EzLevelDbJava;
+import ezdb.leveldb.EzLevelDbJni;
+import ezdb.lmdb.EzLmDb;
+import ezdb.lsmtree.EzLsmTreeDb;
+import ezdb.lsmtree.EzLsmTreeDbJavaFactory;
+import ezdb.rocksdb.EzRocksDb;
+import ezdb.treemap.bytes.EzBytesTreeMapDb;
+import ezdb.treemap.object.EzObjectTreeMapDb;
+
+/**
+ * The Db implementations that are measured by the benchmarks. Each constant
+ * knows how to open a fresh database inside a given root directory, so that
+ * all workloads run through the very same RangeTable API.
+ */
+public enum Backend {
+	ROCKSDB {
+		@Override
+		public Db<?> newDb(final File root) {
+			return new EzRocksDb(root);
+		}
+	},
+	LMDB {
+		@Override
+		public Db<?> newDb(final File root) {
+			return new EzLmDb(root);
+		}
+	},
+	LEVELDB_JAVA {
+		@Override
+		public Db<?> newDb(final File root) {
+			return new EzLevelDbJava(root);
+		}
+	},
+	LEVELDB_JNI {
+		@Override
+		public Db<?> newDb(final File root) {
+			return new EzLevelDbJni(root);
+		}
+	},
+	LSMTREE {
+		@Override
+		public Db<?> newDb(final File root) {
+			return new EzLsmTreeDb(root, new EzLsmTreeDbJavaFactory());
+		}
+	},
+	TREEMAP_BYTES {
+		@Override
+		public Db<?> newDb(final File root) {
+			return new EzBytesTreeMapDb();
+		}
+	},
+	TREEMAP_OBJECT {
+		@Override
+		public Db<?> newDb(final File root) {
+			return new EzObjectTreeMapDb();
+		}
+	};
+
+	public abstract Db<?> newDb(File root);
+
+	public static File newRoot() {
+		BenchmarkInitializer.init();
+		try {
+			return Files.createTempDirectory("ezdb-benchmarks").toFile();
+		} catch (final IOException e) {
+			throw new DbException(e);
+		}
+	}
+
+	public static void deleteRoot(final File root) {
+		if (root == null || !root.exists()) {
+			return;
+		}
+		try {
+			Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+						throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+					Files.delete(dir);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (final IOException e) {
+			throw new DbException(e);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package ezdb.benchmarks;
+
+import org.burningwave.core.assembler.StaticComponentContainer;
+
+public class BenchmarkInitializer {
+
+	private static boolean initialized = false;
+
+	public static synchronized void init() {
+		if (!initialized) {
+			StaticComponentContainer.Modules.exportAllToAll();
+			initialized = true;
+		}
+	}
+
+}
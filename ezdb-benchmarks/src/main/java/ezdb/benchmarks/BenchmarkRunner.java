@@ -0,0 +1,32 @@
+package ezdb.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the shaded benchmarks.jar. Accepts the usual JMH command line
+ * arguments (e.g. <code>-p backend=ROCKSDB,LMDB RangeTableReadBenchmark</code>)
+ * and always attaches the GC profiler so that <code>gc.alloc.rate.norm</code>
+ * is reported next to ops/s and the latency percentiles.
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+		final CommandLineOptions commandLine = new CommandLineOptions(args);
+		final OptionsBuilder builder = new OptionsBuilder();
+		if (commandLine.getIncludes().isEmpty()) {
+			builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+		}
+		final Options options = builder.parent(commandLine).addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,169 @@
+package ezdb.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ezdb.Db;
+import ezdb.DbException;
+import ezdb.serde.LongSerde;
+import ezdb.serde.StringSerde;
+import ezdb.table.RangeTableRow;
+import ezdb.table.range.RangeBatch;
+import ezdb.table.range.RangeTable;
+import ezdb.util.TableIterator;
+
+/**
+ * Read workloads against a prefilled table: point gets, getLatest, getNext,
+ * getPrev and bounded forward/reverse range scans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangeTableReadBenchmark {
+
+	public static final String TABLE_NAME = "benchmark";
+
+	@Param
+	public Backend backend;
+
+	@Param({ "16" })
+	public int hashKeys;
+
+	@Param({ "10000" })
+	public int rangeKeysPerHashKey;
+
+	@Param({ "100" })
+	public int scanLength;
+
+	private File root;
+	private Db<?> db;
+	private RangeTable<String, Long, Long> table;
+	private String[] hashKeyValues;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		root = Backend.newRoot();
+		db = backend.newDb(root);
+		db.deleteTable(TABLE_NAME);
+		table = db.getRangeTable(TABLE_NAME, StringSerde.get, LongSerde.get, LongSerde.get);
+		hashKeyValues = newHashKeys(hashKeys);
+		fill(table, hashKeyValues, rangeKeysPerHashKey);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		table.close();
+		db.deleteTable(TABLE_NAME);
+		Backend.deleteRoot(root);
+	}
+
+	@Benchmark
+	public Long get() {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		return table.get(randomHashKey(random), (long) random.nextInt(rangeKeysPerHashKey));
+	}
+
+	@Benchmark
+	public RangeTableRow<String, Long, Long> getLatest() {
+		return table.getLatest(randomHashKey(ThreadLocalRandom.current()));
+	}
+
+	@Benchmark
+	public RangeTableRow<String, Long, Long> getLatestRangeKey() {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		return table.getLatest(randomHashKey(random), (long) random.nextInt(rangeKeysPerHashKey));
+	}
+
+	@Benchmark
+	public RangeTableRow<String, Long, Long> getNext() {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		return table.getNext(randomHashKey(random), (long) random.nextInt(rangeKeysPerHashKey));
+	}
+
+	@Benchmark
+	public RangeTableRow<String, Long, Long> getPrev() {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		return table.getPrev(randomHashKey(random), (long) random.nextInt(rangeKeysPerHashKey));
+	}
+
+	@Benchmark
+	public void range(final Blackhole blackhole) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final long from = random.nextInt(rangeKeysPerHashKey - scanLength);
+		final TableIterator<RangeTableRow<String, Long, Long>> range = table.range(randomHashKey(random), from,
+				from + scanLength - 1);
+		try {
+			while (range.hasNext()) {
+				blackhole.consume(range.next().getValue());
+			}
+		} finally {
+			range.close();
+		}
+	}
+
+	@Benchmark
+	public void rangeReverse(final Blackhole blackhole) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final long from = scanLength - 1 + random.nextInt(rangeKeysPerHashKey - scanLength);
+		final TableIterator<RangeTableRow<String, Long, Long>> range = table.rangeReverse(randomHashKey(random), from,
+				from - scanLength + 1);
+		try {
+			while (range.hasNext()) {
+				blackhole.consume(range.next().getValue());
+			}
+		} finally {
+			range.close();
+		}
+	}
+
+	private String randomHashKey(final ThreadLocalRandom random) {
+		return hashKeyValues[random.nextInt(hashKeyValues.length)];
+	}
+
+	static String[] newHashKeys(final int count) {
+		final String[] keys = new String[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = "hashKey" + i;
+		}
+		return keys;
+	}
+
+	static void fill(final RangeTable<String, Long, Long> table, final String[] hashKeys, final int rangeKeys) {
+		for (final String hashKey : hashKeys) {
+			final RangeBatch<String, Long, Long> batch = table.newRangeBatch();
+			try {
+				for (long rangeKey = 0; rangeKey < rangeKeys; rangeKey++) {
+					batch.put(hashKey, rangeKey, rangeKey);
+				}
+				batch.flush();
+			} finally {
+				try {
+					batch.close();
+				} catch (final IOException e) {
+					throw new DbException(e);
+				}
+			}
+		}
+	}
+
+}
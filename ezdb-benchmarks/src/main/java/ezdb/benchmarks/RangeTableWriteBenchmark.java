@@ -0,0 +1,121 @@
+package ezdb.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ezdb.Db;
+import ezdb.DbException;
+import ezdb.serde.LongSerde;
+import ezdb.serde.StringSerde;
+import ezdb.table.range.RangeBatch;
+import ezdb.table.range.RangeTable;
+
+/**
+ * Write workloads: single puts, batched puts through newRangeBatch and
+ * deleteRange of a freshly written hash key. Every thread writes into its own
+ * hash key so that concurrent runs do not contend on the same rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangeTableWriteBenchmark {
+
+	public static final String TABLE_NAME = "benchmark";
+	public static final int BATCH_SIZE = 1000;
+
+	@Param
+	public Backend backend;
+
+	private File root;
+	private Db<?> db;
+	private RangeTable<String, Long, Long> table;
+	private String hashKey;
+	private long rangeKey;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		root = Backend.newRoot();
+		db = backend.newDb(root);
+		db.deleteTable(TABLE_NAME);
+		table = db.getRangeTable(TABLE_NAME, StringSerde.get, LongSerde.get, LongSerde.get);
+		hashKey = "hashKey" + Thread.currentThread().getId();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		table.close();
+		db.deleteTable(TABLE_NAME);
+		Backend.deleteRoot(root);
+	}
+
+	@Benchmark
+	public void put() {
+		final long key = rangeKey++;
+		table.put(hashKey, key, key);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void newRangeBatch() {
+		final RangeBatch<String, Long, Long> batch = table.newRangeBatch();
+		try {
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				final long key = rangeKey++;
+				batch.put(hashKey, key, key);
+			}
+			batch.flush();
+		} finally {
+			try {
+				batch.close();
+			} catch (final IOException e) {
+				throw new DbException(e);
+			}
+		}
+	}
+
+	@Benchmark
+	public void deleteRange(final DeleteRangeState state) {
+		table.deleteRange(state.hashKey);
+	}
+
+	/**
+	 * deleteRange needs something to delete, thus the rows are written before
+	 * each invocation and excluded from the measurement. This is kept in a
+	 * separate state so that the other workloads are not slowed down by the
+	 * per invocation setup.
+	 */
+	@State(Scope.Thread)
+	public static class DeleteRangeState {
+
+		@Param({ "1000" })
+		public int deleteRangeSize;
+
+		private String hashKey;
+
+		@Setup(Level.Invocation)
+		public void fill(final RangeTableWriteBenchmark benchmark) {
+			hashKey = benchmark.hashKey + "_delete";
+			RangeTableReadBenchmark.fill(benchmark.table, new String[] { hashKey }, deleteRangeSize);
+		}
+	}
+
+}
@@ -11,6 +11,7 @@ import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
 
 import ezdb.DbException;
+import ezdb.comparator.BytewiseComparator;
 import ezdb.leveldb.EzLevelDbJniFactory;
 import ezdb.serde.Serde;
 import ezdb.table.Batch;
@@ -33,7 +34,10 @@ public class EzLevelDbJniTable<H, V> implements Table<H, V> {
 
 		final Options options = new Options();
 		options.createIfMissing(true);
-		options.comparator(new EzLevelDbJniComparator(hashKeyComparator));
+		if (!(hashKeyComparator instanceof BytewiseComparator)) {
+			// the default bytewise comparator avoids the jni upcall per comparison
+			options.comparator(new EzLevelDbJniComparator(hashKeyComparator));
+		}
 
 		try {
 			this.db = factory.open(path, options, false);
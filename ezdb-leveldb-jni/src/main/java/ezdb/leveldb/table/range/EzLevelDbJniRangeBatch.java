@@ -7,7 +7,7 @@ import org.iq80.leveldb.WriteBatch;
 
 import ezdb.serde.Serde;
 import ezdb.table.range.RangeBatch;
-import ezdb.util.Util;
+import ezdb.util.KeyFormat;
 
 public class EzLevelDbJniRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 
@@ -16,14 +16,16 @@ public class EzLevelDbJniRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 	private final Serde<H> hashKeySerde;
 	private final Serde<R> rangeKeySerde;
 	private final Serde<V> valueSerde;
+	private final KeyFormat keyFormat;
 
 	public EzLevelDbJniRangeBatch(final DB db, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
-			final Serde<V> valueSerde) {
+			final Serde<V> valueSerde, final KeyFormat keyFormat) {
 		this.db = db;
 		this.writeBatch = db.createWriteBatch();
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
+		this.keyFormat = keyFormat;
 	}
 
 	@Override
@@ -49,13 +51,13 @@ public class EzLevelDbJniRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 	@Override
 	public void put(final H hashKey, final R rangeKey, final V value) {
 		final byte[] valueBytes = valueSerde.toBytes(value);
-		final byte[] keyBytes = Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		final byte[] keyBytes = keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey);
 		writeBatch.put(keyBytes, valueBytes);
 	}
 
 	@Override
 	public void delete(final H hashKey, final R rangeKey) {
-		writeBatch.delete(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+		writeBatch.delete(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
 	}
 
 }
@@ -0,0 +1,158 @@
+package ezdb.leveldb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.Map.Entry;
+
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBIterator;
+
+import ezdb.DbException;
+import ezdb.serde.Serde;
+import ezdb.table.RangeTableRow;
+import ezdb.table.range.RangeCursor;
+import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
+
+/**
+ * Repositions a single iterator for all seeks until it is closed.
+ */
+public class EzLevelDbJniRangeCursor<H, R, V> implements RangeCursor<H, R, V> {
+	private final DBIterator iterator;
+	private final Serde<H> hashKeySerde;
+	private final Serde<R> rangeKeySerde;
+	private final Serde<V> valueSerde;
+	private final Comparator<ByteBuffer> hashKeyComparator;
+	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
+	/**
+	 * The key of the last seek, only its hash key is compared. Null means that
+	 * the cursor is not bound to a hash key.
+	 */
+	private ByteBuffer key;
+	private boolean valid;
+
+	public EzLevelDbJniRangeCursor(final DB db, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
+			final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
+		this.iterator = db.iterator();
+		this.hashKeySerde = hashKeySerde;
+		this.rangeKeySerde = rangeKeySerde;
+		this.valueSerde = valueSerde;
+		this.hashKeyComparator = hashKeyComparator;
+		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyFormat = keyFormat;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seek(final H hashKey, final R rangeKey) {
+		if (hashKey == null && rangeKey == null) {
+			key = null;
+			iterator.seekToFirst();
+		} else {
+			key = ByteBuffer.wrap(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+			iterator.seek(key.array());
+		}
+		valid = iterator.hasNext();
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey) {
+		return seekForPrev(hashKey, rangeKey, false);
+	}
+
+	/**
+	 * Finds the last row of the hash key that is at or before the range key with a
+	 * single seek followed by a step back. Without a range key, the end of the hash
+	 * key is used as the seek target, thus the hash key does not need to be scanned
+	 * forward.
+	 * 
+	 * @param orNext
+	 *            if no such row exists, position on the first row after the range
+	 *            key instead, which is the fallback of getLatest
+	 */
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey, final boolean orNext) {
+		if (hashKey == null && rangeKey == null) {
+			key = null;
+			iterator.seekToLast();
+			valid = iterator.hasNext();
+			return current();
+		}
+		if (rangeKey == null) {
+			key = ByteBuffer.wrap(keyFormat.combineBytesEnd(hashKeySerde, hashKey));
+		} else {
+			key = ByteBuffer.wrap(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+		}
+		iterator.seek(key.array());
+		if (!iterator.hasNext()) {
+			// the seek ran past the end, thus the last row is the one before the key
+			iterator.seekToLast();
+			valid = iterator.hasNext();
+			return current();
+		}
+		valid = true;
+		if (keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, key,
+				ByteBuffer.wrap(iterator.peekNext().getKey())) == 0) {
+			return current();
+		}
+		if (iterator.hasPrev()) {
+			iterator.prev();
+			final RangeTableRow<H, R, V> prev = current();
+			if (prev != null || !orNext) {
+				return prev;
+			}
+			iterator.next();
+			return current();
+		} else if (orNext) {
+			return current();
+		} else {
+			valid = false;
+			return null;
+		}
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> next() {
+		if (!valid) {
+			return null;
+		}
+		iterator.next();
+		valid = iterator.hasNext();
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> prev() {
+		if (!valid) {
+			return null;
+		}
+		if (!iterator.hasPrev()) {
+			valid = false;
+			return null;
+		}
+		iterator.prev();
+		return current();
+	}
+
+	private RangeTableRow<H, R, V> current() {
+		if (!valid) {
+			return null;
+		}
+		final Entry<byte[], byte[]> row = iterator.peekNext();
+		if (key != null && keyFormat.compareKeys(hashKeyComparator, null, key, ByteBuffer.wrap(row.getKey())) != 0) {
+			return null;
+		}
+		return RawRangeTableRow.valueOfBytes(row, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
+	}
+
+	@Override
+	public void close() {
+		try {
+			iterator.close();
+		} catch (final Exception e) {
+			throw new DbException(e);
+		}
+	}
+
+}
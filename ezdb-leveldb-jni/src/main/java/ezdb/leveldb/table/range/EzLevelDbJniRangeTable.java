@@ -10,6 +10,7 @@ import java.util.NoSuchElementException;
 import org.iq80.leveldb.DB;
 import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
+import org.iq80.leveldb.WriteBatch;
 
 import ezdb.DbException;
 import ezdb.leveldb.EzLevelDbJniFactory;
@@ -19,9 +20,12 @@ import ezdb.table.RangeTableRow;
 import ezdb.table.range.EmptyRangeTableIterator;
 import ezdb.table.range.RangeBatch;
 import ezdb.table.range.RangeTable;
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
 import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
 import ezdb.util.TableIterator;
-import ezdb.util.Util;
+import ezdb.util.TransformingTableIterator;
 
 public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	private final DB db;
@@ -30,6 +34,7 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	private final Serde<V> valueSerde;
 	private final Comparator<ByteBuffer> hashKeyComparator;
 	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
 
 	public EzLevelDbJniRangeTable(final File path, final EzLevelDbJniFactory factory, final Serde<H> hashKeySerde,
 			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
@@ -39,10 +44,14 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		this.valueSerde = valueSerde;
 		this.hashKeyComparator = hashKeyComparator;
 		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyFormat = KeyFormat.valueOf(hashKeyComparator, rangeKeyComparator);
 
 		final Options options = new Options();
 		options.createIfMissing(true);
-		options.comparator(new EzLevelDbJniRangeComparator(hashKeyComparator, rangeKeyComparator));
+		if (!keyFormat.isBytewise()) {
+			// the default bytewise comparator avoids the jni upcall per comparison
+			options.comparator(new EzLevelDbJniRangeComparator(hashKeyComparator, rangeKeyComparator));
+		}
 
 		try {
 			this.db = factory.open(path, options, true);
@@ -58,7 +67,7 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public void put(final H hashKey, final R rangeKey, final V value) {
-		db.put(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey), valueSerde.toBytes(value));
+		db.put(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey), valueSerde.toBytes(value));
 	}
 
 	@Override
@@ -68,7 +77,7 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public V get(final H hashKey, final R rangeKey) {
-		final byte[] valueBytes = db.get(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+		final byte[] valueBytes = db.get(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
 
 		if (valueBytes == null) {
 			return null;
@@ -90,7 +99,8 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			@Override
 			public RangeTableRow<H, R, V> next() {
 				if (hasNext()) {
-					return RawRangeTableRow.valueOfBytes(iterator.next(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.next(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				} else {
 					throw new NoSuchElementException();
 				}
@@ -118,19 +128,20 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range();
 		}
 		final DBIterator iterator = db.iterator();
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
 		iterator.seek(keyBytesFrom.array());
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, null, keyBytesFrom,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom,
 						ByteBuffer.wrap(iterator.peekNext().getKey())) == 0;
 			}
 
 			@Override
 			public RangeTableRow<H, R, V> next() {
 				if (hasNext()) {
-					return RawRangeTableRow.valueOfBytes(iterator.next(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.next(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				} else {
 					throw new NoSuchElementException();
 				}
@@ -158,19 +169,20 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey);
 		}
 		final DBIterator iterator = db.iterator();
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		iterator.seek(keyBytesFrom.array());
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, null, keyBytesFrom,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom,
 						ByteBuffer.wrap(iterator.peekNext().getKey())) == 0;
 			}
 
 			@Override
 			public RangeTableRow<H, R, V> next() {
 				if (hasNext()) {
-					return RawRangeTableRow.valueOfBytes(iterator.next(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.next(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				} else {
 					throw new NoSuchElementException();
 				}
@@ -198,20 +210,21 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey, fromRangeKey);
 		}
 		final DBIterator iterator = db.iterator();
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
-		final ByteBuffer keyBytesTo = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final ByteBuffer keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		iterator.seek(keyBytesFrom.array());
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo,
 						ByteBuffer.wrap(iterator.peekNext().getKey())) >= 0;
 			}
 
 			@Override
 			public RangeTableRow<H, R, V> next() {
 				if (hasNext()) {
-					return RawRangeTableRow.valueOfBytes(iterator.next(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.next(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				} else {
 					throw new NoSuchElementException();
 				}
@@ -263,10 +276,12 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			public RangeTableRow<H, R, V> next() {
 				if (useFixFirst()) {
 					fixFirst = false;
-					return RawRangeTableRow.valueOfBytes(iterator.peekNext(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.peekNext(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				}
 				if (hasNext()) {
-					return RawRangeTableRow.valueOfBytes(iterator.prev(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.prev(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				} else {
 					throw new NoSuchElementException();
 				}
@@ -295,8 +310,8 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		}
 		final DBIterator iterator = db.iterator();
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey, toRangeKey, keyBytesFrom, keyBytesTo,
-				peek) -> Util.compareKeys(hashKeyComparator, null, keyBytesFrom, ByteBuffer.wrap(peek.getKey())) == 0;
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
+				peek) -> keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, ByteBuffer.wrap(peek.getKey())) == 0;
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
 		final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, null, keyBytesFrom,
 				null, iterator, checkKeys);
 		if (emptyIterator != null) {
@@ -335,10 +350,12 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			public RangeTableRow<H, R, V> next() {
 				if (useFixFirst()) {
 					fixFirst = false;
-					return RawRangeTableRow.valueOfBytes(iterator.peekNext(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.peekNext(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				}
 				if (hasNext()) {
-					return RawRangeTableRow.valueOfBytes(iterator.prev(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.prev(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				} else {
 					throw new NoSuchElementException();
 				}
@@ -390,13 +407,13 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey1, toRangeKey, keyBytesFrom, keyBytesTo,
 				peek) -> {
 			final ByteBuffer peekKey = ByteBuffer.wrap(peek.getKey());
-			return Util.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0 && (fromRangeKey1 == null
-					|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKey) >= 0);
+			return keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0 && (fromRangeKey1 == null
+					|| keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKey) >= 0);
 		};
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		iterator.seek(keyBytesFrom.array());
 		if (!iterator.hasNext() || fromRangeKey == null) {
-			final ByteBuffer keyBytesFromForSeekLast = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
+			final ByteBuffer keyBytesFromForSeekLast = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
 			final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, null,
 					keyBytesFromForSeekLast, null, iterator, checkKeys);
 			if (emptyIterator != null) {
@@ -435,10 +452,12 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			public RangeTableRow<H, R, V> next() {
 				if (useFixFirst()) {
 					fixFirst = false;
-					return RawRangeTableRow.valueOfBytes(iterator.peekNext(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.peekNext(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				}
 				if (hasNext()) {
-					return RawRangeTableRow.valueOfBytes(iterator.prev(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.prev(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				} else {
 					throw new NoSuchElementException();
 				}
@@ -473,17 +492,17 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey1, toRangeKey1, keyBytesFrom, keyBytesTo,
 				peek) -> {
 			final ByteBuffer peekKey = ByteBuffer.wrap(peek.getKey());
-			return Util.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0
+			return keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0
 					&& (fromRangeKey1 == null
-							|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKey) >= 0)
+							|| keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKey) >= 0)
 					&& (toRangeKey1 == null
-							|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo, peekKey) <= 0);
+							|| keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo, peekKey) <= 0);
 		};
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
-		final ByteBuffer keyBytesTo = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final ByteBuffer keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		iterator.seek(keyBytesFrom.array());
 		if (!iterator.hasNext() || fromRangeKey == null) {
-			final ByteBuffer keyBytesFromForSeekLast = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey,
+			final ByteBuffer keyBytesFromForSeekLast = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey,
 					toRangeKey);
 			final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, toRangeKey,
 					keyBytesFromForSeekLast, keyBytesTo, iterator, checkKeys);
@@ -524,10 +543,12 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			public RangeTableRow<H, R, V> next() {
 				if (useFixFirst()) {
 					fixFirst = false;
-					return RawRangeTableRow.valueOfBytes(iterator.peekNext(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.peekNext(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				}
 				if (hasNext()) {
-					return RawRangeTableRow.valueOfBytes(iterator.prev(), hashKeySerde, rangeKeySerde, valueSerde);
+					return RawRangeTableRow.valueOfBytes(iterator.prev(), hashKeySerde, rangeKeySerde, valueSerde,
+							keyFormat);
 				} else {
 					throw new NoSuchElementException();
 				}
@@ -559,7 +580,7 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public void delete(final H hashKey, final R rangeKey) {
-		this.db.delete(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+		this.db.delete(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
 	}
 
 	@Override
@@ -623,50 +644,16 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey) {
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey);
-		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey);
-				try {
-					if (range.hasNext()) {
-						return range.next();
-					} else {
-						return null;
-					}
-				} finally {
-					range.close();
-				}
-			}
-		} finally {
-			rangeReverse.close();
-		}
+		return getLatest(hashKey, null);
 	}
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey, final R rangeKey) {
-		if (rangeKey == null) {
-			return getLatest(hashKey);
-		}
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey, rangeKey);
+		final EzLevelDbJniRangeCursor<H, R, V> cursor = newRangeCursor();
 		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, rangeKey);
-				try {
-					if (range.hasNext()) {
-						return range.next();
-					} else {
-						return null;
-					}
-				} finally {
-					range.close();
-				}
-			}
+			return cursor.seekForPrev(hashKey, rangeKey, true);
 		} finally {
-			rangeReverse.close();
+			cursor.close();
 		}
 	}
 
@@ -686,18 +673,68 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getPrev(final H hashKey, final R rangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey, rangeKey);
+		final EzLevelDbJniRangeCursor<H, R, V> cursor = newRangeCursor();
 		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				return null;
-			}
+			return cursor.seekForPrev(hashKey, rangeKey);
 		} finally {
-			rangeReverse.close();
+			cursor.close();
 		}
 	}
 
+	@Override
+	public EzLevelDbJniRangeCursor<H, R, V> newRangeCursor() {
+		return new EzLevelDbJniRangeCursor<H, R, V>(db, hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator,
+				rangeKeyComparator, keyFormat);
+	}
+
+	@Override
+	public Serde<H> getHashKeySerde() {
+		return hashKeySerde;
+	}
+
+	@Override
+	public Serde<R> getRangeKeySerde() {
+		return rangeKeySerde;
+	}
+
+	@Override
+	public Serde<V> getValueSerde() {
+		return valueSerde;
+	}
+
+	@Override
+	public TableIterator<RangeTableRowView<H, R, V>> rangeView(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		return newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true);
+	}
+
+	@Override
+	public TableIterator<Entry<H, R>> rangeKeys(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, Entry<H, R>>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, false), RangeTableRowView::copyKey);
+	}
+
+	@Override
+	public TableIterator<V> rangeValues(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, V>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true), RangeTableRowView::copyValue);
+	}
+
+	private RangeTableRowViewIterator<H, R, V> newRangeViewIterator(final H hashKey, final R fromRangeKey,
+			final R toRangeKey, final boolean fetchValues) {
+		ByteBuffer keyBytesFrom = null;
+		ByteBuffer keyBytesTo = null;
+		if (hashKey != null) {
+			keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+			if (toRangeKey != null) {
+				keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+			}
+		}
+		return new EzLevelDbJniRangeViewIterator<H, R, V>(db,
+				new RangeTableRowView<H, R, V>(hashKeySerde, rangeKeySerde, valueSerde, keyFormat), keyFormat,
+				hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
+	}
+
 	@Override
 	public Batch<H, V> newBatch() {
 		return newRangeBatch();
@@ -705,25 +742,40 @@ public class EzLevelDbJniRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeBatch<H, R, V> newRangeBatch() {
-		return new EzLevelDbJniRangeBatch<H, R, V>(db, hashKeySerde, rangeKeySerde, valueSerde);
+		return new EzLevelDbJniRangeBatch<H, R, V>(db, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey);
-		internalDeleteRange(range);
+		deleteRange(hashKey, null, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey);
-		internalDeleteRange(range);
+		deleteRange(hashKey, fromRangeKey, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey, final R toRangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey, toRangeKey);
-		internalDeleteRange(range);
+		if (hashKey == null) {
+			final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey, toRangeKey);
+			internalDeleteRange(range);
+			return;
+		}
+		// only the raw keys are read and deleted, nothing is decoded or encoded again
+		final TableIterator<RangeTableRowView<H, R, V>> range = newRangeViewIterator(hashKey, fromRangeKey,
+				toRangeKey, false);
+		try (WriteBatch writeBatch = db.createWriteBatch()) {
+			while (range.hasNext()) {
+				final ByteBuffer key = range.next().getKeyBuffer();
+				writeBatch.delete(key.array());
+			}
+			db.write(writeBatch);
+		} catch (final IOException e) {
+			throw new DbException(e);
+		} finally {
+			range.close();
+		}
 	}
 
 	private void internalDeleteRange(final TableIterator<RangeTableRow<H, R, V>> range) {
@@ -0,0 +1,70 @@
+package ezdb.leveldb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.Map.Entry;
+
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBIterator;
+
+import ezdb.DbException;
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
+import ezdb.util.KeyFormat;
+
+/**
+ * Scans an iterator into a single row view. The jni binding still copies the
+ * key and value into arrays, but no row objects are created per entry.
+ */
+public class EzLevelDbJniRangeViewIterator<H, R, V> extends RangeTableRowViewIterator<H, R, V> {
+	private final DBIterator iterator;
+	private final ByteBuffer keyBytesFrom;
+	private Entry<byte[], byte[]> row;
+
+	public EzLevelDbJniRangeViewIterator(final DB db, final RangeTableRowView<H, R, V> view,
+			final KeyFormat keyFormat, final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final ByteBuffer keyBytesFrom,
+			final ByteBuffer keyBytesTo, final boolean fetchValues) {
+		super(view, keyFormat, hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
+		this.iterator = db.iterator();
+		this.keyBytesFrom = keyBytesFrom;
+	}
+
+	@Override
+	protected boolean first() {
+		if (keyBytesFrom == null) {
+			iterator.seekToFirst();
+		} else {
+			iterator.seek(keyBytesFrom.array());
+		}
+		return iterator.hasNext();
+	}
+
+	@Override
+	protected boolean advance() {
+		iterator.next();
+		return iterator.hasNext();
+	}
+
+	@Override
+	protected ByteBuffer currentKey() {
+		row = iterator.peekNext();
+		return ByteBuffer.wrap(row.getKey());
+	}
+
+	@Override
+	protected ByteBuffer currentValue() {
+		return ByteBuffer.wrap(row.getValue());
+	}
+
+	@Override
+	protected void release() {
+		row = null;
+		try {
+			iterator.close();
+		} catch (final Exception e) {
+			throw new DbException(e);
+		}
+	}
+
+}
@@ -3,7 +3,10 @@ package ezdb.leveldb.table;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.iq80.leveldb.Options;
@@ -13,6 +16,7 @@ import org.iq80.leveldb.impl.ExtendedDbImpl;
 import org.iq80.leveldb.util.Slice;
 
 import ezdb.DbException;
+import ezdb.comparator.BytewiseComparator;
 import ezdb.leveldb.EzLevelDbJavaFactory;
 import ezdb.leveldb.util.EzLevelDBIterator;
 import ezdb.leveldb.util.Slices;
@@ -42,7 +46,10 @@ public class EzLevelDbTable<H, V> implements Table<H, V> {
 		final Options options = new Options();
 		options.createIfMissing(true);
 		this.defaultReadOptions = new ReadOptions().verifyChecksums(factory.isVerifyChecksums());
-		options.comparator(new EzLevelDbJavaComparator(hashKeyComparator));
+		if (!(hashKeyComparator instanceof BytewiseComparator)) {
+			// without a comparator leveldb uses its own bytewise comparator
+			options.comparator(new EzLevelDbJavaComparator(hashKeyComparator));
+		}
 
 		try {
 			this.db = factory.open(path, options, false);
@@ -109,6 +116,25 @@ public class EzLevelDbTable<H, V> implements Table<H, V> {
 		}
 	}
 
+	@Override
+	public List<V> getAll(final Collection<H> hashKeys) {
+		final List<Slice> keys = new ArrayList<Slice>(hashKeys.size());
+		for (final H hashKey : hashKeys) {
+			keys.add(new Slice(hashKeySerde.toBytes(hashKey)));
+		}
+		final List<Slice> valuesBytes = db.multiGet(keys, defaultReadOptions);
+		final List<V> values = new ArrayList<V>(valuesBytes.size());
+		for (int i = 0; i < valuesBytes.size(); i++) {
+			final Slice valueBytes = valuesBytes.get(i);
+			if (valueBytes == null) {
+				values.add(null);
+			} else {
+				values.add(valueSerde.fromBuffer(Slices.unwrap(valueBytes)));
+			}
+		}
+		return values;
+	}
+
 	@Override
 	public void delete(final H hashKey) {
 		this.db.delete(hashKeySerde.toBytes(hashKey), DEFAULT_WRITE_OPTIONS);
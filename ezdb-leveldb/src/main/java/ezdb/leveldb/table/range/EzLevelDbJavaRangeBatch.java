@@ -7,7 +7,7 @@ import org.iq80.leveldb.impl.WriteBatchImpl;
 
 import ezdb.serde.Serde;
 import ezdb.table.range.RangeBatch;
-import ezdb.util.Util;
+import ezdb.util.KeyFormat;
 
 public class EzLevelDbJavaRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 
@@ -16,16 +16,18 @@ public class EzLevelDbJavaRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 	private final Serde<H> hashKeySerde;
 	private final Serde<R> rangeKeySerde;
 	private final Serde<V> valueSerde;
+	private final KeyFormat keyFormat;
 //	private final ByteBuf keyBuffer;
 //	private final ByteBuf valueBuffer;
 
 	public EzLevelDbJavaRangeBatch(final ExtendedDbImpl db, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
-			final Serde<V> valueSerde) {
+			final Serde<V> valueSerde, final KeyFormat keyFormat) {
 		this.db = db;
 		this.writeBatch = db.createWriteBatch();
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
+		this.keyFormat = keyFormat;
 //		this.keyBuffer = ByteBufAllocator.DEFAULT.heapBuffer();
 //		this.valueBuffer = ByteBufAllocator.DEFAULT.heapBuffer();
 	}
@@ -61,7 +63,7 @@ public class EzLevelDbJavaRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 //		writeBatch.put(Slices.wrapCopy(keyBuffer), Slices.wrapCopy(valueBuffer));
 		// writing operations need to work with byte arrays
 		final byte[] valueBytes = valueSerde.toBytes(value);
-		final byte[] keyBytes = Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		final byte[] keyBytes = keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey);
 		writeBatch.put(keyBytes, valueBytes);
 	}
 
@@ -74,7 +76,7 @@ public class EzLevelDbJavaRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 		 * delete does not work when we try zero copy here, maybe because the delete is
 		 * performed async?
 		 */
-		writeBatch.delete(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+		writeBatch.delete(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
 	}
 
 }
@@ -0,0 +1,153 @@
+package ezdb.leveldb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.impl.ExtendedDbImpl;
+import org.iq80.leveldb.iterator.ExtendedDBIteratorAdapter;
+import org.iq80.leveldb.util.Slice;
+
+import ezdb.leveldb.util.Slices;
+import ezdb.serde.Serde;
+import ezdb.table.RangeTableRow;
+import ezdb.table.range.RangeCursor;
+import ezdb.util.KeyFormat;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Repositions a single iterator for all seeks until it is closed. The key
+ * buffer is reused as well.
+ */
+public class EzLevelDbJavaRangeCursor<H, R, V> implements RangeCursor<H, R, V> {
+	private final ExtendedDBIteratorAdapter iterator;
+	private final ByteBuf keyBuf;
+	private final Serde<H> hashKeySerde;
+	private final Serde<R> rangeKeySerde;
+	private final Serde<V> valueSerde;
+	private final Comparator<ByteBuffer> hashKeyComparator;
+	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
+	/**
+	 * The key of the last seek, only its hash key is compared. Null means that
+	 * the cursor is not bound to a hash key.
+	 */
+	private ByteBuffer key;
+	private boolean valid;
+
+	public EzLevelDbJavaRangeCursor(final ExtendedDbImpl db, final ReadOptions readOptions,
+			final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
+			final Comparator<ByteBuffer> hashKeyComparator, final Comparator<ByteBuffer> rangeKeyComparator,
+			final KeyFormat keyFormat) {
+		this.iterator = db.extendedIterator(readOptions);
+		this.keyBuf = ByteBufAllocator.DEFAULT.heapBuffer();
+		this.hashKeySerde = hashKeySerde;
+		this.rangeKeySerde = rangeKeySerde;
+		this.valueSerde = valueSerde;
+		this.hashKeyComparator = hashKeyComparator;
+		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyFormat = keyFormat;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seek(final H hashKey, final R rangeKey) {
+		if (hashKey == null && rangeKey == null) {
+			key = null;
+			valid = iterator.seekToFirst();
+			return current();
+		}
+		keyBuf.clear();
+		keyFormat.combineBuf(keyBuf, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		key = keyBuf.nioBuffer();
+		valid = iterator.seek(Slices.wrap(keyBuf));
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey) {
+		return seekForPrev(hashKey, rangeKey, false);
+	}
+
+	/**
+	 * Finds the last row of the hash key that is at or before the range key with a
+	 * single seek followed by a step back. Without a range key, the end of the hash
+	 * key is used as the seek target, thus the hash key does not need to be scanned
+	 * forward.
+	 * 
+	 * @param orNext
+	 *            if no such row exists, position on the first row after the range
+	 *            key instead, which is the fallback of getLatest
+	 */
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey, final boolean orNext) {
+		if (hashKey == null && rangeKey == null) {
+			key = null;
+			valid = iterator.seekToLast();
+			return current();
+		}
+		keyBuf.clear();
+		if (rangeKey == null) {
+			keyFormat.combineBufEnd(keyBuf, hashKeySerde, hashKey);
+		} else {
+			keyFormat.combineBuf(keyBuf, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		}
+		key = keyBuf.nioBuffer();
+		valid = iterator.seek(Slices.wrap(keyBuf));
+		if (!valid) {
+			// the seek ran past the end, thus the last row is the one before the key
+			valid = iterator.seekToLast();
+			return current();
+		}
+		if (keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, key, Slices.unwrap(iterator.getKey())) == 0) {
+			return current();
+		}
+		valid = iterator.prev();
+		final RangeTableRow<H, R, V> prev = current();
+		if (prev != null || !orNext) {
+			return prev;
+		}
+		if (valid) {
+			valid = iterator.next();
+		} else {
+			valid = iterator.seekToFirst();
+		}
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> next() {
+		if (!valid) {
+			return null;
+		}
+		valid = iterator.next();
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> prev() {
+		if (!valid) {
+			return null;
+		}
+		valid = iterator.prev();
+		return current();
+	}
+
+	private RangeTableRow<H, R, V> current() {
+		if (!valid) {
+			return null;
+		}
+		final Slice peekKey = iterator.getKey();
+		if (key != null && keyFormat.compareKeys(hashKeyComparator, null, key, Slices.unwrap(peekKey)) != 0) {
+			return null;
+		}
+		return Slices.newRawRangeTableRow(peekKey, iterator.getValue(), hashKeySerde, rangeKeySerde, valueSerde,
+				keyFormat);
+	}
+
+	@Override
+	public void close() {
+		keyBuf.release(keyBuf.refCnt());
+		iterator.close();
+	}
+
+}
@@ -0,0 +1,62 @@
+package ezdb.leveldb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.impl.ExtendedDbImpl;
+import org.iq80.leveldb.iterator.ExtendedDBIteratorAdapter;
+import org.iq80.leveldb.util.Slice;
+
+import ezdb.leveldb.util.Slices;
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
+import ezdb.util.KeyFormat;
+
+/**
+ * Scans an iterator into a single row view. The buffers of the view wrap the
+ * slices of the iterator without copying them.
+ */
+public class EzLevelDbJavaRangeViewIterator<H, R, V> extends RangeTableRowViewIterator<H, R, V> {
+	private final ExtendedDBIteratorAdapter iterator;
+	private final ByteBuffer keyBytesFrom;
+
+	public EzLevelDbJavaRangeViewIterator(final ExtendedDbImpl db, final ReadOptions readOptions,
+			final RangeTableRowView<H, R, V> view, final KeyFormat keyFormat,
+			final Comparator<ByteBuffer> hashKeyComparator, final Comparator<ByteBuffer> rangeKeyComparator,
+			final ByteBuffer keyBytesFrom, final ByteBuffer keyBytesTo, final boolean fetchValues) {
+		super(view, keyFormat, hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
+		this.iterator = db.extendedIterator(readOptions);
+		this.keyBytesFrom = keyBytesFrom;
+	}
+
+	@Override
+	protected boolean first() {
+		if (keyBytesFrom == null) {
+			return iterator.seekToFirst();
+		}
+		return iterator.seek(new Slice(keyBytesFrom.array(), keyBytesFrom.arrayOffset() + keyBytesFrom.position(),
+				keyBytesFrom.remaining()));
+	}
+
+	@Override
+	protected boolean advance() {
+		return iterator.next();
+	}
+
+	@Override
+	protected ByteBuffer currentKey() {
+		return Slices.unwrap(iterator.getKey());
+	}
+
+	@Override
+	protected ByteBuffer currentValue() {
+		return Slices.unwrap(iterator.getValue());
+	}
+
+	@Override
+	protected void release() {
+		iterator.close();
+	}
+
+}
@@ -3,7 +3,13 @@ package ezdb.leveldb.table.range;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 
 import org.iq80.leveldb.Options;
@@ -22,8 +28,11 @@ import ezdb.table.RangeTableRow;
 import ezdb.table.range.EmptyRangeTableIterator;
 import ezdb.table.range.RangeBatch;
 import ezdb.table.range.RangeTable;
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
+import ezdb.util.KeyFormat;
 import ezdb.util.TableIterator;
-import ezdb.util.Util;
+import ezdb.util.TransformingTableIterator;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 
@@ -39,6 +48,7 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	private final Serde<V> valueSerde;
 	private final Comparator<ByteBuffer> hashKeyComparator;
 	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
 
 	public EzLevelDbRangeTable(final File path, final EzLevelDbJavaFactory factory, final Serde<H> hashKeySerde,
 			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
@@ -48,11 +58,15 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		this.valueSerde = valueSerde;
 		this.hashKeyComparator = hashKeyComparator;
 		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyFormat = KeyFormat.valueOf(hashKeyComparator, rangeKeyComparator);
 
 		final Options options = new Options();
 		options.createIfMissing(true);
 		this.defaultReadOptions = new ReadOptions().verifyChecksums(factory.isVerifyChecksums());
-		options.comparator(new EzLevelDbJavaRangeComparator(hashKeyComparator, rangeKeyComparator));
+		if (!keyFormat.isBytewise()) {
+			// without a comparator leveldb uses its own bytewise comparator
+			options.comparator(new EzLevelDbJavaRangeComparator(hashKeyComparator, rangeKeyComparator));
+		}
 
 		try {
 			this.db = factory.open(path, options, true);
@@ -79,7 +93,7 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 //			valueBuffer.release(valueBuffer.refCnt());
 //		}
 		// writing operations need to work with byte arrays
-		db.put(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey), valueSerde.toBytes(value),
+		db.put(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey), valueSerde.toBytes(value),
 				DEFAULT_WRITE_OPTIONS);
 	}
 
@@ -92,7 +106,7 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	public V get(final H hashKey, final R rangeKey) {
 		final ByteBuf keyBuffer = ByteBufAllocator.DEFAULT.heapBuffer();
 		try {
-			Util.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
 			final Slice valueBytes = db.get(Slices.wrap(keyBuffer), defaultReadOptions);
 
 			if (valueBytes == null) {
@@ -105,10 +119,43 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		}
 	}
 
+	@Override
+	public List<V> getAll(final Collection<H> hashKeys) {
+		final List<Slice> keys = new ArrayList<Slice>(hashKeys.size());
+		for (final H hashKey : hashKeys) {
+			keys.add(new Slice(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, null)));
+		}
+		return multiGetSlices(keys);
+	}
+
+	@Override
+	public List<V> multiGet(final List<? extends Entry<H, R>> keys) {
+		final List<Slice> keySlices = new ArrayList<Slice>(keys.size());
+		for (int i = 0; i < keys.size(); i++) {
+			final Entry<H, R> key = keys.get(i);
+			keySlices.add(new Slice(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, key.getKey(), key.getValue())));
+		}
+		return multiGetSlices(keySlices);
+	}
+
+	private List<V> multiGetSlices(final List<Slice> keys) {
+		final List<Slice> valuesBytes = db.multiGet(keys, defaultReadOptions);
+		final List<V> values = new ArrayList<V>(valuesBytes.size());
+		for (int i = 0; i < valuesBytes.size(); i++) {
+			final Slice valueBytes = valuesBytes.get(i);
+			if (valueBytes == null) {
+				values.add(null);
+			} else {
+				values.add(valueSerde.fromBuffer(Slices.unwrap(valueBytes)));
+			}
+		}
+		return values;
+	}
+
 	@Override
 	public TableIterator<RangeTableRow<H, R, V>> range() {
 		final EzLevelDBRangeIterator<H, R, V> iterator = new EzLevelDBRangeIterator<H, R, V>(
-				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde);
+				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		iterator.seekToFirst();
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
@@ -147,15 +194,15 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range();
 		}
 		final EzLevelDBRangeIterator<H, R, V> iterator = new EzLevelDBRangeIterator<H, R, V>(
-				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde);
+				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, null);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, null);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		iterator.seek(Slices.wrap(keyBytesFromBuf));
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, null, keyBytesFrom,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom,
 						Slices.unwrap(iterator.peekNextKey())) == 0;
 			}
 
@@ -191,15 +238,15 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey);
 		}
 		final EzLevelDBRangeIterator<H, R, V> iterator = new EzLevelDBRangeIterator<H, R, V>(
-				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde);
+				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		iterator.seek(Slices.wrap(keyBytesFromBuf));
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, null, keyBytesFrom,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom,
 						Slices.unwrap(iterator.peekNextKey())) == 0;
 			}
 
@@ -235,17 +282,17 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey, fromRangeKey);
 		}
 		final EzLevelDBRangeIterator<H, R, V> iterator = new EzLevelDBRangeIterator<H, R, V>(
-				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde);
+				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuf keyBytesToBuf = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesToBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		keyFormat.combineBuf(keyBytesToBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		final ByteBuffer keyBytesTo = keyBytesToBuf.nioBuffer();
 		iterator.seek(Slices.wrap(keyBytesFromBuf));
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo,
 						Slices.unwrap(iterator.peekNextKey())) >= 0;
 			}
 
@@ -279,7 +326,7 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	@Override
 	public TableIterator<RangeTableRow<H, R, V>> rangeReverse() {
 		final EzLevelDBRangeIterator<H, R, V> iterator = new EzLevelDBRangeIterator<H, R, V>(
-				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde);
+				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		iterator.seekToLast();
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 
@@ -338,11 +385,11 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse();
 		}
 		final EzLevelDBRangeIterator<H, R, V> iterator = new EzLevelDBRangeIterator<H, R, V>(
-				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde);
+				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey, toRangeKey, keyBytesFrom, keyBytesTo,
-				peekKey) -> Util.compareKeys(hashKeyComparator, null, keyBytesFrom, Slices.unwrap(peekKey)) == 0;
+				peekKey) -> keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, Slices.unwrap(peekKey)) == 0;
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, null);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, null);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, null,
 				keyBytesFromBuf, keyBytesFrom, null, iterator, checkKeys);
@@ -437,21 +484,22 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse(hashKey);
 		}
 		final EzLevelDBRangeIterator<H, R, V> iterator = new EzLevelDBRangeIterator<H, R, V>(
-				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde);
+				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey1, toRangeKey, keyBytesFrom, keyBytesTo,
 				peekKey) -> {
 			final ByteBuffer peekKeyBuffer = Slices.unwrap(peekKey);
-			return Util.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKeyBuffer) == 0 && (fromRangeKey1 == null
-					|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKeyBuffer) >= 0);
+			return keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKeyBuffer) == 0
+					&& (fromRangeKey1 == null || keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator,
+							keyBytesFrom, peekKeyBuffer) >= 0);
 		};
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		iterator.seek(Slices.wrap(keyBytesFromBuf));
 		if (!iterator.hasNext() || fromRangeKey == null) {
 			final ByteBuf keyBytesFromForSeekLastBuf = ByteBufAllocator.DEFAULT.heapBuffer();
 			try {
-				Util.combineBuf(keyBytesFromForSeekLastBuf, hashKeySerde, rangeKeySerde, hashKey, null);
+				keyFormat.combineBuf(keyBytesFromForSeekLastBuf, hashKeySerde, rangeKeySerde, hashKey, null);
 				final ByteBuffer keyBytesFromForSeekLast = keyBytesFromForSeekLastBuf.nioBuffer();
 				final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, null,
 						keyBytesFromForSeekLastBuf, keyBytesFromForSeekLast, null, iterator, checkKeys);
@@ -531,26 +579,27 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse(hashKey, fromRangeKey);
 		}
 		final EzLevelDBRangeIterator<H, R, V> iterator = new EzLevelDBRangeIterator<H, R, V>(
-				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde);
+				db.extendedIterator(defaultReadOptions), hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey1, toRangeKey1, keyBytesFrom, keyBytesTo,
 				peekKey) -> {
 			final ByteBuffer peekKeyBuffer = Slices.unwrap(peekKey);
-			return Util.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKeyBuffer) == 0 && (fromRangeKey1 == null
-					|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKeyBuffer) >= 0)
-					&& (toRangeKey1 == null
-							|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo, peekKeyBuffer) <= 0);
+			return keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKeyBuffer) == 0
+					&& (fromRangeKey1 == null || keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator,
+							keyBytesFrom, peekKeyBuffer) >= 0)
+					&& (toRangeKey1 == null || keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator,
+							keyBytesTo, peekKeyBuffer) <= 0);
 		};
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		final ByteBuf keyBytesToBuf = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesToBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		keyFormat.combineBuf(keyBytesToBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		final ByteBuffer keyBytesTo = keyBytesToBuf.nioBuffer();
 		iterator.seek(Slices.wrap(keyBytesFromBuf));
 		if (!iterator.hasNext() || fromRangeKey == null) {
 			final ByteBuf keyBytesFromForSeekLastBuf = ByteBufAllocator.DEFAULT.heapBuffer();
 			try {
-				Util.combineBuf(keyBytesFromForSeekLastBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+				keyFormat.combineBuf(keyBytesFromForSeekLastBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 				final ByteBuffer keyBytesFromForSeekLast = keyBytesFromForSeekLastBuf.nioBuffer();
 				final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, toRangeKey,
 						keyBytesFromForSeekLastBuf, keyBytesFromForSeekLast, keyBytesTo, iterator, checkKeys);
@@ -644,7 +693,7 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		 * delete does not work when we try zero copy here, maybe because the delete is
 		 * performed async?
 		 */
-		this.db.delete(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey), DEFAULT_WRITE_OPTIONS);
+		this.db.delete(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey), DEFAULT_WRITE_OPTIONS);
 	}
 
 	@Override
@@ -709,50 +758,16 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey) {
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey);
-		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey);
-				try {
-					if (range.hasNext()) {
-						return range.next();
-					} else {
-						return null;
-					}
-				} finally {
-					range.close();
-				}
-			}
-		} finally {
-			rangeReverse.close();
-		}
+		return getLatest(hashKey, null);
 	}
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey, final R rangeKey) {
-		if (rangeKey == null) {
-			return getLatest(hashKey);
-		}
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey, rangeKey);
+		final EzLevelDbJavaRangeCursor<H, R, V> cursor = newRangeCursor();
 		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, rangeKey);
-				try {
-					if (range.hasNext()) {
-						return range.next();
-					} else {
-						return null;
-					}
-				} finally {
-					range.close();
-				}
-			}
+			return cursor.seekForPrev(hashKey, rangeKey, true);
 		} finally {
-			rangeReverse.close();
+			cursor.close();
 		}
 	}
 
@@ -772,16 +787,66 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getPrev(final H hashKey, final R rangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey, rangeKey);
+		final EzLevelDbJavaRangeCursor<H, R, V> cursor = newRangeCursor();
 		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				return null;
-			}
+			return cursor.seekForPrev(hashKey, rangeKey);
 		} finally {
-			rangeReverse.close();
+			cursor.close();
+		}
+	}
+
+	@Override
+	public EzLevelDbJavaRangeCursor<H, R, V> newRangeCursor() {
+		return new EzLevelDbJavaRangeCursor<H, R, V>(db, defaultReadOptions, hashKeySerde, rangeKeySerde, valueSerde,
+				hashKeyComparator, rangeKeyComparator, keyFormat);
+	}
+
+	@Override
+	public Serde<H> getHashKeySerde() {
+		return hashKeySerde;
+	}
+
+	@Override
+	public Serde<R> getRangeKeySerde() {
+		return rangeKeySerde;
+	}
+
+	@Override
+	public Serde<V> getValueSerde() {
+		return valueSerde;
+	}
+
+	@Override
+	public TableIterator<RangeTableRowView<H, R, V>> rangeView(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		return newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true);
+	}
+
+	@Override
+	public TableIterator<Entry<H, R>> rangeKeys(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, Entry<H, R>>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, false), RangeTableRowView::copyKey);
+	}
+
+	@Override
+	public TableIterator<V> rangeValues(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, V>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true), RangeTableRowView::copyValue);
+	}
+
+	private RangeTableRowViewIterator<H, R, V> newRangeViewIterator(final H hashKey, final R fromRangeKey,
+			final R toRangeKey, final boolean fetchValues) {
+		ByteBuffer keyBytesFrom = null;
+		ByteBuffer keyBytesTo = null;
+		if (hashKey != null) {
+			keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+			if (toRangeKey != null) {
+				keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+			}
 		}
+		return new EzLevelDbJavaRangeViewIterator<H, R, V>(db, defaultReadOptions,
+				new RangeTableRowView<H, R, V>(hashKeySerde, rangeKeySerde, valueSerde, keyFormat), keyFormat,
+				hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
 	}
 
 	@Override
@@ -791,25 +856,56 @@ public class EzLevelDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeBatch<H, R, V> newRangeBatch() {
-		return new EzLevelDbJavaRangeBatch<H, R, V>(db, hashKeySerde, rangeKeySerde, valueSerde);
+		return new EzLevelDbJavaRangeBatch<H, R, V>(db, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey);
-		internalDeleteRange(range);
+		deleteRange(hashKey, null, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey);
-		internalDeleteRange(range);
+		deleteRange(hashKey, fromRangeKey, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey, final R toRangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey, toRangeKey);
-		internalDeleteRange(range);
+		if (hashKey == null) {
+			final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey, toRangeKey);
+			internalDeleteRange(range);
+			return;
+		}
+		final Slice keyBytesFrom = new Slice(
+				keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey));
+		if (toRangeKey == null) {
+			db.deleteRange(keyBytesFrom, new Slice(keyFormat.combineBytesEnd(hashKeySerde, hashKey)), false,
+					DEFAULT_WRITE_OPTIONS);
+		} else {
+			db.deleteRange(keyBytesFrom,
+					new Slice(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, toRangeKey)), true,
+					DEFAULT_WRITE_OPTIONS);
+		}
+	}
+
+	@Override
+	public void bulkLoad(final Iterator<? extends RangeTableRow<H, R, V>> rows) {
+		// the rows are written into table files directly, bypassing log and memtable
+		db.bulkLoad(new Iterator<Entry<Slice, Slice>>() {
+			@Override
+			public boolean hasNext() {
+				return rows.hasNext();
+			}
+
+			@Override
+			public Entry<Slice, Slice> next() {
+				final RangeTableRow<H, R, V> row = rows.next();
+				return new SimpleImmutableEntry<Slice, Slice>(
+						new Slice(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, row.getHashKey(),
+								row.getRangeKey())),
+						new Slice(valueSerde.toBytes(row.getValue())));
+			}
+		});
 	}
 
 	private void internalDeleteRange(final TableIterator<RangeTableRow<H, R, V>> range) {
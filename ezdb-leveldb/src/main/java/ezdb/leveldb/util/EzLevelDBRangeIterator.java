@@ -38,6 +38,7 @@ import org.iq80.leveldb.util.Slice;
 
 import ezdb.serde.Serde;
 import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
 
 //implementation taken from leveldbjni
 /**
@@ -49,14 +50,16 @@ public class EzLevelDBRangeIterator<H, R, V> implements EzDBRangeIterator<H, R,
 	private final Serde<H> hashKeySerde;
 	private final Serde<R> rangeKeySerde;
 	private final Serde<V> valueSerde;
+	private final KeyFormat keyFormat;
 	private boolean valid = false;
 
 	public EzLevelDBRangeIterator(final ExtendedDBIteratorAdapter iterator, final Serde<H> hashKeySerde,
-			final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final KeyFormat keyFormat) {
 		this.iterator = iterator;
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
+		this.keyFormat = keyFormat;
 	}
 
 	@Override
@@ -96,7 +99,8 @@ public class EzLevelDBRangeIterator<H, R, V> implements EzDBRangeIterator<H, R,
 		if (!valid) {
 			throw new NoSuchElementException();
 		}
-		return Slices.newRawRangeTableRow(iterator.getKey(), iterator.getValue(), hashKeySerde, rangeKeySerde, valueSerde);
+		return Slices.newRawRangeTableRow(iterator.getKey(), iterator.getValue(), hashKeySerde, rangeKeySerde, valueSerde,
+				keyFormat);
 	}
 
 	@Override
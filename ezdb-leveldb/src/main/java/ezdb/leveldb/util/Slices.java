@@ -9,7 +9,9 @@ import org.iq80.leveldb.util.Slice;
 import ezdb.serde.Serde;
 import ezdb.table.RawTableRow;
 import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
 import ezdb.util.LazyValueGetter;
+import ezdb.util.Util;
 import io.netty.buffer.ByteBuf;
 
 public class Slices {
@@ -32,6 +34,40 @@ public class Slices {
 		return bytes;
 	}
 
+	public static <H, R, V> RawRangeTableRow<H, R, V> newRawRangeTableRow(final Slice keyBuffer,
+			final Slice valueBuffer, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
+			final Serde<V> valueSerde, final KeyFormat keyFormat) {
+		if (!keyFormat.isBytewise()) {
+			return newRawRangeTableRow(keyBuffer, valueBuffer, hashKeySerde, rangeKeySerde, valueSerde);
+		}
+		final LazyValueGetter<H> hashKey = new LazyValueGetter<H>() {
+			@Override
+			protected H initialize() {
+				final ByteBuffer hashKeyBytes = keyFormat.getHashKey(unwrap(keyBuffer));
+				return hashKeySerde.fromBuffer(hashKeyBytes);
+			}
+		};
+		final LazyValueGetter<R> rangeKey = new LazyValueGetter<R>() {
+			@Override
+			protected R initialize() {
+				final ByteBuffer rangeKeyBytes = keyFormat.getRangeKey(unwrap(keyBuffer));
+				if (rangeKeyBytes == null) {
+					return null;
+				} else {
+					return rangeKeySerde.fromBuffer(rangeKeyBytes);
+				}
+			}
+		};
+		final LazyValueGetter<V> value = new LazyValueGetter<V>() {
+			@Override
+			protected V initialize() {
+				final ByteBuffer valueBytes = unwrap(valueBuffer);
+				return valueSerde.fromBuffer(valueBytes);
+			}
+		};
+		return new RawRangeTableRow<>(hashKey, rangeKey, value);
+	}
+
 	public static <H, R, V> RawRangeTableRow<H, R, V> newRawRangeTableRow(final Slice keyBuffer,
 			final Slice valueBuffer, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
 			final Serde<V> valueSerde) {
@@ -143,16 +179,20 @@ public class Slices {
 		final int hashComparison = hashKeyComparator.compare(k1HashKeyBytes, k2HashKeyBytes);
 
 		if (rangeKeyComparator != null && hashComparison == 0) {
-			// First range key
 			k1Index += k1HashKeyLength;
 			final int k1RangeKeyLength = Integer.reverseBytes(k1.getInt(k1Index));
 			k1Index += Integer.BYTES;
-			final ByteBuffer k1RangeKeyBytes = unwrapSlice(k1, k1Index, k1RangeKeyLength);
-
-			// Second range key
 			k2Index += k2HashKeyLength;
 			final int k2RangeKeyLength = Integer.reverseBytes(k2.getInt(k2Index));
 			k2Index += Integer.BYTES;
+			if (k1RangeKeyLength == Util.END_RANGE_KEY_LENGTH || k2RangeKeyLength == Util.END_RANGE_KEY_LENGTH) {
+				return Util.compareEndRangeKeys(k1RangeKeyLength, k2RangeKeyLength);
+			}
+
+			// First range key
+			final ByteBuffer k1RangeKeyBytes = unwrapSlice(k1, k1Index, k1RangeKeyLength);
+
+			// Second range key
 			final ByteBuffer k2RangeKeyBytes = unwrapSlice(k2, k2Index, k2RangeKeyLength);
 
 			return rangeKeyComparator.compare(k1RangeKeyBytes, k2RangeKeyBytes);
@@ -21,6 +21,7 @@ import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -806,6 +807,157 @@ public class ExtensibleDbImpl implements DB {
 		}
 	}
 
+	/**
+	 * Deletes all keys from begin up to end with a single write batch. Only the
+	 * keys are visited, values are never copied. Without range tombstones each key
+	 * still needs its own deletion marker.
+	 *
+	 * @return null if there was nothing to delete
+	 */
+	public Snapshot deleteRange(final Slice begin, final Slice end, final boolean endInclusive,
+			final WriteOptions options) throws DBException {
+		checkBackgroundException();
+		final UserComparator userComparator = internalKeyComparator.getUserComparator();
+		try (WriteBatchImpl writeBatch = new WriteBatchImpl()) {
+			final SnapshotSeekingIterator iterator;
+			mutex.lock();
+			try {
+				iterator = new SnapshotSeekingIterator(internalIterator(new ReadOptions()), versions.getLastSequence(),
+						userComparator, new RecordBytesListener());
+			} finally {
+				mutex.unlock();
+			}
+			try {
+				boolean valid = iterator.seek(begin);
+				while (valid) {
+					final Slice key = iterator.key();
+					final int comparison = userComparator.compare(key, end);
+					if (comparison > 0 || comparison == 0 && !endInclusive) {
+						break;
+					}
+					writeBatch.delete(key.copySlice());
+					valid = iterator.next();
+				}
+			} finally {
+				iterator.close();
+			}
+			if (writeBatch.size() == 0) {
+				return null;
+			}
+			return writeInternal(writeBatch, options);
+		}
+	}
+
+	/**
+	 * Writes entries that are sorted by the user comparator straight into table
+	 * files and adds them to the current version, thus neither the log nor the
+	 * memtable is touched. All entries share one new sequence number, so they
+	 * shadow older values of the same keys. Keys that are not strictly ascending
+	 * are rejected.
+	 */
+	public void bulkLoad(final Iterator<Entry<Slice, Slice>> entries) throws DBException {
+		checkBackgroundException();
+		if (!entries.hasNext()) {
+			return;
+		}
+		// older values of the loaded keys must not stay in a memtable that is read
+		// before the new table files
+		testCompactMemTable();
+		// no compaction or memtable flush may install files in between, the levels
+		// are picked once all files are built
+		try {
+			suspendCompactions();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DBException(e);
+		}
+		try {
+			mutex.lock();
+			try {
+				final long sequence = versions.getLastSequence() + 1;
+				versions.setLastSequence(sequence);
+				final List<FileMetaData> files = new ArrayList<>();
+				final List<Long> fileNumbers = new ArrayList<>();
+				try {
+					Slice previousKey = null;
+					while (entries.hasNext()) {
+						final long fileNumber = versions.getNextFileNumber();
+						pendingOutputs.add(fileNumber);
+						fileNumbers.add(fileNumber);
+						final FileMetaData meta;
+						mutex.unlock();
+						try {
+							meta = buildBulkLoadTable(entries, sequence, fileNumber, previousKey);
+						} finally {
+							mutex.lock();
+						}
+						files.add(meta);
+						previousKey = meta.getLargest().getUserKey();
+					}
+					final VersionEdit edit = new VersionEdit();
+					final Version current = versions.getCurrent();
+					for (final FileMetaData meta : files) {
+						edit.addFile(current.pickLevelForMemTableOutput(meta.getSmallest().getUserKey(),
+								meta.getLargest().getUserKey()), meta);
+					}
+					versions.logAndApply(edit, mutex);
+				} finally {
+					pendingOutputs.removeAll(fileNumbers);
+				}
+				maybeScheduleCompaction();
+			} catch (final IOException e) {
+				throw new DBException(e);
+			} finally {
+				mutex.unlock();
+			}
+		} finally {
+			resumeCompactions();
+		}
+	}
+
+	private FileMetaData buildBulkLoadTable(final Iterator<Entry<Slice, Slice>> entries, final long sequence,
+			final long fileNumber, final Slice previousKey) throws IOException {
+		final File file = databaseDir.child(Filename.tableFileName(fileNumber));
+		final UserComparator userComparator = internalKeyComparator.getUserComparator();
+		try {
+			InternalKey smallest = null;
+			InternalKey largest = null;
+			try (WritableFile writableFile = env.newWritableFile(file)) {
+				final TableBuilder tableBuilder = new TableBuilder(options, writableFile,
+						new InternalUserComparator(internalKeyComparator), compressor);
+				Slice lastKey = previousKey;
+				// split into files of the compaction output size so the files can be placed
+				// on deeper levels and moved without rewriting them
+				while (entries.hasNext() && tableBuilder.getFileSize() < options.maxFileSize()) {
+					final Entry<Slice, Slice> entry = entries.next();
+					final Slice userKey = entry.getKey();
+					if (lastKey != null && userComparator.compare(lastKey, userKey) >= 0) {
+						tableBuilder.abandon();
+						throw new IllegalArgumentException("Bulk load keys must be unique and sorted ascending");
+					}
+					final InternalKey key = new InternalKey(userKey, sequence, VALUE);
+					if (smallest == null) {
+						smallest = key;
+					}
+					largest = key;
+					lastKey = userKey;
+					tableBuilder.add(key.encode(), entry.getValue());
+				}
+				tableBuilder.finish();
+				writableFile.force();
+			}
+			final FileMetaData fileMetaData = new FileMetaData(fileNumber, file.length(), smallest, largest);
+
+			// verify table can be opened
+			tableCache.newIterator(fileMetaData, new ReadOptions()).close();
+
+			return fileMetaData;
+		} catch (final IOException | RuntimeException e) {
+			file.delete();
+			throw e;
+		}
+	}
+
 	@Override
 	public void write(final WriteBatch updates) throws DBException {
 		writeInternal((WriteBatchImpl) updates, new WriteOptions());
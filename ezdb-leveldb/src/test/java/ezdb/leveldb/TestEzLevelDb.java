@@ -4,13 +4,23 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.iq80.leveldb.fileenv.FileUtils;
 import org.junit.After;
@@ -18,9 +28,12 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import ezdb.ADatabaseTest;
 import ezdb.Db;
+import ezdb.comparator.BytewiseComparator;
 import ezdb.comparator.LexicographicalComparator;
 import ezdb.serde.IntegerSerde;
+import ezdb.serde.OrderedLongSerde;
 import ezdb.serde.Serde;
 import ezdb.serde.SerializingSerde;
 import ezdb.serde.StringSerde;
@@ -28,11 +41,13 @@ import ezdb.serde.VersionedSerde;
 import ezdb.serde.VersionedSerde.Versioned;
 import ezdb.table.RangeTableRow;
 import ezdb.table.Table;
+import ezdb.table.range.RangeBatch;
+import ezdb.table.range.RangeCursor;
 import ezdb.table.range.RangeTable;
 import ezdb.table.range.RawRangeTableRow;
 import ezdb.util.TableIterator;
 
-public class TestEzLevelDb {
+public class TestEzLevelDb extends ADatabaseTest {
 	protected static final File ROOT = FileUtils.createTempDir(TestEzLevelDb.class.getSimpleName());
 	protected Db<ByteBuffer> ezdb;
 	protected RangeTable<Integer, Integer, Integer> table;
@@ -76,6 +91,360 @@ public class TestEzLevelDb {
 		table.delete(1, 1);
 	}
 
+	@Test
+	public void testMultiGet() {
+		ezdb.deleteTable("test-multiget");
+		ezdb.deleteTable("test-multiget-simple");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-multiget", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(1, 1);
+		table.put(1, 1, 2);
+		table.put(1, 2, 3);
+		table.put(2, 1, 4);
+
+		final List<Entry<Integer, Integer>> keys = new ArrayList<Entry<Integer, Integer>>();
+		keys.add(new SimpleEntry<Integer, Integer>(1, 2));
+		keys.add(new SimpleEntry<Integer, Integer>(1, null));
+		keys.add(new SimpleEntry<Integer, Integer>(3, 1));
+		keys.add(new SimpleEntry<Integer, Integer>(2, 1));
+		keys.add(new SimpleEntry<Integer, Integer>(1, 1));
+		assertEquals(Arrays.asList(3, 1, null, 4, 2), table.multiGet(keys));
+		assertEquals(Arrays.asList(1, null, null), table.getAll(Arrays.asList(1, 2, 3)));
+		assertEquals(Collections.emptyList(), table.multiGet(Collections.<Entry<Integer, Integer>>emptyList()));
+
+		final Table<Integer, Integer> simpleTable = ezdb.getTable("test-multiget-simple", IntegerSerde.get,
+				IntegerSerde.get);
+		simpleTable.put(1, 1);
+		simpleTable.put(3, 3);
+		assertEquals(Arrays.asList(3, null, 1), simpleTable.getAll(Arrays.asList(3, 2, 1)));
+		simpleTable.close();
+		table.close();
+	}
+
+	@Test
+	public void testGetLatestSeek() {
+		ezdb.deleteTable("test-latest");
+		ezdb.deleteTable("test-latest-ordered");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-latest", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		assertEquals(null, table.getLatest(1));
+		assertEquals(null, table.getLatest(1, 1));
+		assertEquals(null, table.getPrev(1, 1));
+		table.put(0, 5, 1);
+		table.put(1, 2, 2);
+		table.put(1, 4, 3);
+		table.put(2, 0, 4);
+		assertEquals(new Integer(3), table.getLatest(1).getValue());
+		assertEquals(new Integer(2), table.getLatest(1, 1).getValue());
+		assertEquals(new Integer(2), table.getLatest(1, 3).getValue());
+		assertEquals(new Integer(3), table.getLatest(1, 5).getValue());
+		assertEquals(null, table.getPrev(1, 1));
+		assertEquals(new Integer(2), table.getPrev(1, 2).getValue());
+		assertEquals(new Integer(3), table.getPrev(1, 9).getValue());
+		assertEquals(new Integer(3), table.getPrev(1, null).getValue());
+		assertEquals(null, table.getLatest(3));
+		assertEquals(null, table.getLatest(3, 1));
+		assertEquals(null, table.getPrev(3, 1));
+		assertEquals(new Integer(4), table.getLatest(null).getValue());
+		table.put(1, 0);
+		assertEquals(new Integer(0), table.getPrev(1, 1).getValue());
+		assertEquals(new Integer(0), table.getLatest(1, 1).getValue());
+		assertEquals(new Integer(3), table.getLatest(1).getValue());
+		table.close();
+
+		final RangeTable<String, Long, Integer> orderedTable = ezdb.getRangeTable("test-latest-ordered",
+				StringSerde.get, OrderedLongSerde.get, IntegerSerde.get, BytewiseComparator.get,
+				BytewiseComparator.get);
+		orderedTable.put("a", 1L, 1);
+		orderedTable.put("a", 3L, 2);
+		orderedTable.put("a\u0000", 0L, 3);
+		orderedTable.put("ab", 0L, 4);
+		assertEquals(new Integer(2), orderedTable.getLatest("a").getValue());
+		assertEquals(new Integer(1), orderedTable.getPrev("a", 2L).getValue());
+		assertEquals(new Integer(1), orderedTable.getLatest("a", 0L).getValue());
+		assertEquals(null, orderedTable.getPrev("a", 0L));
+		assertEquals(new Integer(3), orderedTable.getLatest("a\u0000").getValue());
+		assertEquals(new Integer(3), orderedTable.getPrev("a\u0000", Long.MAX_VALUE).getValue());
+		assertEquals(new Integer(4), orderedTable.getLatest("ab", -1L).getValue());
+		assertEquals(null, orderedTable.getLatest(""));
+		assertEquals(null, orderedTable.getLatest("aa"));
+		assertEquals(null, orderedTable.getLatest("b", 1L));
+		orderedTable.close();
+	}
+
+	@Test
+	public void testRangeCursor() {
+		ezdb.deleteTable("test-cursor");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-cursor", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(0, 1, 1);
+		table.put(1, 0);
+		table.put(1, 2, 2);
+		table.put(1, 4, 3);
+		table.put(2, 1, 4);
+
+		final RangeCursor<Integer, Integer, Integer> cursor = table.newRangeCursor();
+		try {
+			assertEquals(new RawRangeTableRow<Integer, Integer, Integer>(1, 2, 2), cursor.seek(1, 1));
+			assertEquals(new Integer(3), cursor.next().getValue());
+			assertEquals(null, cursor.next());
+			assertEquals(new Integer(0), cursor.seek(1, null).getValue());
+			assertEquals(new Integer(2), cursor.next().getValue());
+			assertEquals(null, cursor.seek(1, 5));
+			assertEquals(new Integer(2), cursor.seekForPrev(1, 3).getValue());
+			assertEquals(new Integer(0), cursor.prev().getValue());
+			assertEquals(null, cursor.prev());
+			assertEquals(new Integer(3), cursor.seekForPrev(1, null).getValue());
+			assertEquals(new Integer(2), cursor.prev().getValue());
+			assertEquals(null, cursor.seekForPrev(3, null));
+			assertEquals(new Integer(4), cursor.seek(2, null).getValue());
+			assertEquals(null, cursor.next());
+			assertEquals(null, cursor.seekForPrev(2, 0));
+			assertEquals(new Integer(1), cursor.seekForPrev(0, 9).getValue());
+		} finally {
+			cursor.close();
+		}
+		table.close();
+	}
+
+	@Test
+	public void testRangeKeysValues() {
+		ezdb.deleteTable("test-projection");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-projection", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(0, 1, 1);
+		table.put(1, 0);
+		table.put(1, 2, 2);
+		table.put(1, 4, 3);
+		table.put(2, 1, 4);
+
+		final List<Entry<Integer, Integer>> keys = new ArrayList<Entry<Integer, Integer>>();
+		TableIterator<Entry<Integer, Integer>> rangeKeys = table.rangeKeys(1);
+		while (rangeKeys.hasNext()) {
+			keys.add(rangeKeys.next());
+		}
+		rangeKeys.close();
+		assertEquals(Arrays.asList(new SimpleEntry<Integer, Integer>(1, null), new SimpleEntry<Integer, Integer>(1, 2),
+				new SimpleEntry<Integer, Integer>(1, 4)), keys);
+		assertEquals(Arrays.asList(0, 2, 3), table.multiGet(keys));
+
+		rangeKeys = table.rangeKeys(1, 1, 3);
+		assertEquals(new SimpleEntry<Integer, Integer>(1, 2), rangeKeys.next());
+		assertTrue(!rangeKeys.hasNext());
+		rangeKeys.close();
+
+		final List<Integer> values = new ArrayList<Integer>();
+		TableIterator<Integer> rangeValues = table.rangeValues(null);
+		while (rangeValues.hasNext()) {
+			values.add(rangeValues.next());
+		}
+		rangeValues.close();
+		assertEquals(Arrays.asList(1, 0, 2, 3, 4), values);
+
+		rangeValues = table.rangeValues(1, 2, null);
+		assertEquals(new Integer(2), rangeValues.next());
+		assertEquals(new Integer(3), rangeValues.next());
+		assertTrue(!rangeValues.hasNext());
+		rangeValues.close();
+
+		rangeValues = table.rangeValues(3);
+		assertTrue(!rangeValues.hasNext());
+		rangeValues.close();
+		table.close();
+	}
+
+	@Test
+	public void testDeleteRangeMany() {
+		ezdb.deleteTable("test-delete-range");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-delete-range",
+				IntegerSerde.get, IntegerSerde.get, IntegerSerde.get);
+		final RangeBatch<Integer, Integer, Integer> batch = table.newRangeBatch();
+		for (int i = 0; i < 100; i++) {
+			batch.put(0, i, i);
+			batch.put(1, i, i);
+			batch.put(2, i, i);
+		}
+		batch.put(1, -1);
+		batch.flush();
+		try {
+			batch.close();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+
+		table.deleteRange(1, 10, 19);
+		assertEquals(new Integer(9), table.get(1, 9));
+		assertEquals(null, table.get(1, 10));
+		assertEquals(null, table.get(1, 19));
+		assertEquals(new Integer(20), table.get(1, 20));
+
+		table.deleteRange(1, 5, 3);
+		assertEquals(new Integer(4), table.get(1, 4));
+
+		table.deleteRange(1, 90);
+		assertEquals(new Integer(89), table.getLatest(1).getValue());
+
+		table.deleteRange(1);
+		assertEquals(null, table.get(1));
+		assertEquals(null, table.getLatest(1));
+		assertEquals(new Integer(99), table.getLatest(0).getValue());
+		assertEquals(new Integer(0), table.getNext(2, null).getValue());
+		table.close();
+	}
+
+	@Test
+	public void testBulkLoad() {
+		ezdb.deleteTable("test-bulk-load");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-bulk-load", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(1, 50, -50);
+		table.put(1, 120, -120);
+		table.put(2, 0, 0);
+
+		final List<RangeTableRow<Integer, Integer, Integer>> rows = new ArrayList<RangeTableRow<Integer, Integer, Integer>>();
+		for (int i = 0; i < 100; i++) {
+			rows.add(new RawRangeTableRow<Integer, Integer, Integer>(1, i, i));
+		}
+		for (int i = 0; i < 100; i++) {
+			rows.add(new RawRangeTableRow<Integer, Integer, Integer>(3, i, 3 * i));
+		}
+		table.bulkLoad(rows.iterator());
+		assertEquals(new Integer(0), table.get(1, 0));
+		assertEquals(new Integer(50), table.get(1, 50));
+		assertEquals(new Integer(-120), table.getLatest(1).getValue());
+		assertEquals(new Integer(0), table.get(2, 0));
+		assertEquals(new Integer(0), table.getNext(3, null).getValue());
+		assertEquals(new Integer(297), table.getLatest(3).getValue());
+		int count = 0;
+		try (TableIterator<RangeTableRow<Integer, Integer, Integer>> range = table.range(3)) {
+			while (range.hasNext()) {
+				assertEquals(new Integer(3 * count), range.next().getValue());
+				count++;
+			}
+		}
+		assertEquals(100, count);
+
+		table.bulkLoad(Collections.<RangeTableRow<Integer, Integer, Integer>>emptyIterator());
+		table.put(1, 0, -1);
+		assertEquals(new Integer(-1), table.get(1, 0));
+		table.close();
+	}
+
+	@Test
+	public void testBulkLoadWhileCompacting() throws InterruptedException {
+		ezdb.deleteTable("test-bulk-load-compacting");
+		final RangeTable<Integer, Integer, String> table = ezdb.getRangeTable("test-bulk-load-compacting",
+				IntegerSerde.get, IntegerSerde.get, StringSerde.get, BytewiseComparator.get, BytewiseComparator.get);
+		final StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			value.append('v');
+		}
+		final int writes = 20000;
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		// flushes and compacts files that span the hash keys of the bulk loads
+		final Thread writer = new Thread(() -> {
+			try {
+				for (int i = 0; i < writes; i++) {
+					table.put(0, i, value.toString() + i);
+					table.put(1000, i, value.toString() + i);
+				}
+			} catch (final Throwable t) {
+				failure.set(t);
+			}
+		});
+		writer.start();
+		final int loads = 20;
+		try {
+			for (int b = 0; b < loads; b++) {
+				final List<RangeTableRow<Integer, Integer, String>> rows = new ArrayList<RangeTableRow<Integer, Integer, String>>();
+				for (int i = 0; i < 500; i++) {
+					rows.add(new RawRangeTableRow<Integer, Integer, String>(100 + b, i, value.toString() + b));
+				}
+				table.bulkLoad(rows.iterator());
+			}
+		} finally {
+			writer.join();
+		}
+		assertEquals(null, failure.get());
+
+		for (int b = 0; b < loads; b++) {
+			assertEquals(value.toString() + b, table.get(100 + b, 250));
+			int count = 0;
+			try (TableIterator<RangeTableRow<Integer, Integer, String>> range = table.range(100 + b)) {
+				while (range.hasNext()) {
+					assertEquals(new Integer(count), range.next().getRangeKey());
+					count++;
+				}
+			}
+			assertEquals(500, count);
+		}
+		for (int i = 0; i < writes; i += 997) {
+			assertEquals(value.toString() + i, table.get(0, i));
+			assertEquals(value.toString() + i, table.get(1000, i));
+		}
+		int count = 0;
+		try (TableIterator<RangeTableRow<Integer, Integer, String>> range = table.range()) {
+			while (range.hasNext()) {
+				range.next();
+				count++;
+			}
+		}
+		assertEquals(2 * writes + loads * 500, count);
+		table.close();
+	}
+
+	@Test
+	public void testStream() {
+		ezdb.deleteTable("test-stream");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-stream", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		final List<RangeTableRow<Integer, Integer, Integer>> rows = new ArrayList<RangeTableRow<Integer, Integer, Integer>>();
+		for (int h = 0; h < 5; h++) {
+			for (int r = 0; r < 100; r++) {
+				rows.add(new RawRangeTableRow<Integer, Integer, Integer>(h, r, h * 100 + r));
+			}
+		}
+		table.bulkLoad(rows.iterator());
+		for (int h = 5; h < 10; h++) {
+			for (int r = 0; r < 100; r++) {
+				table.put(h, r, h * 100 + r);
+			}
+		}
+
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream(3)) {
+			assertEquals(100, stream.count());
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream(3, 10, 19)) {
+			assertEquals(Arrays.asList(310, 311, 312, 313, 314, 315, 316, 317, 318, 319),
+					stream.map(RangeTableRow::getValue).collect(Collectors.toList()));
+		}
+		final List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			expected.add(i);
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream()) {
+			assertEquals(expected, stream.map(RangeTableRow::getValue).collect(Collectors.toList()));
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream().parallel()) {
+			assertEquals(expected, stream.map(RangeTableRow::getValue).collect(Collectors.toList()));
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream(Arrays.asList(7, 2, 5))
+				.parallel()) {
+			final List<Integer> hashKeys = stream.map(RangeTableRow::getHashKey).collect(Collectors.toList());
+			assertEquals(300, hashKeys.size());
+			assertEquals(new Integer(7), hashKeys.get(0));
+			assertEquals(new Integer(2), hashKeys.get(100));
+			assertEquals(new Integer(5), hashKeys.get(299));
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream().parallel()) {
+			assertEquals(499500, stream.mapToLong(RangeTableRow::getValue).sum());
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream()) {
+			assertEquals(new Integer(0), stream.findFirst().get().getValue());
+		}
+		table.close();
+	}
+
 	@Test
 	public void testPutGetH() {
 		final Table<Integer, Integer> table = ezdb.getTable("test-simple", IntegerSerde.get, IntegerSerde.get);
@@ -345,6 +714,83 @@ public class TestEzLevelDb {
 		table.close();
 	}
 
+	@Test
+	public void testOrderedKeyFormat() {
+		ezdb.deleteTable("test-ordered");
+		final RangeTable<String, Long, Integer> table = ezdb.getRangeTable("test-ordered", StringSerde.get,
+				OrderedLongSerde.get, IntegerSerde.get, BytewiseComparator.get, BytewiseComparator.get);
+
+		table.put("a", 5L, 1);
+		table.put("a", -5L, 2);
+		table.put("a", Long.MAX_VALUE, 3);
+		table.put("a", Long.MIN_VALUE, 4);
+		table.put("a", 0L, 5);
+		table.put("a", 6);
+		// hash keys that are prefixes of each other or contain zero bytes
+		table.put("a\u0000", 1L, 7);
+		table.put("ab", 1L, 8);
+		table.put("", 1L, 9);
+
+		assertEquals(new Integer(1), table.get("a", 5L));
+		assertEquals(new Integer(6), table.get("a"));
+		assertEquals(new Integer(7), table.get("a\u0000", 1L));
+		assertEquals(null, table.get("a", 1L));
+
+		TableIterator<RangeTableRow<String, Long, Integer>> it = table.range("a");
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", null, 6), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", Long.MIN_VALUE, 4), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", -5L, 2), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", 0L, 5), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", 5L, 1), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", Long.MAX_VALUE, 3), it.next());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		it = table.range("a", -5L, 5L);
+		assertEquals(new Integer(2), it.next().getValue());
+		assertEquals(new Integer(5), it.next().getValue());
+		assertEquals(new Integer(1), it.next().getValue());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		it = table.rangeReverse("a", 4L, Long.MIN_VALUE);
+		assertEquals(new Integer(5), it.next().getValue());
+		assertEquals(new Integer(2), it.next().getValue());
+		assertEquals(new Integer(4), it.next().getValue());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		it = table.range("a\u0000");
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a\u0000", 1L, 7), it.next());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		assertEquals(new Integer(3), table.getLatest("a").getValue());
+		assertEquals(new Integer(5), table.getLatest("a", 4L).getValue());
+		assertEquals(new Integer(1), table.getNext("a", 1L).getValue());
+		assertEquals(new Integer(2), table.getPrev("a", -1L).getValue());
+		assertEquals(new Integer(8), table.getLatest("ab").getValue());
+
+		it = table.range();
+		assertEquals("", it.next().getHashKey());
+		for (int i = 0; i < 6; i++) {
+			assertEquals("a", it.next().getHashKey());
+		}
+		assertEquals("a\u0000", it.next().getHashKey());
+		assertEquals("ab", it.next().getHashKey());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		table.deleteRange("a", -5L, 5L);
+		it = table.range("a");
+		assertEquals(new Integer(6), it.next().getValue());
+		assertEquals(new Integer(4), it.next().getValue());
+		assertEquals(new Integer(3), it.next().getValue());
+		assertTrue(!it.hasNext());
+		it.close();
+		table.close();
+	}
+
 	@Before
 	public void before() {
 		FileUtils.deleteRecursively(ROOT);
@@ -364,6 +810,11 @@ public class TestEzLevelDb {
 		return new EzLevelDbJavaFactory();
 	}
 
+	@Override
+	protected Db<ByteBuffer> getDb() {
+		return ezdb;
+	}
+
 	@After
 	public void after() {
 		table.close();
@@ -371,7 +822,23 @@ public class TestEzLevelDb {
 		ezdb.deleteTable("test-simple");
 		ezdb.deleteTable("test-range-strings");
 		ezdb.deleteTable("test-custom-range-comparator");
+		ezdb.deleteTable("test-ordered");
+		ezdb.deleteTable("test-multiget");
+		ezdb.deleteTable("test-multiget-simple");
+		ezdb.deleteTable("test-latest");
+		ezdb.deleteTable("test-latest-ordered");
+		ezdb.deleteTable("test-cursor");
+		ezdb.deleteTable("test-view");
+		ezdb.deleteTable("test-view-rows");
+		ezdb.deleteTable("test-instrumented");
+		ezdb.deleteTable("test-async");
+		ezdb.deleteTable("test-async-concurrent");
 		ezdb.deleteTable("test-table-does-not-exist");
+		ezdb.deleteTable("test-projection");
+		ezdb.deleteTable("test-delete-range");
+		ezdb.deleteTable("test-bulk-load");
+		ezdb.deleteTable("test-bulk-load-compacting");
+		ezdb.deleteTable("test-stream");
 		FileUtils.deleteRecursively(ROOT);
 		clearTable();
 	}
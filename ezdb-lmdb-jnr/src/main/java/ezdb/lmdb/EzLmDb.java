@@ -7,14 +7,31 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.lmdbjava.Dbi;
+import org.lmdbjava.DbiFlags;
+import org.lmdbjava.Env;
+import org.lmdbjava.EnvFlags;
+import org.lmdbjava.Txn;
+
 import ezdb.Db;
 import ezdb.DbException;
+import ezdb.comparator.BytewiseComparator;
 import ezdb.comparator.LexicographicalComparator;
 import ezdb.lmdb.table.EzLmDbTable;
+import ezdb.lmdb.table.range.EzLmDbLongDoubleRangeTable;
+import ezdb.lmdb.table.range.EzLmDbLongRangeTable;
 import ezdb.lmdb.table.range.EzLmDbRangeTable;
+import ezdb.lmdb.util.KeyFormatMetadata;
+import ezdb.serde.DoubleSerde;
+import ezdb.serde.LongSerde;
+import ezdb.serde.OrderedLongSerde;
 import ezdb.serde.Serde;
 import ezdb.table.Table;
+import ezdb.table.range.LongDoubleRangeTable;
+import ezdb.table.range.LongRangeTable;
 import ezdb.table.range.RangeTable;
+import ezdb.util.CompactKeyFormat;
+import ezdb.util.KeyFormat;
 
 /**
  * An implementation of Db that uses LevelDb tables to persist data. Each
@@ -44,6 +61,7 @@ public class EzLmDb implements Db<ByteBuffer> {
 		try {
 			synchronized (cache) {
 				cache.remove(tableName);
+				drop(tableName);
 				factory.destroy(getFile(tableName));
 			}
 		} catch (final IOException e) {
@@ -89,22 +107,84 @@ public class EzLmDb implements Db<ByteBuffer> {
 	public <H, R, V> RangeTable<H, R, V> getRangeTable(final String tableName, final Serde<H> hashKeySerde,
 			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
 			final Comparator<ByteBuffer> rangeKeyComparator) {
+		return getRangeTable(tableName, hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator,
+				null);
+	}
+
+	/**
+	 * Same as {@link #getRangeTable(String, Serde, Serde, Serde, Comparator, Comparator)}
+	 * with the given key format, e.g. the {@link CompactKeyFormat} to store
+	 * smaller keys. The format is fixed once the table was created, opening it
+	 * with another one fails. Null chooses it by the comparators.
+	 */
+	@SuppressWarnings("unchecked")
+	public <H, R, V> RangeTable<H, R, V> getRangeTable(final String tableName, final Serde<H> hashKeySerde,
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
 		synchronized (cache) {
 			RangeTable<?, ?, ?> table = (RangeTable<?, ?, ?>) cache.get(tableName);
 
 			if (table == null) {
 				table = new EzLmDbRangeTable<H, R, V>(new File(root, tableName), factory, hashKeySerde, rangeKeySerde,
-						valueSerde, hashKeyComparator, rangeKeyComparator);
+						valueSerde, hashKeyComparator, rangeKeyComparator, keyFormat);
 				cache.put(tableName, table);
 			} else if (!(table instanceof EzLmDbRangeTable)) {
 				throw new IllegalStateException("Expected " + EzLmDbRangeTable.class.getSimpleName() + " but got "
 						+ table.getClass().getSimpleName() + " for: " + tableName);
+			} else {
+				KeyFormat.checkSame(tableName, ((EzLmDbRangeTable<?, ?, ?>) table).getKeyFormat().getName(),
+						KeyFormat.valueOf(hashKeyComparator, rangeKeyComparator, keyFormat));
 			}
 
 			return (RangeTable<H, R, V>) table;
 		}
 	}
 
+	/**
+	 * Opens a table with long hash keys, long range keys and double values that
+	 * are handled without boxing. It is the same table as the range table opened
+	 * with the serdes and comparators listed in {@link LongDoubleRangeTable}.
+	 */
+	@SuppressWarnings("unchecked")
+	public LongDoubleRangeTable getLongDoubleRangeTable(final String tableName) {
+		return new EzLmDbLongDoubleRangeTable((EzLmDbRangeTable<Long, Long, Double>) getRangeTable(tableName,
+				OrderedLongSerde.get, OrderedLongSerde.get, DoubleSerde.get, BytewiseComparator.get,
+				BytewiseComparator.get));
+	}
+
+	/**
+	 * Opens a table with long range keys and long values that are handled without
+	 * boxing. It is the same table as the range table opened with the serdes and
+	 * comparators listed in {@link LongRangeTable}.
+	 */
+	@SuppressWarnings("unchecked")
+	public <H> LongRangeTable<H> getLongRangeTable(final String tableName, final Serde<H> hashKeySerde) {
+		return new EzLmDbLongRangeTable<H>((EzLmDbRangeTable<H, Long, Long>) getRangeTable(tableName, hashKeySerde,
+				OrderedLongSerde.get, LongSerde.get, BytewiseComparator.get, BytewiseComparator.get), hashKeySerde);
+	}
+
+	/**
+	 * All tables live as named databases in the environment of the root, thus the
+	 * rows and the key format of the table are removed from there.
+	 */
+	private void drop(final String tableName) throws IOException {
+		if (!root.isDirectory()) {
+			return;
+		}
+		final Env<ByteBuffer> env = factory.create(root, EnvFlags.MDB_NOTLS, EnvFlags.MDB_WRITEMAP,
+				EnvFlags.MDB_NOMEMINIT, EnvFlags.MDB_NOSYNC, EnvFlags.MDB_NOMETASYNC);
+		try {
+			final Dbi<ByteBuffer> db = factory.open(tableName, env, null, false, DbiFlags.MDB_CREATE);
+			try (Txn<ByteBuffer> txn = env.txnWrite()) {
+				db.drop(txn, true);
+				txn.commit();
+			}
+			KeyFormatMetadata.remove(env, tableName);
+		} finally {
+			env.close();
+		}
+	}
+
 	/**
 	 * A helper method used to convert a table name to the location on disk where
 	 * this LevelDB database will be persisted.
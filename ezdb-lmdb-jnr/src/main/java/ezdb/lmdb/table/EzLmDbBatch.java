@@ -10,6 +10,7 @@ import org.lmdbjava.Txn.NotReadyException;
 
 import ezdb.serde.Serde;
 import ezdb.table.Batch;
+import ezdb.util.EncoderContext;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 
@@ -38,14 +39,14 @@ public class EzLmDbBatch<H, V> implements Batch<H, V> {
 		hashKeySerde.toBuffer(keyBuffer, hashKey);
 		valueBuffer.clear();
 		valueSerde.toBuffer(valueBuffer, value);
-		db.put(txn, keyBuffer.nioBuffer(), valueBuffer.nioBuffer());
+		db.put(txn, EncoderContext.nioBuffer(keyBuffer), EncoderContext.nioBuffer(valueBuffer));
 	}
 
 	@Override
 	public void delete(final H hashKey) {
 		keyBuffer.clear();
 		hashKeySerde.toBuffer(keyBuffer, hashKey);
-		db.delete(txn, keyBuffer.nioBuffer());
+		db.delete(txn, EncoderContext.nioBuffer(keyBuffer));
 	}
 
 	@Override
@@ -3,7 +3,10 @@ package ezdb.lmdb.table;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.lmdbjava.Dbi;
@@ -13,6 +16,7 @@ import org.lmdbjava.EnvFlags;
 import org.lmdbjava.Txn;
 
 import ezdb.DbException;
+import ezdb.comparator.BytewiseComparator;
 import ezdb.lmdb.EzLmDbFactory;
 import ezdb.lmdb.util.EzDBIterator;
 import ezdb.lmdb.util.LmDBJnrDBIterator;
@@ -20,9 +24,9 @@ import ezdb.serde.Serde;
 import ezdb.table.Batch;
 import ezdb.table.Table;
 import ezdb.table.TableRow;
+import ezdb.util.EncoderContext;
 import ezdb.util.TableIterator;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 
 public class EzLmDbTable<H, V> implements Table<H, V> {
@@ -44,7 +48,13 @@ public class EzLmDbTable<H, V> implements Table<H, V> {
 		} catch (final IOException e) {
 			throw new DbException(e);
 		}
-		final EzLmDbComparator comparator = new EzLmDbComparator(hashKeyComparator);
+		final EzLmDbComparator comparator;
+		if (hashKeyComparator instanceof BytewiseComparator) {
+			// null lets lmdb compare the keys natively without a java callback
+			comparator = null;
+		} else {
+			comparator = new EzLmDbComparator(hashKeyComparator);
+		}
 		try {
 			this.db = factory.open(path.getName(), env, comparator, false, DbiFlags.MDB_CREATE);
 		} catch (final IOException e) {
@@ -54,25 +64,26 @@ public class EzLmDbTable<H, V> implements Table<H, V> {
 
 	@Override
 	public void put(final H hashKey, final V value) {
-		final ByteBuf keyBuffer = ByteBufAllocator.DEFAULT.directBuffer();
-		hashKeySerde.toBuffer(keyBuffer, hashKey);
-		final ByteBuf valueBuffer = ByteBufAllocator.DEFAULT.directBuffer();
-		valueSerde.toBuffer(valueBuffer, value);
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			db.put(keyBuffer.nioBuffer(), valueBuffer.nioBuffer());
+			final ByteBuf keyBuffer = context.directKey();
+			hashKeySerde.toBuffer(keyBuffer, hashKey);
+			final ByteBuf valueBuffer = context.directValue();
+			valueSerde.toBuffer(valueBuffer, value);
+			db.put(EncoderContext.nioBuffer(keyBuffer), EncoderContext.nioBuffer(valueBuffer));
 		} finally {
-			keyBuffer.release(keyBuffer.refCnt());
-			valueBuffer.release(valueBuffer.refCnt());
+			context.release();
 		}
 	}
 
 	@Override
 	public V get(final H hashKey) {
 		final Txn<ByteBuffer> txn = env.txnRead();
-		final ByteBuf keyBuffer = ByteBufAllocator.DEFAULT.directBuffer();
+		final EncoderContext context = EncoderContext.acquire();
 		try {
+			final ByteBuf keyBuffer = context.directKey();
 			hashKeySerde.toBuffer(keyBuffer, hashKey);
-			final ByteBuffer valueBytes = db.get(txn, keyBuffer.nioBuffer());
+			final ByteBuffer valueBytes = db.get(txn, EncoderContext.nioBuffer(keyBuffer));
 
 			if (valueBytes == null) {
 				return null;
@@ -80,9 +91,34 @@ public class EzLmDbTable<H, V> implements Table<H, V> {
 
 			return valueSerde.fromBuffer(Unpooled.wrappedBuffer(valueBytes));
 		} finally {
-			keyBuffer.release(keyBuffer.refCnt());
+			context.release();
+			txn.close();
+		}
+	}
+
+	@Override
+	public List<V> getAll(final Collection<H> hashKeys) {
+		final List<V> values = new ArrayList<V>(hashKeys.size());
+		// a single read transaction and key buffer is shared by all lookups
+		final Txn<ByteBuffer> txn = env.txnRead();
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			for (final H hashKey : hashKeys) {
+				final ByteBuf keyBuffer = context.directKey();
+				hashKeySerde.toBuffer(keyBuffer, hashKey);
+				final ByteBuffer valueBytes = db.get(txn, EncoderContext.nioBuffer(keyBuffer));
+
+				if (valueBytes == null) {
+					values.add(null);
+				} else {
+					values.add(valueSerde.fromBuffer(Unpooled.wrappedBuffer(valueBytes)));
+				}
+			}
+		} finally {
+			context.release();
 			txn.close();
 		}
+		return values;
 	}
 
 	@Override
@@ -122,12 +158,13 @@ public class EzLmDbTable<H, V> implements Table<H, V> {
 
 	@Override
 	public void delete(final H hashKey) {
-		final ByteBuf buffer = ByteBufAllocator.DEFAULT.directBuffer();
-		hashKeySerde.toBuffer(buffer, hashKey);
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			this.db.delete(buffer.nioBuffer());
+			final ByteBuf buffer = context.directKey();
+			hashKeySerde.toBuffer(buffer, hashKey);
+			this.db.delete(EncoderContext.nioBuffer(buffer));
 		} finally {
-			buffer.release(buffer.refCnt());
+			context.release();
 		}
 	}
 
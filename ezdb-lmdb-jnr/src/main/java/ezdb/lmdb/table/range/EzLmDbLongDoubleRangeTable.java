@@ -0,0 +1,87 @@
+package ezdb.lmdb.table.range;
+
+import java.nio.ByteBuffer;
+
+import ezdb.serde.OrderedLongSerde;
+import ezdb.table.range.LongDoubleRangeCursor;
+import ezdb.table.range.LongDoubleRangeTable;
+import ezdb.util.OrderedKeyFormat;
+
+public class EzLmDbLongDoubleRangeTable extends EzLmDbPrimitiveRangeTable implements LongDoubleRangeTable {
+
+	static final int MAX_KEY_LENGTH = OrderedKeyFormat.maxHashKeyLength(Long.BYTES) + Long.BYTES;
+
+	public EzLmDbLongDoubleRangeTable(final EzLmDbRangeTable<Long, Long, Double> table) {
+		super(table);
+	}
+
+	private Buffers buffers(final long hashKey, final long rangeKey) {
+		final Buffers buffers = buffers();
+		final ByteBuffer key = buffers.key(MAX_KEY_LENGTH);
+		OrderedKeyFormat.putHashKey(key, hashKey);
+		key.putLong(OrderedLongSerde.encode(rangeKey));
+		key.flip();
+		return buffers;
+	}
+
+	@Override
+	public void put(final long hashKey, final long rangeKey, final double value) {
+		put(buffers(hashKey, rangeKey), Double.doubleToRawLongBits(value));
+	}
+
+	@Override
+	public double get(final long hashKey, final long rangeKey) {
+		final Buffers buffers = buffers(hashKey, rangeKey);
+		if (get(buffers)) {
+			return Double.longBitsToDouble(buffers.getValueBits());
+		} else {
+			return Double.NaN;
+		}
+	}
+
+	@Override
+	public double getLatestValue(final long hashKey, final long rangeKey) {
+		final Buffers buffers = buffers(hashKey, rangeKey);
+		if (getLatest(buffers)) {
+			return Double.longBitsToDouble(buffers.getValueBits());
+		} else {
+			return Double.NaN;
+		}
+	}
+
+	@Override
+	public void delete(final long hashKey, final long rangeKey) {
+		delete(buffers(hashKey, rangeKey));
+	}
+
+	@Override
+	public LongDoubleRangeCursor newCursor() {
+		return new Cursor();
+	}
+
+	private final class Cursor extends EzLmDbPrimitiveRangeCursor implements LongDoubleRangeCursor {
+
+		private Cursor() {
+			super(EzLmDbLongDoubleRangeTable.this);
+		}
+
+		@Override
+		public boolean seek(final long hashKey, final long rangeKey) {
+			OrderedKeyFormat.putHashKey(key(MAX_KEY_LENGTH), hashKey);
+			return seek(rangeKey);
+		}
+
+		@Override
+		public boolean seekForPrev(final long hashKey, final long rangeKey) {
+			OrderedKeyFormat.putHashKey(key(MAX_KEY_LENGTH), hashKey);
+			return seekForPrev(rangeKey);
+		}
+
+		@Override
+		public double getValue() {
+			return Double.longBitsToDouble(getValueBits());
+		}
+
+	}
+
+}
@@ -0,0 +1,105 @@
+package ezdb.lmdb.table.range;
+
+import java.nio.ByteBuffer;
+
+import org.lmdbjava.Cursor;
+import org.lmdbjava.GetOp;
+import org.lmdbjava.Txn;
+
+import ezdb.serde.OrderedLongSerde;
+import ezdb.util.OrderedKeyFormat;
+
+/**
+ * Base of the primitive cursors, keeps one read transaction and one lmdb cursor
+ * open until it is closed. The rows are read straight from the memory map.
+ */
+abstract class EzLmDbPrimitiveRangeCursor {
+
+	private static final int INITIAL_KEY_CAPACITY = 64;
+
+	private final Txn<ByteBuffer> txn;
+	private final Cursor<ByteBuffer> cursor;
+	private ByteBuffer key = ByteBuffer.allocateDirect(INITIAL_KEY_CAPACITY);
+	private int hashKeyLength;
+	private boolean valid;
+
+	protected EzLmDbPrimitiveRangeCursor(final EzLmDbPrimitiveRangeTable table) {
+		this.txn = table.env.txnRead();
+		this.cursor = table.db.openCursor(txn);
+	}
+
+	/**
+	 * @return the cleared key buffer to write the hash key into
+	 */
+	protected ByteBuffer key(final int maxLength) {
+		if (key.capacity() < maxLength) {
+			key = ByteBuffer.allocateDirect(Math.max(maxLength, key.capacity() * 2));
+		}
+		key.clear();
+		return key;
+	}
+
+	/**
+	 * Appends the range key to the hash key that was written into the key buffer.
+	 */
+	private void putRangeKey(final long rangeKey) {
+		hashKeyLength = key.position();
+		key.putLong(OrderedLongSerde.encode(rangeKey));
+		key.flip();
+	}
+
+	protected boolean seek(final long rangeKey) {
+		putRangeKey(rangeKey);
+		valid = cursor.get(key, GetOp.MDB_SET_RANGE);
+		return current();
+	}
+
+	protected boolean seekForPrev(final long rangeKey) {
+		putRangeKey(rangeKey);
+		valid = cursor.get(key, GetOp.MDB_SET_RANGE);
+		if (!valid) {
+			valid = cursor.last();
+		} else if (!EzLmDbPrimitiveRangeTable.equal(key, cursor.key())) {
+			valid = cursor.prev();
+		}
+		return current();
+	}
+
+	public boolean next() {
+		if (!valid) {
+			return false;
+		}
+		valid = cursor.next();
+		return current();
+	}
+
+	public boolean prev() {
+		if (!valid) {
+			return false;
+		}
+		valid = cursor.prev();
+		return current();
+	}
+
+	private boolean current() {
+		if (valid && !OrderedKeyFormat.hasHashKey(cursor.key(), key, hashKeyLength)) {
+			valid = false;
+		}
+		return valid;
+	}
+
+	public long getRangeKey() {
+		final ByteBuffer current = cursor.key();
+		return OrderedLongSerde.decode(current.getLong(current.limit() - Long.BYTES));
+	}
+
+	protected long getValueBits() {
+		return cursor.val().getLong(0);
+	}
+
+	public void close() {
+		cursor.close();
+		txn.close();
+	}
+
+}
@@ -0,0 +1,143 @@
+package ezdb.lmdb.table.range;
+
+import java.nio.ByteBuffer;
+
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.Env;
+import org.lmdbjava.GetOp;
+import org.lmdbjava.Txn;
+
+import ezdb.comparator.BytewiseComparator;
+import ezdb.util.OrderedKeyFormat;
+
+/**
+ * Base of the primitive range tables, which share the environment and database
+ * of a regular range table that uses the {@link OrderedKeyFormat}. Keys and
+ * values are encoded into direct buffers that are reused per thread, so no
+ * buffers are allocated per call.
+ */
+abstract class EzLmDbPrimitiveRangeTable {
+
+	private static final int INITIAL_KEY_CAPACITY = 64;
+
+	protected final EzLmDbRangeTable<?, ?, ?> table;
+	protected final Env<ByteBuffer> env;
+	protected final Dbi<ByteBuffer> db;
+	private final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+		@Override
+		protected Buffers initialValue() {
+			return new Buffers();
+		}
+	};
+
+	protected EzLmDbPrimitiveRangeTable(final EzLmDbRangeTable<?, ?, ?> table) {
+		if (!(table.getKeyFormat() instanceof OrderedKeyFormat)) {
+			throw new IllegalStateException(
+					"Primitive tables require a table opened with the " + BytewiseComparator.class.getSimpleName());
+		}
+		this.table = table;
+		this.env = table.getEnv();
+		this.db = table.getDbi();
+	}
+
+	protected static final class Buffers {
+		private ByteBuffer key = ByteBuffer.allocateDirect(INITIAL_KEY_CAPACITY);
+		private final ByteBuffer value = ByteBuffer.allocateDirect(Long.BYTES);
+		private long valueBits;
+
+		/**
+		 * @return the cleared key buffer, it has to be flipped after writing the key
+		 */
+		protected ByteBuffer key(final int maxLength) {
+			if (key.capacity() < maxLength) {
+				key = ByteBuffer.allocateDirect(Math.max(maxLength, key.capacity() * 2));
+			}
+			key.clear();
+			return key;
+		}
+
+		protected long getValueBits() {
+			return valueBits;
+		}
+	}
+
+	protected Buffers buffers() {
+		return buffers.get();
+	}
+
+	protected void put(final Buffers buffers, final long valueBits) {
+		buffers.value.clear();
+		buffers.value.putLong(0, valueBits);
+		db.put(buffers.key, buffers.value);
+	}
+
+	/**
+	 * @return true if the key exists, its value is then available from
+	 *         {@link Buffers#getValueBits()}
+	 */
+	protected boolean get(final Buffers buffers) {
+		final Txn<ByteBuffer> txn = env.txnRead();
+		try {
+			final ByteBuffer value = db.get(txn, buffers.key);
+			if (value == null) {
+				return false;
+			}
+			buffers.valueBits = value.getLong(0);
+			return true;
+		} finally {
+			txn.close();
+		}
+	}
+
+	/**
+	 * Finds the last row at or before the key within the hash key, or else the
+	 * first one after it, with a single MDB_SET_RANGE like
+	 * {@link EzLmDbRangeCursor#seekForPrev(Object, Object, boolean)}.
+	 */
+	protected boolean getLatest(final Buffers buffers) {
+		final ByteBuffer key = buffers.key;
+		final int hashKeyLength = key.limit() - Long.BYTES;
+		final Txn<ByteBuffer> txn = env.txnRead();
+		try {
+			final Cursor<ByteBuffer> cursor = db.openCursor(txn);
+			try {
+				boolean valid = cursor.get(key, GetOp.MDB_SET_RANGE);
+				if (!valid) {
+					valid = cursor.last();
+				} else if (!equal(key, cursor.key())) {
+					valid = cursor.prev();
+				}
+				if (!valid || !OrderedKeyFormat.hasHashKey(cursor.key(), key, hashKeyLength)) {
+					if (valid) {
+						valid = cursor.next();
+					} else {
+						valid = cursor.first();
+					}
+					if (!valid || !OrderedKeyFormat.hasHashKey(cursor.key(), key, hashKeyLength)) {
+						return false;
+					}
+				}
+				buffers.valueBits = cursor.val().getLong(0);
+				return true;
+			} finally {
+				cursor.close();
+			}
+		} finally {
+			txn.close();
+		}
+	}
+
+	protected void delete(final Buffers buffers) {
+		db.delete(buffers.key);
+	}
+
+	static boolean equal(final ByteBuffer k1, final ByteBuffer k2) {
+		return BytewiseComparator.compare(k1, 0, k1.limit(), k2, 0, k2.limit()) == 0;
+	}
+
+	public void close() {
+		table.close();
+	}
+
+}
@@ -10,7 +10,8 @@ import org.lmdbjava.Txn.NotReadyException;
 
 import ezdb.serde.Serde;
 import ezdb.table.range.RangeBatch;
-import ezdb.util.Util;
+import ezdb.util.EncoderContext;
+import ezdb.util.KeyFormat;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 
@@ -21,16 +22,18 @@ public class EzLmDbRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 	private final Serde<H> hashKeySerde;
 	private final Serde<R> rangeKeySerde;
 	private final Serde<V> valueSerde;
+	private final KeyFormat keyFormat;
 	private final ByteBuf keyBuffer;
 	private final ByteBuf valueBuffer;
 
 	public EzLmDbRangeBatch(final Env<ByteBuffer> env, final Dbi<ByteBuffer> db, final Serde<H> hashKeySerde,
-			final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final KeyFormat keyFormat) {
 		this.db = db;
 		this.txn = env.txnWrite();
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
+		this.keyFormat = keyFormat;
 		this.keyBuffer = ByteBufAllocator.DEFAULT.directBuffer();
 		this.valueBuffer = ByteBufAllocator.DEFAULT.directBuffer();
 	}
@@ -65,17 +68,17 @@ public class EzLmDbRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 	@Override
 	public void put(final H hashKey, final R rangeKey, final V value) {
 		keyBuffer.clear();
-		Util.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
 		valueBuffer.clear();
 		valueSerde.toBuffer(valueBuffer, value);
-		db.put(txn, keyBuffer.nioBuffer(), valueBuffer.nioBuffer());
+		db.put(txn, EncoderContext.nioBuffer(keyBuffer), EncoderContext.nioBuffer(valueBuffer));
 	}
 
 	@Override
 	public void delete(final H hashKey, final R rangeKey) {
 		keyBuffer.clear();
-		Util.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
-		db.delete(txn, keyBuffer.nioBuffer());
+		keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		db.delete(txn, EncoderContext.nioBuffer(keyBuffer));
 	}
 
 }
@@ -3,7 +3,8 @@ package ezdb.lmdb.table.range;
 import java.nio.ByteBuffer;
 import java.util.Comparator;
 
-import ezdb.util.Util;
+import ezdb.util.KeyFormat;
+import ezdb.util.LengthPrefixedKeyFormat;
 
 /**
  * LevelDb provides a comparator interface that we can use to handle hash/range
@@ -16,16 +17,23 @@ public class EzLmDbRangeComparator implements Comparator<ByteBuffer> {
 
 	private final Comparator<ByteBuffer> hashKeyComparator;
 	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
 
 	public EzLmDbRangeComparator(final Comparator<ByteBuffer> hashKeyComparator,
 			final Comparator<ByteBuffer> rangeKeyComparator) {
+		this(hashKeyComparator, rangeKeyComparator, LengthPrefixedKeyFormat.get);
+	}
+
+	public EzLmDbRangeComparator(final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
 		this.hashKeyComparator = hashKeyComparator;
 		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyFormat = keyFormat;
 	}
 
 	@Override
 	public int compare(final ByteBuffer a, final ByteBuffer b) {
-		return Util.compareKeys(hashKeyComparator, rangeKeyComparator, a, b);
+		return keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, a, b);
 	}
 
 }
@@ -0,0 +1,161 @@
+package ezdb.lmdb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.Env;
+import org.lmdbjava.GetOp;
+import org.lmdbjava.Txn;
+
+import ezdb.serde.Serde;
+import ezdb.table.RangeTableRow;
+import ezdb.table.range.RangeCursor;
+import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Keeps one read transaction and one lmdb cursor open for all seeks until it is
+ * closed. The key buffer is reused as well.
+ */
+public class EzLmDbRangeCursor<H, R, V> implements RangeCursor<H, R, V> {
+	private final Txn<ByteBuffer> txn;
+	private final Cursor<ByteBuffer> cursor;
+	private final ByteBuf keyBuffer;
+	private final Serde<H> hashKeySerde;
+	private final Serde<R> rangeKeySerde;
+	private final Serde<V> valueSerde;
+	private final Comparator<ByteBuffer> hashKeyComparator;
+	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
+	/**
+	 * The key of the last seek, only its hash key is compared. Null means that
+	 * the cursor is not bound to a hash key.
+	 */
+	private ByteBuffer key;
+	private boolean valid;
+
+	public EzLmDbRangeCursor(final Env<ByteBuffer> env, final Dbi<ByteBuffer> db, final Serde<H> hashKeySerde,
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
+		this.txn = env.txnRead();
+		this.cursor = db.openCursor(txn);
+		this.keyBuffer = ByteBufAllocator.DEFAULT.directBuffer();
+		this.hashKeySerde = hashKeySerde;
+		this.rangeKeySerde = rangeKeySerde;
+		this.valueSerde = valueSerde;
+		this.hashKeyComparator = hashKeyComparator;
+		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyFormat = keyFormat;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seek(final H hashKey, final R rangeKey) {
+		if (hashKey == null && rangeKey == null) {
+			key = null;
+			valid = cursor.first();
+			return current();
+		}
+		keyBuffer.clear();
+		keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		key = keyBuffer.nioBuffer();
+		valid = cursor.get(key, GetOp.MDB_SET_RANGE);
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey) {
+		return seekForPrev(hashKey, rangeKey, false);
+	}
+
+	/**
+	 * Finds the last row of the hash key that is at or before the range key with a
+	 * single MDB_SET_RANGE followed by MDB_PREV. Without a range key, the end of
+	 * the hash key is used as the seek target, thus the hash key does not need to
+	 * be scanned forward.
+	 * 
+	 * @param orNext
+	 *            if no such row exists, position on the first row after the range
+	 *            key instead, which is the fallback of getLatest
+	 */
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey, final boolean orNext) {
+		if (hashKey == null && rangeKey == null) {
+			key = null;
+			valid = cursor.last();
+			return current();
+		}
+		keyBuffer.clear();
+		if (rangeKey == null) {
+			keyFormat.combineBufEnd(keyBuffer, hashKeySerde, hashKey);
+		} else {
+			keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		}
+		key = keyBuffer.nioBuffer();
+		// MDB_SET_RANGE positions on the first key >= the target
+		valid = cursor.get(key, GetOp.MDB_SET_RANGE);
+		if (!valid) {
+			valid = cursor.last();
+		} else if (keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, key, cursor.key()) != 0) {
+			valid = cursor.prev();
+		}
+		final RangeTableRow<H, R, V> prev = current();
+		if (prev != null || !orNext) {
+			return prev;
+		}
+		if (valid) {
+			valid = cursor.next();
+		} else {
+			valid = cursor.first();
+		}
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> next() {
+		if (!valid) {
+			return null;
+		}
+		valid = cursor.next();
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> prev() {
+		if (!valid) {
+			return null;
+		}
+		valid = cursor.prev();
+		return current();
+	}
+
+	private RangeTableRow<H, R, V> current() {
+		if (!valid) {
+			return null;
+		}
+		if (key != null && keyFormat.compareKeys(hashKeyComparator, null, key, cursor.key()) != 0) {
+			return null;
+		}
+		// the buffers point into the memory map and have to be copied, since the row
+		// might be used after the transaction is closed
+		return RawRangeTableRow.valueOfBuffer(copy(cursor.key()), copy(cursor.val()), hashKeySerde, rangeKeySerde,
+				valueSerde, keyFormat);
+	}
+
+	private static ByteBuffer copy(final ByteBuffer buffer) {
+		final ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+		copy.put(buffer.duplicate());
+		copy.clear();
+		return copy;
+	}
+
+	@Override
+	public void close() {
+		keyBuffer.release(keyBuffer.refCnt());
+		cursor.close();
+		txn.close();
+	}
+
+}
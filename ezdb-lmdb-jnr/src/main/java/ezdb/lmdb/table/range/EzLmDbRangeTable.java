@@ -3,18 +3,27 @@ package ezdb.lmdb.table.range;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 
+import org.lmdbjava.Cursor;
 import org.lmdbjava.Dbi;
 import org.lmdbjava.DbiFlags;
 import org.lmdbjava.Env;
 import org.lmdbjava.EnvFlags;
+import org.lmdbjava.GetOp;
+import org.lmdbjava.PutFlags;
 import org.lmdbjava.Txn;
 
 import ezdb.DbException;
 import ezdb.lmdb.EzLmDbFactory;
 import ezdb.lmdb.util.EzDBRangeIterator;
+import ezdb.lmdb.util.KeyFormatMetadata;
 import ezdb.lmdb.util.LmDBJnrDBRangeIterator;
 import ezdb.serde.Serde;
 import ezdb.table.Batch;
@@ -22,13 +31,23 @@ import ezdb.table.RangeTableRow;
 import ezdb.table.range.EmptyRangeTableIterator;
 import ezdb.table.range.RangeBatch;
 import ezdb.table.range.RangeTable;
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
+import ezdb.util.EncoderContext;
+import ezdb.util.KeyFormat;
 import ezdb.util.TableIterator;
-import ezdb.util.Util;
+import ezdb.util.TransformingTableIterator;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 
 public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
+	/**
+	 * Rows per write transaction of a bulk load, large enough to amortize the
+	 * commits while keeping the dirty pages of a transaction bounded.
+	 */
+	private static final int BULK_LOAD_TXN_ROWS = 100_000;
+
 	private final Env<ByteBuffer> env;
 	private final Dbi<ByteBuffer> db;
 	private final Serde<H> hashKeySerde;
@@ -36,15 +55,27 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	private final Serde<V> valueSerde;
 	private final Comparator<ByteBuffer> hashKeyComparator;
 	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
 
 	public EzLmDbRangeTable(final File path, final EzLmDbFactory factory, final Serde<H> hashKeySerde,
 			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
 			final Comparator<ByteBuffer> rangeKeyComparator) {
+		this(path, factory, hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator, null);
+	}
+
+	/**
+	 * @param keyFormat The format of the compound keys, null chooses it by the
+	 *                  comparators.
+	 */
+	public EzLmDbRangeTable(final File path, final EzLmDbFactory factory, final Serde<H> hashKeySerde,
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
 		this.hashKeyComparator = hashKeyComparator;
 		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyFormat = KeyFormat.valueOf(hashKeyComparator, rangeKeyComparator, keyFormat);
 
 		try {
 			this.env = factory.create(path.getParentFile(), EnvFlags.MDB_NOTLS, EnvFlags.MDB_WRITEMAP,
@@ -52,7 +83,19 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		} catch (final IOException e) {
 			throw new DbException(e);
 		}
-		final EzLmDbRangeComparator comparator = new EzLmDbRangeComparator(hashKeyComparator, rangeKeyComparator);
+		try {
+			KeyFormatMetadata.checkOrStore(env, path.getName(), this.keyFormat);
+		} catch (final RuntimeException e) {
+			env.close();
+			throw e;
+		}
+		final EzLmDbRangeComparator comparator;
+		if (this.keyFormat.isBytewise()) {
+			// null lets lmdb compare the keys natively without a java callback
+			comparator = null;
+		} else {
+			comparator = new EzLmDbRangeComparator(hashKeyComparator, rangeKeyComparator, this.keyFormat);
+		}
 		try {
 			this.db = factory.open(path.getName(), env, comparator, true, DbiFlags.MDB_CREATE);
 		} catch (final IOException e) {
@@ -67,15 +110,15 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public void put(final H hashKey, final R rangeKey, final V value) {
-		final ByteBuf keyBuffer = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
-		final ByteBuf valueBuffer = ByteBufAllocator.DEFAULT.directBuffer();
-		valueSerde.toBuffer(valueBuffer, value);
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			db.put(keyBuffer.nioBuffer(), valueBuffer.nioBuffer());
+			final ByteBuf keyBuffer = context.directKey();
+			keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			final ByteBuf valueBuffer = context.directValue();
+			valueSerde.toBuffer(valueBuffer, value);
+			db.put(EncoderContext.nioBuffer(keyBuffer), EncoderContext.nioBuffer(valueBuffer));
 		} finally {
-			keyBuffer.release(keyBuffer.refCnt());
-			valueBuffer.release(valueBuffer.refCnt());
+			context.release();
 		}
 	}
 
@@ -87,10 +130,11 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	@Override
 	public V get(final H hashKey, final R rangeKey) {
 		final Txn<ByteBuffer> txn = env.txnRead();
-		final ByteBuf keyBuffer = ByteBufAllocator.DEFAULT.directBuffer();
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			Util.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
-			final ByteBuffer valueBytes = db.get(txn, keyBuffer.nioBuffer());
+			final ByteBuf keyBuffer = context.directKey();
+			keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			final ByteBuffer valueBytes = db.get(txn, EncoderContext.nioBuffer(keyBuffer));
 
 			if (valueBytes == null) {
 				return null;
@@ -98,15 +142,65 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 			return valueSerde.fromBuffer(Unpooled.wrappedBuffer(valueBytes));
 		} finally {
-			keyBuffer.release(keyBuffer.refCnt());
+			context.release();
+			txn.close();
+		}
+	}
+
+	@Override
+	public List<V> getAll(final Collection<H> hashKeys) {
+		final List<V> values = new ArrayList<V>(hashKeys.size());
+		// a single read transaction and key buffer is shared by all lookups
+		final Txn<ByteBuffer> txn = env.txnRead();
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf keyBuffer = context.directKey();
+			for (final H hashKey : hashKeys) {
+				values.add(get(txn, keyBuffer, hashKey, null));
+			}
+		} finally {
+			context.release();
+			txn.close();
+		}
+		return values;
+	}
+
+	@Override
+	public List<V> multiGet(final List<? extends Entry<H, R>> keys) {
+		final List<V> values = new ArrayList<V>(keys.size());
+		final Txn<ByteBuffer> txn = env.txnRead();
+		final EncoderContext context = EncoderContext.acquire();
+		try {
+			final ByteBuf keyBuffer = context.directKey();
+			for (int i = 0; i < keys.size(); i++) {
+				final Entry<H, R> key = keys.get(i);
+				values.add(get(txn, keyBuffer, key.getKey(), key.getValue()));
+			}
+		} finally {
+			context.release();
 			txn.close();
 		}
+		return values;
+	}
+
+	private V get(final Txn<ByteBuffer> txn, final ByteBuf keyBuffer, final H hashKey, final R rangeKey) {
+		keyBuffer.clear();
+		keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		final ByteBuffer valueBytes = db.get(txn, EncoderContext.nioBuffer(keyBuffer));
+
+		if (valueBytes == null) {
+			return null;
+		}
+
+		// the value points into the memory map and has to be decoded before the
+		// transaction is closed
+		return valueSerde.fromBuffer(Unpooled.wrappedBuffer(valueBytes));
 	}
 
 	@Override
 	public TableIterator<RangeTableRow<H, R, V>> range() {
 		final EzDBRangeIterator<H, R, V> iterator = new LmDBJnrDBRangeIterator<H, R, V>(env, db, hashKeySerde,
-				rangeKeySerde, valueSerde);
+				rangeKeySerde, valueSerde, keyFormat);
 		iterator.seekToFirst();
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
@@ -145,16 +239,16 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range();
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new LmDBJnrDBRangeIterator<H, R, V>(env, db, hashKeySerde,
-				rangeKeySerde, valueSerde);
+				rangeKeySerde, valueSerde, keyFormat);
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, null);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, null);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		iterator.seek(keyBytesFrom);
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
 				return iterator.hasNext()
-						&& Util.compareKeys(hashKeyComparator, null, keyBytesFrom, iterator.peekNextKey()) == 0;
+						&& keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, iterator.peekNextKey()) == 0;
 			}
 
 			@Override
@@ -189,16 +283,16 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey);
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new LmDBJnrDBRangeIterator<H, R, V>(env, db, hashKeySerde,
-				rangeKeySerde, valueSerde);
+				rangeKeySerde, valueSerde, keyFormat);
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		iterator.seek(keyBytesFrom);
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
 				return iterator.hasNext()
-						&& Util.compareKeys(hashKeyComparator, null, keyBytesFrom, iterator.peekNextKey()) == 0;
+						&& keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, iterator.peekNextKey()) == 0;
 			}
 
 			@Override
@@ -233,18 +327,18 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey, fromRangeKey);
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new LmDBJnrDBRangeIterator<H, R, V>(env, db, hashKeySerde,
-				rangeKeySerde, valueSerde);
+				rangeKeySerde, valueSerde, keyFormat);
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		final ByteBuf keyBytesToBuf = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(keyBytesToBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		keyFormat.combineBuf(keyBytesToBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		final ByteBuffer keyBytesTo = keyBytesToBuf.nioBuffer();
 		iterator.seek(keyBytesFrom);
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo,
 						iterator.peekNextKey()) >= 0;
 			}
 
@@ -278,7 +372,7 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	@Override
 	public TableIterator<RangeTableRow<H, R, V>> rangeReverse() {
 		final EzDBRangeIterator<H, R, V> iterator = new LmDBJnrDBRangeIterator<H, R, V>(env, db, hashKeySerde,
-				rangeKeySerde, valueSerde);
+				rangeKeySerde, valueSerde, keyFormat);
 		iterator.seekToLast();
 
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
@@ -338,11 +432,11 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse();
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new LmDBJnrDBRangeIterator<H, R, V>(env, db, hashKeySerde,
-				rangeKeySerde, valueSerde);
+				rangeKeySerde, valueSerde, keyFormat);
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey, toRangeKey, keyBytesFrom, keyBytesTo,
-				peekKey) -> Util.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0;
+				peekKey) -> keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0;
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, null);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, null);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, null, keyBytesFrom,
 				null, iterator, checkKeys);
@@ -436,20 +530,20 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse(hashKey);
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new LmDBJnrDBRangeIterator<H, R, V>(env, db, hashKeySerde,
-				rangeKeySerde, valueSerde);
+				rangeKeySerde, valueSerde, keyFormat);
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey1, toRangeKey, keyBytesFrom, keyBytesTo,
 				peekKey) -> {
-			return Util.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0 && (fromRangeKey1 == null
-					|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKey) >= 0);
+			return keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0 && (fromRangeKey1 == null
+					|| keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKey) >= 0);
 		};
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		iterator.seek(keyBytesFrom);
 		if (!iterator.hasNext() || fromRangeKey == null) {
 			final ByteBuf keyBytesFromForSeekLastBuf = ByteBufAllocator.DEFAULT.directBuffer();
 			try {
-				Util.combineBuf(keyBytesFromForSeekLastBuf, hashKeySerde, rangeKeySerde, hashKey, null);
+				keyFormat.combineBuf(keyBytesFromForSeekLastBuf, hashKeySerde, rangeKeySerde, hashKey, null);
 				final ByteBuffer keyBytesFromForSeekLast = keyBytesFromForSeekLastBuf.nioBuffer();
 				final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, null,
 						keyBytesFromForSeekLast, null, iterator, checkKeys);
@@ -529,24 +623,24 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse(hashKey, fromRangeKey);
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new LmDBJnrDBRangeIterator<H, R, V>(env, db, hashKeySerde,
-				rangeKeySerde, valueSerde);
+				rangeKeySerde, valueSerde, keyFormat);
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey1, toRangeKey1, keyBytesFrom, keyBytesTo,
-				peekKey) -> Util.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0
+				peekKey) -> keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKey) == 0
 						&& (fromRangeKey1 == null
-								|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKey) >= 0)
+								|| keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKey) >= 0)
 						&& (toRangeKey1 == null
-								|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo, peekKey) <= 0);
+								|| keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo, peekKey) <= 0);
 		final ByteBuf keyBytesFromBuf = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFromBuf, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFrom = keyBytesFromBuf.nioBuffer();
 		final ByteBuf keyBytesToBuf = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(keyBytesToBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		keyFormat.combineBuf(keyBytesToBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		final ByteBuffer keyBytesTo = keyBytesToBuf.nioBuffer();
 		iterator.seek(keyBytesFrom);
 		if (!iterator.hasNext() || fromRangeKey == null) {
 			final ByteBuf keyBytesFromForSeekLastBuf = ByteBufAllocator.DEFAULT.directBuffer();
 			try {
-				Util.combineBuf(keyBytesFromForSeekLastBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+				keyFormat.combineBuf(keyBytesFromForSeekLastBuf, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 				final ByteBuffer keyBytesFromForSeekLast = keyBytesFromForSeekLastBuf.nioBuffer();
 				final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, toRangeKey,
 						keyBytesFromForSeekLast, keyBytesTo, iterator, checkKeys);
@@ -629,12 +723,13 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public void delete(final H hashKey, final R rangeKey) {
-		final ByteBuf buffer = ByteBufAllocator.DEFAULT.directBuffer();
-		Util.combineBuf(buffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			this.db.delete(buffer.nioBuffer());
+			final ByteBuf buffer = context.directKey();
+			keyFormat.combineBuf(buffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			this.db.delete(EncoderContext.nioBuffer(buffer));
 		} finally {
-			buffer.release(buffer.refCnt());
+			context.release();
 		}
 	}
 
@@ -648,6 +743,21 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		}
 	}
 
+	Env<ByteBuffer> getEnv() {
+		return env;
+	}
+
+	Dbi<ByteBuffer> getDbi() {
+		return db;
+	}
+
+	/**
+	 * @return the format of the compound keys, fixed when the table was created
+	 */
+	public KeyFormat getKeyFormat() {
+		return keyFormat;
+	}
+
 	private static class AutoClosingTableIterator<_H, _R, _V> implements TableIterator<RangeTableRow<_H, _R, _V>> {
 
 		private final TableIterator<RangeTableRow<_H, _R, _V>> delegate;
@@ -701,50 +811,16 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey) {
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey);
-		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey);
-				try {
-					if (range.hasNext()) {
-						return range.next();
-					} else {
-						return null;
-					}
-				} finally {
-					range.close();
-				}
-			}
-		} finally {
-			rangeReverse.close();
-		}
+		return getLatest(hashKey, null);
 	}
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey, final R rangeKey) {
-		if (rangeKey == null) {
-			return getLatest(hashKey);
-		}
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey, rangeKey);
+		final EzLmDbRangeCursor<H, R, V> cursor = newRangeCursor();
 		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, rangeKey);
-				try {
-					if (range.hasNext()) {
-						return range.next();
-					} else {
-						return null;
-					}
-				} finally {
-					range.close();
-				}
-			}
+			return cursor.seekForPrev(hashKey, rangeKey, true);
 		} finally {
-			rangeReverse.close();
+			cursor.close();
 		}
 	}
 
@@ -764,16 +840,66 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getPrev(final H hashKey, final R rangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey, rangeKey);
+		final EzLmDbRangeCursor<H, R, V> cursor = newRangeCursor();
 		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				return null;
-			}
+			return cursor.seekForPrev(hashKey, rangeKey);
 		} finally {
-			rangeReverse.close();
+			cursor.close();
+		}
+	}
+
+	@Override
+	public EzLmDbRangeCursor<H, R, V> newRangeCursor() {
+		return new EzLmDbRangeCursor<H, R, V>(env, db, hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator,
+				rangeKeyComparator, keyFormat);
+	}
+
+	@Override
+	public Serde<H> getHashKeySerde() {
+		return hashKeySerde;
+	}
+
+	@Override
+	public Serde<R> getRangeKeySerde() {
+		return rangeKeySerde;
+	}
+
+	@Override
+	public Serde<V> getValueSerde() {
+		return valueSerde;
+	}
+
+	@Override
+	public TableIterator<RangeTableRowView<H, R, V>> rangeView(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		return newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true);
+	}
+
+	@Override
+	public TableIterator<Entry<H, R>> rangeKeys(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, Entry<H, R>>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, false), RangeTableRowView::copyKey);
+	}
+
+	@Override
+	public TableIterator<V> rangeValues(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, V>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true), RangeTableRowView::copyValue);
+	}
+
+	private RangeTableRowViewIterator<H, R, V> newRangeViewIterator(final H hashKey, final R fromRangeKey,
+			final R toRangeKey, final boolean fetchValues) {
+		ByteBuffer keyBytesFrom = null;
+		ByteBuffer keyBytesTo = null;
+		if (hashKey != null) {
+			keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+			if (toRangeKey != null) {
+				keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+			}
 		}
+		return new EzLmDbRangeViewIterator<H, R, V>(env, db,
+				new RangeTableRowView<H, R, V>(hashKeySerde, rangeKeySerde, valueSerde, keyFormat), keyFormat,
+				hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
 	}
 
 	@Override
@@ -783,25 +909,121 @@ public class EzLmDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeBatch<H, R, V> newRangeBatch() {
-		return new EzLmDbRangeBatch<H, R, V>(env, db, hashKeySerde, rangeKeySerde, valueSerde);
+		return new EzLmDbRangeBatch<H, R, V>(env, db, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey);
-		internalDeleteRange(range);
+		deleteRange(hashKey, null, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey);
-		internalDeleteRange(range);
+		deleteRange(hashKey, fromRangeKey, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey, final R toRangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey, toRangeKey);
-		internalDeleteRange(range);
+		if (hashKey == null) {
+			final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey, toRangeKey);
+			internalDeleteRange(range);
+			return;
+		}
+		final ByteBuf keyBuffer = ByteBufAllocator.DEFAULT.directBuffer();
+		keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final ByteBuffer keyBytesFrom = keyBuffer.nioBuffer();
+		final ByteBuffer keyBytesTo;
+		if (toRangeKey == null) {
+			keyBytesTo = null;
+		} else {
+			keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		}
+		// the rows are deleted in place by the cursor, all in one write transaction
+		final Txn<ByteBuffer> txn = env.txnWrite();
+		try {
+			final Cursor<ByteBuffer> cursor = db.openCursor(txn);
+			try {
+				boolean valid = cursor.get(keyBytesFrom, GetOp.MDB_SET_RANGE);
+				while (valid) {
+					final ByteBuffer key = cursor.key();
+					if (keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, key) != 0
+							|| keyBytesTo != null && keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator,
+									keyBytesTo, key) < 0) {
+						break;
+					}
+					cursor.delete();
+					// the cursor now points to the row after the deleted one, which MDB_NEXT
+					// returns without moving on
+					valid = cursor.next();
+				}
+			} finally {
+				cursor.close();
+			}
+			txn.commit();
+		} finally {
+			txn.close();
+			keyBuffer.release(keyBuffer.refCnt());
+		}
+	}
+
+	@Override
+	public void bulkLoad(final Iterator<? extends RangeTableRow<H, R, V>> rows) {
+		final ByteBuf keyBuffer = ByteBufAllocator.DEFAULT.directBuffer();
+		final ByteBuf valueBuffer = ByteBufAllocator.DEFAULT.directBuffer();
+		Txn<ByteBuffer> txn = env.txnWrite();
+		try {
+			// rows up to the last existing key are put normally, rows after it are
+			// appended to the tree without searching for their page
+			ByteBuffer lastKey = lastKey(txn);
+			int count = 0;
+			while (rows.hasNext()) {
+				final RangeTableRow<H, R, V> row = rows.next();
+				keyBuffer.clear();
+				keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, row.getHashKey(), row.getRangeKey());
+				valueBuffer.clear();
+				valueSerde.toBuffer(valueBuffer, row.getValue());
+				final ByteBuffer key = keyBuffer.nioBuffer();
+				if (lastKey != null
+						&& keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, lastKey, key) < 0) {
+					lastKey = null;
+				}
+				if (lastKey == null) {
+					db.put(txn, key, valueBuffer.nioBuffer(), PutFlags.MDB_APPEND);
+				} else {
+					db.put(txn, key, valueBuffer.nioBuffer());
+				}
+				count++;
+				if (count % BULK_LOAD_TXN_ROWS == 0) {
+					txn.commit();
+					txn.close();
+					txn = env.txnWrite();
+				}
+			}
+			txn.commit();
+		} finally {
+			txn.close();
+			keyBuffer.release(keyBuffer.refCnt());
+			valueBuffer.release(valueBuffer.refCnt());
+		}
+	}
+
+	/**
+	 * @return a copy of the largest key, or null if the table is empty
+	 */
+	private ByteBuffer lastKey(final Txn<ByteBuffer> txn) {
+		final Cursor<ByteBuffer> cursor = db.openCursor(txn);
+		try {
+			if (!cursor.last()) {
+				return null;
+			}
+			final ByteBuffer key = cursor.key();
+			final ByteBuffer copy = ByteBuffer.allocate(key.remaining());
+			copy.put(key.duplicate());
+			copy.clear();
+			return copy;
+		} finally {
+			cursor.close();
+		}
 	}
 
 	private void internalDeleteRange(final TableIterator<RangeTableRow<H, R, V>> range) {
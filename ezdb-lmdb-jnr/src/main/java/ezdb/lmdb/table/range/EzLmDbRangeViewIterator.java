@@ -0,0 +1,74 @@
+package ezdb.lmdb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import org.lmdbjava.Cursor;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.Env;
+import org.lmdbjava.GetOp;
+import org.lmdbjava.Txn;
+
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
+import ezdb.util.KeyFormat;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Scans an lmdb cursor into a single row view. The buffers of the view point
+ * directly into the memory map, thus nothing is copied per entry. They are only
+ * valid until the iterator moves on or is closed.
+ */
+public class EzLmDbRangeViewIterator<H, R, V> extends RangeTableRowViewIterator<H, R, V> {
+	private final Txn<ByteBuffer> txn;
+	private final Cursor<ByteBuffer> cursor;
+	private final ByteBuffer keyBytesFrom;
+
+	public EzLmDbRangeViewIterator(final Env<ByteBuffer> env, final Dbi<ByteBuffer> db,
+			final RangeTableRowView<H, R, V> view, final KeyFormat keyFormat,
+			final Comparator<ByteBuffer> hashKeyComparator, final Comparator<ByteBuffer> rangeKeyComparator,
+			final ByteBuffer keyBytesFrom, final ByteBuffer keyBytesTo, final boolean fetchValues) {
+		super(view, keyFormat, hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
+		this.txn = env.txnRead();
+		this.cursor = db.openCursor(txn);
+		this.keyBytesFrom = keyBytesFrom;
+	}
+
+	@Override
+	protected boolean first() {
+		if (keyBytesFrom == null) {
+			return cursor.first();
+		}
+		// lmdb only accepts direct buffers as keys
+		final ByteBuf keyBuffer = ByteBufAllocator.DEFAULT.directBuffer(keyBytesFrom.remaining());
+		try {
+			keyBuffer.writeBytes(keyBytesFrom.duplicate());
+			return cursor.get(keyBuffer.nioBuffer(), GetOp.MDB_SET_RANGE);
+		} finally {
+			keyBuffer.release(keyBuffer.refCnt());
+		}
+	}
+
+	@Override
+	protected boolean advance() {
+		return cursor.next();
+	}
+
+	@Override
+	protected ByteBuffer currentKey() {
+		return cursor.key();
+	}
+
+	@Override
+	protected ByteBuffer currentValue() {
+		return cursor.val();
+	}
+
+	@Override
+	protected void release() {
+		cursor.close();
+		txn.close();
+	}
+
+}
@@ -0,0 +1,70 @@
+package ezdb.lmdb.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.lmdbjava.Dbi;
+import org.lmdbjava.Env;
+import org.lmdbjava.Txn;
+
+import ezdb.util.KeyFormat;
+import ezdb.util.LengthPrefixedKeyFormat;
+import ezdb.util.Util;
+
+/**
+ * Keeps the name of the key format of each range table in the main database of
+ * the LMDB environment, where LMDB also keeps the names of the tables. The
+ * entry ends with a NUL character that no file name contains, thus it never
+ * collides with a table.
+ */
+public final class KeyFormatMetadata {
+
+	private static final String SUFFIX = "\0keyFormat";
+
+	private KeyFormatMetadata() {
+	}
+
+	/**
+	 * Stores the format of a new table, or fails if the table was created with
+	 * another one. A table that exists without an entry was created before the
+	 * formats were stored, thus it has the length prefixed keys of that time.
+	 */
+	public static void checkOrStore(final Env<ByteBuffer> env, final String tableName, final KeyFormat keyFormat) {
+		final Dbi<ByteBuffer> main = env.openDbi((String) null);
+		final ByteBuffer key = toDirectBuffer(tableName + SUFFIX);
+		try (Txn<ByteBuffer> txn = env.txnWrite()) {
+			final ByteBuffer existing = main.get(txn, key);
+			if (existing != null) {
+				KeyFormat.checkSame(tableName, StandardCharsets.UTF_8.decode(existing).toString(), keyFormat);
+				return;
+			}
+			// named databases are records of the main database
+			if (main.get(txn, toDirectBuffer(tableName)) != null) {
+				KeyFormat.checkSame(tableName, LengthPrefixedKeyFormat.get.getName(), keyFormat);
+			}
+			main.put(txn, key, toDirectBuffer(keyFormat.getName()));
+			txn.commit();
+		}
+	}
+
+	/**
+	 * Removes the format of a deleted table, so the name can be used again with
+	 * another one.
+	 */
+	public static void remove(final Env<ByteBuffer> env, final String tableName) {
+		final Dbi<ByteBuffer> main = env.openDbi((String) null);
+		try (Txn<ByteBuffer> txn = env.txnWrite()) {
+			main.delete(txn, toDirectBuffer(tableName + SUFFIX));
+			txn.commit();
+		}
+	}
+
+	private static ByteBuffer toDirectBuffer(final String value) {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		Util.position(buffer, 0);
+		return buffer;
+	}
+
+}
@@ -42,6 +42,7 @@ import org.lmdbjava.Txn;
 
 import ezdb.serde.Serde;
 import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
 
 //implementation taken from leveldbjni
 /**
@@ -56,10 +57,11 @@ public class LmDBJnrDBRangeIterator<H, R, V> implements EzDBRangeIterator<H, R,
 	private final Serde<H> hashKeySerde;
 	private final Serde<R> rangeKeySerde;
 	private final Serde<V> valueSerde;
+	private final KeyFormat keyFormat;
 	private boolean valid = false;
 
 	public LmDBJnrDBRangeIterator(final Env<ByteBuffer> env, final Dbi<ByteBuffer> dbi, final Serde<H> hashKeySerde,
-			final Serde<R> rangeKeySerde, final Serde<V> valueSerde) {
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final KeyFormat keyFormat) {
 		this.env = env;
 		this.dbi = dbi;
 		this.txn = env.txnRead();
@@ -67,6 +69,7 @@ public class LmDBJnrDBRangeIterator<H, R, V> implements EzDBRangeIterator<H, R,
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
+		this.keyFormat = keyFormat;
 	}
 
 	@Override
@@ -107,7 +110,7 @@ public class LmDBJnrDBRangeIterator<H, R, V> implements EzDBRangeIterator<H, R,
 			throw new NoSuchElementException();
 		}
 		return RawRangeTableRow.valueOfBuffer(cursor.key().duplicate(), cursor.val().duplicate(), hashKeySerde,
-				rangeKeySerde, valueSerde);
+				rangeKeySerde, valueSerde, keyFormat);
 	}
 
 	@Override
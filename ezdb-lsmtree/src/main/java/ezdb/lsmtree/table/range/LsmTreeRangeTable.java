@@ -24,6 +24,9 @@ import ezdb.util.Util;
 
 public class LsmTreeRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	private final Store<ObjectRangeTableKey<H, R>, V> store;
+	private final Serde<H> hashKeySerde;
+	private final Serde<R> rangeKeySerde;
+	private final Serde<V> valueSerde;
 	private final Comparator<H> hashKeyComparator;
 	private final Comparator<R> rangeKeyComparator;
 	private final EzLsmTreeDbRangeComparator<H, R> keyComparator;
@@ -31,6 +34,9 @@ public class LsmTreeRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	public LsmTreeRangeTable(final File path, final EzLsmTreeDbFactory factory, final Serde<H> hashKeySerde,
 			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<H> hashKeyComparator,
 			final Comparator<R> rangeKeyComparator) {
+		this.hashKeySerde = hashKeySerde;
+		this.rangeKeySerde = rangeKeySerde;
+		this.valueSerde = valueSerde;
 		this.hashKeyComparator = hashKeyComparator;
 		this.rangeKeyComparator = rangeKeyComparator;
 		this.keyComparator = new EzLsmTreeDbRangeComparator<H, R>(hashKeyComparator, rangeKeyComparator);
@@ -332,6 +338,21 @@ public class LsmTreeRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		}
 	}
 
+	@Override
+	public Serde<H> getHashKeySerde() {
+		return hashKeySerde;
+	}
+
+	@Override
+	public Serde<R> getRangeKeySerde() {
+		return rangeKeySerde;
+	}
+
+	@Override
+	public Serde<V> getValueSerde() {
+		return valueSerde;
+	}
+
 	@Override
 	public void close() {
 		try {
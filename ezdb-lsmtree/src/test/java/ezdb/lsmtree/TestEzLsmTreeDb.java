@@ -6,8 +6,13 @@ import static org.junit.Assert.assertTrue;
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 
 import org.junit.After;
@@ -78,6 +83,52 @@ public class TestEzLsmTreeDb {
 		table.delete(1, 1);
 	}
 
+	@Test
+	public void testRangeKeysValues() {
+		ezdb.deleteTable("test-projection");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-projection", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(0, 1, 1);
+		table.put(1, 0);
+		table.put(1, 2, 2);
+		table.put(1, 4, 3);
+		table.put(2, 1, 4);
+
+		final List<Entry<Integer, Integer>> keys = new ArrayList<Entry<Integer, Integer>>();
+		TableIterator<Entry<Integer, Integer>> rangeKeys = table.rangeKeys(1);
+		while (rangeKeys.hasNext()) {
+			keys.add(rangeKeys.next());
+		}
+		rangeKeys.close();
+		assertEquals(Arrays.asList(new SimpleEntry<Integer, Integer>(1, null), new SimpleEntry<Integer, Integer>(1, 2),
+				new SimpleEntry<Integer, Integer>(1, 4)), keys);
+		assertEquals(Arrays.asList(0, 2, 3), table.multiGet(keys));
+
+		rangeKeys = table.rangeKeys(1, 1, 3);
+		assertEquals(new SimpleEntry<Integer, Integer>(1, 2), rangeKeys.next());
+		assertTrue(!rangeKeys.hasNext());
+		rangeKeys.close();
+
+		final List<Integer> values = new ArrayList<Integer>();
+		TableIterator<Integer> rangeValues = table.rangeValues(null);
+		while (rangeValues.hasNext()) {
+			values.add(rangeValues.next());
+		}
+		rangeValues.close();
+		assertEquals(Arrays.asList(1, 0, 2, 3, 4), values);
+
+		rangeValues = table.rangeValues(1, 2, null);
+		assertEquals(new Integer(2), rangeValues.next());
+		assertEquals(new Integer(3), rangeValues.next());
+		assertTrue(!rangeValues.hasNext());
+		rangeValues.close();
+
+		rangeValues = table.rangeValues(3);
+		assertTrue(!rangeValues.hasNext());
+		rangeValues.close();
+		table.close();
+	}
+
 	@Test
 	public void testPutGetH() {
 		final Table<Integer, Integer> table = ezdb.getTable("test-simple", IntegerSerde.get, IntegerSerde.get);
@@ -373,6 +424,7 @@ public class TestEzLsmTreeDb {
 		ezdb.deleteTable("test-range-strings");
 		ezdb.deleteTable("test-custom-range-comparator");
 		ezdb.deleteTable("test-table-does-not-exist");
+		ezdb.deleteTable("test-projection");
 		clearTable();
 	}
 
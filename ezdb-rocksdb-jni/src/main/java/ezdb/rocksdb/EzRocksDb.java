@@ -11,12 +11,22 @@ import org.rocksdb.Options;
 
 import ezdb.Db;
 import ezdb.DbException;
+import ezdb.comparator.BytewiseComparator;
 import ezdb.comparator.LexicographicalComparator;
 import ezdb.rocksdb.table.EzRocksDbTable;
+import ezdb.rocksdb.table.range.EzRocksDbLongDoubleRangeTable;
+import ezdb.rocksdb.table.range.EzRocksDbLongRangeTable;
 import ezdb.rocksdb.table.range.EzRocksDbRangeTable;
+import ezdb.serde.DoubleSerde;
+import ezdb.serde.LongSerde;
+import ezdb.serde.OrderedLongSerde;
 import ezdb.serde.Serde;
 import ezdb.table.Table;
+import ezdb.table.range.LongDoubleRangeTable;
+import ezdb.table.range.LongRangeTable;
 import ezdb.table.range.RangeTable;
+import ezdb.util.CompactKeyFormat;
+import ezdb.util.KeyFormat;
 
 /**
  * An implementation of Db that uses LevelDb tables to persist data. Each
@@ -91,22 +101,62 @@ public class EzRocksDb implements Db<ByteBuffer> {
 	public <H, R, V> RangeTable<H, R, V> getRangeTable(final String tableName, final Serde<H> hashKeySerde,
 			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
 			final Comparator<ByteBuffer> rangeKeyComparator) {
+		return getRangeTable(tableName, hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator,
+				null);
+	}
+
+	/**
+	 * Same as {@link #getRangeTable(String, Serde, Serde, Serde, Comparator, Comparator)}
+	 * with the given key format, e.g. the {@link CompactKeyFormat} to store
+	 * smaller keys. The format is fixed once the table was created, opening it
+	 * with another one fails. Null chooses it by the comparators.
+	 */
+	@SuppressWarnings("unchecked")
+	public <H, R, V> RangeTable<H, R, V> getRangeTable(final String tableName, final Serde<H> hashKeySerde,
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
 		synchronized (cache) {
 			RangeTable<?, ?, ?> table = (RangeTable<?, ?, ?>) cache.get(tableName);
 
 			if (table == null) {
 				table = new EzRocksDbRangeTable<H, R, V>(new File(root, tableName), factory, hashKeySerde,
-						rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator);
+						rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator, keyFormat);
 				cache.put(tableName, table);
 			} else if (!(table instanceof EzRocksDbRangeTable)) {
 				throw new IllegalStateException("Expected " + EzRocksDbRangeTable.class.getSimpleName() + " but got "
 						+ table.getClass().getSimpleName() + " for: " + tableName);
+			} else {
+				KeyFormat.checkSame(tableName, ((EzRocksDbRangeTable<?, ?, ?>) table).getKeyFormat().getName(),
+						KeyFormat.valueOf(hashKeyComparator, rangeKeyComparator, keyFormat));
 			}
 
 			return (RangeTable<H, R, V>) table;
 		}
 	}
 
+	/**
+	 * Opens a table with long hash keys, long range keys and double values that
+	 * are handled without boxing. It is the same table as the range table opened
+	 * with the serdes and comparators listed in {@link LongDoubleRangeTable}.
+	 */
+	@SuppressWarnings("unchecked")
+	public LongDoubleRangeTable getLongDoubleRangeTable(final String tableName) {
+		return new EzRocksDbLongDoubleRangeTable((EzRocksDbRangeTable<Long, Long, Double>) getRangeTable(tableName,
+				OrderedLongSerde.get, OrderedLongSerde.get, DoubleSerde.get, BytewiseComparator.get,
+				BytewiseComparator.get));
+	}
+
+	/**
+	 * Opens a table with long range keys and long values that are handled without
+	 * boxing. It is the same table as the range table opened with the serdes and
+	 * comparators listed in {@link LongRangeTable}.
+	 */
+	@SuppressWarnings("unchecked")
+	public <H> LongRangeTable<H> getLongRangeTable(final String tableName, final Serde<H> hashKeySerde) {
+		return new EzRocksDbLongRangeTable<H>((EzRocksDbRangeTable<H, Long, Long>) getRangeTable(tableName, hashKeySerde,
+				OrderedLongSerde.get, LongSerde.get, BytewiseComparator.get, BytewiseComparator.get), hashKeySerde);
+	}
+
 	/**
 	 * A helper method used to convert a table name to the location on disk where
 	 * this LevelDB database will be persisted.
@@ -3,7 +3,10 @@ package ezdb.rocksdb.table;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.rocksdb.Options;
@@ -11,6 +14,7 @@ import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 
 import ezdb.DbException;
+import ezdb.comparator.BytewiseComparator;
 import ezdb.rocksdb.EzRocksDbFactory;
 import ezdb.rocksdb.util.EzDBIterator;
 import ezdb.rocksdb.util.RocksDBJniDBIterator;
@@ -18,7 +22,9 @@ import ezdb.serde.Serde;
 import ezdb.table.Batch;
 import ezdb.table.Table;
 import ezdb.table.TableRow;
+import ezdb.util.EncoderContext;
 import ezdb.util.TableIterator;
+import io.netty.buffer.ByteBuf;
 
 public class EzRocksDbTable<H, V> implements Table<H, V> {
 	private final RocksDB db;
@@ -36,7 +42,10 @@ public class EzRocksDbTable<H, V> implements Table<H, V> {
 		this.options = new Options();
 
 		options.setCreateIfMissing(true);
-		options.setComparator(new EzRocksDbComparator(hashKeyComparator));
+		if (!(hashKeyComparator instanceof BytewiseComparator)) {
+			// the default bytewise comparator avoids the jni upcall per comparison
+			options.setComparator(new EzRocksDbComparator(hashKeyComparator));
+		}
 
 		try {
 			this.db = factory.open(path, options, false);
@@ -47,20 +56,33 @@ public class EzRocksDbTable<H, V> implements Table<H, V> {
 
 	@Override
 	public void put(final H hashKey, final V value) {
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			db.put(hashKeySerde.toBytes(hashKey), valueSerde.toBytes(value));
+			final ByteBuf key = context.key();
+			hashKeySerde.toBuffer(key, hashKey);
+			final ByteBuf valueBuffer = context.value();
+			valueSerde.toBuffer(valueBuffer, value);
+			db.put(key.array(), EncoderContext.arrayOffset(key), key.readableBytes(), valueBuffer.array(),
+					EncoderContext.arrayOffset(valueBuffer), valueBuffer.readableBytes());
 		} catch (final RocksDBException e) {
 			throw new DbException(e);
+		} finally {
+			context.release();
 		}
 	}
 
 	@Override
 	public V get(final H hashKey) {
 		byte[] valueBytes;
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			valueBytes = db.get(hashKeySerde.toBytes(hashKey));
+			final ByteBuf key = context.key();
+			hashKeySerde.toBuffer(key, hashKey);
+			valueBytes = db.get(key.array(), EncoderContext.arrayOffset(key), key.readableBytes());
 		} catch (final RocksDBException e) {
 			throw new DbException(e);
+		} finally {
+			context.release();
 		}
 
 		if (valueBytes == null) {
@@ -70,6 +92,35 @@ public class EzRocksDbTable<H, V> implements Table<H, V> {
 		return valueSerde.fromBytes(valueBytes);
 	}
 
+	@Override
+	public List<V> getAll(final Collection<H> hashKeys) {
+		final List<byte[]> keys = new ArrayList<byte[]>(hashKeys.size());
+		for (final H hashKey : hashKeys) {
+			keys.add(hashKeySerde.toBytes(hashKey));
+		}
+		if (keys.isEmpty()) {
+			// rocksdb rejects an empty key list
+			return new ArrayList<V>(0);
+		}
+		final List<byte[]> valuesBytes;
+		try {
+			valuesBytes = db.multiGetAsList(keys);
+		} catch (final RocksDBException e) {
+			throw new DbException(e);
+		}
+
+		final List<V> values = new ArrayList<V>(valuesBytes.size());
+		for (int i = 0; i < valuesBytes.size(); i++) {
+			final byte[] valueBytes = valuesBytes.get(i);
+			if (valueBytes == null) {
+				values.add(null);
+			} else {
+				values.add(valueSerde.fromBytes(valueBytes));
+			}
+		}
+		return values;
+	}
+
 	@Override
 	public TableIterator<TableRow<H, V>> range() {
 		final EzDBIterator<H, V> iterator = new RocksDBJniDBIterator<H, V>(db.newIterator(), hashKeySerde, valueSerde);
@@ -107,10 +158,15 @@ public class EzRocksDbTable<H, V> implements Table<H, V> {
 
 	@Override
 	public void delete(final H hashKey) {
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			this.db.delete(hashKeySerde.toBytes(hashKey));
+			final ByteBuf key = context.key();
+			hashKeySerde.toBuffer(key, hashKey);
+			this.db.delete(key.array(), EncoderContext.arrayOffset(key), key.readableBytes());
 		} catch (final RocksDBException e) {
 			throw new DbException(e);
+		} finally {
+			context.release();
 		}
 	}
 
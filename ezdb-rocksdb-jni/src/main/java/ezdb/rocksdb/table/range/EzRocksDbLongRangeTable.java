@@ -0,0 +1,96 @@
+package ezdb.rocksdb.table.range;
+
+import java.nio.ByteBuffer;
+
+import ezdb.serde.OrderedLongSerde;
+import ezdb.serde.Serde;
+import ezdb.table.range.LongRangeCursor;
+import ezdb.table.range.LongRangeTable;
+import ezdb.util.OrderedKeyFormat;
+
+public class EzRocksDbLongRangeTable<H> extends EzRocksDbPrimitiveRangeTable implements LongRangeTable<H> {
+
+	private final Serde<H> hashKeySerde;
+
+	public EzRocksDbLongRangeTable(final EzRocksDbRangeTable<H, Long, Long> table, final Serde<H> hashKeySerde) {
+		super(table);
+		this.hashKeySerde = hashKeySerde;
+	}
+
+	private Buffers buffers(final H hashKey, final long rangeKey) {
+		final byte[] hashKeyBytes = hashKeySerde.toBytes(hashKey);
+		final Buffers buffers = buffers();
+		final ByteBuffer key = buffers.key(maxKeyLength(hashKeyBytes));
+		OrderedKeyFormat.putHashKey(key, hashKeyBytes);
+		key.putLong(OrderedLongSerde.encode(rangeKey));
+		key.flip();
+		return buffers;
+	}
+
+	static int maxKeyLength(final byte[] hashKeyBytes) {
+		return OrderedKeyFormat.maxHashKeyLength(hashKeyBytes.length) + Long.BYTES;
+	}
+
+	@Override
+	public void put(final H hashKey, final long rangeKey, final long value) {
+		put(buffers(hashKey, rangeKey), value);
+	}
+
+	@Override
+	public long get(final H hashKey, final long rangeKey, final long missingValue) {
+		final Buffers buffers = buffers(hashKey, rangeKey);
+		if (get(buffers)) {
+			return buffers.getValueBits();
+		} else {
+			return missingValue;
+		}
+	}
+
+	@Override
+	public long getLatestValue(final H hashKey, final long rangeKey, final long missingValue) {
+		final Buffers buffers = buffers(hashKey, rangeKey);
+		if (getLatest(buffers)) {
+			return buffers.getValueBits();
+		} else {
+			return missingValue;
+		}
+	}
+
+	@Override
+	public void delete(final H hashKey, final long rangeKey) {
+		delete(buffers(hashKey, rangeKey));
+	}
+
+	@Override
+	public LongRangeCursor<H> newCursor() {
+		return new Cursor();
+	}
+
+	private final class Cursor extends EzRocksDbPrimitiveRangeCursor implements LongRangeCursor<H> {
+
+		private Cursor() {
+			super(EzRocksDbLongRangeTable.this);
+		}
+
+		@Override
+		public boolean seek(final H hashKey, final long rangeKey) {
+			final byte[] hashKeyBytes = hashKeySerde.toBytes(hashKey);
+			OrderedKeyFormat.putHashKey(key(maxKeyLength(hashKeyBytes)), hashKeyBytes);
+			return seek(rangeKey);
+		}
+
+		@Override
+		public boolean seekForPrev(final H hashKey, final long rangeKey) {
+			final byte[] hashKeyBytes = hashKeySerde.toBytes(hashKey);
+			OrderedKeyFormat.putHashKey(key(maxKeyLength(hashKeyBytes)), hashKeyBytes);
+			return seekForPrev(rangeKey);
+		}
+
+		@Override
+		public long getValue() {
+			return getValueBits();
+		}
+
+	}
+
+}
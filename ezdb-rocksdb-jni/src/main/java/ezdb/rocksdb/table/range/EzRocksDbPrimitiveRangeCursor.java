@@ -0,0 +1,100 @@
+package ezdb.rocksdb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.rocksdb.RocksIterator;
+
+import ezdb.serde.OrderedLongSerde;
+import ezdb.util.OrderedKeyFormat;
+
+/**
+ * Base of the primitive cursors, repositions a single RocksIterator for all
+ * seeks until it is closed.
+ */
+abstract class EzRocksDbPrimitiveRangeCursor {
+
+	private static final int INITIAL_KEY_CAPACITY = 64;
+
+	private final RocksIterator iterator;
+	private ByteBuffer key = ByteBuffer.allocate(INITIAL_KEY_CAPACITY);
+	private int hashKeyLength;
+	private ByteBuffer currentKey;
+
+	protected EzRocksDbPrimitiveRangeCursor(final EzRocksDbPrimitiveRangeTable table) {
+		this.iterator = table.db.newIterator();
+	}
+
+	/**
+	 * @return the cleared key buffer to write the hash key into
+	 */
+	protected ByteBuffer key(final int maxLength) {
+		if (key.capacity() < maxLength) {
+			key = ByteBuffer.allocate(Math.max(maxLength, key.capacity() * 2));
+		}
+		key.clear();
+		return key;
+	}
+
+	/**
+	 * Appends the range key to the hash key that was written into the key buffer.
+	 * 
+	 * @return the seek target, since the iterator only seeks to whole arrays
+	 */
+	private byte[] putRangeKey(final long rangeKey) {
+		hashKeyLength = key.position();
+		key.putLong(OrderedLongSerde.encode(rangeKey));
+		key.flip();
+		return Arrays.copyOf(key.array(), key.limit());
+	}
+
+	protected boolean seek(final long rangeKey) {
+		iterator.seek(putRangeKey(rangeKey));
+		return current();
+	}
+
+	protected boolean seekForPrev(final long rangeKey) {
+		iterator.seekForPrev(putRangeKey(rangeKey));
+		return current();
+	}
+
+	public boolean next() {
+		if (currentKey == null) {
+			return false;
+		}
+		iterator.next();
+		return current();
+	}
+
+	public boolean prev() {
+		if (currentKey == null) {
+			return false;
+		}
+		iterator.prev();
+		return current();
+	}
+
+	private boolean current() {
+		currentKey = null;
+		if (iterator.isValid()) {
+			final ByteBuffer candidate = ByteBuffer.wrap(iterator.key());
+			if (OrderedKeyFormat.hasHashKey(candidate, key, hashKeyLength)) {
+				currentKey = candidate;
+			}
+		}
+		return currentKey != null;
+	}
+
+	public long getRangeKey() {
+		return OrderedLongSerde.decode(currentKey.getLong(currentKey.limit() - Long.BYTES));
+	}
+
+	protected long getValueBits() {
+		return ByteBuffer.wrap(iterator.value()).getLong(0);
+	}
+
+	public void close() {
+		iterator.close();
+	}
+
+}
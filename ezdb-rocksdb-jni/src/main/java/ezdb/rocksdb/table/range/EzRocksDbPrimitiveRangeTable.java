@@ -0,0 +1,134 @@
+package ezdb.rocksdb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+
+import ezdb.DbException;
+import ezdb.comparator.BytewiseComparator;
+import ezdb.util.OrderedKeyFormat;
+
+/**
+ * Base of the primitive range tables, which share the database of a regular
+ * range table that uses the {@link OrderedKeyFormat}. Keys and values are
+ * encoded into arrays that are reused per thread and passed to rocksdb with
+ * offsets, so gets and puts allocate nothing per call.
+ */
+abstract class EzRocksDbPrimitiveRangeTable {
+
+	private static final int INITIAL_KEY_CAPACITY = 64;
+
+	protected final EzRocksDbRangeTable<?, ?, ?> table;
+	protected final RocksDB db;
+	private final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+		@Override
+		protected Buffers initialValue() {
+			return new Buffers();
+		}
+	};
+
+	protected EzRocksDbPrimitiveRangeTable(final EzRocksDbRangeTable<?, ?, ?> table) {
+		if (!(table.getKeyFormat() instanceof OrderedKeyFormat)) {
+			throw new IllegalStateException(
+					"Primitive tables require a table opened with the " + BytewiseComparator.class.getSimpleName());
+		}
+		this.table = table;
+		this.db = table.getDb();
+	}
+
+	protected static final class Buffers {
+		private ByteBuffer key = ByteBuffer.allocate(INITIAL_KEY_CAPACITY);
+		private final ByteBuffer value = ByteBuffer.allocate(Long.BYTES);
+		private long valueBits;
+
+		/**
+		 * @return the cleared key buffer, it has to be flipped after writing the key
+		 */
+		protected ByteBuffer key(final int maxLength) {
+			if (key.capacity() < maxLength) {
+				key = ByteBuffer.allocate(Math.max(maxLength, key.capacity() * 2));
+			}
+			key.clear();
+			return key;
+		}
+
+		protected long getValueBits() {
+			return valueBits;
+		}
+	}
+
+	protected Buffers buffers() {
+		return buffers.get();
+	}
+
+	protected void put(final Buffers buffers, final long valueBits) {
+		buffers.value.putLong(0, valueBits);
+		try {
+			db.put(buffers.key.array(), 0, buffers.key.limit(), buffers.value.array(), 0, Long.BYTES);
+		} catch (final RocksDBException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/**
+	 * @return true if the key exists, its value is then available from
+	 *         {@link Buffers#getValueBits()}
+	 */
+	protected boolean get(final Buffers buffers) {
+		final int length;
+		try {
+			length = db.get(buffers.key.array(), 0, buffers.key.limit(), buffers.value.array(), 0, Long.BYTES);
+		} catch (final RocksDBException e) {
+			throw new DbException(e);
+		}
+		if (length == RocksDB.NOT_FOUND) {
+			return false;
+		}
+		buffers.valueBits = buffers.value.getLong(0);
+		return true;
+	}
+
+	/**
+	 * Finds the last row at or before the key within the hash key, or else the
+	 * first one after it, like
+	 * {@link EzRocksDbRangeCursor#seekForPrev(Object, Object, boolean)}.
+	 */
+	protected boolean getLatest(final Buffers buffers) {
+		final ByteBuffer key = buffers.key;
+		final int hashKeyLength = key.limit() - Long.BYTES;
+		// the iterator only seeks to whole arrays
+		final byte[] target = Arrays.copyOf(key.array(), key.limit());
+		final RocksIterator iterator = db.newIterator();
+		try {
+			iterator.seekForPrev(target);
+			if (!iterator.isValid() || !OrderedKeyFormat.hasHashKey(ByteBuffer.wrap(iterator.key()), key,
+					hashKeyLength)) {
+				iterator.seek(target);
+				if (!iterator.isValid() || !OrderedKeyFormat.hasHashKey(ByteBuffer.wrap(iterator.key()), key,
+						hashKeyLength)) {
+					return false;
+				}
+			}
+			buffers.valueBits = ByteBuffer.wrap(iterator.value()).getLong(0);
+			return true;
+		} finally {
+			iterator.close();
+		}
+	}
+
+	protected void delete(final Buffers buffers) {
+		try {
+			db.delete(buffers.key.array(), 0, buffers.key.limit());
+		} catch (final RocksDBException e) {
+			throw new DbException(e);
+		}
+	}
+
+	public void close() {
+		table.close();
+	}
+
+}
@@ -10,7 +10,7 @@ import org.rocksdb.WriteOptions;
 import ezdb.DbException;
 import ezdb.serde.Serde;
 import ezdb.table.range.RangeBatch;
-import ezdb.util.Util;
+import ezdb.util.KeyFormat;
 
 public class EzRocksDbRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 
@@ -19,16 +19,18 @@ public class EzRocksDbRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 	private final Serde<H> hashKeySerde;
 	private final Serde<R> rangeKeySerde;
 	private final Serde<V> valueSerde;
+	private final KeyFormat keyFormat;
 	private final WriteOptions writeOptions;
 
 	public EzRocksDbRangeBatch(final RocksDB db, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
-			final Serde<V> valueSerde) {
+			final Serde<V> valueSerde, final KeyFormat keyFormat) {
 		this.writeOptions = new WriteOptions();
 		this.db = db;
 		this.writeBatch = new WriteBatch();
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
+		this.keyFormat = keyFormat;
 	}
 
 	@Override
@@ -59,7 +61,7 @@ public class EzRocksDbRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 	@Override
 	public void put(final H hashKey, final R rangeKey, final V value) {
 		try {
-			writeBatch.put(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey),
+			writeBatch.put(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey),
 					valueSerde.toBytes(value));
 		} catch (final RocksDBException e) {
 			throw new RuntimeException(e);
@@ -69,7 +71,7 @@ public class EzRocksDbRangeBatch<H, R, V> implements RangeBatch<H, R, V> {
 	@Override
 	public void delete(final H hashKey, final R rangeKey) {
 		try {
-			writeBatch.delete(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+			writeBatch.delete(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
 		} catch (final RocksDBException e) {
 			throw new RuntimeException(e);
 		}
@@ -6,7 +6,8 @@ import java.util.Comparator;
 import org.rocksdb.ComparatorOptions;
 import org.rocksdb.Slice;
 
-import ezdb.util.Util;
+import ezdb.util.KeyFormat;
+import ezdb.util.LengthPrefixedKeyFormat;
 
 /**
  * LevelDb provides a comparator interface that we can use to handle hash/range
@@ -20,17 +21,48 @@ public class EzRocksDbRangeComparator extends org.rocksdb.Comparator {
 
 	private final Comparator<ByteBuffer> hashKeyComparator;
 	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
 
 	public EzRocksDbRangeComparator(final Comparator<ByteBuffer> hashKeyComparator,
 			final Comparator<ByteBuffer> rangeKeyComparator) {
+		this(hashKeyComparator, rangeKeyComparator, LengthPrefixedKeyFormat.get);
+	}
+
+	private EzRocksDbRangeComparator(final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
 		super(new ComparatorOptions());
 		this.hashKeyComparator = hashKeyComparator;
 		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyFormat = keyFormat;
+	}
+
+	/**
+	 * RocksDB persists the name and refuses to open the table with another one
+	 * once it is recorded, thus other key formats than the original one are part
+	 * of it.
+	 * 
+	 * The JNI callback created by the super constructor calls {@link #name()}
+	 * right away to cache it, before any field of this class is assigned. The
+	 * name is thus computed up front and captured by an anonymous subclass, whose
+	 * captured variables javac assigns before the super constructor runs.
+	 */
+	public static EzRocksDbRangeComparator of(final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
+		if (keyFormat instanceof LengthPrefixedKeyFormat) {
+			return new EzRocksDbRangeComparator(hashKeyComparator, rangeKeyComparator, keyFormat);
+		}
+		final String formatName = name + ":" + keyFormat.getName();
+		return new EzRocksDbRangeComparator(hashKeyComparator, rangeKeyComparator, keyFormat) {
+			@Override
+			public String name() {
+				return formatName;
+			}
+		};
 	}
 
 	@Override
 	public int compare(final Slice a, final Slice b) {
-		return Util.compareKeys(hashKeyComparator, rangeKeyComparator, ByteBuffer.wrap(a.data()),
+		return keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, ByteBuffer.wrap(a.data()),
 				ByteBuffer.wrap(b.data()));
 	}
 
@@ -0,0 +1,127 @@
+package ezdb.rocksdb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksIterator;
+
+import ezdb.serde.Serde;
+import ezdb.table.RangeTableRow;
+import ezdb.table.range.RangeCursor;
+import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
+
+/**
+ * Repositions a single RocksIterator for all seeks until it is closed.
+ */
+public class EzRocksDbRangeCursor<H, R, V> implements RangeCursor<H, R, V> {
+	private final RocksIterator iterator;
+	private final Serde<H> hashKeySerde;
+	private final Serde<R> rangeKeySerde;
+	private final Serde<V> valueSerde;
+	private final Comparator<ByteBuffer> hashKeyComparator;
+	private final KeyFormat keyFormat;
+	/**
+	 * The key of the last seek, only its hash key is compared. Null means that
+	 * the cursor is not bound to a hash key.
+	 */
+	private ByteBuffer keyBytes;
+
+	public EzRocksDbRangeCursor(final RocksDB db, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
+			final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator, final KeyFormat keyFormat) {
+		this.iterator = db.newIterator();
+		this.hashKeySerde = hashKeySerde;
+		this.rangeKeySerde = rangeKeySerde;
+		this.valueSerde = valueSerde;
+		this.hashKeyComparator = hashKeyComparator;
+		this.keyFormat = keyFormat;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seek(final H hashKey, final R rangeKey) {
+		if (hashKey == null && rangeKey == null) {
+			keyBytes = null;
+			iterator.seekToFirst();
+			return current();
+		}
+		keyBytes = ByteBuffer.wrap(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+		iterator.seek(keyBytes.array());
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey) {
+		return seekForPrev(hashKey, rangeKey, false);
+	}
+
+	/**
+	 * Finds the last row of the hash key that is at or before the range key with a
+	 * single seekForPrev. Without a range key, the end of the hash key is used as
+	 * the seek target, thus the hash key does not need to be scanned forward.
+	 * 
+	 * @param orNext
+	 *            if no such row exists, position on the first row after the range
+	 *            key instead, which is the fallback of getLatest
+	 */
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey, final boolean orNext) {
+		if (hashKey == null && rangeKey == null) {
+			keyBytes = null;
+			iterator.seekToLast();
+			return current();
+		}
+		if (rangeKey == null) {
+			keyBytes = ByteBuffer.wrap(keyFormat.combineBytesEnd(hashKeySerde, hashKey));
+		} else {
+			keyBytes = ByteBuffer.wrap(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+		}
+		iterator.seekForPrev(keyBytes.array());
+		final RangeTableRow<H, R, V> prev = current();
+		if (prev != null || !orNext) {
+			return prev;
+		}
+		if (iterator.isValid()) {
+			iterator.next();
+		} else {
+			iterator.seekToFirst();
+		}
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> next() {
+		if (!iterator.isValid()) {
+			return null;
+		}
+		iterator.next();
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> prev() {
+		if (!iterator.isValid()) {
+			return null;
+		}
+		iterator.prev();
+		return current();
+	}
+
+	private RangeTableRow<H, R, V> current() {
+		if (!iterator.isValid()) {
+			return null;
+		}
+		final byte[] key = iterator.key();
+		if (keyBytes != null
+				&& keyFormat.compareKeys(hashKeyComparator, null, keyBytes, ByteBuffer.wrap(key)) != 0) {
+			return null;
+		}
+		return RawRangeTableRow.valueOfBytes(key, iterator.value(), hashKeySerde, rangeKeySerde, valueSerde,
+				keyFormat);
+	}
+
+	@Override
+	public void close() {
+		iterator.close();
+	}
+
+}
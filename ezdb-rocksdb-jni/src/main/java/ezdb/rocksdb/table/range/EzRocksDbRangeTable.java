@@ -3,12 +3,30 @@ package ezdb.rocksdb.table.range;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
+import org.rocksdb.EnvOptions;
+import org.rocksdb.IngestExternalFileOptions;
+import org.rocksdb.LiveFileMetaData;
 import org.rocksdb.Options;
+import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.Snapshot;
+import org.rocksdb.SstFileWriter;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 
 import ezdb.DbException;
 import ezdb.rocksdb.EzRocksDbFactory;
@@ -20,34 +38,76 @@ import ezdb.table.RangeTableRow;
 import ezdb.table.range.EmptyRangeTableIterator;
 import ezdb.table.range.RangeBatch;
 import ezdb.table.range.RangeTable;
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
+import ezdb.util.EncoderContext;
+import ezdb.util.KeyFormat;
+import ezdb.util.PartitionedSpliterator;
 import ezdb.util.TableIterator;
-import ezdb.util.Util;
+import ezdb.util.TransformingTableIterator;
+import io.netty.buffer.ByteBuf;
 
 public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
+	/**
+	 * RocksDB only rejects another comparator once its manifest recorded the name,
+	 * which a new table does not do before it is reopened. Thus the name of the
+	 * key format is kept in this file next to the data as well.
+	 */
+	private static final String KEY_FORMAT_FILE = "KEY_FORMAT";
+
+	private final File path;
 	private final RocksDB db;
 	private final Serde<H> hashKeySerde;
 	private final Serde<R> rangeKeySerde;
 	private final Serde<V> valueSerde;
 	private final Comparator<ByteBuffer> hashKeyComparator;
 	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
 	private final Options options;
 
 	public EzRocksDbRangeTable(final File path, final EzRocksDbFactory factory, final Serde<H> hashKeySerde,
 			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
 			final Comparator<ByteBuffer> rangeKeyComparator) {
+		this(path, factory, hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator, null);
+	}
+
+	/**
+	 * @param keyFormat The format of the compound keys, null chooses it by the
+	 *                  comparators.
+	 */
+	public EzRocksDbRangeTable(final File path, final EzRocksDbFactory factory, final Serde<H> hashKeySerde,
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
+		this.path = path;
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
 		this.hashKeyComparator = hashKeyComparator;
 		this.rangeKeyComparator = rangeKeyComparator;
+		this.keyFormat = KeyFormat.valueOf(hashKeyComparator, rangeKeyComparator, keyFormat);
+		final File keyFormatFile = new File(path, KEY_FORMAT_FILE);
+		try {
+			if (keyFormatFile.exists()) {
+				KeyFormat.checkSame(path.getName(),
+						new String(Files.readAllBytes(keyFormatFile.toPath()), StandardCharsets.UTF_8), this.keyFormat);
+			}
+		} catch (final IOException e) {
+			throw new DbException(e);
+		}
 
 		this.options = new Options();
 
 		options.setCreateIfMissing(true);
-		options.setComparator(new EzRocksDbRangeComparator(hashKeyComparator, rangeKeyComparator));
+		if (!this.keyFormat.isBytewise()) {
+			// the default bytewise comparator avoids the jni upcall per comparison
+			options.setComparator(EzRocksDbRangeComparator.of(hashKeyComparator, rangeKeyComparator, this.keyFormat));
+		}
 
 		try {
 			this.db = factory.open(path, options, true);
+			if (!keyFormatFile.exists()) {
+				Files.write(keyFormatFile.toPath(), this.keyFormat.getName().getBytes(StandardCharsets.UTF_8));
+			}
 		} catch (final IOException e) {
 			throw new DbException(e);
 		}
@@ -60,10 +120,18 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public void put(final H hashKey, final R rangeKey, final V value) {
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			db.put(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey), valueSerde.toBytes(value));
+			final ByteBuf key = context.key();
+			keyFormat.combineBuf(key, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			final ByteBuf valueBuffer = context.value();
+			valueSerde.toBuffer(valueBuffer, value);
+			db.put(key.array(), EncoderContext.arrayOffset(key), key.readableBytes(), valueBuffer.array(),
+					EncoderContext.arrayOffset(valueBuffer), valueBuffer.readableBytes());
 		} catch (final RocksDBException e) {
 			throw new DbException(e);
+		} finally {
+			context.release();
 		}
 	}
 
@@ -75,10 +143,15 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	@Override
 	public V get(final H hashKey, final R rangeKey) {
 		byte[] valueBytes;
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			valueBytes = db.get(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+			final ByteBuf key = context.key();
+			keyFormat.combineBuf(key, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			valueBytes = db.get(key.array(), EncoderContext.arrayOffset(key), key.readableBytes());
 		} catch (final RocksDBException e) {
 			throw new DbException(e);
+		} finally {
+			context.release();
 		}
 
 		if (valueBytes == null) {
@@ -88,10 +161,53 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		return valueSerde.fromBytes(valueBytes);
 	}
 
+	@Override
+	public List<V> getAll(final Collection<H> hashKeys) {
+		final List<byte[]> keys = new ArrayList<byte[]>(hashKeys.size());
+		for (final H hashKey : hashKeys) {
+			keys.add(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, null));
+		}
+		return multiGetBytes(keys);
+	}
+
+	@Override
+	public List<V> multiGet(final List<? extends Entry<H, R>> keys) {
+		final List<byte[]> keysBytes = new ArrayList<byte[]>(keys.size());
+		for (int i = 0; i < keys.size(); i++) {
+			final Entry<H, R> key = keys.get(i);
+			keysBytes.add(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, key.getKey(), key.getValue()));
+		}
+		return multiGetBytes(keysBytes);
+	}
+
+	private List<V> multiGetBytes(final List<byte[]> keys) {
+		if (keys.isEmpty()) {
+			// rocksdb rejects an empty key list
+			return new ArrayList<V>(0);
+		}
+		final List<byte[]> valuesBytes;
+		try {
+			valuesBytes = db.multiGetAsList(keys);
+		} catch (final RocksDBException e) {
+			throw new DbException(e);
+		}
+
+		final List<V> values = new ArrayList<V>(valuesBytes.size());
+		for (int i = 0; i < valuesBytes.size(); i++) {
+			final byte[] valueBytes = valuesBytes.get(i);
+			if (valueBytes == null) {
+				values.add(null);
+			} else {
+				values.add(valueSerde.fromBytes(valueBytes));
+			}
+		}
+		return values;
+	}
+
 	@Override
 	public TableIterator<RangeTableRow<H, R, V>> range() {
 		final EzDBRangeIterator<H, R, V> iterator = new RocksDBJniRangeDBIterator<H, R, V>(db.newIterator(),
-				hashKeySerde, rangeKeySerde, valueSerde);
+				hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		iterator.seekToFirst();
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
@@ -130,13 +246,13 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range();
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new RocksDBJniRangeDBIterator<H, R, V>(db.newIterator(),
-				hashKeySerde, rangeKeySerde, valueSerde);
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
+				hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
 		iterator.seek(keyBytesFrom.array());
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, null, keyBytesFrom,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom,
 						ByteBuffer.wrap(iterator.peekNextKey())) == 0;
 			}
 
@@ -171,13 +287,13 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey);
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new RocksDBJniRangeDBIterator<H, R, V>(db.newIterator(),
-				hashKeySerde, rangeKeySerde, valueSerde);
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+				hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		iterator.seek(keyBytesFrom.array());
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, null, keyBytesFrom,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom,
 						ByteBuffer.wrap(iterator.peekNextKey())) == 0;
 			}
 
@@ -212,14 +328,14 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey, fromRangeKey);
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new RocksDBJniRangeDBIterator<H, R, V>(db.newIterator(),
-				hashKeySerde, rangeKeySerde, valueSerde);
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
-		final ByteBuffer keyBytesTo = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+				hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final ByteBuffer keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		iterator.seek(keyBytesFrom.array());
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 			@Override
 			public boolean hasNext() {
-				return iterator.hasNext() && Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo,
+				return iterator.hasNext() && keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo,
 						ByteBuffer.wrap(iterator.peekNextKey())) >= 0;
 			}
 
@@ -248,10 +364,85 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		});
 	}
 
+	/**
+	 * Splits the scan at the smallest keys of the live sst files, so a parallel
+	 * stream scans different files concurrently. All parts read from one snapshot,
+	 * which is released when the stream is closed.
+	 */
+	@Override
+	public Stream<RangeTableRow<H, R, V>> stream() {
+		final Snapshot snapshot = db.getSnapshot();
+		final ReadOptions readOptions = new ReadOptions().setSnapshot(snapshot);
+		final List<byte[]> splitKeys = new ArrayList<byte[]>();
+		for (final LiveFileMetaData file : db.getLiveFilesMetaData()) {
+			splitKeys.add(file.smallestKey());
+		}
+		splitKeys.sort((k1, k2) -> keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, ByteBuffer.wrap(k1),
+				ByteBuffer.wrap(k2)));
+		// each part covers the keys from its lower bound up to the next part
+		final List<byte[]> lowerBounds = new ArrayList<byte[]>(splitKeys.size() + 1);
+		lowerBounds.add(null);
+		for (final byte[] splitKey : splitKeys) {
+			final byte[] previous = lowerBounds.get(lowerBounds.size() - 1);
+			if (previous == null || !Arrays.equals(previous, splitKey)) {
+				lowerBounds.add(splitKey);
+			}
+		}
+		final List<Integer> parts = new ArrayList<Integer>(lowerBounds.size());
+		for (int i = 0; i < lowerBounds.size(); i++) {
+			parts.add(i);
+		}
+		return PartitionedSpliterator.<Integer, RangeTableRow<H, R, V>>stream(parts, part -> {
+			final byte[] upperBound = part + 1 < lowerBounds.size() ? lowerBounds.get(part + 1) : null;
+			return rangePart(readOptions, lowerBounds.get(part), upperBound);
+		}).onClose(() -> {
+			readOptions.close();
+			db.releaseSnapshot(snapshot);
+		});
+	}
+
+	private TableIterator<RangeTableRow<H, R, V>> rangePart(final ReadOptions readOptions, final byte[] lowerBound,
+			final byte[] upperBound) {
+		final EzDBRangeIterator<H, R, V> iterator = new RocksDBJniRangeDBIterator<H, R, V>(
+				db.newIterator(readOptions), hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
+		if (lowerBound == null) {
+			iterator.seekToFirst();
+		} else {
+			iterator.seek(lowerBound);
+		}
+		final ByteBuffer upperBoundBuffer = upperBound == null ? null : ByteBuffer.wrap(upperBound);
+		return new TableIterator<RangeTableRow<H, R, V>>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext() && (upperBoundBuffer == null || keyFormat.compareKeys(hashKeyComparator,
+						rangeKeyComparator, ByteBuffer.wrap(iterator.peekNextKey()), upperBoundBuffer) < 0);
+			}
+
+			@Override
+			public RangeTableRow<H, R, V> next() {
+				if (hasNext()) {
+					return iterator.next();
+				} else {
+					throw new NoSuchElementException();
+				}
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+			}
+
+			@Override
+			public void close() {
+				iterator.close();
+			}
+		};
+	}
+
 	@Override
 	public TableIterator<RangeTableRow<H, R, V>> rangeReverse() {
 		final EzDBRangeIterator<H, R, V> iterator = new RocksDBJniRangeDBIterator<H, R, V>(db.newIterator(),
-				hashKeySerde, rangeKeySerde, valueSerde);
+				hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		iterator.seekToLast();
 		return new AutoClosingTableIterator<H, R, V>(new TableIterator<RangeTableRow<H, R, V>>() {
 
@@ -310,10 +501,10 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse();
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new RocksDBJniRangeDBIterator<H, R, V>(db.newIterator(),
-				hashKeySerde, rangeKeySerde, valueSerde);
+				hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey, toRangeKey, keyBytesFrom, keyBytesTo,
-				peekKey) -> Util.compareKeys(hashKeyComparator, null, keyBytesFrom, ByteBuffer.wrap(peekKey)) == 0;
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
+				peekKey) -> keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, ByteBuffer.wrap(peekKey)) == 0;
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
 		final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, null, keyBytesFrom,
 				null, iterator, checkKeys);
 		if (emptyIterator != null) {
@@ -404,17 +595,17 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse(hashKey);
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new RocksDBJniRangeDBIterator<H, R, V>(db.newIterator(),
-				hashKeySerde, rangeKeySerde, valueSerde);
+				hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey1, toRangeKey, keyBytesFrom, keyBytesTo,
 				peekKey) -> {
 			final ByteBuffer peekKeyBuffer = ByteBuffer.wrap(peekKey);
-			return Util.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKeyBuffer) == 0 && (fromRangeKey1 == null
-					|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKeyBuffer) >= 0);
+			return keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKeyBuffer) == 0 && (fromRangeKey1 == null
+					|| keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKeyBuffer) >= 0);
 		};
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		iterator.seek(keyBytesFrom.array());
 		if (!iterator.hasNext() || fromRangeKey == null) {
-			final ByteBuffer keyBytesFromForSeekLast = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
+			final ByteBuffer keyBytesFromForSeekLast = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, null);
 			final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, null,
 					keyBytesFromForSeekLast, null, iterator, checkKeys);
 			if (emptyIterator != null) {
@@ -488,20 +679,20 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse(hashKey, fromRangeKey);
 		}
 		final EzDBRangeIterator<H, R, V> iterator = new RocksDBJniRangeDBIterator<H, R, V>(db.newIterator(),
-				hashKeySerde, rangeKeySerde, valueSerde);
+				hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 		final CheckKeysFunction<H, R, V> checkKeys = (hashKey1, fromRangeKey1, toRangeKey1, keyBytesFrom, keyBytesTo,
 				peekKey) -> {
 			final ByteBuffer peekKeyBuffer = ByteBuffer.wrap(peekKey);
-			return Util.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKeyBuffer) == 0 && (fromRangeKey1 == null
-					|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKeyBuffer) >= 0)
+			return keyFormat.compareKeys(hashKeyComparator, null, keyBytesFrom, peekKeyBuffer) == 0 && (fromRangeKey1 == null
+					|| keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, peekKeyBuffer) >= 0)
 					&& (toRangeKey1 == null
-							|| Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo, peekKeyBuffer) <= 0);
+							|| keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesTo, peekKeyBuffer) <= 0);
 		};
-		final ByteBuffer keyBytesFrom = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
-		final ByteBuffer keyBytesTo = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final ByteBuffer keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		iterator.seek(keyBytesFrom.array());
 		if (!iterator.hasNext() || fromRangeKey == null) {
-			final ByteBuffer keyBytesFromForSeekLast = Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey,
+			final ByteBuffer keyBytesFromForSeekLast = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey,
 					toRangeKey);
 			final TableIterator<RangeTableRow<H, R, V>> emptyIterator = reverseSeekToLast(hashKey, null, toRangeKey,
 					keyBytesFromForSeekLast, keyBytesTo, iterator, checkKeys);
@@ -577,10 +768,15 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public void delete(final H hashKey, final R rangeKey) {
+		final EncoderContext context = EncoderContext.acquire();
 		try {
-			this.db.delete(Util.combineBytes(hashKeySerde, rangeKeySerde, hashKey, rangeKey));
+			final ByteBuf key = context.key();
+			keyFormat.combineBuf(key, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			this.db.delete(key.array(), EncoderContext.arrayOffset(key), key.readableBytes());
 		} catch (final RocksDBException e) {
 			throw new DbException(e);
+		} finally {
+			context.release();
 		}
 	}
 
@@ -594,6 +790,17 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 		}
 	}
 
+	RocksDB getDb() {
+		return db;
+	}
+
+	/**
+	 * @return the format of the compound keys, fixed when the table was created
+	 */
+	public KeyFormat getKeyFormat() {
+		return keyFormat;
+	}
+
 	private static class AutoClosingTableIterator<_H, _R, _V> implements TableIterator<RangeTableRow<_H, _R, _V>> {
 
 		private final TableIterator<RangeTableRow<_H, _R, _V>> delegate;
@@ -647,50 +854,16 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey) {
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey);
-		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey);
-				try {
-					if (range.hasNext()) {
-						return range.next();
-					} else {
-						return null;
-					}
-				} finally {
-					range.close();
-				}
-			}
-		} finally {
-			rangeReverse.close();
-		}
+		return getLatest(hashKey, null);
 	}
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey, final R rangeKey) {
-		if (rangeKey == null) {
-			return getLatest(hashKey);
-		}
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey, rangeKey);
+		final EzRocksDbRangeCursor<H, R, V> cursor = newRangeCursor();
 		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, rangeKey);
-				try {
-					if (range.hasNext()) {
-						return range.next();
-					} else {
-						return null;
-					}
-				} finally {
-					range.close();
-				}
-			}
+			return cursor.seekForPrev(hashKey, rangeKey, true);
 		} finally {
-			rangeReverse.close();
+			cursor.close();
 		}
 	}
 
@@ -710,16 +883,66 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getPrev(final H hashKey, final R rangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey, rangeKey);
+		final EzRocksDbRangeCursor<H, R, V> cursor = newRangeCursor();
 		try {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				return null;
-			}
+			return cursor.seekForPrev(hashKey, rangeKey);
 		} finally {
-			rangeReverse.close();
+			cursor.close();
+		}
+	}
+
+	@Override
+	public EzRocksDbRangeCursor<H, R, V> newRangeCursor() {
+		return new EzRocksDbRangeCursor<H, R, V>(db, hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator,
+				keyFormat);
+	}
+
+	@Override
+	public Serde<H> getHashKeySerde() {
+		return hashKeySerde;
+	}
+
+	@Override
+	public Serde<R> getRangeKeySerde() {
+		return rangeKeySerde;
+	}
+
+	@Override
+	public Serde<V> getValueSerde() {
+		return valueSerde;
+	}
+
+	@Override
+	public TableIterator<RangeTableRowView<H, R, V>> rangeView(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		return newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true);
+	}
+
+	@Override
+	public TableIterator<Entry<H, R>> rangeKeys(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, Entry<H, R>>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, false), RangeTableRowView::copyKey);
+	}
+
+	@Override
+	public TableIterator<V> rangeValues(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, V>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true), RangeTableRowView::copyValue);
+	}
+
+	private RangeTableRowViewIterator<H, R, V> newRangeViewIterator(final H hashKey, final R fromRangeKey,
+			final R toRangeKey, final boolean fetchValues) {
+		ByteBuffer keyBytesFrom = null;
+		ByteBuffer keyBytesTo = null;
+		if (hashKey != null) {
+			keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+			if (toRangeKey != null) {
+				keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+			}
 		}
+		return new EzRocksDbRangeViewIterator<H, R, V>(db,
+				new RangeTableRowView<H, R, V>(hashKeySerde, rangeKeySerde, valueSerde, keyFormat), keyFormat,
+				hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
 	}
 
 	@Override
@@ -729,25 +952,77 @@ public class EzRocksDbRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeBatch<H, R, V> newRangeBatch() {
-		return new EzRocksDbRangeBatch<H, R, V>(db, hashKeySerde, rangeKeySerde, valueSerde);
+		return new EzRocksDbRangeBatch<H, R, V>(db, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey);
-		internalDeleteRange(range);
+		deleteRange(hashKey, null, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey);
-		internalDeleteRange(range);
+		deleteRange(hashKey, fromRangeKey, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey, final R toRangeKey) {
-		final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey, toRangeKey);
-		internalDeleteRange(range);
+		if (hashKey == null) {
+			final TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey, toRangeKey);
+			internalDeleteRange(range);
+			return;
+		}
+		final byte[] keyBytesFrom = keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final byte[] keyBytesTo;
+		if (toRangeKey == null) {
+			keyBytesTo = keyFormat.combineBytesEnd(hashKeySerde, hashKey);
+		} else {
+			keyBytesTo = keyFormat.combineBytes(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+			if (keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, ByteBuffer.wrap(keyBytesFrom),
+					ByteBuffer.wrap(keyBytesTo)) > 0) {
+				return;
+			}
+		}
+		// a single range tombstone instead of one deletion per row, the end of a range
+		// tombstone is exclusive, thus an inclusive end key is deleted on its own
+		try (WriteBatch writeBatch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+			writeBatch.deleteRange(keyBytesFrom, keyBytesTo);
+			if (toRangeKey != null) {
+				writeBatch.delete(keyBytesTo);
+			}
+			db.write(writeOptions, writeBatch);
+		} catch (final RocksDBException e) {
+			throw new DbException(e);
+		}
+	}
+
+	@Override
+	public void bulkLoad(final Iterator<? extends RangeTableRow<H, R, V>> rows) {
+		if (!rows.hasNext()) {
+			// rocksdb rejects an sst file without entries
+			return;
+		}
+		// written next to the database so that ingesting moves the file instead of
+		// copying it
+		final File sstFile = new File(path, "bulkload-" + System.nanoTime() + ".sst");
+		try (EnvOptions envOptions = new EnvOptions();
+				SstFileWriter writer = new SstFileWriter(envOptions, options)) {
+			writer.open(sstFile.getAbsolutePath());
+			while (rows.hasNext()) {
+				final RangeTableRow<H, R, V> row = rows.next();
+				writer.put(keyFormat.combineBytes(hashKeySerde, rangeKeySerde, row.getHashKey(), row.getRangeKey()),
+						valueSerde.toBytes(row.getValue()));
+			}
+			writer.finish();
+			try (IngestExternalFileOptions ingestOptions = new IngestExternalFileOptions()) {
+				ingestOptions.setMoveFiles(true);
+				db.ingestExternalFile(Collections.singletonList(sstFile.getAbsolutePath()), ingestOptions);
+			}
+		} catch (final RocksDBException e) {
+			throw new DbException(e);
+		} finally {
+			sstFile.delete();
+		}
 	}
 
 	private void internalDeleteRange(final TableIterator<RangeTableRow<H, R, V>> range) {
@@ -0,0 +1,61 @@
+package ezdb.rocksdb.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksIterator;
+
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
+import ezdb.util.KeyFormat;
+
+/**
+ * Scans a RocksIterator into a single row view. The jni binding still copies
+ * the key and value into arrays, but no row objects are created per entry.
+ */
+public class EzRocksDbRangeViewIterator<H, R, V> extends RangeTableRowViewIterator<H, R, V> {
+	private final RocksIterator iterator;
+	private final ByteBuffer keyBytesFrom;
+
+	public EzRocksDbRangeViewIterator(final RocksDB db, final RangeTableRowView<H, R, V> view,
+			final KeyFormat keyFormat, final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final ByteBuffer keyBytesFrom,
+			final ByteBuffer keyBytesTo, final boolean fetchValues) {
+		super(view, keyFormat, hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
+		this.iterator = db.newIterator();
+		this.keyBytesFrom = keyBytesFrom;
+	}
+
+	@Override
+	protected boolean first() {
+		if (keyBytesFrom == null) {
+			iterator.seekToFirst();
+		} else {
+			iterator.seek(keyBytesFrom.array());
+		}
+		return iterator.isValid();
+	}
+
+	@Override
+	protected boolean advance() {
+		iterator.next();
+		return iterator.isValid();
+	}
+
+	@Override
+	protected ByteBuffer currentKey() {
+		return ByteBuffer.wrap(iterator.key());
+	}
+
+	@Override
+	protected ByteBuffer currentValue() {
+		return ByteBuffer.wrap(iterator.value());
+	}
+
+	@Override
+	protected void release() {
+		iterator.close();
+	}
+
+}
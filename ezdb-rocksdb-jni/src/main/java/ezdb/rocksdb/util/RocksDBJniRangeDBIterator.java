@@ -37,6 +37,7 @@ import org.rocksdb.RocksIterator;
 
 import ezdb.serde.Serde;
 import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
 
 //implementation taken from leveldbjni
 /**
@@ -48,13 +49,15 @@ public class RocksDBJniRangeDBIterator<H, R, V> implements EzDBRangeIterator<H,
 	private final Serde<H> hashKeySerde;
 	private final Serde<R> rangeKeySerde;
 	private final Serde<V> valueSerde;
+	private final KeyFormat keyFormat;
 
 	public RocksDBJniRangeDBIterator(final RocksIterator iterator, final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde,
-			final Serde<V> valueSerde) {
+			final Serde<V> valueSerde, final KeyFormat keyFormat) {
 		this.iterator = iterator;
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
+		this.keyFormat = keyFormat;
 	}
 
 	@Override
@@ -87,7 +90,8 @@ public class RocksDBJniRangeDBIterator<H, R, V> implements EzDBRangeIterator<H,
 		if (!iterator.isValid()) {
 			throw new NoSuchElementException();
 		}
-		return RawRangeTableRow.valueOfBytes(iterator.key(), iterator.value(), hashKeySerde, rangeKeySerde, valueSerde);
+		return RawRangeTableRow.valueOfBytes(iterator.key(), iterator.value(), hashKeySerde, rangeKeySerde, valueSerde,
+				keyFormat);
 	}
 
 	@Override
@@ -1,38 +1,76 @@
 package ezdb.rocksdb;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import ezdb.ADatabaseTest;
 import ezdb.Db;
+import ezdb.DbException;
+import ezdb.comparator.BytewiseComparator;
 import ezdb.comparator.LexicographicalComparator;
+import ezdb.comparator.SerdeComparator;
 import ezdb.rocksdb.util.FileUtils;
+import ezdb.serde.BinarySerde;
+import ezdb.serde.ByteBufferSerde;
+import ezdb.serde.ByteSerde;
+import ezdb.serde.CompressingSerde;
+import ezdb.serde.DoubleSerde;
+import ezdb.serde.Flyweight;
+import ezdb.serde.FlyweightSerde;
 import ezdb.serde.IntegerSerde;
+import ezdb.serde.LongSerde;
+import ezdb.serde.OrderedLongSerde;
 import ezdb.serde.Serde;
 import ezdb.serde.SerializingSerde;
 import ezdb.serde.StringSerde;
+import ezdb.serde.StructSerde.StructField;
+import ezdb.serde.StructSerde;
 import ezdb.serde.VersionedSerde;
 import ezdb.serde.VersionedSerde.Versioned;
 import ezdb.table.RangeTableRow;
 import ezdb.table.Table;
+import ezdb.table.range.ChunkedSeriesTable;
+import ezdb.table.range.LongDoubleRangeCursor;
+import ezdb.table.range.LongDoubleRangeTable;
+import ezdb.table.range.LongRangeCursor;
+import ezdb.table.range.LongRangeTable;
+import ezdb.table.range.RangeBatch;
+import ezdb.table.range.RangeCursor;
 import ezdb.table.range.RangeTable;
+import ezdb.table.range.RangeTableRowView;
 import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.CompactKeyFormat;
 import ezdb.util.TableIterator;
 
-public class TestEzRocksDb {
+public class TestEzRocksDb extends ADatabaseTest {
 	protected static final File ROOT = FileUtils.createTempDir(TestEzRocksDb.class.getSimpleName());
 	protected Db<ByteBuffer> ezdb;
 	protected RangeTable<Integer, Integer, Integer> table;
@@ -76,6 +114,874 @@ public class TestEzRocksDb {
 		table.delete(1, 1);
 	}
 
+	@Test
+	public void testMultiGet() {
+		ezdb.deleteTable("test-multiget");
+		ezdb.deleteTable("test-multiget-simple");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-multiget", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(1, 1);
+		table.put(1, 1, 2);
+		table.put(1, 2, 3);
+		table.put(2, 1, 4);
+
+		final List<Entry<Integer, Integer>> keys = new ArrayList<Entry<Integer, Integer>>();
+		keys.add(new SimpleEntry<Integer, Integer>(1, 2));
+		keys.add(new SimpleEntry<Integer, Integer>(1, null));
+		keys.add(new SimpleEntry<Integer, Integer>(3, 1));
+		keys.add(new SimpleEntry<Integer, Integer>(2, 1));
+		keys.add(new SimpleEntry<Integer, Integer>(1, 1));
+		assertEquals(Arrays.asList(3, 1, null, 4, 2), table.multiGet(keys));
+		assertEquals(Arrays.asList(1, null, null), table.getAll(Arrays.asList(1, 2, 3)));
+		assertEquals(Collections.emptyList(), table.multiGet(Collections.<Entry<Integer, Integer>>emptyList()));
+
+		final Table<Integer, Integer> simpleTable = ezdb.getTable("test-multiget-simple", IntegerSerde.get,
+				IntegerSerde.get);
+		simpleTable.put(1, 1);
+		simpleTable.put(3, 3);
+		assertEquals(Arrays.asList(3, null, 1), simpleTable.getAll(Arrays.asList(3, 2, 1)));
+		simpleTable.close();
+		table.close();
+	}
+
+	@Test
+	public void testGetLatestSeek() {
+		ezdb.deleteTable("test-latest");
+		ezdb.deleteTable("test-latest-ordered");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-latest", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		assertEquals(null, table.getLatest(1));
+		assertEquals(null, table.getLatest(1, 1));
+		assertEquals(null, table.getPrev(1, 1));
+		table.put(0, 5, 1);
+		table.put(1, 2, 2);
+		table.put(1, 4, 3);
+		table.put(2, 0, 4);
+		assertEquals(new Integer(3), table.getLatest(1).getValue());
+		assertEquals(new Integer(2), table.getLatest(1, 1).getValue());
+		assertEquals(new Integer(2), table.getLatest(1, 3).getValue());
+		assertEquals(new Integer(3), table.getLatest(1, 5).getValue());
+		assertEquals(null, table.getPrev(1, 1));
+		assertEquals(new Integer(2), table.getPrev(1, 2).getValue());
+		assertEquals(new Integer(3), table.getPrev(1, 9).getValue());
+		assertEquals(new Integer(3), table.getPrev(1, null).getValue());
+		assertEquals(null, table.getLatest(3));
+		assertEquals(null, table.getLatest(3, 1));
+		assertEquals(null, table.getPrev(3, 1));
+		assertEquals(new Integer(4), table.getLatest(null).getValue());
+		table.put(1, 0);
+		assertEquals(new Integer(0), table.getPrev(1, 1).getValue());
+		assertEquals(new Integer(0), table.getLatest(1, 1).getValue());
+		assertEquals(new Integer(3), table.getLatest(1).getValue());
+		table.close();
+
+		final RangeTable<String, Long, Integer> orderedTable = ezdb.getRangeTable("test-latest-ordered",
+				StringSerde.get, OrderedLongSerde.get, IntegerSerde.get, BytewiseComparator.get,
+				BytewiseComparator.get);
+		orderedTable.put("a", 1L, 1);
+		orderedTable.put("a", 3L, 2);
+		orderedTable.put("a\u0000", 0L, 3);
+		orderedTable.put("ab", 0L, 4);
+		assertEquals(new Integer(2), orderedTable.getLatest("a").getValue());
+		assertEquals(new Integer(1), orderedTable.getPrev("a", 2L).getValue());
+		assertEquals(new Integer(1), orderedTable.getLatest("a", 0L).getValue());
+		assertEquals(null, orderedTable.getPrev("a", 0L));
+		assertEquals(new Integer(3), orderedTable.getLatest("a\u0000").getValue());
+		assertEquals(new Integer(3), orderedTable.getPrev("a\u0000", Long.MAX_VALUE).getValue());
+		assertEquals(new Integer(4), orderedTable.getLatest("ab", -1L).getValue());
+		assertEquals(null, orderedTable.getLatest(""));
+		assertEquals(null, orderedTable.getLatest("aa"));
+		assertEquals(null, orderedTable.getLatest("b", 1L));
+		orderedTable.close();
+	}
+
+	@Test
+	public void testRangeCursor() {
+		ezdb.deleteTable("test-cursor");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-cursor", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(0, 1, 1);
+		table.put(1, 0);
+		table.put(1, 2, 2);
+		table.put(1, 4, 3);
+		table.put(2, 1, 4);
+
+		final RangeCursor<Integer, Integer, Integer> cursor = table.newRangeCursor();
+		try {
+			assertEquals(new RawRangeTableRow<Integer, Integer, Integer>(1, 2, 2), cursor.seek(1, 1));
+			assertEquals(new Integer(3), cursor.next().getValue());
+			assertEquals(null, cursor.next());
+			assertEquals(new Integer(0), cursor.seek(1, null).getValue());
+			assertEquals(new Integer(2), cursor.next().getValue());
+			assertEquals(null, cursor.seek(1, 5));
+			assertEquals(new Integer(2), cursor.seekForPrev(1, 3).getValue());
+			assertEquals(new Integer(0), cursor.prev().getValue());
+			assertEquals(null, cursor.prev());
+			assertEquals(new Integer(3), cursor.seekForPrev(1, null).getValue());
+			assertEquals(new Integer(2), cursor.prev().getValue());
+			assertEquals(null, cursor.seekForPrev(3, null));
+			assertEquals(new Integer(4), cursor.seek(2, null).getValue());
+			assertEquals(null, cursor.next());
+			assertEquals(null, cursor.seekForPrev(2, 0));
+			assertEquals(new Integer(1), cursor.seekForPrev(0, 9).getValue());
+		} finally {
+			cursor.close();
+		}
+		table.close();
+	}
+
+	@Test
+	public void testRangeKeysValues() {
+		ezdb.deleteTable("test-projection");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-projection", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(0, 1, 1);
+		table.put(1, 0);
+		table.put(1, 2, 2);
+		table.put(1, 4, 3);
+		table.put(2, 1, 4);
+
+		final List<Entry<Integer, Integer>> keys = new ArrayList<Entry<Integer, Integer>>();
+		TableIterator<Entry<Integer, Integer>> rangeKeys = table.rangeKeys(1);
+		while (rangeKeys.hasNext()) {
+			keys.add(rangeKeys.next());
+		}
+		rangeKeys.close();
+		assertEquals(Arrays.asList(new SimpleEntry<Integer, Integer>(1, null), new SimpleEntry<Integer, Integer>(1, 2),
+				new SimpleEntry<Integer, Integer>(1, 4)), keys);
+		assertEquals(Arrays.asList(0, 2, 3), table.multiGet(keys));
+
+		rangeKeys = table.rangeKeys(1, 1, 3);
+		assertEquals(new SimpleEntry<Integer, Integer>(1, 2), rangeKeys.next());
+		assertTrue(!rangeKeys.hasNext());
+		rangeKeys.close();
+
+		final List<Integer> values = new ArrayList<Integer>();
+		TableIterator<Integer> rangeValues = table.rangeValues(null);
+		while (rangeValues.hasNext()) {
+			values.add(rangeValues.next());
+		}
+		rangeValues.close();
+		assertEquals(Arrays.asList(1, 0, 2, 3, 4), values);
+
+		rangeValues = table.rangeValues(1, 2, null);
+		assertEquals(new Integer(2), rangeValues.next());
+		assertEquals(new Integer(3), rangeValues.next());
+		assertTrue(!rangeValues.hasNext());
+		rangeValues.close();
+
+		rangeValues = table.rangeValues(3);
+		assertTrue(!rangeValues.hasNext());
+		rangeValues.close();
+		table.close();
+	}
+
+	@Test
+	public void testDeleteRangeMany() {
+		ezdb.deleteTable("test-delete-range");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-delete-range",
+				IntegerSerde.get, IntegerSerde.get, IntegerSerde.get);
+		final RangeBatch<Integer, Integer, Integer> batch = table.newRangeBatch();
+		for (int i = 0; i < 100; i++) {
+			batch.put(0, i, i);
+			batch.put(1, i, i);
+			batch.put(2, i, i);
+		}
+		batch.put(1, -1);
+		batch.flush();
+		try {
+			batch.close();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+
+		table.deleteRange(1, 10, 19);
+		assertEquals(new Integer(9), table.get(1, 9));
+		assertEquals(null, table.get(1, 10));
+		assertEquals(null, table.get(1, 19));
+		assertEquals(new Integer(20), table.get(1, 20));
+
+		table.deleteRange(1, 5, 3);
+		assertEquals(new Integer(4), table.get(1, 4));
+
+		table.deleteRange(1, 90);
+		assertEquals(new Integer(89), table.getLatest(1).getValue());
+
+		table.deleteRange(1);
+		assertEquals(null, table.get(1));
+		assertEquals(null, table.getLatest(1));
+		assertEquals(new Integer(99), table.getLatest(0).getValue());
+		assertEquals(new Integer(0), table.getNext(2, null).getValue());
+		table.close();
+	}
+
+	@Test
+	public void testBulkLoad() {
+		ezdb.deleteTable("test-bulk-load");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-bulk-load", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		table.put(1, 50, -50);
+		table.put(1, 120, -120);
+		table.put(2, 0, 0);
+
+		final List<RangeTableRow<Integer, Integer, Integer>> rows = new ArrayList<RangeTableRow<Integer, Integer, Integer>>();
+		for (int i = 0; i < 100; i++) {
+			rows.add(new RawRangeTableRow<Integer, Integer, Integer>(1, i, i));
+		}
+		for (int i = 0; i < 100; i++) {
+			rows.add(new RawRangeTableRow<Integer, Integer, Integer>(3, i, 3 * i));
+		}
+		table.bulkLoad(rows.iterator());
+		assertEquals(new Integer(0), table.get(1, 0));
+		assertEquals(new Integer(50), table.get(1, 50));
+		assertEquals(new Integer(-120), table.getLatest(1).getValue());
+		assertEquals(new Integer(0), table.get(2, 0));
+		assertEquals(new Integer(0), table.getNext(3, null).getValue());
+		assertEquals(new Integer(297), table.getLatest(3).getValue());
+		int count = 0;
+		try (TableIterator<RangeTableRow<Integer, Integer, Integer>> range = table.range(3)) {
+			while (range.hasNext()) {
+				assertEquals(new Integer(3 * count), range.next().getValue());
+				count++;
+			}
+		}
+		assertEquals(100, count);
+
+		table.bulkLoad(Collections.<RangeTableRow<Integer, Integer, Integer>>emptyIterator());
+		table.put(1, 0, -1);
+		assertEquals(new Integer(-1), table.get(1, 0));
+		table.close();
+	}
+
+	@Test
+	public void testStream() {
+		ezdb.deleteTable("test-stream");
+		final RangeTable<Integer, Integer, Integer> table = ezdb.getRangeTable("test-stream", IntegerSerde.get,
+				IntegerSerde.get, IntegerSerde.get);
+		final List<RangeTableRow<Integer, Integer, Integer>> rows = new ArrayList<RangeTableRow<Integer, Integer, Integer>>();
+		for (int h = 0; h < 5; h++) {
+			for (int r = 0; r < 100; r++) {
+				rows.add(new RawRangeTableRow<Integer, Integer, Integer>(h, r, h * 100 + r));
+			}
+		}
+		table.bulkLoad(rows.iterator());
+		for (int h = 5; h < 10; h++) {
+			for (int r = 0; r < 100; r++) {
+				table.put(h, r, h * 100 + r);
+			}
+		}
+
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream(3)) {
+			assertEquals(100, stream.count());
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream(3, 10, 19)) {
+			assertEquals(Arrays.asList(310, 311, 312, 313, 314, 315, 316, 317, 318, 319),
+					stream.map(RangeTableRow::getValue).collect(Collectors.toList()));
+		}
+		final List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			expected.add(i);
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream()) {
+			assertEquals(expected, stream.map(RangeTableRow::getValue).collect(Collectors.toList()));
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream().parallel()) {
+			assertEquals(expected, stream.map(RangeTableRow::getValue).collect(Collectors.toList()));
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream(Arrays.asList(7, 2, 5))
+				.parallel()) {
+			final List<Integer> hashKeys = stream.map(RangeTableRow::getHashKey).collect(Collectors.toList());
+			assertEquals(300, hashKeys.size());
+			assertEquals(new Integer(7), hashKeys.get(0));
+			assertEquals(new Integer(2), hashKeys.get(100));
+			assertEquals(new Integer(5), hashKeys.get(299));
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream().parallel()) {
+			assertEquals(499500, stream.mapToLong(RangeTableRow::getValue).sum());
+		}
+		try (Stream<RangeTableRow<Integer, Integer, Integer>> stream = table.stream()) {
+			assertEquals(new Integer(0), stream.findFirst().get().getValue());
+		}
+		table.close();
+	}
+
+	@Test
+	public void testLongDoubleRangeTable() {
+		ezdb.deleteTable("test-long-double");
+		final LongDoubleRangeTable table = ((EzRocksDb) ezdb).getLongDoubleRangeTable("test-long-double");
+		// negative keys and keys with zero bytes, which get escaped in the hash key
+		for (long h = -1; h <= 1; h++) {
+			for (long r = -300; r <= 300; r += 3) {
+				table.put(h, r, h * 1000 + r * 0.5);
+			}
+		}
+		assertEquals(1.5, table.get(0, 3), 0);
+		assertTrue(Double.isNaN(table.get(0, 4)));
+		assertTrue(Double.isNaN(table.get(5, 3)));
+		assertEquals(1.5, table.getLatestValue(0, 4), 0);
+		assertEquals(-150, table.getLatestValue(0, -1000), 0);
+		assertEquals(150, table.getLatestValue(0), 0);
+		assertEquals(1001.5, table.getLatestValue(1, 4), 0);
+		assertEquals(-1150, table.getLatestValue(-1, Long.MIN_VALUE), 0);
+		assertTrue(Double.isNaN(table.getLatestValue(2, 0)));
+
+		final LongDoubleRangeCursor cursor = table.newCursor();
+		try {
+			assertTrue(cursor.seek(1, 298));
+			assertEquals(300, cursor.getRangeKey());
+			assertEquals(1150, cursor.getValue(), 0);
+			assertFalse(cursor.next());
+			assertFalse(cursor.seekForPrev(0, -301));
+			assertTrue(cursor.seekForPrev(0, 1));
+			assertEquals(0, cursor.getRangeKey());
+			assertTrue(cursor.prev());
+			assertEquals(-3, cursor.getRangeKey());
+			assertEquals(-1.5, cursor.getValue(), 0);
+			int count = 0;
+			for (boolean valid = cursor.seek(-1, Long.MIN_VALUE); valid; valid = cursor.next()) {
+				count++;
+			}
+			assertEquals(201, count);
+		} finally {
+			cursor.close();
+		}
+
+		table.delete(0, 3);
+		assertTrue(Double.isNaN(table.get(0, 3)));
+		assertEquals(0, table.getLatestValue(0, 4), 0);
+
+		// the same rows are visible through the generic api
+		final RangeTable<Long, Long, Double> rangeTable = ezdb.getRangeTable("test-long-double", OrderedLongSerde.get,
+				OrderedLongSerde.get, DoubleSerde.get, BytewiseComparator.get, BytewiseComparator.get);
+		assertEquals(new Double(1150), rangeTable.get(1L, 300L));
+		final TableIterator<RangeTableRow<Long, Long, Double>> range = rangeTable.range(1L);
+		try {
+			assertEquals(new Long(-300), range.next().getRangeKey());
+		} finally {
+			range.close();
+		}
+		table.close();
+	}
+
+	@Test
+	public void testLongRangeTable() {
+		ezdb.deleteTable("test-long");
+		final LongRangeTable<String> table = ((EzRocksDb) ezdb).getLongRangeTable("test-long", StringSerde.get);
+		table.put("a", 1, 10);
+		table.put("a", 3, 30);
+		table.put("ab", 0, 20);
+		assertEquals(10, table.get("a", 1, -1));
+		assertEquals(-1, table.get("a", 2, -1));
+		assertEquals(10, table.getLatestValue("a", 2, -1));
+		assertEquals(30, table.getLatestValue("a", -1));
+		assertEquals(10, table.getLatestValue("a", 0, -1));
+		assertEquals(20, table.getLatestValue("ab", 5, -1));
+		assertEquals(-1, table.getLatestValue("b", 5, -1));
+
+		final LongRangeCursor<String> cursor = table.newCursor();
+		try {
+			assertTrue(cursor.seek("a", 0));
+			assertEquals(1, cursor.getRangeKey());
+			assertEquals(10, cursor.getValue());
+			assertTrue(cursor.next());
+			assertEquals(30, cursor.getValue());
+			assertFalse(cursor.next());
+			assertTrue(cursor.seekForPrev("ab", Long.MAX_VALUE));
+			assertEquals(20, cursor.getValue());
+			assertFalse(cursor.prev());
+		} finally {
+			cursor.close();
+		}
+
+		table.delete("a", 3);
+		assertEquals(10, table.getLatestValue("a", -1));
+		final RangeTable<String, Long, Long> rangeTable = ezdb.getRangeTable("test-long", StringSerde.get,
+				OrderedLongSerde.get, LongSerde.get, BytewiseComparator.get, BytewiseComparator.get);
+		assertEquals(new Long(20), rangeTable.get("ab", 0L));
+		table.close();
+	}
+
+	@Test
+	public void testCompactKeyFormat() {
+		ezdb.deleteTable("test-compact");
+		final RangeTable<String, Long, Integer> table = ((EzRocksDb) ezdb).getRangeTable("test-compact",
+				StringSerde.get, LongSerde.get, IntegerSerde.get, LexicographicalComparator.get,
+				new SerdeComparator<Long>(LongSerde.get), CompactKeyFormat.get);
+		// needs a header of two bytes
+		final StringBuilder longHashKey = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			longHashKey.append('b');
+		}
+
+		table.put("a", 5L, 1);
+		table.put("a", -5L, 2);
+		table.put("a", Long.MAX_VALUE, 3);
+		table.put("a", Long.MIN_VALUE, 4);
+		table.put("a", 0L, 5);
+		table.put("a", 6);
+		table.put(longHashKey.toString(), 1L, 7);
+		table.put(longHashKey.toString(), 2L, 8);
+		table.put("", 1L, 9);
+
+		assertEquals(new Integer(1), table.get("a", 5L));
+		assertEquals(new Integer(6), table.get("a"));
+		assertEquals(new Integer(8), table.get(longHashKey.toString(), 2L));
+		assertEquals(null, table.get("a", 1L));
+
+		TableIterator<RangeTableRow<String, Long, Integer>> it = table.range("a");
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", null, 6), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", Long.MIN_VALUE, 4), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", -5L, 2), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", 0L, 5), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", 5L, 1), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", Long.MAX_VALUE, 3), it.next());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		it = table.rangeReverse("a", 4L, Long.MIN_VALUE);
+		assertEquals(new Integer(5), it.next().getValue());
+		assertEquals(new Integer(2), it.next().getValue());
+		assertEquals(new Integer(4), it.next().getValue());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		it = table.range(longHashKey.toString());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>(longHashKey.toString(), 1L, 7), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>(longHashKey.toString(), 2L, 8), it.next());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		assertEquals(new Integer(3), table.getLatest("a").getValue());
+		assertEquals(new Integer(5), table.getLatest("a", 4L).getValue());
+		assertEquals(new Integer(1), table.getNext("a", 1L).getValue());
+		assertEquals(new Integer(2), table.getPrev("a", -1L).getValue());
+		assertEquals(new Integer(8), table.getLatest(longHashKey.toString()).getValue());
+		assertEquals(new Integer(9), table.getLatest("").getValue());
+
+		table.deleteRange("a", -5L, 5L);
+		it = table.range("a");
+		assertEquals(new Integer(6), it.next().getValue());
+		assertEquals(new Integer(4), it.next().getValue());
+		assertEquals(new Integer(3), it.next().getValue());
+		assertTrue(!it.hasNext());
+		it.close();
+		table.close();
+	}
+
+	@Test
+	public void testKeyFormatMismatch() {
+		ezdb.deleteTable("test-key-format");
+		final RangeTable<String, Long, Integer> table = ((EzRocksDb) ezdb).getRangeTable("test-key-format",
+				StringSerde.get, LongSerde.get, IntegerSerde.get, LexicographicalComparator.get,
+				new SerdeComparator<Long>(LongSerde.get), CompactKeyFormat.get);
+		table.put("a", 1L, 1);
+		try {
+			ezdb.getRangeTable("test-key-format", StringSerde.get, LongSerde.get, IntegerSerde.get);
+			Assert.fail("Exception expected");
+		} catch (final IllegalStateException e) {
+			// expected
+		}
+		assertEquals(new Integer(1), ((EzRocksDb) ezdb).getRangeTable("test-key-format", StringSerde.get,
+				LongSerde.get, IntegerSerde.get, LexicographicalComparator.get,
+				new SerdeComparator<Long>(LongSerde.get), CompactKeyFormat.get).get("a", 1L));
+		table.close();
+
+		// the format is persisted with the table
+		final EzRocksDb reopened = new EzRocksDb(ROOT, newFactory());
+		try {
+			reopened.getRangeTable("test-key-format", StringSerde.get, LongSerde.get, IntegerSerde.get);
+			Assert.fail("Exception expected");
+		} catch (final IllegalStateException e) {
+			// expected
+		}
+		final RangeTable<String, Long, Integer> compact = reopened.getRangeTable("test-key-format",
+				StringSerde.get, LongSerde.get, IntegerSerde.get, LexicographicalComparator.get,
+				new SerdeComparator<Long>(LongSerde.get), CompactKeyFormat.get);
+		assertEquals(new Integer(1), compact.get("a", 1L));
+		compact.close();
+
+		// a deleted table can be created again with another format
+		reopened.deleteTable("test-key-format");
+		final RangeTable<String, Long, Integer> recreated = reopened.getRangeTable("test-key-format",
+				StringSerde.get, LongSerde.get, IntegerSerde.get);
+		assertEquals(null, recreated.get("a", 1L));
+		recreated.put("a", 1L, 2);
+		assertEquals(new Integer(2), recreated.get("a", 1L));
+		recreated.close();
+	}
+
+	@Test
+	public void testInterningStringSerde() {
+		ezdb.deleteTable("test-interning");
+		final StringSerde serde = new StringSerde(16);
+		final RangeTable<String, String, String> table = ezdb.getRangeTable("test-interning", serde, serde, serde);
+		table.put("hash", "a", "\u00e4\u20ac\ud83d\ude00");
+		table.put("hash", "b", "value");
+		table.put("other", "a", "value");
+
+		final TableIterator<RangeTableRow<String, String, String>> it = table.range("hash");
+		final RangeTableRow<String, String, String> first = it.next();
+		final RangeTableRow<String, String, String> second = it.next();
+		assertEquals("\u00e4\u20ac\ud83d\ude00", first.getValue());
+		assertEquals("b", second.getRangeKey());
+		// repeated hash keys are decoded only once
+		assertTrue(first.getHashKey() == second.getHashKey());
+		assertTrue(!it.hasNext());
+		it.close();
+		assertEquals("value", table.get("other", "a"));
+		table.close();
+	}
+
+	public static class Quote extends Flyweight {
+		public long getTime() {
+			return getLong(0);
+		}
+
+		public double getPrice() {
+			return getDouble(8);
+		}
+
+		public Quote set(final long time, final double price) {
+			putLong(0, time);
+			putDouble(8, price);
+			return this;
+		}
+	}
+
+	@Test
+	public void testViewSerde() {
+		ezdb.deleteTable("test-view-serde");
+		final FlyweightSerde<Quote> quoteSerde = new FlyweightSerde<Quote>(Quote::new);
+		final RangeTable<String, Long, Quote> table = ezdb.getRangeTable("test-view-serde", StringSerde.get,
+				LongSerde.get, quoteSerde);
+		table.put("a", 1L, quoteSerde.allocate(16).set(1, 1.5));
+		table.put("a", 2L, quoteSerde.allocate(16).set(2, 2.5));
+
+		final Quote got = table.get("a", 2L);
+		assertEquals(2, got.getTime());
+		assertEquals(2.5, got.getPrice(), 0);
+
+		final TableIterator<RangeTableRowView<String, Long, Quote>> range = table.rangeView("a");
+		final RangeTableRowView<String, Long, Quote> view = range.next();
+		assertEquals(1, view.getValue().getTime());
+		assertEquals(1.5, view.getValue().getPrice(), 0);
+		final RangeTableRow<String, Long, Quote> copy = view.copy();
+		final Quote holder = new Quote();
+		assertEquals(2.5, range.next().getValue(quoteSerde, holder).getPrice(), 0);
+		assertTrue(!range.hasNext());
+		range.close();
+		// the copy does not depend on the scan anymore
+		assertEquals(1, copy.getValue().getTime());
+		assertEquals(1.5, copy.getValue().getPrice(), 0);
+		table.close();
+
+		ezdb.deleteTable("test-view-serde");
+		final RangeTable<String, Long, ByteBuffer> bytesTable = ezdb.getRangeTable("test-view-serde",
+				StringSerde.get, LongSerde.get, ByteBufferSerde.get);
+		bytesTable.put("a", 1L, ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+		assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), bytesTable.get("a", 1L));
+		final TableIterator<RangeTableRowView<String, Long, ByteBuffer>> bytesRange = bytesTable.rangeView("a");
+		assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), bytesRange.next().getValue());
+		bytesRange.close();
+		bytesTable.close();
+	}
+
+	@Test
+	public void testRangeValuesDetached() {
+		ezdb.deleteTable("test-view-serde");
+		final FlyweightSerde<Quote> quoteSerde = new FlyweightSerde<Quote>(Quote::new);
+		final RangeTable<String, Long, Quote> table = ezdb.getRangeTable("test-view-serde", StringSerde.get,
+				LongSerde.get, quoteSerde);
+		for (int i = 1; i <= 3; i++) {
+			table.put("a", (long) i, quoteSerde.allocate(16).set(i, i + 0.5));
+		}
+		final TableIterator<Quote> values = table.rangeValues("a");
+		final Quote first = values.next();
+		assertEquals(2, values.next().getTime());
+		assertEquals(3, values.next().getTime());
+		assertFalse(values.hasNext());
+		values.close();
+		table.put("a", 1L, quoteSerde.allocate(16).set(9, 9.5));
+		// the value does not point into the backend after the scan moved on
+		assertEquals(1, first.getTime());
+		assertEquals(1.5, first.getPrice(), 0);
+		first.set(7, 7.5);
+		assertEquals(9.5, table.get("a", 1L).getPrice(), 0);
+
+		// views on the memory of the backend can not be written
+		final TableIterator<RangeTableRowView<String, Long, Quote>> range = table.rangeView("a");
+		final RangeTableRowView<String, Long, Quote> view = range.next();
+		try {
+			view.getValue().set(8, 8.5);
+			Assert.fail("Exception expected");
+		} catch (final ReadOnlyBufferException e) {
+			// expected
+		}
+		try {
+			view.getValue(quoteSerde, new Quote()).set(8, 8.5);
+			Assert.fail("Exception expected");
+		} catch (final ReadOnlyBufferException e) {
+			// expected
+		}
+		range.close();
+		assertEquals(9.5, table.get("a", 1L).getPrice(), 0);
+		table.close();
+	}
+
+	public static class Trade {
+		private String symbol;
+		private long time;
+		private double price;
+		private List<Object> tags;
+		private TimeUnit unit;
+
+		public Trade() {
+		}
+
+		public Trade(final String symbol, final long time, final double price, final List<Object> tags,
+				final TimeUnit unit) {
+			this.symbol = symbol;
+			this.time = time;
+			this.price = price;
+			this.tags = tags;
+			this.unit = unit;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Trade)) {
+				return false;
+			}
+			final Trade other = (Trade) obj;
+			return symbol.equals(other.symbol) && time == other.time && price == other.price
+					&& tags.equals(other.tags) && unit == other.unit;
+		}
+
+		@Override
+		public int hashCode() {
+			return symbol.hashCode();
+		}
+	}
+
+	@Test
+	public void testBinarySerde() {
+		ezdb.deleteTable("test-binary");
+		final BinarySerde<Object> serde = new BinarySerde<Object>(true).register(1, Trade.class).register(2,
+				TimeUnit.class);
+		final RangeTable<String, Long, Object> table = ezdb.getRangeTable("test-binary", StringSerde.get,
+				LongSerde.get, serde);
+		final Map<String, Object> map = new HashMap<String, Object>();
+		map.put("a", new int[] { 1 });
+		final Trade trade = new Trade("MSFT", 5L, 1.5,
+				new ArrayList<Object>(Arrays.asList("x", -1, null, 2.5f, new Date(3), map.keySet().iterator().next())),
+				TimeUnit.SECONDS);
+		table.put("a", 1L, trade);
+		table.put("a", 2L, "\u00e4");
+		table.put("a", 3L, new GregorianCalendar(2000, 1, 1));
+		table.put("a", 4L, null);
+
+		assertEquals(trade, table.get("a", 1L));
+		assertEquals("\u00e4", table.get("a", 2L));
+		// not registered, embedded with java serialization
+		assertEquals(new GregorianCalendar(2000, 1, 1), table.get("a", 3L));
+		final TableIterator<RangeTableRow<String, Long, Object>> range = table.range("a");
+		assertEquals(trade, range.next().getValue());
+		assertEquals("\u00e4", range.next().getValue());
+		range.next();
+		assertEquals(null, range.next().getValue());
+		assertTrue(!range.hasNext());
+		range.close();
+		table.close();
+
+		// values of the SerializingSerde can still be read
+		final byte[] legacy = SerializingSerde.get().toBytes(new GregorianCalendar(2000, 1, 1));
+		assertEquals(new GregorianCalendar(2000, 1, 1), serde.fromBytes(legacy));
+		try {
+			BinarySerde.get().fromBytes(legacy);
+			Assert.fail("Exception expected");
+		} catch (final DbException e) {
+			// expected
+		}
+	}
+
+	public static class Bar {
+		private long time;
+		private double open;
+		private double high;
+		private double low;
+		private double close;
+		private int volume;
+		private String symbol;
+		private double[] ticks;
+	}
+
+	@Test
+	public void testStructSerde() {
+		ezdb.deleteTable("test-struct");
+		final StructSerde<Bar> serde = StructSerde.of(Bar.class);
+		final RangeTable<String, Long, Bar> table = ezdb.getRangeTable("test-struct", StringSerde.get, LongSerde.get,
+				serde);
+		final Bar bar = new Bar();
+		bar.time = 5;
+		bar.open = 1.5;
+		bar.high = 2;
+		bar.low = 1;
+		bar.close = 1.75;
+		bar.volume = 100;
+		bar.symbol = "MSFT";
+		bar.ticks = new double[] { 1.5, 1.75 };
+		table.put("MSFT", 5L, bar);
+		bar.symbol = null;
+		table.put("MSFT", 6L, bar);
+
+		final Bar got = table.get("MSFT", 5L);
+		assertEquals(5, got.time);
+		assertEquals(1.75, got.close, 0);
+		assertEquals(100, got.volume);
+		assertEquals("MSFT", got.symbol);
+		assertTrue(Arrays.equals(new double[] { 1.5, 1.75 }, got.ticks));
+		assertEquals(null, table.get("MSFT", 6L).symbol);
+
+		// single fields are read without creating the bar
+		final StructField close = serde.field("close");
+		final StructField symbol = serde.field("symbol");
+		final TableIterator<RangeTableRowView<String, Long, Bar>> range = table.rangeView("MSFT");
+		RangeTableRowView<String, Long, Bar> view = range.next();
+		assertEquals(1.75, close.getDouble(view.getValueBuffer()), 0);
+		assertEquals("MSFT", symbol.get(view.getValueBuffer()));
+		view = range.next();
+		assertEquals(null, symbol.get(view.getValueBuffer()));
+		assertEquals(100, serde.field("volume").getInt(view.getValueBuffer()));
+		assertTrue(!range.hasNext());
+		range.close();
+		table.close();
+
+		// an explicit schema only stores the given fields
+		final StructSerde<Bar> closeSerde = StructSerde.of(Bar.class, "time", "close");
+		assertEquals(Long.BYTES + Double.BYTES, closeSerde.toBytes(bar).length);
+		final Bar closeOnly = closeSerde.fromBytes(closeSerde.toBytes(bar));
+		assertEquals(1.75, closeOnly.close, 0);
+		assertEquals(0, closeOnly.open, 0);
+	}
+
+	@Test
+	public void testCompressingSerde() {
+		ezdb.deleteTable("test-compressing");
+		ezdb.deleteTable("test-compressing-dictionaries");
+		ezdb.deleteTable("test-compressing-trained");
+		final CompressingSerde<String> serde = new CompressingSerde<String>(StringSerde.get, 16);
+		final RangeTable<String, Long, String> table = ezdb.getRangeTable("test-compressing", StringSerde.get,
+				LongSerde.get, serde);
+		final StringBuilder repeated = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			repeated.append("tick ").append(i % 3);
+		}
+		table.put("MSFT", 1L, "small");
+		table.put("MSFT", 2L, repeated.toString());
+		assertEquals("small", table.get("MSFT", 1L));
+		assertEquals(repeated.toString(), table.get("MSFT", 2L));
+		assertEquals("small".length() + 1, serde.toBytes("small").length);
+		assertTrue(serde.toBytes(repeated.toString()).length < repeated.length() / 4);
+		final TableIterator<RangeTableRow<String, Long, String>> range = table.range("MSFT");
+		assertEquals("small", range.next().getValue());
+		assertEquals(repeated.toString(), range.next().getValue());
+		range.close();
+
+		// a trained dictionary lets small values refer to bytes they share
+		final Table<Integer, byte[]> dictionaries = ezdb.getTable("test-compressing-dictionaries", IntegerSerde.get,
+				ByteSerde.get);
+		final CompressingSerde<String> trained = new CompressingSerde<String>(StringSerde.get, 16, dictionaries);
+		final List<String> samples = new ArrayList<String>();
+		for (int i = 0; i < 10; i++) {
+			samples.add("{\"symbol\":\"MSFT\",\"exchange\":\"NASDAQ\",\"currency\":\"USD\",\"price\":" + i + "}");
+		}
+		final String value = "{\"symbol\":\"MSFT\",\"exchange\":\"NASDAQ\",\"currency\":\"USD\",\"price\":42}";
+		final byte[] before = trained.toBytes(value);
+		assertEquals(0, trained.getDictionaryId());
+		assertEquals(1, trained.train(samples, 4096));
+		final byte[] after = trained.toBytes(value);
+		assertTrue(after.length < before.length / 2);
+		assertEquals(value, trained.fromBytes(before));
+		assertEquals(value, trained.fromBytes(after));
+		final RangeTable<String, Long, String> trainedTable = ezdb.getRangeTable("test-compressing-trained",
+				StringSerde.get, LongSerde.get, trained);
+		trainedTable.put("MSFT", 3L, value);
+		assertEquals(value, trainedTable.get("MSFT", 3L));
+		// the stored value refers to the dictionary by its id
+		final TableIterator<RangeTableRowView<String, Long, String>> view = trainedTable.rangeView("MSFT");
+		final ByteBuffer stored = view.next().getValueBuffer();
+		assertEquals(ByteBuffer.wrap(after), stored);
+		assertEquals(2, stored.get(stored.position()));
+		assertEquals(1, stored.get(stored.position() + 1));
+		view.close();
+
+		// the dictionary is found again in the side table
+		final CompressingSerde<String> reopened = new CompressingSerde<String>(StringSerde.get, 16, dictionaries);
+		assertEquals(1, reopened.getDictionaryId());
+		assertEquals(value, reopened.fromBytes(after));
+		table.close();
+		trainedTable.close();
+		dictionaries.close();
+	}
+
+	@Test
+	public void testChunkedSeriesTable() {
+		ezdb.deleteTable("test-chunked");
+		final RangeTable<String, Long, byte[]> chunks = ezdb.getRangeTable("test-chunked", StringSerde.get,
+				OrderedLongSerde.get, ByteSerde.get, BytewiseComparator.get, BytewiseComparator.get);
+		final ChunkedSeriesTable<String> table = new ChunkedSeriesTable<String>(chunks, 4);
+		final RangeBatch<String, Long, Double> batch = table.newRangeBatch();
+		for (int i = 0; i < 10; i++) {
+			batch.put("MSFT", 100L + i * 10, 1 + i * 0.25);
+		}
+		batch.flush();
+		table.put("GOOG", 100L, 5.5);
+
+		// ten points in chunks of four
+		final TableIterator<RangeTableRow<String, Long, byte[]>> chunkRange = chunks.range("MSFT");
+		assertEquals(100L, (long) chunkRange.next().getRangeKey());
+		assertEquals(140L, (long) chunkRange.next().getRangeKey());
+		assertEquals(180L, (long) chunkRange.next().getRangeKey());
+		assertTrue(!chunkRange.hasNext());
+		chunkRange.close();
+
+		assertEquals(1.5, table.get("MSFT", 120L), 0);
+		assertEquals(null, table.get("MSFT", 125L));
+		assertEquals(120L, (long) table.getPrev("MSFT", 125L).getRangeKey());
+		assertEquals(130L, (long) table.getNext("MSFT", 125L).getRangeKey());
+		assertEquals(140L, (long) table.getNext("MSFT", 135L).getRangeKey());
+		assertEquals(null, table.getPrev("MSFT", 50L));
+		assertEquals(100L, (long) table.getLatest("MSFT", 50L).getRangeKey());
+		assertEquals(190L, (long) table.getLatest("MSFT").getRangeKey());
+		assertEquals(3.25, table.getLatest("MSFT").getValue(), 0);
+		assertEquals(5.5, table.getLatest("GOOG").getValue(), 0);
+
+		final TableIterator<RangeTableRow<String, Long, Double>> range = table.range("MSFT", 115L, 165L);
+		for (long time = 120; time <= 160; time += 10) {
+			assertEquals(time, (long) range.next().getRangeKey());
+		}
+		assertTrue(!range.hasNext());
+		range.close();
+		final TableIterator<RangeTableRow<String, Long, Double>> reverse = table.rangeReverse("MSFT", 165L, 115L);
+		for (long time = 160; time >= 120; time -= 10) {
+			assertEquals(time, (long) reverse.next().getRangeKey());
+		}
+		assertTrue(!reverse.hasNext());
+		reverse.close();
+
+		// a point between two others lands in the chunk that covers it
+		table.put("MSFT", 125L, 9.0);
+		assertEquals(9.0, table.get("MSFT", 125L), 0);
+		assertEquals(125L, (long) table.getNext("MSFT", 121L).getRangeKey());
+		table.delete("MSFT", 130L);
+		assertEquals(null, table.get("MSFT", 130L));
+		table.deleteRange("MSFT", 100L, 110L);
+		assertEquals(120L, (long) table.getNext("MSFT", null).getRangeKey());
+		assertEquals(120L, (long) chunks.getNext("MSFT", null).getRangeKey());
+		assertEquals(5.5, table.get("GOOG", 100L), 0);
+		table.close();
+	}
+
 	@Test
 	public void testPutGetH() {
 		final Table<Integer, Integer> table = ezdb.getTable("test-simple", IntegerSerde.get, IntegerSerde.get);
@@ -345,6 +1251,83 @@ public class TestEzRocksDb {
 		table.close();
 	}
 
+	@Test
+	public void testOrderedKeyFormat() {
+		ezdb.deleteTable("test-ordered");
+		final RangeTable<String, Long, Integer> table = ezdb.getRangeTable("test-ordered", StringSerde.get,
+				OrderedLongSerde.get, IntegerSerde.get, BytewiseComparator.get, BytewiseComparator.get);
+
+		table.put("a", 5L, 1);
+		table.put("a", -5L, 2);
+		table.put("a", Long.MAX_VALUE, 3);
+		table.put("a", Long.MIN_VALUE, 4);
+		table.put("a", 0L, 5);
+		table.put("a", 6);
+		// hash keys that are prefixes of each other or contain zero bytes
+		table.put("a\u0000", 1L, 7);
+		table.put("ab", 1L, 8);
+		table.put("", 1L, 9);
+
+		assertEquals(new Integer(1), table.get("a", 5L));
+		assertEquals(new Integer(6), table.get("a"));
+		assertEquals(new Integer(7), table.get("a\u0000", 1L));
+		assertEquals(null, table.get("a", 1L));
+
+		TableIterator<RangeTableRow<String, Long, Integer>> it = table.range("a");
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", null, 6), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", Long.MIN_VALUE, 4), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", -5L, 2), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", 0L, 5), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", 5L, 1), it.next());
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a", Long.MAX_VALUE, 3), it.next());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		it = table.range("a", -5L, 5L);
+		assertEquals(new Integer(2), it.next().getValue());
+		assertEquals(new Integer(5), it.next().getValue());
+		assertEquals(new Integer(1), it.next().getValue());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		it = table.rangeReverse("a", 4L, Long.MIN_VALUE);
+		assertEquals(new Integer(5), it.next().getValue());
+		assertEquals(new Integer(2), it.next().getValue());
+		assertEquals(new Integer(4), it.next().getValue());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		it = table.range("a\u0000");
+		assertEquals(new RawRangeTableRow<String, Long, Integer>("a\u0000", 1L, 7), it.next());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		assertEquals(new Integer(3), table.getLatest("a").getValue());
+		assertEquals(new Integer(5), table.getLatest("a", 4L).getValue());
+		assertEquals(new Integer(1), table.getNext("a", 1L).getValue());
+		assertEquals(new Integer(2), table.getPrev("a", -1L).getValue());
+		assertEquals(new Integer(8), table.getLatest("ab").getValue());
+
+		it = table.range();
+		assertEquals("", it.next().getHashKey());
+		for (int i = 0; i < 6; i++) {
+			assertEquals("a", it.next().getHashKey());
+		}
+		assertEquals("a\u0000", it.next().getHashKey());
+		assertEquals("ab", it.next().getHashKey());
+		assertTrue(!it.hasNext());
+		it.close();
+
+		table.deleteRange("a", -5L, 5L);
+		it = table.range("a");
+		assertEquals(new Integer(6), it.next().getValue());
+		assertEquals(new Integer(4), it.next().getValue());
+		assertEquals(new Integer(3), it.next().getValue());
+		assertTrue(!it.hasNext());
+		it.close();
+		table.close();
+	}
+
 	@Before
 	public void before() {
 		FileUtils.deleteRecursively(ROOT);
@@ -364,6 +1347,11 @@ public class TestEzRocksDb {
 		return new EzRocksDbJniFactory();
 	}
 
+	@Override
+	protected Db<ByteBuffer> getDb() {
+		return ezdb;
+	}
+
 	@After
 	public void after() {
 		table.close();
@@ -371,7 +1359,34 @@ public class TestEzRocksDb {
 		ezdb.deleteTable("test-simple");
 		ezdb.deleteTable("test-range-strings");
 		ezdb.deleteTable("test-custom-range-comparator");
+		ezdb.deleteTable("test-ordered");
+		ezdb.deleteTable("test-compact");
+		ezdb.deleteTable("test-key-format");
+		ezdb.deleteTable("test-interning");
+		ezdb.deleteTable("test-view-serde");
+		ezdb.deleteTable("test-binary");
+		ezdb.deleteTable("test-struct");
+		ezdb.deleteTable("test-compressing");
+		ezdb.deleteTable("test-compressing-dictionaries");
+		ezdb.deleteTable("test-compressing-trained");
+		ezdb.deleteTable("test-chunked");
+		ezdb.deleteTable("test-multiget");
+		ezdb.deleteTable("test-multiget-simple");
+		ezdb.deleteTable("test-latest");
+		ezdb.deleteTable("test-latest-ordered");
+		ezdb.deleteTable("test-cursor");
+		ezdb.deleteTable("test-view");
+		ezdb.deleteTable("test-view-rows");
+		ezdb.deleteTable("test-instrumented");
+		ezdb.deleteTable("test-async");
+		ezdb.deleteTable("test-async-concurrent");
 		ezdb.deleteTable("test-table-does-not-exist");
+		ezdb.deleteTable("test-projection");
+		ezdb.deleteTable("test-delete-range");
+		ezdb.deleteTable("test-bulk-load");
+		ezdb.deleteTable("test-stream");
+		ezdb.deleteTable("test-long-double");
+		ezdb.deleteTable("test-long");
 		FileUtils.deleteRecursively(ROOT);
 		clearTable();
 	}
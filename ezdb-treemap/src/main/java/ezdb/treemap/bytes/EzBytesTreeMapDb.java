@@ -12,6 +12,8 @@ import ezdb.table.Table;
 import ezdb.table.range.RangeTable;
 import ezdb.treemap.bytes.table.BytesTreeMapTable;
 import ezdb.treemap.bytes.table.range.BytesTreeMapRangeTable;
+import ezdb.util.CompactKeyFormat;
+import ezdb.util.KeyFormat;
 
 public class EzBytesTreeMapDb implements Db<ByteBuffer> {
 	private final Map<String, Table<?, ?>> cache;
@@ -63,15 +65,33 @@ public class EzBytesTreeMapDb implements Db<ByteBuffer> {
 	public <H, R, V> RangeTable<H, R, V> getRangeTable(final String tableName, final Serde<H> hashKeySerde,
 			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
 			final Comparator<ByteBuffer> rangeKeyComparator) {
+		return getRangeTable(tableName, hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator,
+				null);
+	}
+
+	/**
+	 * Same as {@link #getRangeTable(String, Serde, Serde, Serde, Comparator, Comparator)}
+	 * with the given key format, e.g. the {@link CompactKeyFormat} to keep
+	 * smaller keys. The format is fixed once the table was created, opening it
+	 * with another one fails. Null chooses it by the comparators.
+	 */
+	@SuppressWarnings("unchecked")
+	public <H, R, V> RangeTable<H, R, V> getRangeTable(final String tableName, final Serde<H> hashKeySerde,
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
 		synchronized (cache) {
 			RangeTable<?, ?, ?> table = (RangeTable<?, ?, ?>) cache.get(tableName);
 
 			if (table == null) {
-				table = newRangeTable(hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator);
+				table = newRangeTable(hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator,
+						keyFormat);
 				cache.put(tableName, table);
 			} else if (!(table instanceof BytesTreeMapRangeTable)) {
 				throw new IllegalStateException("Expected " + BytesTreeMapRangeTable.class.getSimpleName() + " but got "
 						+ table.getClass().getSimpleName() + " for: " + tableName);
+			} else {
+				KeyFormat.checkSame(tableName, ((BytesTreeMapRangeTable<?, ?, ?>) table).getKeyFormat().getName(),
+						KeyFormat.valueOf(hashKeyComparator, rangeKeyComparator, keyFormat));
 			}
 
 			return (RangeTable<H, R, V>) table;
@@ -80,9 +100,9 @@ public class EzBytesTreeMapDb implements Db<ByteBuffer> {
 
 	private <H, R, V> BytesTreeMapRangeTable<H, R, V> newRangeTable(final Serde<H> hashKeySerde,
 			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
-			final Comparator<ByteBuffer> rangeKeyComparator) {
+			final Comparator<ByteBuffer> rangeKeyComparator, final KeyFormat keyFormat) {
 		return new BytesTreeMapRangeTable<H, R, V>(hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator,
-				rangeKeyComparator);
+				rangeKeyComparator, keyFormat);
 	}
 
 	private <H, V> BytesTreeMapTable<H, V> newTable(final Serde<H> hashKeySerde, final Serde<V> valueSerde,
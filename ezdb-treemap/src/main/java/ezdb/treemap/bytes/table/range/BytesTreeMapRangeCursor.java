@@ -0,0 +1,123 @@
+package ezdb.treemap.bytes.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+
+import ezdb.serde.Serde;
+import ezdb.table.RangeTableRow;
+import ezdb.table.range.RangeCursor;
+import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
+
+/**
+ * Navigates the map relative to the current entry, thus no iterator has to be
+ * kept open.
+ */
+public class BytesTreeMapRangeCursor<H, R, V> implements RangeCursor<H, R, V> {
+	private final NavigableMap<ByteBuffer, ByteBuffer> map;
+	private final Serde<H> hashKeySerde;
+	private final Serde<R> rangeKeySerde;
+	private final Serde<V> valueSerde;
+	private final Comparator<ByteBuffer> hashKeyComparator;
+	private final KeyFormat keyFormat;
+	/**
+	 * The key of the last seek, only its hash key is compared. Null means that
+	 * the cursor is not bound to a hash key.
+	 */
+	private ByteBuffer key;
+	private Entry<ByteBuffer, ByteBuffer> current;
+
+	public BytesTreeMapRangeCursor(final NavigableMap<ByteBuffer, ByteBuffer> map, final Serde<H> hashKeySerde,
+			final Serde<R> rangeKeySerde, final Serde<V> valueSerde, final Comparator<ByteBuffer> hashKeyComparator,
+			final KeyFormat keyFormat) {
+		this.map = map;
+		this.hashKeySerde = hashKeySerde;
+		this.rangeKeySerde = rangeKeySerde;
+		this.valueSerde = valueSerde;
+		this.hashKeyComparator = hashKeyComparator;
+		this.keyFormat = keyFormat;
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seek(final H hashKey, final R rangeKey) {
+		if (hashKey == null && rangeKey == null) {
+			key = null;
+			current = map.firstEntry();
+			return current();
+		}
+		key = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		current = map.ceilingEntry(key);
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey) {
+		return seekForPrev(hashKey, rangeKey, false);
+	}
+
+	/**
+	 * Looks up the last row of the hash key that is at or before the range key
+	 * with a single floorEntry. Without a range key, the end of the hash key is
+	 * used as the lookup key.
+	 * 
+	 * @param orNext
+	 *            if no such row exists, position on the first row after the range
+	 *            key instead, which is the fallback of getLatest
+	 */
+	public RangeTableRow<H, R, V> seekForPrev(final H hashKey, final R rangeKey, final boolean orNext) {
+		if (hashKey == null && rangeKey == null) {
+			key = null;
+			current = map.lastEntry();
+			return current();
+		}
+		if (rangeKey == null) {
+			key = keyFormat.combineBufferEnd(hashKeySerde, hashKey);
+		} else {
+			key = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		}
+		current = map.floorEntry(key);
+		final RangeTableRow<H, R, V> prev = current();
+		if (prev != null || !orNext) {
+			return prev;
+		}
+		current = map.higherEntry(key);
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> next() {
+		if (current == null) {
+			return null;
+		}
+		current = map.higherEntry(current.getKey());
+		return current();
+	}
+
+	@Override
+	public RangeTableRow<H, R, V> prev() {
+		if (current == null) {
+			return null;
+		}
+		current = map.lowerEntry(current.getKey());
+		return current();
+	}
+
+	private RangeTableRow<H, R, V> current() {
+		if (current == null) {
+			return null;
+		}
+		if (key != null && keyFormat.compareKeys(hashKeyComparator, null, key, current.getKey()) != 0) {
+			return null;
+		}
+		return RawRangeTableRow.valueOfBuffer(current.getKey(), current.getValue(), hashKeySerde, rangeKeySerde,
+				valueSerde, keyFormat);
+	}
+
+	@Override
+	public void close() {
+		current = null;
+	}
+
+}
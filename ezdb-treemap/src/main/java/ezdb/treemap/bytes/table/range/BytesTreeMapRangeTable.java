@@ -16,9 +16,12 @@ import ezdb.table.RangeTableRow;
 import ezdb.table.range.EmptyRangeTableIterator;
 import ezdb.table.range.RangeBatch;
 import ezdb.table.range.RangeTable;
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
 import ezdb.table.range.RawRangeTableRow;
+import ezdb.util.KeyFormat;
 import ezdb.util.TableIterator;
-import ezdb.util.Util;
+import ezdb.util.TransformingTableIterator;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 
@@ -30,18 +33,31 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	private final NavigableMap<ByteBuffer, ByteBuffer> map;
 	private final Comparator<ByteBuffer> hashKeyComparator;
 	private final Comparator<ByteBuffer> rangeKeyComparator;
+	private final KeyFormat keyFormat;
 
 	public BytesTreeMapRangeTable(final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
 			final Comparator<ByteBuffer> hashKeyComparator, final Comparator<ByteBuffer> rangeKeyComparator) {
+		this(hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator, rangeKeyComparator, null);
+	}
+
+	/**
+	 * @param keyFormat The format of the compound keys, null chooses it by the
+	 *                  comparators.
+	 */
+	public BytesTreeMapRangeTable(final Serde<H> hashKeySerde, final Serde<R> rangeKeySerde, final Serde<V> valueSerde,
+			final Comparator<ByteBuffer> hashKeyComparator, final Comparator<ByteBuffer> rangeKeyComparator,
+			final KeyFormat keyFormat) {
 		this.hashKeySerde = hashKeySerde;
 		this.rangeKeySerde = rangeKeySerde;
 		this.valueSerde = valueSerde;
 		this.hashKeyComparator = hashKeyComparator;
 		this.rangeKeyComparator = rangeKeyComparator;
+		final KeyFormat format = KeyFormat.valueOf(hashKeyComparator, rangeKeyComparator, keyFormat);
+		this.keyFormat = format;
 		final Comparator<ByteBuffer> comparator = new Comparator<ByteBuffer>() {
 			@Override
 			public int compare(final ByteBuffer k1, final ByteBuffer k2) {
-				return Util.compareKeys(hashKeyComparator, rangeKeyComparator, k1, k2);
+				return format.compareKeys(hashKeyComparator, rangeKeyComparator, k1, k2);
 			}
 		};
 		this.map = newMap(comparator);
@@ -63,7 +79,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public void put(final H hashKey, final R rangeKey, final V value) {
-		map.put(Util.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, rangeKey),
+		map.put(keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, rangeKey),
 				ByteBuffer.wrap(valueSerde.toBytes(value)));
 	}
 
@@ -71,7 +87,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	public V get(final H hashKey, final R rangeKey) {
 		final ByteBuf keyBuffer = ByteBufAllocator.DEFAULT.heapBuffer();
 		try {
-			Util.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+			keyFormat.combineBuf(keyBuffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
 			final ByteBuffer valueBytes = map.get(keyBuffer.nioBuffer());
 			if (valueBytes != null) {
 				valueBytes.clear();
@@ -99,7 +115,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 				RangeTableRow<H, R, V> row = null;
 
 				if (hasNext()) {
-					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde);
+					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 				}
 
 				if (iterator.hasNext()) {
@@ -137,7 +153,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range();
 		}
 		final ByteBuf keyBytesFrom = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, null);
+		keyFormat.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, null);
 		final ByteBuffer keyBytesFromBuffer = keyBytesFrom.nioBuffer();
 		final Iterator<Map.Entry<ByteBuffer, ByteBuffer>> iterator = map.tailMap(keyBytesFromBuffer, true).entrySet()
 				.iterator();
@@ -147,7 +163,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			@Override
 			public boolean hasNext() {
 				return next != null
-						&& Util.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) == 0;
+						&& keyFormat.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) == 0;
 			}
 
 			@Override
@@ -155,7 +171,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 				RangeTableRow<H, R, V> row = null;
 
 				if (hasNext()) {
-					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde);
+					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 				}
 
 				if (iterator.hasNext()) {
@@ -194,7 +210,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey);
 		}
 		final ByteBuf keyBytesFrom = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFromBuffer = keyBytesFrom.nioBuffer();
 		final Iterator<Map.Entry<ByteBuffer, ByteBuffer>> iterator = map.tailMap(keyBytesFromBuffer, true).entrySet()
 				.iterator();
@@ -204,7 +220,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			@Override
 			public boolean hasNext() {
 				return next != null
-						&& Util.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) == 0;
+						&& keyFormat.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) == 0;
 			}
 
 			@Override
@@ -212,7 +228,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 				RawRangeTableRow<H, R, V> row = null;
 
 				if (hasNext()) {
-					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde);
+					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 				}
 
 				if (iterator.hasNext()) {
@@ -251,13 +267,13 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return range(hashKey, fromRangeKey);
 		}
 		final ByteBuf keyBytesFrom = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFromBuffer = keyBytesFrom.nioBuffer();
 		final ByteBuf keyBytesTo = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesTo, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		keyFormat.combineBuf(keyBytesTo, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		final ByteBuffer keyBytesToBuffer = keyBytesTo.nioBuffer();
 		if (fromRangeKey != null
-				&& Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFromBuffer, keyBytesToBuffer) > 0) {
+				&& keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFromBuffer, keyBytesToBuffer) > 0) {
 			keyBytesFrom.release(keyBytesFrom.refCnt());
 			keyBytesTo.release(keyBytesTo.refCnt());
 			return EmptyRangeTableIterator.get();
@@ -269,7 +285,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 			@Override
 			public boolean hasNext() {
-				return next != null && Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesToBuffer,
+				return next != null && keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesToBuffer,
 						next.getKey()) >= 0;
 			}
 
@@ -278,7 +294,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 				RawRangeTableRow<H, R, V> row = null;
 
 				if (hasNext()) {
-					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde);
+					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 				}
 
 				if (iterator.hasNext()) {
@@ -320,7 +336,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	@Override
 	public void delete(final H hashKey, final R rangeKey) {
 		final ByteBuf buffer = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(buffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
+		keyFormat.combineBuf(buffer, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
 		try {
 			map.remove(buffer.nioBuffer());
 		} finally {
@@ -332,6 +348,13 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 	public void close() {
 	}
 
+	/**
+	 * @return the format of the compound keys, fixed when the table was created
+	 */
+	public KeyFormat getKeyFormat() {
+		return keyFormat;
+	}
+
 	@Override
 	public TableIterator<RangeTableRow<H, R, V>> rangeReverse() {
 		final Iterator<Map.Entry<ByteBuffer, ByteBuffer>> iterator = map.descendingMap().entrySet().iterator();
@@ -348,7 +371,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 				RangeTableRow<H, R, V> row = null;
 
 				if (hasNext()) {
-					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde);
+					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 				}
 
 				if (iterator.hasNext()) {
@@ -386,7 +409,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse();
 		}
 		final ByteBuf keyBytesFrom = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, null);
+		keyFormat.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, null);
 		final ByteBuffer keyBytesFromBuffer = keyBytesFrom.nioBuffer();
 		final Iterator<Map.Entry<ByteBuffer, ByteBuffer>> iterator = map.descendingMap()
 				.headMap(keyBytesFromBuffer, true).entrySet().iterator();
@@ -394,7 +417,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			Map.Entry<ByteBuffer, ByteBuffer> next = (iterator.hasNext()) ? iterator.next() : null;
 
 			{
-				while (next != null && Util.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) != 0
+				while (next != null && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) != 0
 						&& iterator.hasNext()) {
 					next = iterator.next();
 				}
@@ -403,7 +426,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			@Override
 			public boolean hasNext() {
 				return next != null
-						&& Util.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) == 0;
+						&& keyFormat.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) == 0;
 			}
 
 			@Override
@@ -411,7 +434,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 				RangeTableRow<H, R, V> row = null;
 
 				if (hasNext()) {
-					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde);
+					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 				}
 
 				if (iterator.hasNext()) {
@@ -450,7 +473,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse(hashKey);
 		}
 		final ByteBuf keyBytesFrom = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFromBuffer = keyBytesFrom.nioBuffer();
 		final Iterator<Map.Entry<ByteBuffer, ByteBuffer>> iterator = map.descendingMap()
 				.tailMap(keyBytesFromBuffer, true).entrySet().iterator();
@@ -458,7 +481,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			Map.Entry<ByteBuffer, ByteBuffer> next = (iterator.hasNext()) ? iterator.next() : null;
 
 			{
-				while (next != null && Util.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) != 0
+				while (next != null && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) != 0
 						&& iterator.hasNext()) {
 					next = iterator.next();
 				}
@@ -467,7 +490,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			@Override
 			public boolean hasNext() {
 				return next != null
-						&& Util.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) == 0;
+						&& keyFormat.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) == 0;
 			}
 
 			@Override
@@ -475,7 +498,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 				RawRangeTableRow<H, R, V> row = null;
 
 				if (hasNext()) {
-					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde);
+					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 				}
 
 				if (iterator.hasNext()) {
@@ -515,13 +538,13 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			return rangeReverse(hashKey, fromRangeKey);
 		}
 		final ByteBuf keyBytesFrom = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		keyFormat.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
 		final ByteBuffer keyBytesFromBuffer = keyBytesFrom.nioBuffer();
 		final ByteBuf keyBytesTo = ByteBufAllocator.DEFAULT.heapBuffer();
-		Util.combineBuf(keyBytesTo, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+		keyFormat.combineBuf(keyBytesTo, hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 		final ByteBuffer keyBytesToBuffer = keyBytesTo.nioBuffer();
 		if (fromRangeKey != null
-				&& Util.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFromBuffer, keyBytesToBuffer) < 0) {
+				&& keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFromBuffer, keyBytesToBuffer) < 0) {
 			keyBytesFrom.release(keyBytesFrom.refCnt());
 			keyBytesTo.release(keyBytesTo.refCnt());
 			return EmptyRangeTableIterator.get();
@@ -536,7 +559,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 			Map.Entry<ByteBuffer, ByteBuffer> next = (iterator.hasNext()) ? iterator.next() : null;
 
 			{
-				while (next != null && Util.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) != 0
+				while (next != null && keyFormat.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, next.getKey()) != 0
 						&& iterator.hasNext()) {
 					next = iterator.next();
 				}
@@ -544,7 +567,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 			@Override
 			public boolean hasNext() {
-				return next != null && Util.compareKeys(hashKeyComparator, rangeKeyComparator, next.getKey(),
+				return next != null && keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, next.getKey(),
 						keyBytesToBuffer) >= 0;
 			}
 
@@ -553,7 +576,7 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 				RawRangeTableRow<H, R, V> row = null;
 
 				if (hasNext()) {
-					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde);
+					row = RawRangeTableRow.valueOfBuffer(next, hashKeySerde, rangeKeySerde, valueSerde, keyFormat);
 				}
 
 				if (iterator.hasNext()) {
@@ -589,36 +612,13 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey) {
-		try (TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey)) {
-			if (rangeReverse.hasNext()) {
-				return rangeReverse.next();
-			} else {
-				return null;
-			}
-		}
+		return getLatest(hashKey, null);
 	}
 
 	@Override
 	public RangeTableRow<H, R, V> getLatest(final H hashKey, final R rangeKey) {
-		if (rangeKey == null) {
-			return getLatest(hashKey);
-		}
-		final ByteBuf keyBytesFrom = ByteBufAllocator.DEFAULT.heapBuffer();
-		try {
-			Util.combineBuf(keyBytesFrom, hashKeySerde, rangeKeySerde, hashKey, rangeKey);
-			final ByteBuffer keyBytesFromBuffer = keyBytesFrom.nioBuffer();
-			Entry<ByteBuffer, ByteBuffer> value = map.floorEntry(keyBytesFromBuffer);
-			if (value == null || Util.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, value.getKey()) != 0) {
-				value = map.ceilingEntry(keyBytesFromBuffer);
-			}
-			if (value == null || Util.compareKeys(hashKeyComparator, null, keyBytesFromBuffer, value.getKey()) != 0) {
-				return null;
-			} else {
-				return RawRangeTableRow.valueOfBuffer(value.getKey(), value.getValue(), hashKeySerde, rangeKeySerde,
-						valueSerde);
-			}
-		} finally {
-			keyBytesFrom.release(keyBytesFrom.refCnt());
+		try (BytesTreeMapRangeCursor<H, R, V> cursor = newRangeCursor()) {
+			return cursor.seekForPrev(hashKey, rangeKey, true);
 		}
 	}
 
@@ -634,16 +634,63 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public RangeTableRow<H, R, V> getPrev(final H hashKey, final R rangeKey) {
-		if (rangeKey == null) {
-			return getLatest(hashKey);
-		} else {
-			try (final TableIterator<RangeTableRow<H, R, V>> rangeReverse = rangeReverse(hashKey, rangeKey)) {
-				if (rangeReverse.hasNext()) {
-					return rangeReverse.next();
-				}
-				return null;
+		try (BytesTreeMapRangeCursor<H, R, V> cursor = newRangeCursor()) {
+			return cursor.seekForPrev(hashKey, rangeKey);
+		}
+	}
+
+	@Override
+	public BytesTreeMapRangeCursor<H, R, V> newRangeCursor() {
+		return new BytesTreeMapRangeCursor<H, R, V>(map, hashKeySerde, rangeKeySerde, valueSerde, hashKeyComparator,
+				keyFormat);
+	}
+
+	@Override
+	public Serde<H> getHashKeySerde() {
+		return hashKeySerde;
+	}
+
+	@Override
+	public Serde<R> getRangeKeySerde() {
+		return rangeKeySerde;
+	}
+
+	@Override
+	public Serde<V> getValueSerde() {
+		return valueSerde;
+	}
+
+	@Override
+	public TableIterator<RangeTableRowView<H, R, V>> rangeView(final H hashKey, final R fromRangeKey,
+			final R toRangeKey) {
+		return newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true);
+	}
+
+	@Override
+	public TableIterator<Entry<H, R>> rangeKeys(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, Entry<H, R>>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, false), RangeTableRowView::copyKey);
+	}
+
+	@Override
+	public TableIterator<V> rangeValues(final H hashKey, final R fromRangeKey, final R toRangeKey) {
+		return new TransformingTableIterator<RangeTableRowView<H, R, V>, V>(
+				newRangeViewIterator(hashKey, fromRangeKey, toRangeKey, true), RangeTableRowView::copyValue);
+	}
+
+	private RangeTableRowViewIterator<H, R, V> newRangeViewIterator(final H hashKey, final R fromRangeKey,
+			final R toRangeKey, final boolean fetchValues) {
+		ByteBuffer keyBytesFrom = null;
+		ByteBuffer keyBytesTo = null;
+		if (hashKey != null) {
+			keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+			if (toRangeKey != null) {
+				keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
 			}
 		}
+		return new BytesTreeMapRangeViewIterator<H, R, V>(map,
+				new RangeTableRowView<H, R, V>(hashKeySerde, rangeKeySerde, valueSerde, keyFormat), keyFormat,
+				hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
 	}
 
 	@Override
@@ -706,29 +753,29 @@ public class BytesTreeMapRangeTable<H, R, V> implements RangeTable<H, R, V> {
 
 	@Override
 	public void deleteRange(final H hashKey) {
-		try (TableIterator<RangeTableRow<H, R, V>> range = range(hashKey)) {
-			while (range.hasNext()) {
-				range.remove();
-			}
-		}
+		deleteRange(hashKey, null, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey) {
-		try (TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey)) {
-			while (range.hasNext()) {
-				range.remove();
-			}
-		}
+		deleteRange(hashKey, fromRangeKey, null);
 	}
 
 	@Override
 	public void deleteRange(final H hashKey, final R fromRangeKey, final R toRangeKey) {
-		try (TableIterator<RangeTableRow<H, R, V>> range = range(hashKey, fromRangeKey, toRangeKey)) {
-			while (range.hasNext()) {
-				range.remove();
+		final ByteBuffer keyBytesFrom = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, fromRangeKey);
+		final ByteBuffer keyBytesTo;
+		if (toRangeKey == null) {
+			keyBytesTo = keyFormat.combineBufferEnd(hashKeySerde, hashKey);
+		} else {
+			keyBytesTo = keyFormat.combineBuffer(hashKeySerde, rangeKeySerde, hashKey, toRangeKey);
+			if (keyFormat.compareKeys(hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo) > 0) {
+				return;
 			}
 		}
+		// the end marker sorts after every range key of the hash key, thus it is
+		// excluded while an explicit range key end is inclusive
+		map.subMap(keyBytesFrom, true, keyBytesTo, toRangeKey != null).clear();
 	}
 
 }
@@ -0,0 +1,67 @@
+package ezdb.treemap.bytes.table.range;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+
+import ezdb.table.range.RangeTableRowView;
+import ezdb.table.range.RangeTableRowViewIterator;
+import ezdb.util.KeyFormat;
+
+/**
+ * Scans the map into a single row view. The view gets duplicates of the stored
+ * buffers, so that decoding does not move the positions of the map entries.
+ */
+public class BytesTreeMapRangeViewIterator<H, R, V> extends RangeTableRowViewIterator<H, R, V> {
+	private final NavigableMap<ByteBuffer, ByteBuffer> map;
+	private final ByteBuffer keyBytesFrom;
+	private Iterator<Entry<ByteBuffer, ByteBuffer>> iterator;
+	private Entry<ByteBuffer, ByteBuffer> entry;
+
+	public BytesTreeMapRangeViewIterator(final NavigableMap<ByteBuffer, ByteBuffer> map,
+			final RangeTableRowView<H, R, V> view, final KeyFormat keyFormat,
+			final Comparator<ByteBuffer> hashKeyComparator, final Comparator<ByteBuffer> rangeKeyComparator,
+			final ByteBuffer keyBytesFrom, final ByteBuffer keyBytesTo, final boolean fetchValues) {
+		super(view, keyFormat, hashKeyComparator, rangeKeyComparator, keyBytesFrom, keyBytesTo, fetchValues);
+		this.map = map;
+		this.keyBytesFrom = keyBytesFrom;
+	}
+
+	@Override
+	protected boolean first() {
+		if (keyBytesFrom == null) {
+			iterator = map.entrySet().iterator();
+		} else {
+			iterator = map.tailMap(keyBytesFrom, true).entrySet().iterator();
+		}
+		return advance();
+	}
+
+	@Override
+	protected boolean advance() {
+		if (!iterator.hasNext()) {
+			return false;
+		}
+		entry = iterator.next();
+		return true;
+	}
+
+	@Override
+	protected ByteBuffer currentKey() {
+		return entry.getKey().duplicate();
+	}
+
+	@Override
+	protected ByteBuffer currentValue() {
+		return entry.getValue().duplicate();
+	}
+
+	@Override
+	protected void release() {
+		iterator = null;
+		entry = null;
+	}
+
+}